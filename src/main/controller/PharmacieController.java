@@ -1,14 +1,27 @@
 package main.controller;
 
 import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.Lot;
 import main.model.Medicament.Medicament;
 import main.model.Medicament.TypeAchat;
 import main.model.Organisme.TypeOrganisme.Mutuelle;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Personne.CategoriePersonne.Medecin;
 import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.Montant;
 import main.model.Transaction.TypeTransaction.Achat;
+import main.model.service.BilanVentes;
+import main.model.service.EcouteurPeremption;
+import main.model.service.EcouteurVentes;
 import main.model.service.GestPharmacieService;
+import main.model.service.InventaireMedicaments;
+import main.model.service.MouvementStock;
+import main.model.service.Page;
+import main.model.service.PeriodeStandard;
+import main.model.service.ReservationStock;
+import main.model.service.ResultatVente;
+import main.model.service.StatutStock;
+import main.model.service.VenteGroupee;
 
 import java.util.*;
 
@@ -18,7 +31,7 @@ import java.util.*;
  */
 public class PharmacieController {
     private final GestPharmacieService service;
-    private final Map<String, Medicament> inventaire;
+    private final InventaireMedicaments inventaire;
     private List<Client> clients;
 
 
@@ -26,9 +39,10 @@ public class PharmacieController {
 
     public PharmacieController() {
         this.service = new GestPharmacieService();
-        this.inventaire = new HashMap<>();
+        this.inventaire = service.getInventaire();
         this.clients = new ArrayList<>();
         initialiserDonneesDemo();
+        service.demarrerSurveillancePeremptions();
     }
 
     // =================== GESTION DES CLIENTS ===================
@@ -135,10 +149,17 @@ public Collection<Client> getTousClients() {
 }
 
 /**
- * Retourne toutes les mutuelles connues.
+ * Page de clients triés par identifiant, après le curseur d'une page précédente ({@code null} : début).
+ */
+public Page<Client> getPageClients(String apres, int limite) {
+    return service.getPageClients(apres, limite);
+}
+
+/**
+ * Retourne toutes les mutuelles connues (vue non modifiable, sans copie).
  */
 public Collection<Mutuelle> getToutesMutuelles() {
-    return service.getToutesMutuelles();
+    return service.vueMutuelles();
 }
 
 /**
@@ -260,10 +281,17 @@ public Optional<Medecin> rechercherMedecin(String identifiant) {
 }
 
 /**
- * Retourne tous les médecins.
+ * Retourne tous les médecins (vue non modifiable, sans copie).
  */
 public Collection<Medecin> getTousMedecins() {
-    return service.getTousMedecins();
+    return service.vueMedecins();
+}
+
+/**
+ * Page de médecins triés par numéro RPPS.
+ */
+public Page<Medecin> getPageMedecins(String apres, int limite) {
+    return service.getPageMedecins(apres, limite);
 }
 
 /**
@@ -348,28 +376,31 @@ public java.util.List<Achat> getAchatsParMedecin(Medecin medecin) {
  * Calcule le nombre total d'unités en stock (tous médicaments confondus).
  */
 public int getNombreMedicamentsEnStock() {
-    int total = 0;
-    for (Medicament medicament : inventaire.values()) {
-        total += medicament.getQuantiteStock();
-    }
-    return total;
+    return inventaire.getStockTotal();
 }
 
 /**
- * Retourne une vue de l'inventaire courant.
+ * Retourne une vue de l'inventaire courant (non modifiable, triée par nom, sans copie).
  */
 public Collection<Medicament> getInventaire() {
-    return new ArrayList<>(inventaire.values());
+    return inventaire.vue();
+}
+
+/**
+ * Page de l'inventaire triée par nom, après le curseur d'une page précédente.
+ */
+public Page<Medicament> getPageInventaire(String apres, int limite) {
+    return inventaire.getPage(apres, limite);
 }
 
 /**
- * Ajoute un médicament à l'inventaire (clé: nom en minuscules).
+ * Ajoute un médicament à l'inventaire partagé du service (clé: nom en minuscules).
  *
  * @return message d'issue opérationnelle
  */
 public String ajouterMedicament(Medicament medicament) {
     try {
-        inventaire.put(medicament.getNom().toLowerCase(), medicament);
+        inventaire.ajouter(medicament);
         return "Médicament ajouté avec succès";
     } catch (Exception e) {
         return "Erreur : " + e.getMessage();
@@ -380,11 +411,12 @@ public String ajouterMedicament(Medicament medicament) {
  * Recherche un médicament par nom (insensible à la casse).
  */
 public Optional<Medicament> rechercherMedicament(String nom) {
-    return Optional.ofNullable(inventaire.get(nom.toLowerCase()));
+    return inventaire.rechercher(nom);
 }
 
 /**
  * Modifie la quantité en stock d'un médicament.
+ * L'écart est conservé dans le registre des mouvements (réassort ou correction).
  *
  * @param nom nom du médicament
  * @param nouvelleQuantite quantité cible
@@ -392,22 +424,87 @@ public Optional<Medicament> rechercherMedicament(String nom) {
  */
 public String modifierStockMedicament(String nom, int nouvelleQuantite) {
     try {
-        Medicament medicament = inventaire.get(nom.toLowerCase());
-        if (medicament == null) {
+        if (!inventaire.modifierStock(nom, nouvelleQuantite)) {
             return "Médicament non trouvé";
         }
-        medicament.setQuantiteStock(nouvelleQuantite);
         return "Stock mis à jour avec succès";
     } catch (Exception e) {
         return "Erreur : " + e.getMessage();
     }
 }
 
+/**
+ * Statut d'affichage d'un médicament (rupture, stock bas, périmé, expire bientôt), lu dans les index de l'inventaire.
+ *
+ * @param maintenant instant de référence, commun à toute une table
+ */
+public StatutStock getStatutStock(Medicament medicament, long maintenant) {
+    return inventaire.getStatut(medicament, maintenant);
+}
+
+/**
+ * Médicaments périmés ou expirant dans les 30 jours, du plus proche au plus lointain.
+ */
+public List<Medicament> getMedicamentsExpirantBientot() {
+    return inventaire.getExpirantAvant(System.currentTimeMillis() + InventaireMedicaments.DELAI_EXPIRATION_PROCHE_MS);
+}
+
+/**
+ * Abonne un écouteur aux passages « expire bientôt » et « périmé » détectés par la surveillance des péremptions.
+ */
+public void ajouterEcouteurPeremption(EcouteurPeremption ecouteur) {
+    service.getSurveillancePeremptions().ajouterEcouteur(ecouteur);
+}
+
+/**
+ * Abonne un écouteur aux achats enregistrés (ventes directes, sur ordonnance ou groupées).
+ */
+public void ajouterEcouteurVentes(EcouteurVentes ecouteur) {
+    service.ajouterEcouteurVentes(ecouteur);
+}
+
+/**
+ * Réceptionne un lot numéroté d'un médicament existant.
+ *
+ * @return message d'issue opérationnelle
+ */
+public String receptionnerLot(String nom, String numeroLot, int quantite, Date datePeremption) {
+    try {
+        if (!inventaire.receptionnerLot(nom, numeroLot, quantite, datePeremption)) {
+            return "Médicament non trouvé";
+        }
+        return "Lot réceptionné avec succès";
+    } catch (Exception e) {
+        return "Erreur : " + e.getMessage();
+    }
+}
+
+/**
+ * Lots en stock d'un médicament, du premier au dernier à périmer.
+ */
+public List<Lot> getLots(String nom) {
+    return inventaire.getLots(nom);
+}
+
+/**
+ * Achats ayant prélevé un lot (rappel de lot).
+ */
+public List<Achat> getAchatsParLot(String nomMedicament, String numeroLot) {
+    return service.getAchatsParLot(nomMedicament, numeroLot);
+}
+
+/**
+ * Historique des mouvements de stock d'un médicament (ventes, annulations, réassorts, corrections).
+ */
+public List<MouvementStock> getMouvementsStock(String nom) {
+    return inventaire.getMouvements(nom);
+}
+
     // =================== GESTION DES VENTES ===================
 
 /**
  * Effectue une vente directe (sans ordonnance) pour un client.
- * Vérifie le stock, met à jour les quantités et enregistre l'achat.
+ * Réserve le stock de toutes les lignes en une fois, enregistre l'achat puis confirme la réservation.
  * Si le client a une mutuelle, applique le taux de remboursement.
  *
  * @param identifiantClient identifiant du client
@@ -426,36 +523,35 @@ public String effectuerVenteDirecte(String identifiantClient, Map<String, Intege
         Map<Medicament, Integer> quantites = new HashMap<>();
 
         // Vérifier disponibilité et préparer la vente
+        long maintenant = System.currentTimeMillis();
         for (Map.Entry<String, Integer> entry : medicamentsQuantites.entrySet()) {
             String nomMed = entry.getKey();
             int quantiteDemandee = entry.getValue();
 
-            Medicament medicament = inventaire.get(nomMed.toLowerCase());
+            Medicament medicament = inventaire.rechercher(nomMed).orElse(null);
             if (medicament == null) {
                 return "Médicament non trouvé : " + nomMed;
             }
-
-            if (!medicament.isDisponible(quantiteDemandee)) {
-                return "Stock insuffisant pour " + nomMed +
-                        " (demandé: " + quantiteDemandee + ", disponible: " + medicament.getQuantiteStock() + ")";
+            if (inventaire.estPerime(medicament, maintenant)) {
+                return "Médicament périmé : " + nomMed;
             }
 
             medicaments.add(medicament);
             quantites.put(medicament, quantiteDemandee);
         }
 
-        // Effectuer la vente
-        for (Map.Entry<Medicament, Integer> entry : quantites.entrySet()) {
-            entry.getKey().reduireStock(entry.getValue());
+        // Réserver tout le panier (tout ou rien), puis enregistrer l'achat ;
+        // la réservation est restituée si l'enregistrement échoue
+        Achat achat;
+        try (ReservationStock reservation = inventaire.reserver(quantites)) {
+            achat = new Achat(new Date(), client, pharmacienConnecte,
+                    "ACH" + System.currentTimeMillis(),
+                    TypeAchat.DIRECT, medicaments, quantites);
+            achat.setLots(reservation.getLots());
+            service.enregistrerAchat(achat);
+            reservation.confirmer();
         }
 
-        // Enregistrer l'achat
-        Achat achat = new Achat(new Date(), client, pharmacienConnecte,
-                "ACH" + System.currentTimeMillis(),
-                TypeAchat.DIRECT, medicaments, quantites);
-
-        service.enregistrerAchat(achat);
-
         double montantTotal = achat.getMontantTotal();
         double tauxMutuelle = 0.0;
         double montantRembourse = 0.0;
@@ -463,7 +559,7 @@ public String effectuerVenteDirecte(String identifiantClient, Map<String, Intege
             tauxMutuelle = client.getMutuelle().getTauxRemboursement();
             montantRembourse = achat.getMontantRembourse();
         }
-        double resteAPayer = montantTotal - montantRembourse;
+        double resteAPayer = Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes());
 
         return String.format(
                 "Vente effectuée avec succès\n" +
@@ -478,14 +574,28 @@ public String effectuerVenteDirecte(String identifiantClient, Map<String, Intege
                 resteAPayer
         );
 
+    } catch (Medicament.StockInsuffisantException e) {
+        return e.getMessage();
     } catch (Exception e) {
         return "Erreur : " + e.getMessage();
     }
 }
 
+/**
+ * Passe un lot de ventes directes (commandes d'EHPAD ou d'hôpital) au nom du pharmacien connecté :
+ * réservation du stock de tout le lot puis une seule écriture des ventes.
+ *
+ * @param ventes paniers construits par {@link VenteGroupee#builder()}
+ * @return un résultat structuré par panier, dans l'ordre du lot
+ */
+public List<ResultatVente> effectuerVentesGroupees(VenteGroupee ventes) {
+    return service.effectuerVentesGroupees(ventes, pharmacienConnecte);
+}
+
 /**
  * Effectue une vente sur ordonnance.
- * Valide la présence du client et du médecin, vérifie péremption des médicaments et met à jour les stocks.
+ * Valide la présence du client et du médecin, vérifie péremption des médicaments et réserve
+ * le stock de tout le panier avant d'enregistrer ordonnance et achat.
  * Si le client a une mutuelle, applique le taux de remboursement.
  *
  * @param identifiantClient identifiant du client
@@ -509,45 +619,41 @@ public String effectuerVenteOrdonnance(String identifiantClient, String identifi
         Map<Medicament, Integer> quantites = new HashMap<>();
 
         // Logique similaire à la vente directe mais avec ordonnance
+        long maintenant = System.currentTimeMillis();
         for (Map.Entry<String, Integer> entry : medicamentsQuantites.entrySet()) {
             String nomMed = entry.getKey();
             int quantiteDemandee = entry.getValue();
 
-            Medicament medicament = inventaire.get(nomMed.toLowerCase());
+            Medicament medicament = inventaire.rechercher(nomMed).orElse(null);
             if (medicament == null) {
                 return "Médicament non trouvé : " + nomMed;
             }
 
-            // Vérification de péremption
-            if (new Date().after(medicament.getDatePeremption())) {
+            // Vérification de péremption (indicateur de la surveillance et date)
+            if (inventaire.estPerime(medicament, maintenant)) {
                 return "Médicament périmé : " + nomMed;
             }
 
-            if (!medicament.isDisponible(quantiteDemandee)) {
-                return "Stock insuffisant pour " + nomMed;
-            }
-
             medicaments.add(medicament);
             quantites.put(medicament, quantiteDemandee);
         }
 
-        // Réduire les stocks
-        for (Map.Entry<Medicament, Integer> entry : quantites.entrySet()) {
-            entry.getKey().reduireStock(entry.getValue());
-        }
-
-        // Créer l'ordonnance
         String refOrdonnance = "ORD" + System.currentTimeMillis();
+        String refAchat = "ACH" + System.currentTimeMillis();
+        Achat achat;
         Ordonnance ordonnance = new Ordonnance(new Date(), medecin, client,
                 medicaments, quantites, refOrdonnance);
-        service.enregistrerOrdonnance(ordonnance);
-
-        // Créer l'achat
-        String refAchat = "ACH" + System.currentTimeMillis();
-        Achat achat = new Achat(new Date(), client, pharmacienConnecte,
-                refAchat,
-                TypeAchat.ORDONNANCE, medicaments, quantites);
-        service.enregistrerAchat(achat);
+        // Réserver tout le panier puis enregistrer ordonnance et achat en un seul appel, avant de confirmer :
+        // un refus n'enregistre ni l'un ni l'autre et restitue le stock
+        try (ReservationStock reservation = inventaire.reserver(quantites)) {
+            achat = new Achat(new Date(), client, pharmacienConnecte,
+                    refAchat,
+                    TypeAchat.ORDONNANCE, medicaments, quantites);
+            achat.setReferenceOrdonnance(refOrdonnance);
+            achat.setLots(reservation.getLots());
+            service.enregistrerVenteOrdonnance(ordonnance, achat);
+            reservation.confirmer();
+        }
 
         // Détails pour retour utilisateur
         double montantTotal = achat.getMontantTotal();
@@ -557,7 +663,7 @@ public String effectuerVenteOrdonnance(String identifiantClient, String identifi
             tauxMutuelle = client.getMutuelle().getTauxRemboursement();
             montantRembourse = achat.getMontantRembourse();
         }
-        double resteAPayer = montantTotal - montantRembourse;
+        double resteAPayer = Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes());
 
         return String.format(
                 "Vente sur ordonnance effectuée avec succès\n" +
@@ -574,6 +680,8 @@ public String effectuerVenteOrdonnance(String identifiantClient, String identifi
                 resteAPayer
         );
 
+    } catch (Medicament.StockInsuffisantException e) {
+        return e.getMessage();
     } catch (Exception e) {
         return "Erreur : " + e.getMessage();
     }
@@ -590,31 +698,67 @@ public String effectuerVenteOrdonnance(String identifiantClient, String identifi
  * @return map de valeurs numériques avec clés documentées
  */
 public Map<String, Object> obtenirStatistiques(Date debut, Date fin) {
-    Map<String, Object> stats = new HashMap<>();
-
     try {
-        double chiffreAffaires = service.calculerChiffreAffaires(debut, fin);
-        double montantRembourse = service.calculerMontantRembourse(debut, fin);
-        int nombreVentes = service.getNombreVentesParPeriode(debut, fin);
-
-        int stockTotal = inventaire.values().stream()
-                .mapToInt(Medicament::getQuantiteStock)
-                .sum();
-
-        long ruptureStock = inventaire.values().stream()
-                .filter(med -> med.getQuantiteStock() == 0)
-                .count();
+        BilanVentes bilan = service.agregerVentes(debut, fin);
+        return construireStatistiques(bilan);
+    } catch (Exception e) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("erreur", e.getMessage());
+        return stats;
+    }
+}
 
-        stats.put("chiffreAffaires", chiffreAffaires);
-        stats.put("montantRembourse", montantRembourse);
-        stats.put("nombreVentes", nombreVentes);
-        stats.put("stockTotal", stockTotal);
-        stats.put("ruptureStock", ruptureStock);
-        stats.put("beneficeNet", chiffreAffaires - montantRembourse);
+/**
+ * Agrège des statistiques métier sur une période standard se terminant maintenant.
+ * Les montants proviennent des compteurs matérialisés du service (aucune relecture des ventes).
+ *
+ * @param periode jour, mois, année ou 30 derniers jours
+ * @return map de valeurs numériques, mêmes clés que {@link #obtenirStatistiques(Date, Date)}
+ */
+public Map<String, Object> obtenirStatistiques(PeriodeStandard periode) {
+    return obtenirStatistiques(Collections.singletonList(periode)).get(periode);
+}
 
+/**
+ * Statistiques de plusieurs périodes standard en un seul appel au service
+ * (une seule lecture de l'historique si les compteurs ne sont pas disponibles).
+ *
+ * @return statistiques par période, mêmes clés que {@link #obtenirStatistiques(Date, Date)}
+ */
+public Map<PeriodeStandard, Map<String, Object>> obtenirStatistiques(List<PeriodeStandard> periodes) {
+    Map<PeriodeStandard, Map<String, Object>> resultat = new EnumMap<>(PeriodeStandard.class);
+    try {
+        List<BilanVentes> bilans = service.getBilansVentes(periodes);
+        for (int i = 0; i < periodes.size(); i++) {
+            resultat.put(periodes.get(i), construireStatistiques(bilans.get(i)));
+        }
     } catch (Exception e) {
-        stats.put("erreur", e.getMessage());
+        for (PeriodeStandard periode : periodes) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("erreur", e.getMessage());
+            resultat.put(periode, stats);
+        }
     }
+    return resultat;
+}
+
+private Map<String, Object> construireStatistiques(BilanVentes bilan) {
+    Map<String, Object> stats = new HashMap<>();
+    double chiffreAffaires = bilan.getChiffreAffaires();
+    double montantRembourse = bilan.getMontantRembourse();
+    int nombreVentes = (int) bilan.getNombreVentes();
+
+    int stockTotal = inventaire.getStockTotal();
+    long ruptureStock = inventaire.getNombreRuptures();
+    long stockBas = inventaire.getNombreStocksBas();
+
+    stats.put("chiffreAffaires", chiffreAffaires);
+    stats.put("montantRembourse", montantRembourse);
+    stats.put("nombreVentes", nombreVentes);
+    stats.put("stockTotal", stockTotal);
+    stats.put("ruptureStock", ruptureStock);
+    stats.put("stockBas", stockBas);
+    stats.put("beneficeNet", Montant.enEuros(bilan.getMontantTotalCentimes() - bilan.getMontantRembourseCentimes()));
 
     return stats;
 }
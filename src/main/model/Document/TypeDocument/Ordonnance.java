@@ -1,19 +1,21 @@
 package main.model.Document.TypeDocument;
 
 import main.model.Document.Document;
+import main.model.Medicament.LignesMedicaments;
 import main.model.Medicament.Medicament;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Transaction.Montant;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 public class Ordonnance extends Document {
-    private List<Medicament> medicaments;
-    private Map<Medicament, Integer> quantites;
+    // Lignes prescrites en tableaux primitifs (SKU, quantité, prix unitaire relevé à la prescription)
+    private LignesMedicaments lignes;
     private String reference;
-    private double montantTotal;
+    private long montantTotalCentimes;
     private Client patient;
     private Medecin medecin;
 
@@ -22,10 +24,21 @@ public class Ordonnance extends Document {
         super(dateCreation, medecin.getNom(), patient.getNom());
         this.medecin = medecin;
         this.patient = patient;
-        this.medicaments = medicaments;
-        this.quantites = quantites;
+        this.lignes = LignesMedicaments.depuis(medicaments, quantites);
         this.reference = reference;
-        this.montantTotal = calculerMontantTotal();
+        this.montantTotalCentimes = calculerMontantTotalCentimes();
+    }
+
+    /**
+     * Reconstitue une ordonnance enregistrée à partir de ses lignes relevées.
+     */
+    public Ordonnance(Date dateCreation, Medecin medecin, Client patient, LignesMedicaments lignes, String reference) {
+        super(dateCreation, medecin.getNom(), patient.getNom());
+        this.medecin = medecin;
+        this.patient = patient;
+        this.lignes = lignes;
+        this.reference = reference;
+        this.montantTotalCentimes = calculerMontantTotalCentimes();
     }
 
     public Client getPatient() {
@@ -35,49 +48,70 @@ public class Ordonnance extends Document {
         return medecin;
     }
 
+    /**
+     * Médicaments prescrits (copie, fiches courantes du catalogue).
+     */
     public List<Medicament> getMedicaments() {
-        return medicaments;
+        return lignes.medicaments();
     }
+    /**
+     * Quantités prescrites par médicament (copie, fiches courantes du catalogue).
+     */
     public Map<Medicament, Integer> getQuantites() {
-        return quantites;
+        return lignes.quantites();
+    }
+    public LignesMedicaments getLignes() {
+        return lignes;
     }
     public String getReference() {
         return reference;
     }
     public double getMontantTotal() {
-        return montantTotal;
+        return Montant.enEuros(montantTotalCentimes);
+    }
+    public long getMontantTotalCentimes() {
+        return montantTotalCentimes;
     }
+    /**
+     * Les médicaments déjà prescrits gardent le prix relevé à l'ajout de leur ligne.
+     */
     public void setMedicaments(List<Medicament> medicaments) {
-        this.medicaments = medicaments;
+        this.lignes = lignes.recomposer(medicaments, lignes.quantites(), 0.0);
+        montantTotalCentimes = calculerMontantTotalCentimes();
     }
     public void setQuantites(Map<Medicament, Integer> quantites) {
-        this.quantites = quantites;
+        this.lignes = lignes.recomposer(lignes.medicaments(), quantites, 0.0);
+        montantTotalCentimes = calculerMontantTotalCentimes();
+    }
+    /**
+     * Fige les lignes et le montant : appelé à l'enregistrement de l'ordonnance.
+     */
+    public void figer() {
+        lignes.figer();
     }
     public void setReference(String reference) {
         this.reference = reference;
     }
     public void setMontantTotal(double montantTotal) {
-        this.montantTotal = montantTotal;
+        this.montantTotalCentimes = Montant.depuisEuros(montantTotal);
     }
 
     public void ajouterMedicament(Medicament medicament, int quantite) {
-        medicaments.add(medicament);
-        quantites.put(medicament, quantite);
-        montantTotal = calculerMontantTotal();
+        lignes.ajouter(medicament, quantite);
+        montantTotalCentimes = calculerMontantTotalCentimes();
     }
 
     public void retirerMedicament(Medicament medicament) {
-        medicaments.remove(medicament);
-        quantites.remove(medicament);
-        montantTotal = calculerMontantTotal();
+        lignes.retirer(medicament);
+        montantTotalCentimes = calculerMontantTotalCentimes();
     }
 
     public double calculerMontantTotal() {
-        double total = 0;
-        for (Map.Entry<Medicament, Integer> entry : quantites.entrySet()) {
-            total += entry.getKey().getPrix() * entry.getValue();
-        }
-        return total;
+        return Montant.enEuros(calculerMontantTotalCentimes());
+    }
+
+    public long calculerMontantTotalCentimes() {
+        return lignes.montantTotalCentimes();
     }
 
     public String getNomMedecin() {
@@ -97,10 +131,9 @@ public class Ordonnance extends Document {
     public String toString() {
         return "Ordonnance{" +
                 super.toString().replace("Document", "") +
-                ", medicaments=" + medicaments +
-                ", quantites=" + quantites +
+                ", lignes=" + lignes +
                 ", reference='" + reference + '\'' +
-                ", montantTotal=" + montantTotal +
+                ", montantTotal=" + Montant.formater(montantTotalCentimes) +
                 '}';
     }
 }
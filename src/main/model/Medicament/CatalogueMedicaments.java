@@ -0,0 +1,149 @@
+package main.model.Medicament;
+
+import main.model.security.SecurityValidator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalogue interné des médicaments : chaque nom (insensible à la casse) reçoit un identifiant
+ * entier dense, le SKU, attribué une fois pour toutes dans ce catalogue. Les lignes de vente ne retiennent
+ * que ce SKU et leur catalogue. Chaque inventaire tient le sien ({@link #inscrire(Medicament)} : le nouvel
+ * objet d'un nom déjà connu devient la fiche courante) ; des lignes composées de médicaments hors inventaire
+ * en créent un à leur usage.
+ * Lecture par SKU sans verrou : tableau agrandi par doublement, publié avec le nombre de SKU attribués.
+ */
+public final class CatalogueMedicaments {
+
+    /**
+     * Catalogue propriétaire d'un médicament et SKU qu'il lui a attribué (lus ensemble).
+     */
+    static final class Inscription {
+        final CatalogueMedicaments catalogue;
+        final int sku;
+
+        Inscription(CatalogueMedicaments catalogue, int sku) {
+            this.catalogue = catalogue;
+            this.sku = sku;
+        }
+    }
+
+    private final Map<String, Integer> skuParNom = new ConcurrentHashMap<>();
+    private volatile Medicament[] fiches = new Medicament[16];
+    // Écrit après la fiche : un SKU inférieur est toujours lisible dans le tableau courant
+    private volatile int taille;
+
+    /**
+     * SKU d'un médicament dans ce catalogue, attribué à la première rencontre de son nom.
+     * Un nom déjà connu garde sa fiche courante ; un médicament encore sans catalogue est rattaché à celui-ci.
+     */
+    public int interner(Medicament medicament) {
+        SecurityValidator.validateNotNull(medicament, "Médicament");
+        Inscription inscription = medicament.getInscription();
+        if (inscription != null && inscription.catalogue == this) {
+            return inscription.sku;
+        }
+        synchronized (this) {
+            Integer connu = skuParNom.get(medicament.getNom().toLowerCase());
+            int sku = connu != null ? connu : attribuer(medicament);
+            if (medicament.getInscription() == null) {
+                medicament.setInscription(new Inscription(this, sku));
+            }
+            return sku;
+        }
+    }
+
+    /**
+     * Rattache un médicament à ce catalogue et en fait la fiche courante de son nom
+     * (référencement dans un inventaire, remplacement d'une fiche).
+     */
+    public int inscrire(Medicament medicament) {
+        SecurityValidator.validateNotNull(medicament, "Médicament");
+        synchronized (this) {
+            Integer connu = skuParNom.get(medicament.getNom().toLowerCase());
+            int sku;
+            if (connu == null) {
+                sku = attribuer(medicament);
+            } else {
+                sku = connu;
+                fiches[sku] = medicament;
+                // Republie le tableau : la fiche remplacée est visible des lecteurs sans verrou
+                fiches = fiches;
+            }
+            medicament.setInscription(new Inscription(this, sku));
+            return sku;
+        }
+    }
+
+    /**
+     * SKU d'un médicament s'il est connu de ce catalogue (par inscription ou par nom), sans rien attribuer.
+     *
+     * @return le SKU, ou -1
+     */
+    public int chercher(Medicament medicament) {
+        if (medicament == null) {
+            return -1;
+        }
+        Inscription inscription = medicament.getInscription();
+        if (inscription != null && inscription.catalogue == this) {
+            return inscription.sku;
+        }
+        Integer connu = skuParNom.get(medicament.getNom().toLowerCase());
+        return connu != null ? connu : -1;
+    }
+
+    /**
+     * Nouveau SKU en fin de tableau (doublé s'il est plein : attribuer n SKU coûte O(n)) ; sous le verrou.
+     */
+    private int attribuer(Medicament medicament) {
+        int sku = taille;
+        Medicament[] courant = fiches;
+        if (sku == courant.length) {
+            courant = Arrays.copyOf(courant, courant.length * 2);
+        }
+        courant[sku] = medicament;
+        fiches = courant;
+        skuParNom.put(medicament.getNom().toLowerCase(), sku);
+        taille = sku + 1;
+        return sku;
+    }
+
+    /**
+     * Reporte le changement de nom de la fiche courante d'un SKU (appelé par {@link Medicament#setNom(String)}).
+     *
+     * @throws IllegalArgumentException si le nouveau nom désigne déjà un autre SKU
+     */
+    synchronized void renommer(Medicament medicament, int sku, String ancienNom, String nouveauNom) {
+        if (fiches[sku] != medicament) {
+            // Fiche remplacée depuis : le nom du SKU est celui de la fiche courante
+            return;
+        }
+        String ancien = ancienNom.toLowerCase();
+        String nouveau = nouveauNom.toLowerCase();
+        Integer autre = skuParNom.get(nouveau);
+        if (autre != null && autre != sku) {
+            throw new IllegalArgumentException("Nom déjà attribué à un autre médicament du catalogue : " + nouveauNom);
+        }
+        skuParNom.remove(ancien, sku);
+        skuParNom.put(nouveau, sku);
+    }
+
+    /**
+     * Fiche courante d'un SKU.
+     *
+     * @throws IllegalArgumentException si le SKU n'a jamais été attribué
+     */
+    public Medicament get(int sku) {
+        int n = taille;
+        Medicament[] courant = fiches;
+        if (sku < 0 || sku >= n) {
+            throw new IllegalArgumentException("SKU inconnu : " + sku);
+        }
+        return courant[sku];
+    }
+
+    public int taille() {
+        return taille;
+    }
+}
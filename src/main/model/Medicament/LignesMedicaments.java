@@ -0,0 +1,355 @@
+package main.model.Medicament;
+
+import main.model.Transaction.Montant;
+import main.model.security.SecurityValidator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lignes d'un panier ou d'une ordonnance en tableaux primitifs parallèles : SKU du catalogue,
+ * quantité, prix unitaire en centimes et taux de remboursement relevés à l'ajout de la ligne.
+ * Les SKU sont ceux du catalogue du premier médicament ajouté (celui de son inventaire),
+ * ou d'un catalogue propre aux lignes si ce médicament n'est dans aucun.
+ * Une ligne par SKU, retrouvée par une table de hachage d'entiers ; les totaux sont tenus à jour
+ * par différence à chaque ajout ou retrait de ligne (construire n lignes coûte O(n)), sans relire
+ * les fiches médicament : un changement de prix ultérieur ne modifie pas une vente passée.
+ * Une fois la vente enregistrée, {@link #figer()} rend les lignes définitivement immuables.
+ */
+public final class LignesMedicaments {
+
+    private CatalogueMedicaments catalogue;
+    private int[] skus;
+    private int[] quantites;
+    private long[] prixUnitairesCentimes;
+    // Taux de remboursement en centièmes de pour cent (7000 = 70 %)
+    private int[] tauxCentiemes;
+    private int taille;
+    // Adressage ouvert SKU → ligne + 1 (0 = case vide), au moins deux fois plus de cases que de lignes
+    private int[] index;
+    private long totalCentimes;
+    // Somme des montants de ligne × taux, en centimes × centièmes de pour cent
+    private long produitsRembourses;
+    private volatile boolean figees;
+
+    public LignesMedicaments() {
+        this(4);
+    }
+
+    private LignesMedicaments(int capacite) {
+        skus = new int[capacite];
+        quantites = new int[capacite];
+        prixUnitairesCentimes = new long[capacite];
+        tauxCentiemes = new int[capacite];
+        index = new int[Integer.highestOneBit(capacite * 2 - 1) << 1];
+    }
+
+    /**
+     * Construit les lignes à partir de l'ancienne représentation liste + quantités :
+     * une ligne par médicament ayant une quantité, dans l'ordre de la liste puis de la map.
+     */
+    public static LignesMedicaments depuis(List<Medicament> medicaments, Map<Medicament, Integer> quantites) {
+        return depuis(medicaments, quantites, 0.0);
+    }
+
+    /**
+     * Comme {@link #depuis(List, Map)}, chaque ligne relevant le taux de remboursement {@code tauxPourcent}.
+     */
+    public static LignesMedicaments depuis(List<Medicament> medicaments, Map<Medicament, Integer> quantites,
+                                           double tauxPourcent) {
+        return composer(medicaments, quantites, tauxPourcent, null);
+    }
+
+    /**
+     * Nouvelles lignes pour d'autres médicaments ou quantités : les médicaments déjà présents gardent
+     * le prix et le taux relevés ici, seuls les nouveaux relèvent le prix courant et {@code tauxPourcent}.
+     *
+     * @throws IllegalStateException si les lignes sont figées
+     */
+    public LignesMedicaments recomposer(List<Medicament> medicaments, Map<Medicament, Integer> quantites,
+                                        double tauxPourcent) {
+        verifierModifiables();
+        return composer(medicaments, quantites, tauxPourcent, this);
+    }
+
+    /**
+     * Reconstitue des lignes figées à partir de valeurs relevées (vente relue hors du tas), sans relire les prix.
+     *
+     * @param catalogue catalogue des {@code skus}
+     */
+    public static LignesMedicaments restaurer(CatalogueMedicaments catalogue, int[] skus, int[] quantites,
+                                              long[] prixUnitairesCentimes, int[] tauxCentiemes) {
+        LignesMedicaments lignes = new LignesMedicaments(Math.max(4, skus.length));
+        lignes.catalogue = SecurityValidator.validateNotNull(catalogue, "Catalogue");
+        for (int i = 0; i < skus.length; i++) {
+            lignes.placer(skus[i], quantites[i], prixUnitairesCentimes[i], tauxCentiemes[i]);
+        }
+        lignes.figer();
+        return lignes;
+    }
+
+    private static LignesMedicaments composer(List<Medicament> medicaments, Map<Medicament, Integer> quantites,
+                                              double tauxPourcent, LignesMedicaments reference) {
+        Map<Medicament, Integer> q = quantites == null ? Map.of() : quantites;
+        LignesMedicaments lignes = new LignesMedicaments(Math.max(4, q.size()));
+        // Les SKU repris de la référence n'ont de sens que dans son catalogue
+        lignes.catalogue = reference == null ? null : reference.catalogue;
+        if (medicaments != null) {
+            for (Medicament medicament : medicaments) {
+                Integer quantite = q.get(medicament);
+                if (quantite != null) {
+                    lignes.reprendre(medicament, quantite, tauxPourcent, reference);
+                }
+            }
+        }
+        for (Map.Entry<Medicament, Integer> entree : q.entrySet()) {
+            if (lignes.indexDe(lignes.sku(entree.getKey())) < 0) {
+                lignes.reprendre(entree.getKey(), entree.getValue(), tauxPourcent, reference);
+            }
+        }
+        return lignes;
+    }
+
+    private void reprendre(Medicament medicament, int quantite, double tauxPourcent, LignesMedicaments reference) {
+        int j = reference == null || reference.catalogue == null ? -1
+                : reference.indexDe(reference.catalogue.chercher(medicament));
+        if (j < 0) {
+            ajouter(medicament, quantite, tauxPourcent);
+        } else {
+            placer(reference.skus[j], quantite, reference.prixUnitairesCentimes[j], reference.tauxCentiemes[j]);
+        }
+    }
+
+    /**
+     * SKU d'un médicament dans le catalogue des lignes (choisi au premier médicament).
+     */
+    private int sku(Medicament medicament) {
+        if (catalogue == null) {
+            CatalogueMedicaments sien = medicament.getCatalogue();
+            catalogue = sien != null ? sien : new CatalogueMedicaments();
+        }
+        return catalogue.interner(medicament);
+    }
+
+    private int indexDe(int sku) {
+        if (sku < 0) {
+            return -1;
+        }
+        int masque = index.length - 1;
+        for (int c = caseDe(sku, masque); index[c] != 0; c = (c + 1) & masque) {
+            if (skus[index[c] - 1] == sku) {
+                return index[c] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int caseDe(int sku, int masque) {
+        int h = sku * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & masque;
+    }
+
+    private void indexer(int ligne) {
+        int masque = index.length - 1;
+        int c = caseDe(skus[ligne], masque);
+        while (index[c] != 0) {
+            c = (c + 1) & masque;
+        }
+        index[c] = ligne + 1;
+    }
+
+    private void reindexer(int capaciteIndex) {
+        index = new int[capaciteIndex];
+        for (int i = 0; i < taille; i++) {
+            indexer(i);
+        }
+    }
+
+    /**
+     * Ajoute une ligne sans remboursement, ou remplace quantité et prix si le médicament figure déjà dans les lignes.
+     */
+    public void ajouter(Medicament medicament, int quantite) {
+        ajouter(medicament, quantite, 0.0);
+    }
+
+    /**
+     * Ajoute une ligne en relevant le prix courant du médicament et le taux {@code tauxPourcent} (ex. 70.0).
+     *
+     * @throws IllegalStateException si les lignes sont figées
+     */
+    public void ajouter(Medicament medicament, int quantite, double tauxPourcent) {
+        SecurityValidator.validateNotNull(medicament, "Médicament");
+        if (tauxPourcent < 0 || tauxPourcent > 100) {
+            throw new IllegalArgumentException("Taux de remboursement invalide : " + tauxPourcent);
+        }
+        verifierModifiables();
+        placer(sku(medicament), quantite, medicament.getPrixCentimes(),
+                (int) Math.round(tauxPourcent * 100.0));
+    }
+
+    private void placer(int sku, int quantite, long prixCentimes, int taux) {
+        long montant = Montant.fois(prixCentimes, quantite);
+        long produit = Math.multiplyExact(montant, (long) taux);
+        int i = indexDe(sku);
+        if (i < 0) {
+            // Totaux calculés avant toute écriture : un dépassement laisse les lignes intactes
+            long total = Math.addExact(totalCentimes, montant);
+            long produits = Math.addExact(produitsRembourses, produit);
+            if (taille == skus.length) {
+                int capacite = Math.max(4, taille * 2);
+                skus = Arrays.copyOf(skus, capacite);
+                quantites = Arrays.copyOf(quantites, capacite);
+                prixUnitairesCentimes = Arrays.copyOf(prixUnitairesCentimes, capacite);
+                tauxCentiemes = Arrays.copyOf(tauxCentiemes, capacite);
+            }
+            i = taille++;
+            skus[i] = sku;
+            if (taille * 2 > index.length) {
+                reindexer(index.length * 2);
+            } else {
+                indexer(i);
+            }
+            totalCentimes = total;
+            produitsRembourses = produits;
+        } else {
+            long ancien = Montant.fois(prixUnitairesCentimes[i], quantites[i]);
+            totalCentimes = Math.addExact(totalCentimes - ancien, montant);
+            produitsRembourses = Math.addExact(produitsRembourses - ancien * tauxCentiemes[i], produit);
+        }
+        quantites[i] = quantite;
+        prixUnitairesCentimes[i] = prixCentimes;
+        tauxCentiemes[i] = taux;
+    }
+
+    /**
+     * @return false si le médicament ne figure pas dans les lignes
+     * @throws IllegalStateException si les lignes sont figées
+     */
+    public boolean retirer(Medicament medicament) {
+        verifierModifiables();
+        if (catalogue == null) {
+            return false;
+        }
+        int i = indexDe(catalogue.chercher(medicament));
+        if (i < 0) {
+            return false;
+        }
+        long montant = Montant.fois(prixUnitairesCentimes[i], quantites[i]);
+        totalCentimes -= montant;
+        produitsRembourses -= montant * tauxCentiemes[i];
+        int suivants = taille - i - 1;
+        System.arraycopy(skus, i + 1, skus, i, suivants);
+        System.arraycopy(quantites, i + 1, quantites, i, suivants);
+        System.arraycopy(prixUnitairesCentimes, i + 1, prixUnitairesCentimes, i, suivants);
+        System.arraycopy(tauxCentiemes, i + 1, tauxCentiemes, i, suivants);
+        taille--;
+        // Les lignes suivantes ont été décalées : retrait en O(n), comme le décalage lui-même
+        reindexer(index.length);
+        return true;
+    }
+
+    /**
+     * Rend les lignes immuables (vente enregistrée) ; sans effet si elles le sont déjà.
+     */
+    public void figer() {
+        figees = true;
+    }
+
+    public boolean estFigees() {
+        return figees;
+    }
+
+    private void verifierModifiables() {
+        if (figees) {
+            throw new IllegalStateException("Lignes figées : la vente est déjà enregistrée");
+        }
+    }
+
+    public int taille() {
+        return taille;
+    }
+    public int getSku(int ligne) {
+        return skus[verifierLigne(ligne)];
+    }
+    public int getQuantite(int ligne) {
+        return quantites[verifierLigne(ligne)];
+    }
+    public long getPrixUnitaireCentimes(int ligne) {
+        return prixUnitairesCentimes[verifierLigne(ligne)];
+    }
+    /**
+     * Taux de remboursement relevé pour la ligne, en pourcentage.
+     */
+    public double getTauxRemboursement(int ligne) {
+        return tauxCentiemes[verifierLigne(ligne)] / 100.0;
+    }
+    /**
+     * Taux de remboursement relevé pour la ligne, en centièmes de pour cent (7000 = 70 %).
+     */
+    public int getTauxCentiemes(int ligne) {
+        return tauxCentiemes[verifierLigne(ligne)];
+    }
+    public Medicament getMedicament(int ligne) {
+        return catalogue.get(skus[verifierLigne(ligne)]);
+    }
+
+    private int verifierLigne(int ligne) {
+        if (ligne < 0 || ligne >= taille) {
+            throw new IndexOutOfBoundsException("Ligne " + ligne + " hors de [0, " + taille + ")");
+        }
+        return ligne;
+    }
+
+    /**
+     * Somme des lignes (prix unitaire × quantité), en centimes ; O(1).
+     */
+    public long montantTotalCentimes() {
+        return totalCentimes;
+    }
+
+    /**
+     * Part remboursée des lignes, en centimes : somme exacte des produits (montant × taux) arrondie
+     * une seule fois au centime, comme {@link Montant#appliquerTaux(long, double)} sur un taux unique ; O(1).
+     */
+    public long montantRembourseCentimes() {
+        return Math.floorDiv(produitsRembourses + 5_000, 10_000);
+    }
+
+    /**
+     * Fiches des médicaments des lignes (copie, dans l'ordre des lignes).
+     */
+    public List<Medicament> medicaments() {
+        List<Medicament> medicaments = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            medicaments.add(catalogue.get(skus[i]));
+        }
+        return medicaments;
+    }
+
+    /**
+     * Quantités par fiche médicament (copie, dans l'ordre des lignes).
+     */
+    public Map<Medicament, Integer> quantites() {
+        Map<Medicament, Integer> resultat = new LinkedHashMap<>();
+        for (int i = 0; i < taille; i++) {
+            resultat.put(catalogue.get(skus[i]), quantites[i]);
+        }
+        return resultat;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < taille; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(catalogue.get(skus[i]).getNom()).append(" x").append(quantites[i])
+                    .append(" à ").append(Montant.formater(prixUnitairesCentimes[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
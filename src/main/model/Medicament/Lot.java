@@ -0,0 +1,50 @@
+package main.model.Medicament;
+
+import main.model.security.SecurityValidator;
+
+import java.util.Date;
+
+/**
+ * Quantité d'un lot de fabrication d'un médicament : état d'un lot en stock,
+ * ou prélèvement sur ce lot enregistré par un achat (rappels de lots, mises au rebut).
+ */
+public final class Lot {
+
+    private final String nomMedicament;
+    private final String numero;
+    private final long datePeremption;
+    private final int quantite;
+
+    public Lot(String nomMedicament, String numero, long datePeremption, int quantite) {
+        this.nomMedicament = SecurityValidator.validateNotNull(nomMedicament, "Médicament");
+        this.numero = SecurityValidator.validateNotNull(numero, "Numéro de lot");
+        this.datePeremption = datePeremption;
+        this.quantite = quantite;
+    }
+
+    public String getNomMedicament() {
+        return nomMedicament;
+    }
+    public String getNumero() {
+        return numero;
+    }
+    public long getInstantPeremption() {
+        return datePeremption;
+    }
+    public Date getDatePeremption() {
+        return new Date(datePeremption);
+    }
+    public int getQuantite() {
+        return quantite;
+    }
+
+    @Override
+    public String toString() {
+        return "Lot{" +
+                "medicament='" + nomMedicament + '\'' +
+                ", numero='" + numero + '\'' +
+                ", datePeremption=" + new Date(datePeremption) +
+                ", quantite=" + quantite +
+                '}';
+    }
+}
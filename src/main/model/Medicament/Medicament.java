@@ -1,5 +1,6 @@
 package main.model.Medicament;
 
+import main.model.Transaction.Montant;
 import main.model.security.SecurityValidator;
 
 import java.util.Date;
@@ -8,10 +9,13 @@ public class Medicament {
 
     private String nom;
     private CategorieMedicament categorie;
-    private double prix;
-    private int quantiteStock;
+    private long prixCentimes;
+    // Lu sans verrou ; les mouvements d'un médicament inventorié sont sérialisés par son registre
+    private volatile int quantiteStock;
     private Date dateMiseEnService;
     private Date datePeremption;
+    // Catalogue propriétaire et SKU qu'il a attribué (null tant que le médicament n'est dans aucun)
+    private volatile CatalogueMedicaments.Inscription inscription;
 
     public static class StockInsuffisantException extends RuntimeException {
         public StockInsuffisantException(String message) {
@@ -22,7 +26,7 @@ public class Medicament {
     public Medicament(String nom, CategorieMedicament categorie, double prix, int quantiteStock,Date dateMiseEnService, Date datePeremption) {
         this.nom = SecurityValidator.validateMedicamentName(nom);
         this.categorie = SecurityValidator.validateNotNull(categorie, "Catégorie");
-        this.prix = SecurityValidator.validatePrix(prix);
+        this.prixCentimes = Montant.depuisEuros(SecurityValidator.validatePrix(prix));
         this.quantiteStock = SecurityValidator.validateStock(quantiteStock);
         this.dateMiseEnService = SecurityValidator.validateDate(dateMiseEnService, "Date de mise en service");
         this.datePeremption = SecurityValidator.validateFutureDate(datePeremption, "Date de péremption");
@@ -30,6 +34,26 @@ public class Medicament {
                 "Date de mise en service", "Date de péremption");
     }
 
+    /**
+     * Identifiant entier du médicament dans son {@link CatalogueMedicaments} (-1 avant interning).
+     */
+    public int getSku() {
+        CatalogueMedicaments.Inscription i = inscription;
+        return i == null ? -1 : i.sku;
+    }
+    /**
+     * Catalogue auquel le médicament est rattaché (celui de son inventaire), ou null.
+     */
+    public CatalogueMedicaments getCatalogue() {
+        CatalogueMedicaments.Inscription i = inscription;
+        return i == null ? null : i.catalogue;
+    }
+    CatalogueMedicaments.Inscription getInscription() {
+        return inscription;
+    }
+    void setInscription(CatalogueMedicaments.Inscription inscription) {
+        this.inscription = inscription;
+    }
     public String getNom() {
         return nom;
     }
@@ -37,7 +61,10 @@ public class Medicament {
         return categorie;
     }
     public double getPrix() {
-        return prix;
+        return Montant.enEuros(prixCentimes);
+    }
+    public long getPrixCentimes() {
+        return prixCentimes;
     }
     public int getQuantiteStock() {
         return quantiteStock;
@@ -48,14 +75,30 @@ public class Medicament {
     public Date getDatePeremption() {
         return new Date(datePeremption.getTime());
     }
+    /**
+     * Date de péremption en millisecondes, sans copie défensive.
+     */
+    public long getInstantPeremption() {
+        return datePeremption.getTime();
+    }
+    /**
+     * Renomme le médicament et son entrée dans son catalogue.
+     *
+     * @throws IllegalArgumentException si le nom désigne déjà un autre médicament du catalogue
+     */
     public void setNom(String nom) {
-        this.nom = nom;
+        String valide = SecurityValidator.validateMedicamentName(nom);
+        CatalogueMedicaments.Inscription i = inscription;
+        if (i != null) {
+            i.catalogue.renommer(this, i.sku, this.nom, valide);
+        }
+        this.nom = valide;
     }
     public void setCategorie(CategorieMedicament categorie) {
         this.categorie = categorie;
     }
     public void setPrix(double prix) {
-        this.prix = SecurityValidator.validatePrix(prix);
+        this.prixCentimes = Montant.depuisEuros(SecurityValidator.validatePrix(prix));
     }
     public void setQuantiteStock(int nouvelleQuantite) {
         int quantiteValidee = SecurityValidator.validateStock(nouvelleQuantite);
@@ -65,14 +108,47 @@ public class Medicament {
         this.datePeremption = datePeremption;
     }
 
+    /**
+     * Les opérations de stock ci-dessous ne sont pas atomiques à elles seules :
+     * {@code InventaireMedicaments} les appelle sous le verrou du registre du médicament.
+     */
     public void reduireStock(int quantite) throws StockInsuffisantException {
-        SecurityValidator.validateStockOperation(this.quantiteStock, quantite, "REDUCTION");
+        SecurityValidator.validateStockOperation(quantiteStock, quantite, "REDUCTION");
         quantiteStock -= quantite;
     }
 
-    public void augmenterStock(int quantite) {
-        SecurityValidator.validateStockOperation(this.quantiteStock, quantite, "ADDITION");
-        quantiteStock += quantite;
+    /**
+     * Variante sans exception de {@link #reduireStock(int)}.
+     *
+     * @return stock restant après le retrait, ou -1 si le stock est insuffisant (rien n'est retiré)
+     */
+    public int retirerSiDisponible(int quantite) {
+        SecurityValidator.validateQuantite(quantite);
+        int actuel = quantiteStock;
+        if (actuel < quantite) {
+            return -1;
+        }
+        quantiteStock = actuel - quantite;
+        return actuel - quantite;
+    }
+
+    /**
+     * @return stock après l'ajout
+     */
+    public int augmenterStock(int quantite) {
+        int actuel = quantiteStock;
+        SecurityValidator.validateStockOperation(actuel, quantite, "ADDITION");
+        quantiteStock = actuel + quantite;
+        return actuel + quantite;
+    }
+
+    /**
+     * Remplace le stock (inventaire physique) et retourne l'ancienne valeur.
+     */
+    public int remplacerStock(int nouvelleQuantite) {
+        int ancien = quantiteStock;
+        quantiteStock = SecurityValidator.validateStock(nouvelleQuantite);
+        return ancien;
     }
 
     public boolean isDisponible(int quantite) {
@@ -85,7 +161,7 @@ public class Medicament {
         return "Medicament{" +
                 "nom='" + nom + '\'' +
                 ", categorie=" + categorie +
-                ", prix=" + prix +
+                ", prix=" + Montant.formater(prixCentimes) +
                 ", quantiteStock=" + quantiteStock +
                 ", dateMiseEnService=" + dateMiseEnService +
                 ", datePeremption=" + datePeremption +
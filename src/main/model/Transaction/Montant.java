@@ -0,0 +1,49 @@
+package main.model.Transaction;
+
+/**
+ * Arithmétique monétaire en virgule fixe : les montants sont des {@code long} exprimés en centimes.
+ * Toutes les opérations sont primitives (aucune allocation) ; les euros en {@code double}
+ * ne servent qu'aux saisies et à l'affichage.
+ */
+public final class Montant {
+
+    private Montant() {
+    }
+
+    /**
+     * Convertit un montant en euros vers des centimes (arrondi au centime le plus proche).
+     */
+    public static long depuisEuros(double euros) {
+        return Math.round(euros * 100.0);
+    }
+
+    public static double enEuros(long centimes) {
+        return centimes / 100.0;
+    }
+
+    /**
+     * Prix unitaire multiplié par une quantité ; lève ArithmeticException en cas de dépassement.
+     */
+    public static long fois(long centimes, int quantite) {
+        return Math.multiplyExact(centimes, (long) quantite);
+    }
+
+    /**
+     * Part d'un montant pour un taux en pourcentage (ex. 70.0), arrondie au centime (demi vers le haut).
+     * Le taux est ramené en centièmes de pour cent pour rester en arithmétique entière.
+     */
+    public static long appliquerTaux(long centimes, double tauxPourcent) {
+        long tauxCentiemes = Math.round(tauxPourcent * 100.0);
+        long produit = Math.multiplyExact(centimes, tauxCentiemes);
+        return Math.floorDiv(produit + 5_000, 10_000);
+    }
+
+    /**
+     * Représentation décimale à deux chiffres ({@code 59.90}, {@code -0.05}), sans symbole monétaire.
+     */
+    public static String formater(long centimes) {
+        long abs = Math.abs(centimes);
+        long decimales = abs % 100;
+        return (centimes < 0 ? "-" : "") + abs / 100 + (decimales < 10 ? ".0" : ".") + decimales;
+    }
+}
@@ -10,14 +10,14 @@ public abstract class Transaction {
     protected Client client;
     protected Pharmacien pharmacien;
     protected String reference;
-    protected double montantTotal;
+    protected long montantTotalCentimes;
 
     public Transaction(Date dateTransaction,Client client, Pharmacien pharmacien, String reference) {
         this.dateTransaction = dateTransaction;
         this.client = client;
         this.pharmacien = pharmacien;
         this.reference = reference;
-        this.montantTotal = 0;
+        this.montantTotalCentimes = 0;
     }
 
     public Date getDateTransaction() {
@@ -37,7 +37,11 @@ public abstract class Transaction {
     }
 
     public double getMontantTotal() {
-        return montantTotal;
+        return Montant.enEuros(montantTotalCentimes);
+    }
+
+    public long getMontantTotalCentimes() {
+        return montantTotalCentimes;
     }
 
     public void setDateTransaction(Date dateTransaction) {
@@ -57,7 +61,11 @@ public abstract class Transaction {
     }
 
     public void setMontantTotal(double montantTotal) {
-        this.montantTotal = montantTotal;
+        this.montantTotalCentimes = Montant.depuisEuros(montantTotal);
+    }
+
+    public void setMontantTotalCentimes(long montantTotalCentimes) {
+        this.montantTotalCentimes = montantTotalCentimes;
     }
 
     public abstract void calculerMontantTotal();
@@ -69,7 +77,7 @@ public abstract class Transaction {
                 ", client=" + client.getNom() +
                 ", pharmacien=" + pharmacien.getNom() +
                 ", reference='" + reference + '\'' +
-                ", montantTotal=" + montantTotal +
+                ", montantTotal=" + Montant.formater(montantTotalCentimes) +
                 '}';
     }
 }
@@ -1,12 +1,17 @@
 package main.model.Transaction.TypeTransaction;
 
+import main.model.Medicament.LignesMedicaments;
+import main.model.Medicament.Lot;
 import main.model.Medicament.Medicament;
 import main.model.Medicament.TypeAchat;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.Montant;
 import main.model.Transaction.Transaction;
 import main.model.security.SecurityValidator;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -14,96 +19,162 @@ import java.util.Map;
 public class Achat extends Transaction {
 
     private TypeAchat type;
-    private List<Medicament> medicaments;
-    private Map<Medicament, Integer> quantites;
-    private double montantRembourse;
+    // Lignes du panier en tableaux primitifs (SKU, quantité, prix unitaire, taux relevés à la vente)
+    private LignesMedicaments lignes;
+    // Taux de la mutuelle du client au moment de l'achat, relevé par les nouvelles lignes
+    private final double tauxRemboursement;
+    private long montantRembourseCentimes;
+    private String referenceOrdonnance;
+    private List<Lot> lots = Collections.emptyList();
 
     public Achat(Date dateTransaction, Client client, Pharmacien pharmacien, String reference, TypeAchat type,
                  List<Medicament> medicaments, Map<Medicament, Integer> quantites) {
         super(dateTransaction, client, pharmacien, reference);
         this.type = type;
-        this.medicaments = medicaments;
-        this.quantites = quantites;
-        calculerMontantTotal();
-        calculerMontantRembourse();
+        this.tauxRemboursement = client.getMutuelle() != null ? client.getMutuelle().getTauxRemboursement() : 0.0;
+        this.lignes = LignesMedicaments.depuis(medicaments, quantites, tauxRemboursement);
+        actualiserMontants();
+    }
+
+    /**
+     * Reconstitue un achat enregistré à partir de ses lignes relevées ; les montants en découlent.
+     */
+    public Achat(Date dateTransaction, Client client, Pharmacien pharmacien, String reference, TypeAchat type,
+                 LignesMedicaments lignes) {
+        super(dateTransaction, client, pharmacien, reference);
+        this.type = type;
+        this.tauxRemboursement = client.getMutuelle() != null ? client.getMutuelle().getTauxRemboursement() : 0.0;
+        this.lignes = SecurityValidator.validateNotNull(lignes, "Lignes");
+        actualiserMontants();
     }
 
     public TypeAchat getType() {
         return type;
     }
 
+    /**
+     * Médicaments des lignes (copie, fiches courantes du catalogue).
+     */
     public List<Medicament> getMedicaments() {
-        return medicaments;
+        return lignes.medicaments();
     }
 
+    /**
+     * Quantités par médicament (copie, fiches courantes du catalogue).
+     */
     public Map<Medicament, Integer> getQuantites() {
-        return quantites;
+        return lignes.quantites();
+    }
+
+    /**
+     * Lignes de l'achat (SKU, quantité, prix unitaire et taux relevés), sans matérialiser les fiches.
+     */
+    public LignesMedicaments getLignes() {
+        return lignes;
     }
 
     public double getMontantRembourse() {
-        return montantRembourse;
+        return Montant.enEuros(montantRembourseCentimes);
+    }
+
+    public long getMontantRembourseCentimes() {
+        return montantRembourseCentimes;
+    }
+
+    /**
+     * Référence de l'ordonnance délivrée par cet achat (null pour une vente directe).
+     */
+    public String getReferenceOrdonnance() {
+        return referenceOrdonnance;
+    }
+
+    public void setReferenceOrdonnance(String referenceOrdonnance) {
+        this.referenceOrdonnance = referenceOrdonnance;
+    }
+
+    /**
+     * Lots prélevés par cet achat (un élément par lot entamé), pour les rappels de lots.
+     */
+    public List<Lot> getLots() {
+        return lots;
+    }
+
+    public void setLots(List<Lot> lots) {
+        this.lots = lots == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(lots));
     }
 
     public void setType(TypeAchat type) {
         this.type = type;
     }
 
+    /**
+     * Les médicaments déjà présents gardent le prix relevé à l'ajout de leur ligne ; validation à {@link #figer()}.
+     *
+     * @throws IllegalStateException si l'achat est déjà enregistré
+     */
     public void setMedicaments(List<Medicament> medicaments) {
-        this.medicaments = medicaments;
-        calculerMontantRembourse();
-        calculerMontantTotal();
+        this.lignes = lignes.recomposer(medicaments, lignes.quantites(), tauxRemboursement);
+        actualiserMontants();
     }
 
+    /**
+     * Les médicaments déjà présents gardent le prix relevé à l'ajout de leur ligne ; validation à {@link #figer()}.
+     *
+     * @throws IllegalStateException si l'achat est déjà enregistré
+     */
     public void setQuantites(Map<Medicament, Integer> quantites) {
-        this.quantites = quantites;
-        calculerMontantRembourse();
-        calculerMontantTotal();
+        this.lignes = lignes.recomposer(lignes.medicaments(), quantites, tauxRemboursement);
+        actualiserMontants();
+    }
+
+    /**
+     * Valide les montants puis fige les lignes : appelé à l'enregistrement de la vente,
+     * seul point de validation de l'achat.
+     */
+    public void figer() {
+        if (!lignes.estFigees()) {
+            calculerMontantTotal();
+            lignes.figer();
+        }
     }
 
     public void setMontantRembourse(double montantRembourse) {
-        this.montantRembourse = montantRembourse;
+        this.montantRembourseCentimes = Montant.depuisEuros(montantRembourse);
     }
 
     public void ajouterMedicament(Medicament medicament, int quantite) {
         SecurityValidator.validateNotNull(medicament, "Médicament");
         SecurityValidator.validateQuantite(quantite);
         SecurityValidator.validateMedicamentNotExpired(medicament.getDatePeremption(), medicament.getNom());
-        medicaments.add(medicament);
-        quantites.put(medicament, quantite);
-        calculerMontantTotal();
-        calculerMontantRembourse();
+        lignes.ajouter(medicament, quantite, tauxRemboursement);
+        actualiserMontants();
     }
 
     public void retirerMedicament(Medicament medicament) {
-        medicaments.remove(medicament);
-        quantites.remove(medicament);
-        calculerMontantTotal();
-        calculerMontantRembourse();
+        lignes.retirer(medicament);
+        actualiserMontants();
     }
 
 
+    /**
+     * Reprend les totaux tenus par les lignes et les valide.
+     */
     @Override
     public void calculerMontantTotal() {
-        calculerMontantTotalInternal();
-        calculerMontantRembourse();
+        actualiserMontants();
         SecurityValidator.validateTransaction(getMontantTotal(), getMontantRembourse());
     }
 
     public void calculerMontantTotalInternal() {
-        double total = 0.0;
-        for (Map.Entry<Medicament, Integer> entry : quantites.entrySet()) {
-            total += entry.getKey().getPrix() * entry.getValue();
-        }
-        setMontantTotal(total);
+        setMontantTotalCentimes(lignes.montantTotalCentimes());
     }
 
-    private void calculerMontantRembourse() {
-        if (getClient().getMutuelle() != null) {
-            double tauxRemboursement = getClient().getMutuelle().getTauxRemboursement();
-            this.montantRembourse = getMontantTotal() * (tauxRemboursement / 100.0);
-        } else {
-            this.montantRembourse = 0.0;
-        }
+    /**
+     * Totaux déjà tenus à jour par différence dans les lignes : O(1), la validation attend {@link #figer()}.
+     */
+    private void actualiserMontants() {
+        calculerMontantTotalInternal();
+        this.montantRembourseCentimes = lignes.montantRembourseCentimes();
     }
 
     @Override
@@ -111,9 +182,10 @@ public class Achat extends Transaction {
         return "Achat{" +
                 super.toString().replace("Transaction", "") +
                 ", type=" + type +
-                ", medicaments=" + medicaments +
-                ", quantites=" + quantites +
-                ", montantRembourse=" + montantRembourse +
+                (referenceOrdonnance != null ? ", referenceOrdonnance='" + referenceOrdonnance + '\'' : "") +
+                ", lignes=" + lignes +
+                (lots.isEmpty() ? "" : ", lots=" + lots) +
+                ", montantRembourse=" + Montant.formater(montantRembourseCentimes) +
                 '}';
     }
 }
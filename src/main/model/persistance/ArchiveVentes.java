@@ -0,0 +1,456 @@
+package main.model.persistance;
+
+import main.model.Medicament.TypeAchat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Archive colonnaire des ventes des mois clos : un fichier par mois, lu par projection mémoire.
+ * Un mois réécrit reçoit un nouveau fichier de génération supérieure ({@code ventes-2025-01.3.col}) ;
+ * l'ancien, encore projeté par les lecteurs en cours, est supprimé ensuite, ou plus tard si le système
+ * refuse de supprimer un fichier projeté. À l'ouverture, seule la dernière génération de chaque mois est lue.
+ *
+ * Disposition d'un fichier (little-endian) :
+ * <pre>
+ *   0  magic "SPAV" (int), version (short), réservé (short)
+ *   8  clé du mois : année * 12 + mois - 1 (int), nombre de ventes n (int)
+ *  16  somme des totaux en centimes (long), somme des remboursements en centimes (long)
+ *  32  n horodatages triés (long), n totaux (long), n remboursements (long), n types d'achat (byte),
+ *      n références, n références d'ordonnance (ASCII, 24 octets complétés par des zéros)
+ * </pre>
+ * Un mois entièrement couvert par une période se lit dans l'en-tête ; les mois de bordure
+ * sont bornés par recherche dichotomique puis sommés sur les colonnes projetées.
+ */
+public class ArchiveVentes {
+
+    private static final int MAGIC = 0x53504156; // "SPAV"
+    private static final short VERSION = 1;
+    private static final int TAILLE_ENTETE = 32;
+    private static final int TAILLE_REFERENCE = EnregistrementVente.TAILLE_REFERENCE_MAX;
+    private static final int TAILLE_NUMERIQUE = 3 * Long.BYTES + 1;
+    private static final int TAILLE_LIGNE = TAILLE_NUMERIQUE + 2 * TAILLE_REFERENCE;
+    private static final String PREFIXE = "ventes-";
+    private static final String SUFFIXE = ".col";
+    private static final TypeAchat[] TYPES = TypeAchat.values();
+
+    private final Path dossier;
+    private final ZoneId zone;
+    private volatile NavigableMap<Integer, MoisArchive> mois;
+    // Générations remplacées dont la suppression a échoué (fichier encore projeté)
+    private final List<Path> obsoletes = new ArrayList<>();
+
+    public ArchiveVentes(Path dossier) throws IOException {
+        this(dossier, ZoneId.systemDefault());
+    }
+
+    public ArchiveVentes(Path dossier, ZoneId zone) throws IOException {
+        this.dossier = dossier;
+        this.zone = zone;
+        Files.createDirectories(dossier);
+        // Dernière génération de chaque mois ; les précédentes (substitution interrompue) sont supprimées
+        Map<String, Path> dernieres = new HashMap<>();
+        Map<String, Long> generations = new HashMap<>();
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, PREFIXE + "*" + SUFFIXE)) {
+            for (Path fichier : fichiers) {
+                String nom = fichier.getFileName().toString();
+                String base = nom.substring(0, nom.length() - SUFFIXE.length());
+                int point = base.lastIndexOf('.');
+                long generation;
+                try {
+                    generation = point < 0 ? -1 : Long.parseLong(base.substring(point + 1));
+                } catch (NumberFormatException e) {
+                    generation = -1;
+                }
+                if (generation < 0) {
+                    throw new IOException("Fichier d'archive des ventes invalide : " + fichier);
+                }
+                String moisFichier = base.substring(0, point);
+                Long connue = generations.get(moisFichier);
+                if (connue == null || connue < generation) {
+                    if (connue != null) {
+                        obsoletes.add(dernieres.get(moisFichier));
+                    }
+                    generations.put(moisFichier, generation);
+                    dernieres.put(moisFichier, fichier);
+                } else {
+                    obsoletes.add(fichier);
+                }
+            }
+        }
+        NavigableMap<Integer, MoisArchive> charges = new TreeMap<>();
+        for (Map.Entry<String, Path> derniere : dernieres.entrySet()) {
+            MoisArchive m = MoisArchive.ouvrir(derniere.getValue(), generations.get(derniere.getKey()));
+            charges.put(m.cle, m);
+        }
+        this.mois = Collections.unmodifiableNavigableMap(charges);
+        supprimerObsoletes();
+    }
+
+    /**
+     * Premier instant non archivé : minuit du mois qui suit le dernier mois archivé.
+     * Les ventes antérieures sont lues dans l'archive, les suivantes dans le journal.
+     */
+    public long getLimite() {
+        NavigableMap<Integer, MoisArchive> courant = mois;
+        if (courant.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        return debutMoisCle(courant.lastKey() + 1);
+    }
+
+    /**
+     * Nombre, total et remboursé (centimes) des ventes archivées comprises dans [debut, fin].
+     */
+    public long[] agreger(long debut, long fin) {
+        long[] cumul = new long[3];
+        if (debut > fin) {
+            return cumul;
+        }
+        for (MoisArchive m : sousArchive(debut, fin).values()) {
+            if (debut <= m.premier() && m.dernier() <= fin) {
+                cumul[0] += m.nombre;
+                cumul[1] += m.sommeTotal;
+                cumul[2] += m.sommeRembourse;
+            } else {
+                m.sommer(m.rang(debut), m.rangApres(fin), cumul);
+            }
+        }
+        return cumul;
+    }
+
+    /**
+     * Parcourt les ventes archivées comprises dans [debut, fin], par ordre chronologique.
+     */
+    public void parcourir(long debut, long fin, VisiteurVentes visiteur) {
+        if (debut > fin) {
+            return;
+        }
+        for (MoisArchive m : sousArchive(debut, fin).values()) {
+            for (int i = m.rang(debut), n = m.rangApres(fin); i < n; i++) {
+                visiteur.visiter(m.timestamps.get(i), m.totaux.get(i), m.rembourses.get(i));
+            }
+        }
+    }
+
+    /**
+     * Relit toutes les ventes archivées, références comprises.
+     */
+    public List<EnregistrementVente> lireTout() {
+        List<EnregistrementVente> ventes = new ArrayList<>();
+        for (MoisArchive m : mois.values()) {
+            for (int i = 0; i < m.nombre; i++) {
+                ventes.add(m.lire(i));
+            }
+        }
+        return ventes;
+    }
+
+    /**
+     * Archive des ventes : chaque mois concerné est écrit dans une nouvelle génération.
+     * Les nouveaux mois ne deviennent visibles qu'une fois tous les fichiers écrits ; les générations
+     * remplacées sont alors supprimées.
+     * Une vente déjà présente dans son mois (compactage repris après une interruption) n'est pas dupliquée :
+     * chaque exemplaire archivé en absorbe un fourni.
+     */
+    public synchronized void archiver(List<EnregistrementVente> ventes) throws IOException {
+        if (ventes.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<EnregistrementVente>> parMois = new TreeMap<>();
+        for (EnregistrementVente vente : ventes) {
+            parMois.computeIfAbsent(cleMois(vente.getTimestamp()), k -> new ArrayList<>()).add(vente);
+        }
+        supprimerObsoletes();
+        NavigableMap<Integer, MoisArchive> nouveau = new TreeMap<>(mois);
+        List<Path> remplaces = new ArrayList<>();
+        for (Map.Entry<Integer, List<EnregistrementVente>> entree : parMois.entrySet()) {
+            int cle = entree.getKey();
+            List<EnregistrementVente> contenu = entree.getValue();
+            MoisArchive existant = nouveau.get(cle);
+            if (existant != null) {
+                Map<EnregistrementVente, Integer> dejaArchivees = new HashMap<>();
+                for (int i = 0; i < existant.nombre; i++) {
+                    dejaArchivees.merge(existant.lire(i), 1, Integer::sum);
+                }
+                List<EnregistrementVente> nouvelles = new ArrayList<>(contenu.size());
+                for (EnregistrementVente vente : contenu) {
+                    Integer restantes = dejaArchivees.get(vente);
+                    if (restantes == null) {
+                        nouvelles.add(vente);
+                    } else if (restantes == 1) {
+                        dejaArchivees.remove(vente);
+                    } else {
+                        dejaArchivees.put(vente, restantes - 1);
+                    }
+                }
+                if (nouvelles.isEmpty()) {
+                    continue;
+                }
+                contenu = nouvelles;
+                for (int i = 0; i < existant.nombre; i++) {
+                    contenu.add(existant.lire(i));
+                }
+            }
+            contenu.sort(Comparator.comparingLong(EnregistrementVente::getTimestamp));
+            nouveau.put(cle, ecrire(cle, existant == null ? 0 : existant.generation + 1, contenu));
+            if (existant != null) {
+                remplaces.add(existant.fichier);
+            }
+        }
+        mois = Collections.unmodifiableNavigableMap(nouveau);
+        obsoletes.addAll(remplaces);
+        supprimerObsoletes();
+    }
+
+    /**
+     * Supprime les générations remplacées ; celles que le système refuse de supprimer (encore projetées,
+     * sous Windows) sont retentées au prochain archivage ou à la prochaine ouverture.
+     */
+    private void supprimerObsoletes() {
+        obsoletes.removeIf(fichier -> {
+            try {
+                Files.deleteIfExists(fichier);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    public int getNombreMois() {
+        return mois.size();
+    }
+
+    public Path getDossier() {
+        return dossier;
+    }
+
+    /**
+     * Minuit local du premier jour du mois contenant {@code timestamp}.
+     */
+    public long debutMois(long timestamp) {
+        return debutMoisCle(cleMois(timestamp));
+    }
+
+    private long debutMoisCle(int cle) {
+        return LocalDate.of(cle / 12, cle % 12 + 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private int cleMois(long timestamp) {
+        LocalDate date = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private NavigableMap<Integer, MoisArchive> sousArchive(long debut, long fin) {
+        NavigableMap<Integer, MoisArchive> courant = mois;
+        if (courant.isEmpty()) {
+            return courant;
+        }
+        int premier = debut < debutMoisCle(courant.firstKey()) ? courant.firstKey() : cleMois(debut);
+        int dernier = fin >= debutMoisCle(courant.lastKey() + 1) ? courant.lastKey() : cleMois(fin);
+        if (premier > dernier) {
+            return Collections.emptyNavigableMap();
+        }
+        return courant.subMap(premier, true, dernier, true);
+    }
+
+    private MoisArchive ecrire(int cle, long generation, List<EnregistrementVente> ventes) throws IOException {
+        int n = ventes.size();
+        ByteBuffer contenu = ByteBuffer.allocate(TAILLE_ENTETE + n * TAILLE_LIGNE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long sommeTotal = 0;
+        long sommeRembourse = 0;
+        for (EnregistrementVente vente : ventes) {
+            sommeTotal += vente.getMontantTotalCentimes();
+            sommeRembourse += vente.getMontantRembourseCentimes();
+        }
+        contenu.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putInt(cle).putInt(n).putLong(sommeTotal).putLong(sommeRembourse);
+        for (EnregistrementVente vente : ventes) {
+            contenu.putLong(vente.getTimestamp());
+        }
+        for (EnregistrementVente vente : ventes) {
+            contenu.putLong(vente.getMontantTotalCentimes());
+        }
+        for (EnregistrementVente vente : ventes) {
+            contenu.putLong(vente.getMontantRembourseCentimes());
+        }
+        for (EnregistrementVente vente : ventes) {
+            contenu.put((byte) vente.getType().ordinal());
+        }
+        for (EnregistrementVente vente : ventes) {
+            ecrireReference(contenu, vente.getReference());
+        }
+        for (EnregistrementVente vente : ventes) {
+            ecrireReference(contenu, vente.getReferenceOrdonnance());
+        }
+        contenu.flip();
+
+        String nomMois = String.format("%s%04d-%02d", PREFIXE, cle / 12, cle % 12 + 1);
+        Path fichier = dossier.resolve(nomMois + "." + generation + SUFFIXE);
+        Path temporaire = dossier.resolve(nomMois + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (contenu.hasRemaining()) {
+                canal.write(contenu);
+            }
+            canal.force(true);
+        }
+        // Nom neuf : aucun fichier projeté n'est remplacé
+        Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE);
+        return MoisArchive.ouvrir(fichier, generation);
+    }
+
+    private static void ecrireReference(ByteBuffer contenu, String reference) {
+        byte[] ascii = reference.getBytes(StandardCharsets.US_ASCII);
+        contenu.put(ascii);
+        for (int i = ascii.length; i < TAILLE_REFERENCE; i++) {
+            contenu.put((byte) 0);
+        }
+    }
+
+    /**
+     * Un mois archivé, projeté en mémoire en lecture seule ; les colonnes sont des vues sans copie.
+     */
+    private static final class MoisArchive {
+        final Path fichier;
+        final long generation;
+        final int cle;
+        final int nombre;
+        final long sommeTotal;
+        final long sommeRembourse;
+        final LongBuffer timestamps;
+        final LongBuffer totaux;
+        final LongBuffer rembourses;
+        final ByteBuffer types;
+        final ByteBuffer references;
+        final ByteBuffer referencesOrdonnance;
+
+        private MoisArchive(Path fichier, long generation, MappedByteBuffer carte) {
+            this.fichier = fichier;
+            this.generation = generation;
+            carte.order(ByteOrder.LITTLE_ENDIAN);
+            this.cle = carte.getInt(8);
+            this.nombre = carte.getInt(12);
+            this.sommeTotal = carte.getLong(16);
+            this.sommeRembourse = carte.getLong(24);
+            int colonne = nombre * Long.BYTES;
+            this.timestamps = colonne(carte, TAILLE_ENTETE, colonne).asLongBuffer();
+            this.totaux = colonne(carte, TAILLE_ENTETE + colonne, colonne).asLongBuffer();
+            this.rembourses = colonne(carte, TAILLE_ENTETE + 2 * colonne, colonne).asLongBuffer();
+            this.types = colonne(carte, TAILLE_ENTETE + 3 * colonne, nombre);
+            int debutReferences = TAILLE_ENTETE + nombre * TAILLE_NUMERIQUE;
+            this.references = colonne(carte, debutReferences, nombre * TAILLE_REFERENCE);
+            this.referencesOrdonnance = colonne(carte, debutReferences + nombre * TAILLE_REFERENCE,
+                    nombre * TAILLE_REFERENCE);
+        }
+
+        static MoisArchive ouvrir(Path fichier, long generation) throws IOException {
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+                long taille = canal.size();
+                MappedByteBuffer carte = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+                carte.order(ByteOrder.LITTLE_ENDIAN);
+                if (taille < TAILLE_ENTETE || carte.getInt(0) != MAGIC || carte.getShort(4) != VERSION
+                        || taille != TAILLE_ENTETE + (long) carte.getInt(12) * TAILLE_LIGNE) {
+                    throw new IOException("Fichier d'archive des ventes invalide : " + fichier);
+                }
+                return new MoisArchive(fichier, generation, carte);
+            }
+        }
+
+        private static ByteBuffer colonne(MappedByteBuffer carte, int debut, int longueur) {
+            ByteBuffer vue = carte.duplicate();
+            vue.position(debut).limit(debut + longueur);
+            return vue.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        long premier() {
+            return nombre == 0 ? Long.MAX_VALUE : timestamps.get(0);
+        }
+
+        long dernier() {
+            return nombre == 0 ? Long.MIN_VALUE : timestamps.get(nombre - 1);
+        }
+
+        /**
+         * Indice de la première vente dont l'horodatage est supérieur ou égal à {@code ts}.
+         */
+        int rang(long ts) {
+            return ts == Long.MIN_VALUE ? 0 : rangApres(ts - 1);
+        }
+
+        /**
+         * Indice de la première vente dont l'horodatage est strictement supérieur à {@code ts}.
+         */
+        int rangApres(long ts) {
+            int bas = 0;
+            int haut = nombre;
+            while (bas < haut) {
+                int milieu = (bas + haut) >>> 1;
+                if (timestamps.get(milieu) <= ts) {
+                    bas = milieu + 1;
+                } else {
+                    haut = milieu;
+                }
+            }
+            return bas;
+        }
+
+        void sommer(int debut, int fin, long[] cumul) {
+            long total = 0;
+            long rembourse = 0;
+            for (int i = debut; i < fin; i++) {
+                total += totaux.get(i);
+            }
+            for (int i = debut; i < fin; i++) {
+                rembourse += rembourses.get(i);
+            }
+            cumul[0] += Math.max(0, fin - debut);
+            cumul[1] += total;
+            cumul[2] += rembourse;
+        }
+
+        EnregistrementVente lire(int i) {
+            return new EnregistrementVente(timestamps.get(i), totaux.get(i), rembourses.get(i),
+                    TYPES[types.get(i)], reference(references, i), reference(referencesOrdonnance, i));
+        }
+
+        /**
+         * Référence de la vente {@code i} : jusqu'au premier zéro de sa case de 24 octets.
+         */
+        private static String reference(ByteBuffer colonne, int i) {
+            int debut = i * TAILLE_REFERENCE;
+            int longueur = 0;
+            while (longueur < TAILLE_REFERENCE && colonne.get(debut + longueur) != 0) {
+                longueur++;
+            }
+            byte[] ascii = new byte[longueur];
+            for (int k = 0; k < longueur; k++) {
+                ascii[k] = colonne.get(debut + k);
+            }
+            return new String(ascii, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package main.model.persistance;
+
+import main.model.Medicament.CatalogueMedicaments;
+import main.model.Medicament.LignesMedicaments;
+import main.model.Medicament.Lot;
+import main.model.Medicament.TypeAchat;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.TypeTransaction.Achat;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Encodage d'un achat enregistré : en-tête, lignes relevées (SKU, quantité, prix, taux) et lots prélevés.
+ * Client et pharmacien sont écrits par identifiant. À la relecture, le client est pris dans l'annuaire
+ * courant du service (fiche à jour après une modification) ; les personnes rencontrées à l'encodage
+ * (une entrée par personne, pas par vente) ne servent que si l'annuaire ne les connaît plus, et pour
+ * les pharmaciens, qui n'ont pas d'annuaire.
+ */
+public final class CodecAchat implements CodecFroid<Achat> {
+
+    private final CatalogueMedicaments catalogue;
+    private final Function<String, Client> annuaireClients;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Map<String, Pharmacien> pharmaciens = new ConcurrentHashMap<>();
+
+    /**
+     * @param catalogue catalogue de l'inventaire : les lignes relues désignent ses fiches courantes
+     * @param annuaireClients client courant par identifiant (null si inconnu)
+     */
+    public CodecAchat(CatalogueMedicaments catalogue, Function<String, Client> annuaireClients) {
+        this.catalogue = catalogue;
+        this.annuaireClients = annuaireClients;
+    }
+
+    @Override
+    public void encoder(Achat achat, DataOutput sortie) throws IOException {
+        Client client = achat.getClient();
+        clients.putIfAbsent(client.getIdentifiant(), client);
+        Pharmacien pharmacien = achat.getPharmacien();
+        if (pharmacien != null) {
+            pharmaciens.putIfAbsent(pharmacien.getIdentifiant(), pharmacien);
+        }
+        sortie.writeLong(achat.getDateTransaction().getTime());
+        ecrireTexte(sortie, achat.getReference());
+        sortie.writeByte(achat.getType().ordinal());
+        sortie.writeUTF(client.getIdentifiant());
+        ecrireTexte(sortie, pharmacien != null ? pharmacien.getIdentifiant() : null);
+        ecrireTexte(sortie, achat.getReferenceOrdonnance());
+        ecrireLignes(catalogue, achat.getLignes(), sortie);
+        List<Lot> lots = achat.getLots();
+        sortie.writeInt(lots.size());
+        for (Lot lot : lots) {
+            sortie.writeUTF(lot.getNomMedicament());
+            sortie.writeUTF(lot.getNumero());
+            sortie.writeLong(lot.getInstantPeremption());
+            sortie.writeInt(lot.getQuantite());
+        }
+    }
+
+    @Override
+    public Achat decoder(DataInput entree) throws IOException {
+        Date date = new Date(entree.readLong());
+        String reference = lireTexte(entree);
+        TypeAchat type = TypeAchat.values()[entree.readByte()];
+        Client client = personne(annuaireClients, clients, entree.readUTF(), "Client");
+        String identifiantPharmacien = lireTexte(entree);
+        Pharmacien pharmacien = identifiantPharmacien != null
+                ? personne(identifiant -> null, pharmaciens, identifiantPharmacien, "Pharmacien") : null;
+        String referenceOrdonnance = lireTexte(entree);
+        LignesMedicaments lignes = lireLignes(catalogue, entree);
+        int nombreLots = entree.readInt();
+        List<Lot> lots = new ArrayList<>(nombreLots);
+        for (int i = 0; i < nombreLots; i++) {
+            lots.add(new Lot(entree.readUTF(), entree.readUTF(), entree.readLong(), entree.readInt()));
+        }
+        Achat achat = new Achat(date, client, pharmacien, reference, type, lignes);
+        achat.setReferenceOrdonnance(referenceOrdonnance);
+        achat.setLots(lots);
+        return achat;
+    }
+
+    /**
+     * Personne courante de l'annuaire, sinon celle rencontrée à l'encodage.
+     */
+    static <P> P personne(Function<String, P> annuaire, Map<String, P> connues, String identifiant, String nature)
+            throws IOException {
+        P personne = annuaire.apply(identifiant);
+        if (personne == null) {
+            personne = connues.get(identifiant);
+        }
+        if (personne == null) {
+            throw new IOException(nature + " inconnu à la relecture : " + identifiant);
+        }
+        return personne;
+    }
+
+    /**
+     * Écrit les lignes avec les SKU de {@code catalogue} (les lignes peuvent en avoir un autre).
+     */
+    static void ecrireLignes(CatalogueMedicaments catalogue, LignesMedicaments lignes, DataOutput sortie)
+            throws IOException {
+        int n = lignes.taille();
+        sortie.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            sortie.writeInt(catalogue.interner(lignes.getMedicament(i)));
+            sortie.writeInt(lignes.getQuantite(i));
+            sortie.writeLong(lignes.getPrixUnitaireCentimes(i));
+            sortie.writeInt(lignes.getTauxCentiemes(i));
+        }
+    }
+
+    static LignesMedicaments lireLignes(CatalogueMedicaments catalogue, DataInput entree) throws IOException {
+        int n = entree.readInt();
+        int[] skus = new int[n];
+        int[] quantites = new int[n];
+        long[] prix = new long[n];
+        int[] taux = new int[n];
+        for (int i = 0; i < n; i++) {
+            skus[i] = entree.readInt();
+            quantites[i] = entree.readInt();
+            prix[i] = entree.readLong();
+            taux[i] = entree.readInt();
+        }
+        return LignesMedicaments.restaurer(catalogue, skus, quantites, prix, taux);
+    }
+
+    static void ecrireTexte(DataOutput sortie, String texte) throws IOException {
+        sortie.writeBoolean(texte != null);
+        if (texte != null) {
+            sortie.writeUTF(texte);
+        }
+    }
+
+    static String lireTexte(DataInput entree) throws IOException {
+        return entree.readBoolean() ? entree.readUTF() : null;
+    }
+}
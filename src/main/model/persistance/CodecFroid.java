@@ -0,0 +1,15 @@
+package main.model.persistance;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodage binaire d'un objet sorti du tas vers un {@link EntrepotFroid}, et reconstitution à la relecture.
+ */
+public interface CodecFroid<T> {
+
+    void encoder(T objet, DataOutput sortie) throws IOException;
+
+    T decoder(DataInput entree) throws IOException;
+}
@@ -0,0 +1,61 @@
+package main.model.persistance;
+
+import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.CatalogueMedicaments;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Medecin;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Encodage d'une ordonnance enregistrée : en-tête et lignes relevées ; patient par identifiant et
+ * médecin par RPPS, relus dans les annuaires courants du service comme dans {@link CodecAchat}.
+ */
+public final class CodecOrdonnance implements CodecFroid<Ordonnance> {
+
+    private final CatalogueMedicaments catalogue;
+    private final Function<String, Client> annuairePatients;
+    private final Function<String, Medecin> annuaireMedecins;
+    private final Map<String, Client> patients = new ConcurrentHashMap<>();
+    private final Map<String, Medecin> medecins = new ConcurrentHashMap<>();
+
+    /**
+     * @param catalogue catalogue de l'inventaire : les lignes relues désignent ses fiches courantes
+     * @param annuairePatients client courant par identifiant (null si inconnu)
+     * @param annuaireMedecins médecin courant par RPPS (null si inconnu)
+     */
+    public CodecOrdonnance(CatalogueMedicaments catalogue, Function<String, Client> annuairePatients,
+                           Function<String, Medecin> annuaireMedecins) {
+        this.catalogue = catalogue;
+        this.annuairePatients = annuairePatients;
+        this.annuaireMedecins = annuaireMedecins;
+    }
+
+    @Override
+    public void encoder(Ordonnance ordonnance, DataOutput sortie) throws IOException {
+        Client patient = ordonnance.getPatient();
+        Medecin medecin = ordonnance.getMedecin();
+        patients.putIfAbsent(patient.getIdentifiant(), patient);
+        medecins.putIfAbsent(medecin.getNumeroRPPS(), medecin);
+        sortie.writeLong(ordonnance.getDateCreation().getTime());
+        CodecAchat.ecrireTexte(sortie, ordonnance.getReference());
+        sortie.writeUTF(patient.getIdentifiant());
+        sortie.writeUTF(medecin.getNumeroRPPS());
+        CodecAchat.ecrireLignes(catalogue, ordonnance.getLignes(), sortie);
+    }
+
+    @Override
+    public Ordonnance decoder(DataInput entree) throws IOException {
+        Date date = new Date(entree.readLong());
+        String reference = CodecAchat.lireTexte(entree);
+        Client patient = CodecAchat.personne(annuairePatients, patients, entree.readUTF(), "Patient");
+        Medecin medecin = CodecAchat.personne(annuaireMedecins, medecins, entree.readUTF(), "Médecin");
+        return new Ordonnance(date, medecin, patient, CodecAchat.lireLignes(catalogue, entree), reference);
+    }
+}
@@ -0,0 +1,277 @@
+package main.model.persistance;
+
+import main.model.Medicament.TypeAchat;
+import main.model.Transaction.Montant;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stockage texte historique des ventes ({@code data/achats.csv}).
+ * Format : {@code timestamp,montantTotal,montantRembourse,typeAchat[,reference[,referenceOrdonnance]]}.
+ * Le fichier est ouvert une seule fois, au premier ajout, puis gardé ouvert.
+ * Le parcours décode les octets du fichier sur place (horodatage et montants en virgule fixe),
+ * sans créer de chaîne ni d'objet par ligne.
+ */
+public class CsvVentes implements StockageVentes {
+
+    private static final int TAILLE_TAMPON = 1 << 20;
+    private static final long INVALIDE = Long.MIN_VALUE;
+
+    private final Path fichier;
+    private BufferedWriter writer;
+
+    public CsvVentes(Path fichier) {
+        this.fichier = fichier;
+    }
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    @Override
+    public synchronized void ajouter(EnregistrementVente vente) throws IOException {
+        ecrireLigne(vente);
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void ajouterTous(List<EnregistrementVente> ventes) throws IOException {
+        for (EnregistrementVente vente : ventes) {
+            ecrireLigne(vente);
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private void ecrireLigne(EnregistrementVente vente) throws IOException {
+        if (writer == null) {
+            Path dossier = fichier.toAbsolutePath().getParent();
+            if (dossier != null) {
+                Files.createDirectories(dossier);
+            }
+            writer = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(Long.toString(vente.getTimestamp()));
+        writer.write(',');
+        writer.write(Montant.formater(vente.getMontantTotalCentimes()));
+        writer.write(',');
+        writer.write(Montant.formater(vente.getMontantRembourseCentimes()));
+        writer.write(',');
+        writer.write(vente.getType().name());
+        if (!vente.getReference().isEmpty() || !vente.getReferenceOrdonnance().isEmpty()) {
+            writer.write(',');
+            writer.write(vente.getReference());
+        }
+        if (!vente.getReferenceOrdonnance().isEmpty()) {
+            writer.write(',');
+            writer.write(vente.getReferenceOrdonnance());
+        }
+        writer.newLine();
+    }
+
+    @Override
+    public List<EnregistrementVente> lireTout() throws IOException {
+        synchroniser();
+        List<EnregistrementVente> ventes = new ArrayList<>();
+        if (!Files.exists(fichier)) {
+            return ventes;
+        }
+        try (Stream<String> lignes = Files.lines(fichier, StandardCharsets.UTF_8)) {
+            lignes.forEach(ligne -> {
+                EnregistrementVente vente = parserLigne(ligne);
+                if (vente != null) {
+                    ventes.add(vente);
+                }
+            });
+        }
+        return ventes;
+    }
+
+    @Override
+    public void parcourir(VisiteurVentes visiteur) throws IOException {
+        synchroniser();
+        if (!Files.exists(fichier)) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            byte[] tampon = new byte[TAILLE_TAMPON];
+            int reste = 0;
+            while (true) {
+                int lus = canal.read(ByteBuffer.wrap(tampon, reste, tampon.length - reste));
+                if (lus < 0) {
+                    parserLigne(tampon, 0, reste, visiteur);
+                    return;
+                }
+                int fin = reste + lus;
+                int debutLigne = 0;
+                for (int i = 0; i < fin; i++) {
+                    if (tampon[i] == '\n') {
+                        parserLigne(tampon, debutLigne, i, visiteur);
+                        debutLigne = i + 1;
+                    }
+                }
+                reste = fin - debutLigne;
+                System.arraycopy(tampon, debutLigne, tampon, 0, reste);
+                if (reste == tampon.length) {
+                    tampon = Arrays.copyOf(tampon, tampon.length * 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Décode la ligne {@code [debut, fin[} du tampon et la transmet au visiteur.
+     *
+     * @return false si la ligne est vide ou mal formée (ignorée)
+     */
+    static boolean parserLigne(byte[] b, int debut, int fin, VisiteurVentes visiteur) {
+        while (debut < fin && b[debut] <= ' ') {
+            debut++;
+        }
+        while (fin > debut && b[fin - 1] <= ' ') {
+            fin--;
+        }
+        int finTs = indexOf(b, debut, fin);
+        if (finTs == debut || finTs == fin) {
+            return false;
+        }
+        long ts = 0;
+        for (int i = debut; i < finTs; i++) {
+            int chiffre = b[i] - '0';
+            if (chiffre < 0 || chiffre > 9) {
+                return false;
+            }
+            ts = ts * 10 + chiffre;
+        }
+        int finTotal = indexOf(b, finTs + 1, fin);
+        long total = centimes(b, finTs + 1, finTotal);
+        if (total == INVALIDE || finTotal == fin) {
+            return false;
+        }
+        long rembourse = centimes(b, finTotal + 1, indexOf(b, finTotal + 1, fin));
+        if (rembourse == INVALIDE) {
+            return false;
+        }
+        visiteur.visiter(ts, total, rembourse);
+        return true;
+    }
+
+    private static int indexOf(byte[] b, int debut, int fin) {
+        for (int i = debut; i < fin; i++) {
+            if (b[i] == ',') {
+                return i;
+            }
+        }
+        return fin;
+    }
+
+    /**
+     * Convertit un montant décimal en centimes (arrondi au plus proche sur la troisième décimale).
+     * Les notations rares (exposant) passent par {@link Double#parseDouble}.
+     */
+    static long centimes(byte[] b, int debut, int fin) {
+        int i = debut;
+        boolean negatif = false;
+        if (i < fin && (b[i] == '-' || b[i] == '+')) {
+            negatif = b[i] == '-';
+            i++;
+        }
+        long entier = 0;
+        long decimales = 0;
+        int nbDecimales = 0;
+        int arrondi = 0;
+        boolean chiffreLu = false;
+        while (i < fin && b[i] >= '0' && b[i] <= '9') {
+            entier = entier * 10 + (b[i] - '0');
+            chiffreLu = true;
+            i++;
+        }
+        if (i < fin && b[i] == '.') {
+            i++;
+            while (i < fin && b[i] >= '0' && b[i] <= '9') {
+                if (nbDecimales < 2) {
+                    decimales = decimales * 10 + (b[i] - '0');
+                } else if (nbDecimales == 2) {
+                    arrondi = b[i] >= '5' ? 1 : 0;
+                }
+                nbDecimales++;
+                chiffreLu = true;
+                i++;
+            }
+        }
+        if (i != fin || !chiffreLu) {
+            return centimesLents(b, debut, fin);
+        }
+        if (nbDecimales == 1) {
+            decimales *= 10;
+        }
+        long valeur = entier * 100 + decimales + arrondi;
+        return negatif ? -valeur : valeur;
+    }
+
+    private static long centimesLents(byte[] b, int debut, int fin) {
+        try {
+            return Montant.depuisEuros(
+                    Double.parseDouble(new String(b, debut, fin - debut, StandardCharsets.US_ASCII)));
+        } catch (NumberFormatException e) {
+            return INVALIDE;
+        }
+    }
+
+    /**
+     * Décode une ligne CSV ; retourne null si la ligne est vide ou mal formée.
+     */
+    static EnregistrementVente parserLigne(String ligne) {
+        String[] parts = ligne.trim().split(",");
+        if (parts.length < 3) {
+            return null;
+        }
+        try {
+            long ts = Long.parseLong(parts[0]);
+            long total = centimes(parts[1]);
+            long rembourse = centimes(parts[2]);
+            if (total == INVALIDE || rembourse == INVALIDE) {
+                return null;
+            }
+            TypeAchat type = parts.length > 3 ? TypeAchat.valueOf(parts[3]) : TypeAchat.DIRECT;
+            String reference = parts.length > 4 ? parts[4] : "";
+            String referenceOrdonnance = parts.length > 5 ? parts[5] : "";
+            return new EnregistrementVente(ts, total, rembourse, type, reference, referenceOrdonnance);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long centimes(String montant) {
+        byte[] octets = montant.getBytes(StandardCharsets.US_ASCII);
+        return centimes(octets, 0, octets.length);
+    }
+
+    @Override
+    public synchronized void synchroniser() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package main.model.persistance;
+
+import main.model.Medicament.TypeAchat;
+import main.model.Transaction.Montant;
+import main.model.Transaction.TypeTransaction.Achat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * Résumé persistant d'une vente : horodatage, montants (en centimes), type, référence
+ * et, pour une vente sur ordonnance, référence de l'ordonnance délivrée.
+ * Sérialisé en enregistrement binaire de taille fixe dans le journal des ventes.
+ *
+ * Disposition (TAILLE octets, big-endian) :
+ * <pre>
+ *   0  timestamp (long)
+ *   8  montant total en centimes (long)
+ *  16  montant remboursé en centimes (long)
+ *  24  type d'achat (ordinal, byte)
+ *  25  longueur de la référence (byte)
+ *  26  référence ASCII (24 octets, complétée par des zéros)
+ *  50  longueur de la référence d'ordonnance (byte, 0 pour une vente directe)
+ *  51  référence d'ordonnance ASCII (24 octets, complétée par des zéros)
+ *  75  réservé (49 octets, à zéro)
+ * 124  CRC32C des 124 premiers octets (int)
+ * </pre>
+ */
+public final class EnregistrementVente {
+
+    public static final int TAILLE = 128;
+    public static final int TAILLE_REFERENCE_MAX = 24;
+
+    private static final int OFFSET_TYPE = 24;
+    private static final int OFFSET_REFERENCE = 26;
+    private static final int OFFSET_REFERENCE_ORDONNANCE = 51;
+    private static final int OFFSET_CRC = TAILLE - Integer.BYTES;
+
+    private static final TypeAchat[] TYPES = TypeAchat.values();
+
+    private final long timestamp;
+    private final long montantTotalCentimes;
+    private final long montantRembourseCentimes;
+    private final TypeAchat type;
+    private final String reference;
+    private final String referenceOrdonnance;
+
+    public EnregistrementVente(long timestamp, long montantTotalCentimes, long montantRembourseCentimes,
+                               TypeAchat type, String reference) {
+        this(timestamp, montantTotalCentimes, montantRembourseCentimes, type, reference, "");
+    }
+
+    public EnregistrementVente(long timestamp, long montantTotalCentimes, long montantRembourseCentimes,
+                               TypeAchat type, String reference, String referenceOrdonnance) {
+        if (type == null) {
+            throw new IllegalArgumentException("Le type d'achat ne peut pas etre null");
+        }
+        this.timestamp = timestamp;
+        this.montantTotalCentimes = montantTotalCentimes;
+        this.montantRembourseCentimes = montantRembourseCentimes;
+        this.type = type;
+        this.reference = verifierReference(reference);
+        this.referenceOrdonnance = verifierReference(referenceOrdonnance);
+    }
+
+    private static String verifierReference(String reference) {
+        String ref = reference == null ? "" : reference;
+        if (ref.length() > TAILLE_REFERENCE_MAX) {
+            throw new IllegalArgumentException("Référence trop longue pour le journal : " + ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Construit le résumé persistant d'un achat.
+     */
+    public static EnregistrementVente depuis(Achat achat) {
+        return new EnregistrementVente(
+                achat.getDateTransaction().getTime(),
+                achat.getMontantTotalCentimes(),
+                achat.getMontantRembourseCentimes(),
+                achat.getType(),
+                achat.getReference(),
+                achat.getReferenceOrdonnance());
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+    public long getMontantTotalCentimes() {
+        return montantTotalCentimes;
+    }
+    public long getMontantRembourseCentimes() {
+        return montantRembourseCentimes;
+    }
+    public double getMontantTotal() {
+        return Montant.enEuros(montantTotalCentimes);
+    }
+    public double getMontantRembourse() {
+        return Montant.enEuros(montantRembourseCentimes);
+    }
+    public TypeAchat getType() {
+        return type;
+    }
+    public String getReference() {
+        return reference;
+    }
+    public String getReferenceOrdonnance() {
+        return referenceOrdonnance;
+    }
+
+    /**
+     * Écrit l'enregistrement (CRC compris) à la position courante du tampon.
+     */
+    void encoder(ByteBuffer tampon) {
+        int debut = tampon.position();
+        tampon.putLong(timestamp);
+        tampon.putLong(montantTotalCentimes);
+        tampon.putLong(montantRembourseCentimes);
+        tampon.put((byte) type.ordinal());
+        ecrireReference(tampon, reference);
+        ecrireReference(tampon, referenceOrdonnance);
+        while (tampon.position() < debut + OFFSET_CRC) {
+            tampon.put((byte) 0);
+        }
+        tampon.putInt(crc(tampon, debut));
+    }
+
+    private static void ecrireReference(ByteBuffer tampon, String reference) {
+        byte[] ref = reference.getBytes(StandardCharsets.US_ASCII);
+        tampon.put((byte) ref.length);
+        tampon.put(ref);
+        for (int i = ref.length; i < TAILLE_REFERENCE_MAX; i++) {
+            tampon.put((byte) 0);
+        }
+    }
+
+    /**
+     * Vérifie le CRC de l'enregistrement situé à {@code debut} (position du tampon inchangée).
+     */
+    static boolean estValide(ByteBuffer tampon, int debut) {
+        int type = tampon.get(debut + OFFSET_TYPE);
+        return type >= 0 && type < TYPES.length
+                && tampon.getInt(debut + OFFSET_CRC) == crc(tampon, debut);
+    }
+
+    /**
+     * Décode l'enregistrement situé à {@code debut} sans vérifier le CRC.
+     */
+    static EnregistrementVente decoder(ByteBuffer tampon, int debut) {
+        return new EnregistrementVente(
+                tampon.getLong(debut),
+                tampon.getLong(debut + 8),
+                tampon.getLong(debut + 16),
+                TYPES[tampon.get(debut + OFFSET_TYPE)],
+                lireReference(tampon, debut + OFFSET_REFERENCE),
+                lireReference(tampon, debut + OFFSET_REFERENCE_ORDONNANCE));
+    }
+
+    /**
+     * Lit une référence précédée de sa longueur (octet situé juste avant {@code position}).
+     */
+    private static String lireReference(ByteBuffer tampon, int position) {
+        int longueur = tampon.get(position - 1);
+        byte[] ref = new byte[Math.max(0, Math.min(longueur, TAILLE_REFERENCE_MAX))];
+        for (int i = 0; i < ref.length; i++) {
+            ref[i] = tampon.get(position + i);
+        }
+        return new String(ref, StandardCharsets.US_ASCII);
+    }
+
+    private static int crc(ByteBuffer tampon, int debut) {
+        CRC32C crc = new CRC32C();
+        crc.update(tampon.duplicate().limit(debut + OFFSET_CRC).position(debut));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Égalité de valeur : mêmes horodatage, montants, type et références
+     * (reconnaît une vente déjà archivée lors d'un compactage repris).
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EnregistrementVente)) {
+            return false;
+        }
+        EnregistrementVente autre = (EnregistrementVente) o;
+        return timestamp == autre.timestamp
+                && montantTotalCentimes == autre.montantTotalCentimes
+                && montantRembourseCentimes == autre.montantRembourseCentimes
+                && type == autre.type
+                && reference.equals(autre.reference)
+                && referenceOrdonnance.equals(autre.referenceOrdonnance);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, montantTotalCentimes, montantRembourseCentimes, type, reference,
+                referenceOrdonnance);
+    }
+
+    @Override
+    public String toString() {
+        return "EnregistrementVente{" +
+                "timestamp=" + timestamp +
+                ", montantTotalCentimes=" + montantTotalCentimes +
+                ", montantRembourseCentimes=" + montantRembourseCentimes +
+                ", type=" + type +
+                ", reference='" + reference + '\'' +
+                ", referenceOrdonnance='" + referenceOrdonnance + '\'' +
+                '}';
+    }
+}
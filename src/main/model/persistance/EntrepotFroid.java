@@ -0,0 +1,104 @@
+package main.model.persistance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichier en ajout seul des objets évincés du tas (ventes anciennes), relus à la demande par position.
+ * Chaque enregistrement est préfixé de sa longueur. Le fichier est propre à l'entrepôt : nom unique créé
+ * dans le dossier, supprimé à la fermeture ; deux services partageant un dossier ne se gênent pas.
+ * Il ne vaut que pour la session : l'historique durable reste le stockage des ventes.
+ * Écritures sérialisées, lectures positionnelles concurrentes sans verrou.
+ */
+public final class EntrepotFroid<T> implements Closeable {
+
+    private final Path fichier;
+    private final CodecFroid<T> codec;
+    private final FileChannel canal;
+    private final Object verrouEcriture = new Object();
+    private long positionFin;
+    private volatile long nombreEnregistrements;
+
+    /**
+     * Crée le fichier de l'entrepôt dans {@code dossier} ({@code prefixe} suivi d'un suffixe unique).
+     */
+    public EntrepotFroid(Path dossier, String prefixe, CodecFroid<T> codec) throws IOException {
+        this.codec = codec;
+        Files.createDirectories(dossier);
+        this.fichier = Files.createTempFile(dossier, prefixe, ".dat");
+        try {
+            this.canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(fichier);
+            throw e;
+        }
+    }
+
+    /**
+     * Ajoute un objet à la fin du fichier et retourne sa position de relecture.
+     */
+    public long ecrire(T objet) throws IOException {
+        ByteArrayOutputStream octets = new ByteArrayOutputStream(256);
+        DataOutputStream sortie = new DataOutputStream(octets);
+        sortie.writeInt(0);
+        codec.encoder(objet, sortie);
+        sortie.flush();
+        ByteBuffer tampon = ByteBuffer.wrap(octets.toByteArray());
+        tampon.putInt(0, tampon.limit() - Integer.BYTES);
+        synchronized (verrouEcriture) {
+            long position = positionFin;
+            while (tampon.hasRemaining()) {
+                canal.write(tampon, positionFin + tampon.position());
+            }
+            positionFin += tampon.limit();
+            nombreEnregistrements++;
+            return position;
+        }
+    }
+
+    /**
+     * Relit l'objet écrit à {@code position}.
+     */
+    public T lire(long position) throws IOException {
+        ByteBuffer entete = ByteBuffer.allocate(Integer.BYTES);
+        lireComplet(entete, position);
+        int longueur = entete.getInt(0);
+        if (longueur < 0) {
+            throw new IOException("Enregistrement corrompu à la position " + position);
+        }
+        ByteBuffer corps = ByteBuffer.allocate(longueur);
+        lireComplet(corps, position + Integer.BYTES);
+        return codec.decoder(new DataInputStream(new ByteArrayInputStream(corps.array())));
+    }
+
+    private void lireComplet(ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            if (canal.read(tampon, position + tampon.position()) < 0) {
+                throw new IOException("Fin de fichier inattendue à la position " + position);
+            }
+        }
+    }
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    public long getNombreEnregistrements() {
+        return nombreEnregistrements;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
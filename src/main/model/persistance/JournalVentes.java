@@ -0,0 +1,537 @@
+package main.model.persistance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Journal binaire des ventes, en ajout seul.
+ * Un canal unique reste ouvert ; chaque vente occupe {@link EnregistrementVente#TAILLE} octets protégés par CRC.
+ * À l'ouverture, une fin tronquée ou corrompue (arrêt brutal) est retirée du fichier ; un enregistrement
+ * corrompu suivi d'enregistrements valides est recopié dans {@code <journal>.quarantaine} puis retiré,
+ * sans perdre les ventes qui le suivent.
+ * Les ventes archivées peuvent en être retirées par {@link #retirerArchivees(long, Collection)}.
+ */
+public class JournalVentes implements StockageVentes {
+
+    private static final int MAGIC = 0x53504A56; // "SPJV"
+    private static final short VERSION = 1;
+    static final int TAILLE_ENTETE = 16;
+    private static final int TAILLE_LECTURE = EnregistrementVente.TAILLE * 512;
+
+    public static final long INTERVALLE_SYNC_DEFAUT_MS = 200;
+
+    private final Path fichier;
+    private volatile FileChannel canal;
+    private final PolitiqueSynchronisation politique;
+    private final ScheduledExecutorService synchroniseur;
+
+    private final Object verrouEcriture = new Object();
+    // Lectures et fsync (partagé) vs substitution du fichier au compactage (exclusif)
+    private final ReadWriteLock verrouCanal = new ReentrantReadWriteLock();
+    private final ByteBuffer tamponEcriture = ByteBuffer.allocateDirect(EnregistrementVente.TAILLE);
+    private volatile long positionFin;
+    private long nombreEnregistrements;
+    private long enregistrementsRecuperes;
+    private long enregistrementsEnQuarantaine;
+
+    // Commit groupé : séquence écrite vs séquence garantie sur disque
+    private final Object verrouSync = new Object();
+    private volatile long sequenceEcrite;
+    private long sequenceSynchronisee;
+    private boolean syncEnCours;
+
+    public JournalVentes(Path fichier, PolitiqueSynchronisation politique) throws IOException {
+        this(fichier, politique, INTERVALLE_SYNC_DEFAUT_MS);
+    }
+
+    /**
+     * @param intervalleSyncMs période du fsync d'arrière-plan (politique {@link PolitiqueSynchronisation#PERIODIQUE})
+     */
+    public JournalVentes(Path fichier, PolitiqueSynchronisation politique, long intervalleSyncMs) throws IOException {
+        this.fichier = fichier;
+        this.politique = politique == null ? PolitiqueSynchronisation.PERIODIQUE : politique;
+        Path dossier = fichier.toAbsolutePath().getParent();
+        if (dossier != null) {
+            Files.createDirectories(dossier);
+        }
+        this.canal = FileChannel.open(fichier,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            initialiser();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        if (this.politique == PolitiqueSynchronisation.PERIODIQUE) {
+            synchroniseur = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "journal-ventes-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            synchroniseur.scheduleWithFixedDelay(this::synchroniserSilencieusement,
+                    intervalleSyncMs, intervalleSyncMs, TimeUnit.MILLISECONDS);
+        } else {
+            synchroniseur = null;
+        }
+    }
+
+    /**
+     * Écrit l'en-tête d'un journal neuf, ou valide l'en-tête existant puis récupère la fin du journal.
+     */
+    private void initialiser() throws IOException {
+        if (canal.size() == 0) {
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+            entete.putInt(MAGIC).putShort(VERSION).putShort((short) EnregistrementVente.TAILLE);
+            entete.flip();
+            ecrireComplet(entete, 0);
+            canal.force(true);
+            positionFin = TAILLE_ENTETE;
+            return;
+        }
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+        lireComplet(entete, 0);
+        entete.flip();
+        if (entete.remaining() < TAILLE_ENTETE || entete.getInt() != MAGIC) {
+            throw new IOException("Fichier journal des ventes invalide : " + fichier);
+        }
+        short version = entete.getShort();
+        short tailleEnregistrement = entete.getShort();
+        if (version != VERSION || tailleEnregistrement != EnregistrementVente.TAILLE) {
+            throw new IOException("Version de journal non supportée : " + version);
+        }
+        recuperer();
+    }
+
+    /**
+     * Parcourt tout le journal. Les enregistrements invalides situés après le dernier valide sont la fin
+     * d'une écriture interrompue : le fichier est tronqué au dernier enregistrement valide. Ceux qui précèdent
+     * un enregistrement valide sont mis en quarantaine.
+     */
+    private void recuperer() throws IOException {
+        long taille = canal.size();
+        long finComplets = TAILLE_ENTETE + (taille - TAILLE_ENTETE) / EnregistrementVente.TAILLE * EnregistrementVente.TAILLE;
+        long finValide = TAILLE_ENTETE;
+        List<Long> invalides = new ArrayList<>();
+        ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_LECTURE);
+        long position = TAILLE_ENTETE;
+        while (position < finComplets) {
+            tampon.clear();
+            tampon.limit((int) Math.min(tampon.capacity(), finComplets - position));
+            int complets = lireComplet(tampon, position) / EnregistrementVente.TAILLE;
+            if (complets == 0) {
+                break;
+            }
+            for (int i = 0; i < complets; i++) {
+                long debut = position + (long) i * EnregistrementVente.TAILLE;
+                if (EnregistrementVente.estValide(tampon, i * EnregistrementVente.TAILLE)) {
+                    nombreEnregistrements++;
+                    finValide = debut + EnregistrementVente.TAILLE;
+                } else {
+                    invalides.add(debut);
+                }
+            }
+            position += (long) complets * EnregistrementVente.TAILLE;
+        }
+        if (finValide < taille) {
+            enregistrementsRecuperes = (taille - finValide + EnregistrementVente.TAILLE - 1) / EnregistrementVente.TAILLE;
+            System.err.println("Journal des ventes : fin corrompue tronquée à " + finValide + " octets ("
+                    + (taille - finValide) + " octets ignorés)");
+            canal.truncate(finValide);
+            canal.force(true);
+        }
+        positionFin = finValide;
+        int corrompus = 0;
+        while (corrompus < invalides.size() && invalides.get(corrompus) < finValide) {
+            corrompus++;
+        }
+        if (corrompus > 0) {
+            mettreEnQuarantaine(invalides.subList(0, corrompus));
+        }
+    }
+
+    /**
+     * Ajoute les enregistrements corrompus (tels quels) au fichier de quarantaine, puis réécrit le journal sans eux.
+     */
+    private void mettreEnQuarantaine(List<Long> positions) throws IOException {
+        Path quarantaine = getFichierQuarantaine();
+        try (FileChannel cible = FileChannel.open(quarantaine, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer enregistrement = ByteBuffer.allocate(EnregistrementVente.TAILLE);
+            for (long debut : positions) {
+                enregistrement.clear();
+                lireComplet(enregistrement, debut);
+                enregistrement.flip();
+                while (enregistrement.hasRemaining()) {
+                    cible.write(enregistrement);
+                }
+            }
+            cible.force(true);
+        }
+        enregistrementsEnQuarantaine = positions.size();
+        System.err.println("Journal des ventes : " + positions.size()
+                + " enregistrement(s) corrompu(s) mis en quarantaine dans " + quarantaine);
+        long[] indice = {0};
+        int[] suivant = {0};
+        synchronized (verrouEcriture) {
+            reecrire((tampon, debut) -> {
+                long position = TAILLE_ENTETE + indice[0]++ * EnregistrementVente.TAILLE;
+                if (suivant[0] < positions.size() && positions.get(suivant[0]) == position) {
+                    suivant[0]++;
+                    return false;
+                }
+                return true;
+            });
+        }
+    }
+
+    @Override
+    public void ajouter(EnregistrementVente vente) throws IOException {
+        long sequence;
+        synchronized (verrouEcriture) {
+            tamponEcriture.clear();
+            vente.encoder(tamponEcriture);
+            tamponEcriture.flip();
+            ecrireComplet(tamponEcriture, positionFin);
+            positionFin += EnregistrementVente.TAILLE;
+            nombreEnregistrements++;
+            sequence = ++sequenceEcrite;
+            if (politique == PolitiqueSynchronisation.A_CHAQUE_VENTE) {
+                canal.force(false);
+                marquerSynchronise(sequence);
+            }
+        }
+        apresEcriture(sequence);
+    }
+
+    /**
+     * Écrit toutes les ventes en un seul appel système, suivi d'au plus un fsync.
+     */
+    @Override
+    public void ajouterTous(List<EnregistrementVente> ventes) throws IOException {
+        if (ventes.isEmpty()) {
+            return;
+        }
+        ByteBuffer lot = ByteBuffer.allocate(ventes.size() * EnregistrementVente.TAILLE);
+        for (EnregistrementVente vente : ventes) {
+            vente.encoder(lot);
+        }
+        lot.flip();
+        long sequence;
+        synchronized (verrouEcriture) {
+            ecrireComplet(lot, positionFin);
+            positionFin += lot.limit();
+            nombreEnregistrements += ventes.size();
+            sequence = ++sequenceEcrite;
+            if (politique == PolitiqueSynchronisation.A_CHAQUE_VENTE) {
+                canal.force(false);
+                marquerSynchronise(sequence);
+            }
+        }
+        apresEcriture(sequence);
+    }
+
+    private void apresEcriture(long sequence) throws IOException {
+        if (politique == PolitiqueSynchronisation.GROUPEE) {
+            attendreSynchronisation(sequence);
+        }
+    }
+
+    private void marquerSynchronise(long sequence) {
+        synchronized (verrouSync) {
+            if (sequence > sequenceSynchronisee) {
+                sequenceSynchronisee = sequence;
+            }
+        }
+    }
+
+    /**
+     * Garantit que la séquence donnée est sur disque.
+     * Le premier appelant effectue le fsync pour tous ceux qui attendent (commit groupé).
+     */
+    private void attendreSynchronisation(long sequence) throws IOException {
+        while (true) {
+            long cible;
+            synchronized (verrouSync) {
+                while (syncEnCours && sequenceSynchronisee < sequence) {
+                    try {
+                        verrouSync.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Attente de synchronisation interrompue", e);
+                    }
+                }
+                if (sequenceSynchronisee >= sequence) {
+                    return;
+                }
+                syncEnCours = true;
+                cible = sequenceEcrite;
+            }
+            boolean succes = false;
+            verrouCanal.readLock().lock();
+            try {
+                canal.force(false);
+                succes = true;
+            } finally {
+                verrouCanal.readLock().unlock();
+                synchronized (verrouSync) {
+                    syncEnCours = false;
+                    if (succes && cible > sequenceSynchronisee) {
+                        sequenceSynchronisee = cible;
+                    }
+                    verrouSync.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void synchroniserSilencieusement() {
+        try {
+            if (sequenceEcrite > sequenceSynchronisee) {
+                synchroniser();
+            }
+        } catch (IOException e) {
+            System.err.println("Journal des ventes : échec de synchronisation : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void synchroniser() throws IOException {
+        if (canal.isOpen()) {
+            attendreSynchronisation(sequenceEcrite);
+        }
+    }
+
+    @Override
+    public List<EnregistrementVente> lireTout() throws IOException {
+        List<EnregistrementVente> ventes = new ArrayList<>();
+        lireBlocs((tampon, complets) -> {
+            for (int i = 0; i < complets; i++) {
+                ventes.add(EnregistrementVente.decoder(tampon, i * EnregistrementVente.TAILLE));
+            }
+        });
+        return ventes;
+    }
+
+    /**
+     * Lit les champs numériques directement dans le tampon de lecture, sans décoder la référence.
+     */
+    @Override
+    public void parcourir(VisiteurVentes visiteur) throws IOException {
+        lireBlocs((tampon, complets) -> {
+            for (int i = 0; i < complets; i++) {
+                int debut = i * EnregistrementVente.TAILLE;
+                visiteur.visiter(tampon.getLong(debut), tampon.getLong(debut + 8), tampon.getLong(debut + 16));
+            }
+        });
+    }
+
+    /**
+     * Lit le journal par blocs d'enregistrements complets, jusqu'à la fin connue au moment de l'appel.
+     */
+    private void lireBlocs(TraitementBloc traitement) throws IOException {
+        verrouCanal.readLock().lock();
+        try {
+            long fin = positionFin;
+            ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_LECTURE);
+            long position = TAILLE_ENTETE;
+            while (position < fin) {
+                tampon.clear();
+                tampon.limit((int) Math.min(tampon.capacity(), fin - position));
+                int lus = lireComplet(tampon, position);
+                int complets = lus / EnregistrementVente.TAILLE;
+                if (complets == 0) {
+                    break;
+                }
+                traitement.traiter(tampon, complets);
+                position += (long) complets * EnregistrementVente.TAILLE;
+            }
+        } finally {
+            verrouCanal.readLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface TraitementBloc {
+        void traiter(ByteBuffer tampon, int complets) throws IOException;
+    }
+
+    /**
+     * Réécrit le journal sans les ventes archivées (seules celles antérieures à {@code limite} sont décodées).
+     * Le nouveau journal est écrit à côté puis substitué atomiquement ; les ajouts attendent la fin de la copie.
+     */
+    @Override
+    public boolean retirerArchivees(long limite, Collection<EnregistrementVente> archivees) throws IOException {
+        Map<EnregistrementVente, Integer> aRetirer = new HashMap<>();
+        for (EnregistrementVente vente : archivees) {
+            aRetirer.merge(vente, 1, Integer::sum);
+        }
+        synchronized (verrouEcriture) {
+            reecrire((tampon, debut) -> tampon.getLong(debut) >= limite
+                    || !retirer(aRetirer, EnregistrementVente.decoder(tampon, debut)));
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface FiltreEnregistrement {
+        boolean conserver(ByteBuffer tampon, int debut);
+    }
+
+    /**
+     * Recopie dans un nouveau journal les enregistrements retenus par le filtre (appelé dans l'ordre du fichier),
+     * puis le substitue au journal courant ; rien n'est substitué si tout est conservé. Sous le verrou d'écriture.
+     */
+    private void reecrire(FiltreEnregistrement filtre) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".compactage");
+        long[] lus = new long[1];
+        long[] conserves = new long[1];
+        try (FileChannel cible = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer sortie = ByteBuffer.allocateDirect(TAILLE_LECTURE);
+            sortie.putInt(MAGIC).putShort(VERSION).putShort((short) EnregistrementVente.TAILLE);
+            sortie.position(TAILLE_ENTETE);
+            lireBlocs((tampon, complets) -> {
+                for (int i = 0; i < complets; i++) {
+                    int debut = i * EnregistrementVente.TAILLE;
+                    lus[0]++;
+                    if (!filtre.conserver(tampon, debut)) {
+                        continue;
+                    }
+                    if (sortie.remaining() < EnregistrementVente.TAILLE) {
+                        vider(sortie, cible);
+                    }
+                    ByteBuffer enregistrement = tampon.duplicate();
+                    enregistrement.limit(debut + EnregistrementVente.TAILLE).position(debut);
+                    sortie.put(enregistrement);
+                    conserves[0]++;
+                }
+            });
+            vider(sortie, cible);
+            cible.force(true);
+        }
+        if (conserves[0] == lus[0]) {
+            Files.delete(temporaire);
+            return;
+        }
+        verrouCanal.writeLock().lock();
+        try {
+            canal.force(false);
+            marquerSynchronise(sequenceEcrite);
+            canal.close();
+            try {
+                Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                nombreEnregistrements = conserves[0];
+                positionFin = TAILLE_ENTETE + conserves[0] * EnregistrementVente.TAILLE;
+            } finally {
+                canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        } finally {
+            verrouCanal.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Décompte un exemplaire de {@code vente} parmi les ventes à retirer.
+     */
+    private static boolean retirer(Map<EnregistrementVente, Integer> aRetirer, EnregistrementVente vente) {
+        Integer restantes = aRetirer.get(vente);
+        if (restantes == null) {
+            return false;
+        }
+        if (restantes == 1) {
+            aRetirer.remove(vente);
+        } else {
+            aRetirer.put(vente, restantes - 1);
+        }
+        return true;
+    }
+
+    private static void vider(ByteBuffer sortie, FileChannel cible) throws IOException {
+        sortie.flip();
+        while (sortie.hasRemaining()) {
+            cible.write(sortie);
+        }
+        sortie.clear();
+    }
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    public PolitiqueSynchronisation getPolitique() {
+        return politique;
+    }
+
+    public long getNombreEnregistrements() {
+        synchronized (verrouEcriture) {
+            return nombreEnregistrements;
+        }
+    }
+
+    /**
+     * Nombre d'enregistrements incomplets ou corrompus retirés de la fin du journal à l'ouverture.
+     */
+    public long getEnregistrementsRecuperes() {
+        return enregistrementsRecuperes;
+    }
+
+    /**
+     * Nombre d'enregistrements corrompus mis en quarantaine à l'ouverture (ventes valides suivantes conservées).
+     */
+    public long getEnregistrementsEnQuarantaine() {
+        return enregistrementsEnQuarantaine;
+    }
+
+    public Path getFichierQuarantaine() {
+        return fichier.resolveSibling(fichier.getFileName() + ".quarantaine");
+    }
+
+    public boolean estVide() {
+        return getNombreEnregistrements() == 0;
+    }
+
+    private void ecrireComplet(ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            position += canal.write(tampon, position);
+        }
+    }
+
+    private int lireComplet(ByteBuffer tampon, long position) throws IOException {
+        int total = 0;
+        while (tampon.hasRemaining()) {
+            int lus = canal.read(tampon, position + total);
+            if (lus < 0) {
+                break;
+            }
+            total += lus;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (synchroniseur != null) {
+            synchroniseur.shutdownNow();
+        }
+        if (canal.isOpen()) {
+            synchroniser();
+            canal.close();
+        }
+    }
+}
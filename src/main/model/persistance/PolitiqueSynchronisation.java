@@ -0,0 +1,15 @@
+package main.model.persistance;
+
+/**
+ * Politique de passage sur disque (fsync) du journal des ventes.
+ */
+public enum PolitiqueSynchronisation {
+    /** fsync après chaque vente : aucune perte possible, coût maximal. */
+    A_CHAQUE_VENTE,
+    /** Les ventes concurrentes attendent un fsync commun (commit groupé). */
+    GROUPEE,
+    /** fsync périodique en arrière-plan : la vente n'attend pas le disque. */
+    PERIODIQUE,
+    /** Laisse le système d'exploitation décider (tests, postes de démonstration). */
+    AUCUNE
+}
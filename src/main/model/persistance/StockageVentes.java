@@ -0,0 +1,69 @@
+package main.model.persistance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Support de persistance des ventes, branché derrière {@code GestPharmacieService}.
+ * Les implémentations gardent leur fichier ouvert entre deux ventes.
+ */
+public interface StockageVentes extends Closeable {
+
+    /**
+     * Ajoute une vente à la fin du support.
+     */
+    void ajouter(EnregistrementVente vente) throws IOException;
+
+    /**
+     * Ajoute plusieurs ventes ; les implémentations peuvent les regrouper en une seule écriture.
+     */
+    default void ajouterTous(List<EnregistrementVente> ventes) throws IOException {
+        for (EnregistrementVente vente : ventes) {
+            ajouter(vente);
+        }
+    }
+
+    /**
+     * Relit toutes les ventes persistées, dans l'ordre d'écriture.
+     */
+    List<EnregistrementVente> lireTout() throws IOException;
+
+    /**
+     * Parcourt toutes les ventes persistées en une passe, dans l'ordre d'écriture.
+     * Les implémentations décodent les champs directement vers le visiteur, sans objet intermédiaire.
+     */
+    default void parcourir(VisiteurVentes visiteur) throws IOException {
+        for (EnregistrementVente vente : lireTout()) {
+            visiteur.visiter(vente.getTimestamp(), vente.getMontantTotalCentimes(),
+                    vente.getMontantRembourseCentimes());
+        }
+    }
+
+    /**
+     * Retire du support les ventes versées dans l'archive : un exemplaire par vente de {@code archivees},
+     * parmi celles antérieures à {@code limite}. Une vente absente de la liste reste en place,
+     * même si elle est antérieure à la limite (ajoutée pendant le compactage).
+     *
+     * @return false si le support ne sait pas se compacter (les ventes restent en place)
+     */
+    default boolean retirerArchivees(long limite, Collection<EnregistrementVente> archivees) throws IOException {
+        return false;
+    }
+
+    /**
+     * Force l'écriture sur disque des ventes déjà ajoutées.
+     */
+    void synchroniser() throws IOException;
+
+    /**
+     * Exporte les ventes au format CSV historique ({@code timestamp,total,rembourse,type,reference[,ordonnance]}).
+     */
+    default void exporterCsv(Path cible) throws IOException {
+        try (CsvVentes csv = new CsvVentes(cible)) {
+            csv.ajouterTous(lireTout());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package main.model.persistance;
+
+/**
+ * Reçoit les ventes persistées une à une, sous forme primitive (aucun objet alloué par vente).
+ */
+@FunctionalInterface
+public interface VisiteurVentes {
+
+    void visiter(long timestamp, long montantTotalCentimes, long montantRembourseCentimes);
+}
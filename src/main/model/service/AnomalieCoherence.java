@@ -0,0 +1,62 @@
+package main.model.service;
+
+/**
+ * Anomalie relevée par l'audit de cohérence entre ordonnances et achats.
+ */
+public final class AnomalieCoherence {
+
+    public enum Type {
+        /** Ordonnance enregistrée sans aucun achat qui la délivre. */
+        ORDONNANCE_SANS_ACHAT,
+        /** Achat lié à une référence d'ordonnance inconnue. */
+        ORDONNANCE_INCONNUE,
+        /** Achat lié à une ordonnance d'un autre patient que son client. */
+        PATIENT_DIFFERENT
+    }
+
+    private final Type type;
+    private final String referenceOrdonnance;
+    private final String referenceAchat;
+
+    public AnomalieCoherence(Type type, String referenceOrdonnance, String referenceAchat) {
+        this.type = type;
+        this.referenceOrdonnance = referenceOrdonnance;
+        this.referenceAchat = referenceAchat;
+    }
+
+    public Type getType() {
+        return type;
+    }
+    public String getReferenceOrdonnance() {
+        return referenceOrdonnance;
+    }
+    /**
+     * Référence de l'achat en cause (null pour une ordonnance sans achat).
+     */
+    public String getReferenceAchat() {
+        return referenceAchat;
+    }
+
+    /**
+     * Libellé affichable de l'anomalie.
+     */
+    public String getMessage() {
+        switch (type) {
+            case ORDONNANCE_SANS_ACHAT:
+                return "Ordonnance " + referenceOrdonnance + " sans achat correspondant";
+            case ORDONNANCE_INCONNUE:
+                return "Achat " + referenceAchat + " lié à une ordonnance inconnue : " + referenceOrdonnance;
+            default:
+                return "Achat " + referenceAchat + " : patient différent de celui de l'ordonnance " + referenceOrdonnance;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AnomalieCoherence{" +
+                "type=" + type +
+                ", referenceOrdonnance='" + referenceOrdonnance + '\'' +
+                ", referenceAchat='" + referenceAchat + '\'' +
+                '}';
+    }
+}
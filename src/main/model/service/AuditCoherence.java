@@ -0,0 +1,145 @@
+package main.model.service;
+
+import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.TypeAchat;
+import main.model.Transaction.TypeTransaction.Achat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Audit par lot de la cohérence ordonnances / achats, en jointure par hachage.
+ *
+ * Les achats de type ORDONNANCE sont indexés une fois (par ordonnance liée et par couple
+ * client + horodatage), puis chaque ordonnance est confrontée à ces index en O(1).
+ * Les deux phases peuvent s'exécuter en parallèle sur tous les cœurs.
+ */
+public final class AuditCoherence {
+
+    /** Fréquence (en ordonnances traitées) des notifications de progression. */
+    public static final int PAS_PROGRESSION = 1024;
+
+    /**
+     * Suivi de l'avancement ; appelé depuis les threads de l'audit.
+     */
+    @FunctionalInterface
+    public interface Progression {
+        void avancer(long traitees, long total);
+    }
+
+    private final List<Ordonnance> ordonnances;
+    private final List<Achat> achats;
+    private final boolean parallele;
+    private final Progression progression;
+
+    /**
+     * @param ordonnances instantané des ordonnances à auditer
+     * @param achats      instantané des achats
+     * @param progression suivi facultatif (null accepté)
+     */
+    public AuditCoherence(List<Ordonnance> ordonnances, List<Achat> achats, boolean parallele,
+                          Progression progression) {
+        this.ordonnances = ordonnances;
+        this.achats = achats;
+        this.parallele = parallele;
+        this.progression = progression;
+    }
+
+    /**
+     * Exécute l'audit ; les anomalies suivent l'ordre des ordonnances puis celui des achats.
+     */
+    public List<AnomalieCoherence> executer() {
+        List<Achat> achatsOrdonnance = flux(achats)
+                .filter(achat -> achat.getType() == TypeAchat.ORDONNANCE)
+                .collect(Collectors.toList());
+        Set<String> ordonnancesLiees = flux(achatsOrdonnance)
+                .map(Achat::getReferenceOrdonnance)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<CleAchat> clesAchats = flux(achatsOrdonnance)
+                .map(achat -> new CleAchat(achat.getClient().getIdentifiant(), achat.getDateTransaction().getTime()))
+                .collect(Collectors.toSet());
+
+        long total = ordonnances.size();
+        AtomicLong traitees = new AtomicLong();
+        List<AnomalieCoherence> anomalies = new ArrayList<>(flux(ordonnances)
+                .filter(ordonnance -> {
+                    signaler(traitees.incrementAndGet(), total);
+                    return !ordonnancesLiees.contains(ordonnance.getReference())
+                            && !clesAchats.contains(new CleAchat(ordonnance.getPatient().getIdentifiant(),
+                            ordonnance.getDateCreation().getTime()));
+                })
+                .map(ordonnance -> new AnomalieCoherence(AnomalieCoherence.Type.ORDONNANCE_SANS_ACHAT,
+                        ordonnance.getReference(), null))
+                .collect(Collectors.toList()));
+
+        Map<String, Ordonnance> parReference = flux(ordonnances)
+                .filter(ordonnance -> ordonnance.getReference() != null)
+                .collect(Collectors.toMap(Ordonnance::getReference, Function.identity(), (a, b) -> a));
+        anomalies.addAll(flux(achatsOrdonnance)
+                .filter(achat -> achat.getReferenceOrdonnance() != null)
+                .map(achat -> verifierLien(achat, parReference.get(achat.getReferenceOrdonnance())))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        if (progression != null && total % PAS_PROGRESSION != 0) {
+            progression.avancer(total, total);
+        }
+        return Collections.unmodifiableList(anomalies);
+    }
+
+    private static AnomalieCoherence verifierLien(Achat achat, Ordonnance ordonnance) {
+        if (ordonnance == null) {
+            return new AnomalieCoherence(AnomalieCoherence.Type.ORDONNANCE_INCONNUE,
+                    achat.getReferenceOrdonnance(), achat.getReference());
+        }
+        if (!ordonnance.getPatient().equals(achat.getClient())) {
+            return new AnomalieCoherence(AnomalieCoherence.Type.PATIENT_DIFFERENT,
+                    ordonnance.getReference(), achat.getReference());
+        }
+        return null;
+    }
+
+    private void signaler(long traitees, long total) {
+        if (progression != null && traitees % PAS_PROGRESSION == 0) {
+            progression.avancer(traitees, total);
+        }
+    }
+
+    private <T> Stream<T> flux(List<T> liste) {
+        return parallele ? liste.parallelStream() : liste.stream();
+    }
+
+    /**
+     * Clé de jointure : client et instant de la transaction.
+     */
+    private static final class CleAchat {
+        private final String client;
+        private final long instant;
+
+        CleAchat(String client, long instant) {
+            this.client = client;
+            this.instant = instant;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CleAchat)) return false;
+            CleAchat autre = (CleAchat) o;
+            return instant == autre.instant && Objects.equals(client, autre.client);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(client) + Long.hashCode(instant);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package main.model.service;
+
+import main.model.Transaction.Montant;
+
+/**
+ * Agrégat de ventes sur une période : nombre, chiffre d'affaires et montant remboursé (en centimes).
+ */
+public final class BilanVentes {
+
+    public static final BilanVentes VIDE = new BilanVentes(0, 0, 0);
+
+    private final long nombreVentes;
+    private final long montantTotalCentimes;
+    private final long montantRembourseCentimes;
+
+    public BilanVentes(long nombreVentes, long montantTotalCentimes, long montantRembourseCentimes) {
+        this.nombreVentes = nombreVentes;
+        this.montantTotalCentimes = montantTotalCentimes;
+        this.montantRembourseCentimes = montantRembourseCentimes;
+    }
+
+    public long getNombreVentes() {
+        return nombreVentes;
+    }
+    public long getMontantTotalCentimes() {
+        return montantTotalCentimes;
+    }
+    public long getMontantRembourseCentimes() {
+        return montantRembourseCentimes;
+    }
+    public double getChiffreAffaires() {
+        return Montant.enEuros(montantTotalCentimes);
+    }
+    public double getMontantRembourse() {
+        return Montant.enEuros(montantRembourseCentimes);
+    }
+
+    public BilanVentes plus(BilanVentes autre) {
+        return new BilanVentes(nombreVentes + autre.nombreVentes,
+                montantTotalCentimes + autre.montantTotalCentimes,
+                montantRembourseCentimes + autre.montantRembourseCentimes);
+    }
+
+    @Override
+    public String toString() {
+        return "BilanVentes{" +
+                "nombreVentes=" + nombreVentes +
+                ", montantTotalCentimes=" + montantTotalCentimes +
+                ", montantRembourseCentimes=" + montantRembourseCentimes +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package main.model.service;
+
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+
+/**
+ * Notifié par la surveillance des péremptions lorsqu'un médicament passe sous le seuil
+ * « expire dans 30 jours » ({@link StatutStock#EXPIRE_BIENTOT}) puis lorsqu'il est périmé
+ * ({@link StatutStock#PERIME}). Appelé depuis le thread de surveillance.
+ */
+@FunctionalInterface
+public interface EcouteurPeremption {
+    void peremptionAtteinte(Medicament medicament, StatutStock statut);
+
+    /**
+     * Même seuils pour un lot numéroté encore en stock (état du lot au moment du passage).
+     */
+    default void peremptionLotAtteinte(Lot lot, StatutStock statut) {
+    }
+}
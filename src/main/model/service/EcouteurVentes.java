@@ -0,0 +1,12 @@
+package main.model.service;
+
+import main.model.Transaction.TypeTransaction.Achat;
+
+/**
+ * Notifié de chaque achat enregistré par le service (vente unitaire ou lot), une fois l'achat figé
+ * et écrit dans le stockage. Appelé sur le thread de l'enregistrement : ne doit pas bloquer.
+ */
+@FunctionalInterface
+public interface EcouteurVentes {
+    void venteEnregistree(Achat achat);
+}
@@ -0,0 +1,60 @@
+package main.model.service;
+
+/**
+ * Instantané d'une rétention chaud/froid : objets vivants, objets évincés sur disque,
+ * et efficacité du cache des objets relus (succès / échecs).
+ */
+public final class EtatRetention {
+
+    private final int capaciteChaude;
+    private final int capaciteCache;
+    private final long nombreChauds;
+    private final long nombreFroids;
+    private final int nombreEnCache;
+    private final long succesCache;
+    private final long echecsCache;
+
+    EtatRetention(int capaciteChaude, int capaciteCache, long nombreChauds, long nombreFroids,
+                  int nombreEnCache, long succesCache, long echecsCache) {
+        this.capaciteChaude = capaciteChaude;
+        this.capaciteCache = capaciteCache;
+        this.nombreChauds = nombreChauds;
+        this.nombreFroids = nombreFroids;
+        this.nombreEnCache = nombreEnCache;
+        this.succesCache = succesCache;
+        this.echecsCache = echecsCache;
+    }
+
+    public int getCapaciteChaude() {
+        return capaciteChaude;
+    }
+    public int getCapaciteCache() {
+        return capaciteCache;
+    }
+    public long getNombreChauds() {
+        return nombreChauds;
+    }
+    public long getNombreFroids() {
+        return nombreFroids;
+    }
+    public int getNombreEnCache() {
+        return nombreEnCache;
+    }
+    public long getSuccesCache() {
+        return succesCache;
+    }
+    public long getEchecsCache() {
+        return echecsCache;
+    }
+
+    @Override
+    public String toString() {
+        return "EtatRetention{" +
+                "chauds=" + nombreChauds + "/" + capaciteChaude +
+                ", froids=" + nombreFroids +
+                ", cache=" + nombreEnCache + "/" + capaciteCache +
+                ", succes=" + succesCache +
+                ", echecs=" + echecsCache +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package main.model.service;
+
+/**
+ * Poignée d'un objet retenu par {@link RetentionObjets} : l'objet vivant tant qu'il est récent,
+ * sa position dans l'entrepôt froid une fois évincé. Les index ne gardent que ces poignées,
+ * avec les quelques clés utiles aux recherches sans relecture.
+ */
+final class Fiche<T> {
+
+    private final long instant;
+    private final String reference;
+    // Référence liée (ordonnance délivrée par un achat), lisible sans relecture
+    private final String lien;
+    private volatile T chaud;
+    private volatile long position = -1;
+
+    Fiche(T objet, long instant, String reference, String lien) {
+        this.chaud = objet;
+        this.instant = instant;
+        this.reference = reference;
+        this.lien = lien;
+    }
+
+    long getInstant() {
+        return instant;
+    }
+    String getReference() {
+        return reference;
+    }
+    String getLien() {
+        return lien;
+    }
+    T getChaud() {
+        return chaud;
+    }
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * La position est publiée avant de lâcher l'objet : qui ne voit plus l'objet voit la position.
+     */
+    void evincer(long position) {
+        this.position = position;
+        this.chaud = null;
+    }
+}
@@ -1,17 +1,40 @@
 package main.model.service;
 
 import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
 import main.model.Medicament.TypeAchat;
 import main.model.Organisme.TypeOrganisme.Mutuelle;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Personne.CategoriePersonne.Pharmacien;
 import main.model.Transaction.TypeTransaction.Achat;
+import main.model.persistance.ArchiveVentes;
+import main.model.persistance.CodecAchat;
+import main.model.persistance.CodecOrdonnance;
+import main.model.persistance.CsvVentes;
+import main.model.persistance.EnregistrementVente;
+import main.model.persistance.EntrepotFroid;
+import main.model.persistance.JournalVentes;
+import main.model.persistance.PolitiqueSynchronisation;
+import main.model.persistance.StockageVentes;
 import main.model.security.SecurityValidator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Service métier central de la pharmacie.
@@ -19,19 +42,326 @@ import java.util.stream.Collectors;
  */
 public class GestPharmacieService {
 
-    private final Map<String, Client> clients = new ConcurrentHashMap<>();
-    private final Map<String, Medecin> medecins = new ConcurrentHashMap<>();
-    private final Map<String, Mutuelle> mutuelles = new ConcurrentHashMap<>();
-    private final List<Achat> achats = new CopyOnWriteArrayList<>();
-    private final List<Ordonnance> ordonnances = new CopyOnWriteArrayList<>();
+    // Annuaires triés par clé : pages par curseur et vues sans copie
+    private final ConcurrentNavigableMap<String, Client> clients = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Medecin> medecins = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Mutuelle> mutuelles = new ConcurrentSkipListMap<>();
+    // Historiques en ajout seul : un enregistrement ne recopie jamais les ventes déjà retenues.
+    // Historiques et index ne gardent que des fiches ; les objets anciens sont évincés sur disque
+    private final ListeAjouts<Fiche<Achat>> achats = new ListeAjouts<>();
+    private final ListeAjouts<Fiche<Ordonnance>> ordonnances = new ListeAjouts<>();
+    private final RetentionObjets<Achat> retentionAchats = new RetentionObjets<>();
+    private final RetentionObjets<Ordonnance> retentionOrdonnances = new RetentionObjets<>();
+    private final InventaireMedicaments inventaire = new InventaireMedicaments();
+    private final SurveillancePeremptions surveillancePeremptions = new SurveillancePeremptions(inventaire);
+
+    // Index secondaires, alimentés avant la liste principale : tout élément listé y est trouvable
+    private final Map<String, Fiche<Achat>> achatsParReference = new ConcurrentHashMap<>();
+    private final IndexMultiple<String, Fiche<Achat>> achatsParClient = new IndexMultiple<>();
+    private final IndexMultiple<String, Fiche<Achat>> achatsParOrdonnance = new IndexMultiple<>();
+    private final IndexMultiple<String, Fiche<Achat>> achatsParMedecin = new IndexMultiple<>();
+    private final IndexMultiple<String, Fiche<Achat>> achatsParLot = new IndexMultiple<>();
+    private final Object verrouLiensOrdonnances = new Object();
+    private final Map<String, Fiche<Ordonnance>> ordonnancesParReference = new ConcurrentHashMap<>();
+    private final IndexMultiple<String, Fiche<Ordonnance>> ordonnancesParClient = new IndexMultiple<>();
+    private final IndexMultiple<String, Fiche<Ordonnance>> ordonnancesParMedecin = new IndexMultiple<>();
 
     // Mutuelle et taux génériques (utilisés pour les nouveaux clients)
     private volatile Mutuelle mutuelleGenerique;
     private volatile double tauxRemboursementGenerique = 70.0; // valeur par défaut; peut être ajustée via setter
 
-    // Persistance simple des ventes
-    private final java.io.File ventesFile = new java.io.File("data/achats.csv");
+    // Persistance des ventes (journal binaire par défaut, CSV historique importé au premier démarrage)
+    public static final Path FICHIER_JOURNAL_VENTES = Paths.get("data/achats.journal");
+    public static final Path FICHIER_CSV_VENTES = Paths.get("data/achats.csv");
+    public static final Path DOSSIER_ARCHIVE_VENTES = Paths.get("data/archive");
+    public static final long INTERVALLE_COMPACTAGE_MS = TimeUnit.HOURS.toMillis(1);
+    // Rétention des objets de vente : les plus récents en mémoire, les anciens relus depuis la session
+    public static final Path DOSSIER_RETENTION = Paths.get("data/retention");
+    public static final int CAPACITE_CHAUDE_PAR_DEFAUT = 10_000;
+    public static final int CAPACITE_CACHE_PAR_DEFAUT = 1_000;
+    private final StockageVentes stockageVentes;
+
+    // Archive colonnaire des mois clos ; le stockage ne garde que les ventes postérieures à sa limite
+    private final ArchiveVentes archiveVentes;
+    private final ReadWriteLock verrouArchive = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService compacteur;
+
+    // Index temporel des ventes non archivées (historique persisté + ventes de la session)
+    private final IndexVentes indexVentes = new IndexVentes();
+    private final StatistiquesVentes statistiquesVentes = new StatistiquesVentes();
+    private final List<EcouteurVentes> ecouteursVentes = new CopyOnWriteArrayList<>();
+    private volatile boolean historiqueIndexe;
+
+    public GestPharmacieService() {
+        this(ouvrirStockageParDefaut(), ouvrirArchiveParDefaut());
+        try {
+            configurerRetention(DOSSIER_RETENTION, CAPACITE_CHAUDE_PAR_DEFAUT, CAPACITE_CACHE_PAR_DEFAUT);
+        } catch (IOException e) {
+            System.err.println("Rétention sur disque indisponible, ventes gardées en mémoire : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Construit le service avec un support de persistance des ventes fourni (journal, CSV, ...).
+     */
+    public GestPharmacieService(StockageVentes stockageVentes) {
+        this(stockageVentes, null);
+    }
+
+    /**
+     * Construit le service avec un stockage des ventes et une archive des mois clos (facultative).
+     * Avec une archive, les mois clos sont compactés en arrière-plan hors du stockage.
+     */
+    public GestPharmacieService(StockageVentes stockageVentes, ArchiveVentes archiveVentes) {
+        this.stockageVentes = SecurityValidator.validateNotNull(stockageVentes, "Stockage des ventes");
+        this.archiveVentes = archiveVentes;
+        chargerHistoriqueVentes();
+        if (archiveVentes != null) {
+            compacteur = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "compactage-ventes");
+                t.setDaemon(true);
+                return t;
+            });
+            compacteur.scheduleWithFixedDelay(this::compacterVentes,
+                    0, INTERVALLE_COMPACTAGE_MS, TimeUnit.MILLISECONDS);
+        } else {
+            compacteur = null;
+        }
+    }
+
+/**
+ * Alimente l'index temporel et les statistiques matérialisées avec l'historique persisté.
+ * Les ventes déjà archivées ne sont pas indexées ; l'archive ne sert qu'aux compteurs de l'année en cours.
+ * En cas d'échec, les agrégats de période relisent le stockage.
+ */
+private void chargerHistoriqueVentes() {
+    try {
+        long limite = limiteArchive();
+        List<EnregistrementVente> historique = stockageVentes.lireTout();
+        statistiquesVentes.reinitialiser();
+        if (archiveVentes != null) {
+            long maintenant = System.currentTimeMillis();
+            long debut = Math.min(PeriodeStandard.ANNEE.debut(maintenant, statistiquesVentes.getZone()),
+                    PeriodeStandard.TRENTE_JOURS.debut(maintenant, statistiquesVentes.getZone()));
+            archiveVentes.parcourir(debut, Long.MAX_VALUE, statistiquesVentes::enregistrer);
+        }
+        for (EnregistrementVente vente : historique) {
+            if (vente.getTimestamp() >= limite) {
+                indexVentes.ajouter(vente);
+                statistiquesVentes.enregistrer(vente);
+            }
+        }
+        historiqueIndexe = true;
+    } catch (IOException e) {
+        System.err.println("Historique des ventes non indexé : " + e.getMessage());
+    }
+}
+
+/**
+ * Inventaire partagé des médicaments (stock atomique par médicament).
+ */
+public InventaireMedicaments getInventaire() {
+    return inventaire;
+}
+
+/**
+ * Surveillance des péremptions de l'inventaire (roue temporelle), démarrée par {@link #demarrerSurveillancePeremptions()}.
+ */
+public SurveillancePeremptions getSurveillancePeremptions() {
+    return surveillancePeremptions;
+}
+
+/**
+ * Abonne un écouteur aux achats enregistrés (affichages tenus par différence plutôt que par recomptage).
+ */
+public void ajouterEcouteurVentes(EcouteurVentes ecouteur) {
+    if (ecouteur != null) {
+        ecouteursVentes.add(ecouteur);
+    }
+}
+
+public void retirerEcouteurVentes(EcouteurVentes ecouteur) {
+    ecouteursVentes.remove(ecouteur);
+}
+
+private void notifierVente(Achat achat) {
+    for (EcouteurVentes ecouteur : ecouteursVentes) {
+        try {
+            ecouteur.venteEnregistree(achat);
+        } catch (RuntimeException e) {
+            System.err.println("Erreur lors de la notification de vente : " + e.getMessage());
+        }
+    }
+}
+
+/**
+ * Démarre la surveillance des péremptions en arrière-plan (sans effet si déjà démarrée).
+ */
+public void demarrerSurveillancePeremptions() {
+    surveillancePeremptions.demarrer();
+}
+
+/**
+ * Ouvre l'archive des ventes par défaut ; sans archive, tout l'historique reste dans le stockage.
+ */
+private static ArchiveVentes ouvrirArchiveParDefaut() {
+    try {
+        return new ArchiveVentes(DOSSIER_ARCHIVE_VENTES);
+    } catch (IOException e) {
+        System.err.println("Archive des ventes indisponible : " + e.getMessage());
+        return null;
+    }
+}
+
+/**
+ * Limite la mémoire occupée par les objets Achat et Ordonnance : au-delà de {@code capaciteChaude}
+ * objets vivants par type, les plus anciens sont écrits dans un fichier de session propre à ce service
+ * sous {@code dossier} (supprimé à la fermeture) et relus à la demande (cache LRU de {@code capaciteCache}
+ * objets), avec les clients et médecins courants des annuaires. Une seule configuration par service ;
+ * sans elle, tout reste en mémoire.
+ */
+public void configurerRetention(Path dossier, int capaciteChaude, int capaciteCache) throws IOException {
+    SecurityValidator.validateNotNull(dossier, "Dossier de rétention");
+    EntrepotFroid<Achat> entrepotAchats = new EntrepotFroid<>(dossier, "achats-froids-",
+            new CodecAchat(inventaire.getCatalogue(), clients::get));
+    EntrepotFroid<Ordonnance> entrepotOrdonnances;
+    try {
+        entrepotOrdonnances = new EntrepotFroid<>(dossier, "ordonnances-froides-",
+                new CodecOrdonnance(inventaire.getCatalogue(), clients::get, medecins::get));
+    } catch (IOException e) {
+        entrepotAchats.close();
+        throw e;
+    }
+    retentionAchats.configurer(entrepotAchats, capaciteChaude, capaciteCache);
+    retentionOrdonnances.configurer(entrepotOrdonnances, capaciteChaude, capaciteCache);
+}
+
+/**
+ * État de la rétention des achats (vivants, évincés, efficacité du cache).
+ */
+public EtatRetention getEtatRetentionAchats() {
+    return retentionAchats.etat();
+}
 
+/**
+ * État de la rétention des ordonnances.
+ */
+public EtatRetention getEtatRetentionOrdonnances() {
+    return retentionOrdonnances.etat();
+}
+
+/**
+ * Premier instant non archivé (toutes les ventes sont dans le stockage sans archive).
+ */
+private long limiteArchive() {
+    return archiveVentes == null ? Long.MIN_VALUE : archiveVentes.getLimite();
+}
+
+/**
+ * Verse dans l'archive les ventes des mois clos encore présentes dans le stockage (y compris celles
+ * arrivées après un compactage précédent), puis retire de l'index les jours archivés et du stockage
+ * les seules ventes versées. Exécuté en arrière-plan par le compacteur.
+ * Les requêtes lisent l'archive avant sa limite et l'index après : elles ne voient jamais une vente deux fois.
+ * Peut aussi être déclenché directement (maintenance, tests).
+ */
+public synchronized void compacterVentes() {
+    try {
+        long moisCourant = archiveVentes.debutMois(System.currentTimeMillis());
+        List<EnregistrementVente> moisClos = new ArrayList<>();
+        for (EnregistrementVente vente : stockageVentes.lireTout()) {
+            if (vente.getTimestamp() < moisCourant) {
+                moisClos.add(vente);
+            }
+        }
+        if (moisClos.isEmpty()) {
+            return;
+        }
+        // Une vente déjà archivée par un compactage interrompu n'est pas dupliquée
+        archiveVentes.archiver(moisClos);
+        verrouArchive.writeLock().lock();
+        try {
+            long limite = archiveVentes.getLimite();
+            indexVentes.retirerAvant(limite);
+            stockageVentes.retirerArchivees(limite, moisClos);
+        } finally {
+            verrouArchive.writeLock().unlock();
+        }
+    } catch (IOException | RuntimeException e) {
+        System.err.println("Compactage des ventes interrompu : " + e.getMessage());
+    }
+}
+
+/**
+ * Ouvre le journal des ventes par défaut ; à sa création, y importe l'historique CSV existant.
+ * Retombe sur le CSV seul si le journal ne peut pas être ouvert.
+ */
+private static StockageVentes ouvrirStockageParDefaut() {
+    try {
+        JournalVentes journal = new JournalVentes(FICHIER_JOURNAL_VENTES, PolitiqueSynchronisation.PERIODIQUE);
+        if (journal.estVide() && Files.exists(FICHIER_CSV_VENTES)) {
+            journal.ajouterTous(new CsvVentes(FICHIER_CSV_VENTES).lireTout());
+        }
+        return journal;
+    } catch (IOException e) {
+        System.err.println("Journal des ventes indisponible, utilisation du CSV : " + e.getMessage());
+        return new CsvVentes(FICHIER_CSV_VENTES);
+    }
+}
+
+/**
+ * Exporte l'historique persistant des ventes au format CSV.
+ */
+public void exporterVentesCsv(Path cible) throws IOException {
+    if (archiveVentes == null) {
+        stockageVentes.exporterCsv(cible);
+        return;
+    }
+    verrouArchive.readLock().lock();
+    try (CsvVentes csv = new CsvVentes(cible)) {
+        long limite = archiveVentes.getLimite();
+        List<EnregistrementVente> ventes = new ArrayList<>();
+        for (EnregistrementVente vente : archiveVentes.lireTout()) {
+            if (vente.getTimestamp() < limite) {
+                ventes.add(vente);
+            }
+        }
+        for (EnregistrementVente vente : stockageVentes.lireTout()) {
+            if (vente.getTimestamp() >= limite) {
+                ventes.add(vente);
+            }
+        }
+        csv.ajouterTous(ventes);
+    } finally {
+        verrouArchive.readLock().unlock();
+    }
+}
+
+/**
+ * Force l'écriture disque des ventes puis libère le support de persistance.
+ */
+public void fermer() {
+    surveillancePeremptions.arreter();
+    if (compacteur != null) {
+        compacteur.shutdown();
+        try {
+            compacteur.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    try {
+        stockageVentes.close();
+    } catch (IOException e) {
+        System.err.println("Erreur à la fermeture du stockage des ventes : " + e.getMessage());
+    }
+    for (RetentionObjets<?> retention : Arrays.asList(retentionAchats, retentionOrdonnances)) {
+        try {
+            retention.fermer();
+        } catch (IOException e) {
+            System.err.println("Erreur à la fermeture de la rétention des ventes : " + e.getMessage());
+        }
+    }
+}
 
 /**
  * Ajoute un client (clé: identifiant unique).
@@ -87,19 +417,47 @@ public Optional<Client> rechercherClient(String identifiant) {
 }
 
 /**
- * Retourne tous les clients.
+ * Retourne tous les clients (copie ; préférer {@link #getPageClients} ou {@link #vueClients} pour parcourir).
  */
 public java.util.Collection<Client> getTousClients() {
     return new ArrayList<>(clients.values());
 }
 
 /**
- * Retourne toutes les mutuelles.
+ * Page de clients triés par identifiant, à partir du curseur d'une page précédente ({@code null} : début).
+ */
+public Page<Client> getPageClients(String apres, int limite) {
+    return Page.extraire(clients, apres, limite, client -> client);
+}
+
+/**
+ * Vue non modifiable des clients, triés par identifiant, sans copie (parcours faiblement cohérent).
+ */
+public java.util.Collection<Client> vueClients() {
+    return Collections.unmodifiableCollection(clients.values());
+}
+
+/**
+ * Retourne toutes les mutuelles (copie).
  */
 public java.util.Collection<Mutuelle> getToutesMutuelles() {
     return new ArrayList<>(mutuelles.values());
 }
 
+/**
+ * Page de mutuelles triées par nom.
+ */
+public Page<Mutuelle> getPageMutuelles(String apres, int limite) {
+    return Page.extraire(mutuelles, apres, limite, mutuelle -> mutuelle);
+}
+
+/**
+ * Vue non modifiable des mutuelles, triées par nom, sans copie.
+ */
+public java.util.Collection<Mutuelle> vueMutuelles() {
+    return Collections.unmodifiableCollection(mutuelles.values());
+}
+
 /**
  * Génère un identifiant client unique à partir du prénom/nom.
  */
@@ -179,12 +537,26 @@ public Optional<Medecin> rechercherMedecin(String numRPPS) {
 }
 
 /**
- * Retourne tous les médecins.
+ * Retourne tous les médecins (copie).
  */
 public java.util.Collection<Medecin> getTousMedecins() {
     return new ArrayList<>(medecins.values());
 }
 
+/**
+ * Page de médecins triés par numéro RPPS.
+ */
+public Page<Medecin> getPageMedecins(String apres, int limite) {
+    return Page.extraire(medecins, apres, limite, medecin -> medecin);
+}
+
+/**
+ * Vue non modifiable des médecins, triés par numéro RPPS, sans copie.
+ */
+public java.util.Collection<Medecin> vueMedecins() {
+    return Collections.unmodifiableCollection(medecins.values());
+}
+
 /**
  * Ajoute une mutuelle.
  */
@@ -242,27 +614,185 @@ public Optional<Mutuelle> rechercherMutuelle(String nom) {
 }
 
 /**
- * Enregistre un achat en mémoire et persiste un résumé CSV minimal.
+ * Enregistre un achat en mémoire et ajoute son résumé au stockage des ventes.
  */
 public void enregistrerAchat(Achat achat) {
+    EnregistrementVente resume = resumer(achat);
+    indexerAchat(achat, resume);
+    try {
+        stockageVentes.ajouter(resume);
+    } catch (Exception ignored) {
+        // Non bloquant si l'écriture échoue
+    }
+    notifierVente(achat);
+}
+
+/**
+ * Enregistre plusieurs achats comme {@link #enregistrerAchat(Achat)}, avec une seule écriture groupée
+ * dans le stockage des ventes. Tous les achats sont figés avant d'en indexer un seul :
+ * un achat invalide rejette le lot entier.
+ */
+public void enregistrerAchats(List<Achat> lot) {
+    SecurityValidator.validateNotNull(lot, "Achats");
+    List<EnregistrementVente> resumes = new ArrayList<>(lot.size());
+    for (Achat achat : lot) {
+        resumes.add(resumer(achat));
+    }
+    for (int i = 0; i < lot.size(); i++) {
+        indexerAchat(lot.get(i), resumes.get(i));
+    }
+    try {
+        stockageVentes.ajouterTous(resumes);
+    } catch (Exception ignored) {
+        // Non bloquant si l'écriture échoue
+    }
+    for (Achat achat : lot) {
+        notifierVente(achat);
+    }
+}
+
+/**
+ * Fige l'achat (validation des montants) et retourne son résumé à persister.
+ */
+private static EnregistrementVente resumer(Achat achat) {
     if (achat == null) {
         throw new IllegalArgumentException("L'achat ne peut pas etre null");
     }
-    achats.add(achat);
+    achat.figer();
+    return EnregistrementVente.depuis(achat);
+}
+
+/**
+ * Ajoute un achat figé à la mémoire, aux index et aux statistiques.
+ */
+private void indexerAchat(Achat achat, EnregistrementVente resume) {
+    Fiche<Achat> fiche = retentionAchats.retenir(achat, resume.getTimestamp(),
+            achat.getReference(), achat.getReferenceOrdonnance());
+    if (achat.getReference() != null) {
+        achatsParReference.putIfAbsent(achat.getReference(), fiche);
+    }
+    achatsParClient.ajouter(achat.getClient().getIdentifiant(), fiche);
+    for (Lot lot : achat.getLots()) {
+        achatsParLot.ajouter(cleLot(lot.getNomMedicament(), lot.getNumero()), fiche);
+    }
+    if (achat.getReferenceOrdonnance() != null) {
+        synchronized (verrouLiensOrdonnances) {
+            achatsParOrdonnance.ajouter(achat.getReferenceOrdonnance(), fiche);
+            Fiche<Ordonnance> ordonnance = ordonnancesParReference.get(achat.getReferenceOrdonnance());
+            if (ordonnance != null) {
+                // Le lien de la fiche d'ordonnance porte le RPPS du médecin
+                achatsParMedecin.ajouter(ordonnance.getLien(), fiche);
+            }
+        }
+    }
+    achats.ajouter(fiche);
+    indexVentes.ajouter(resume, fiche);
+    statistiquesVentes.enregistrer(resume);
+}
+
+/**
+ * Passe un lot de paniers de vente directe (commandes groupées).
+ * Chaque panier est tout ou rien, mais un panier refusé n'empêche pas les autres :
+ * le stock est réservé panier par panier dans l'ordre du lot et chaque achat accepté est figé,
+ * puis tous sont écrits en une seule écriture groupée. Si elle échoue, toutes les réservations
+ * sont annulées et les paniers acceptés refusés ({@link ResultatVente.Statut#ECHEC_ENREGISTREMENT}) ;
+ * sinon les réservations sont confirmées et les achats indexés.
+ * Les références sont {@code ACH<instant>-<rang>}, uniques dans le lot.
+ *
+ * @return un résultat par panier, dans l'ordre du lot
+ */
+public List<ResultatVente> effectuerVentesGroupees(VenteGroupee ventes, Pharmacien pharmacien) {
+    SecurityValidator.validateNotNull(ventes, "Ventes groupées");
+    List<VenteGroupee.Panier> paniers = ventes.getPaniers();
+    ResultatVente[] resultats = new ResultatVente[paniers.size()];
+    List<ReservationStock> reservations = new ArrayList<>();
+    List<Achat> acceptes = new ArrayList<>();
+    List<EnregistrementVente> resumes = new ArrayList<>();
+    List<Integer> rangs = new ArrayList<>();
+    Date date = new Date();
+    String prefixe = "ACH" + date.getTime() + "-";
     try {
-        ensureVentesStorage();
-        try (java.io.FileWriter fw = new java.io.FileWriter(ventesFile, true)) {
-            String line = String.join(",",
-                    String.valueOf(achat.getDateTransaction().getTime()),
-                    String.valueOf(achat.getMontantTotal()),
-                    String.valueOf(achat.getMontantRembourse()),
-                    achat.getType().name()
-            );
-            fw.write(line + System.lineSeparator());
+        for (int i = 0; i < paniers.size(); i++) {
+            VenteGroupee.Panier panier = paniers.get(i);
+            String identifiant = panier.getIdentifiantClient();
+            ReservationStock reservation = null;
+            try {
+                Client client = rechercherClient(identifiant).orElse(null);
+                if (client == null) {
+                    resultats[i] = ResultatVente.refusee(i, identifiant, ResultatVente.Statut.CLIENT_INCONNU, "Client non trouvé");
+                    continue;
+                }
+                List<Medicament> medicaments = new ArrayList<>(panier.getLignes().size());
+                Map<Medicament, Integer> quantites = new LinkedHashMap<>();
+                for (Map.Entry<String, Integer> ligne : panier.getLignes().entrySet()) {
+                    Medicament medicament = inventaire.rechercher(ligne.getKey()).orElse(null);
+                    if (medicament == null) {
+                        resultats[i] = ResultatVente.refusee(i, identifiant, ResultatVente.Statut.MEDICAMENT_INCONNU,
+                                "Médicament non trouvé : " + ligne.getKey());
+                        break;
+                    }
+                    if (inventaire.estPerime(medicament, date.getTime())) {
+                        resultats[i] = ResultatVente.refusee(i, identifiant, ResultatVente.Statut.MEDICAMENT_PERIME,
+                                "Médicament périmé : " + ligne.getKey());
+                        break;
+                    }
+                    medicaments.add(medicament);
+                    quantites.put(medicament, ligne.getValue());
+                }
+                if (resultats[i] != null) {
+                    continue;
+                }
+                if (quantites.isEmpty()) {
+                    resultats[i] = ResultatVente.refusee(i, identifiant, ResultatVente.Statut.REFUSEE, "Panier vide");
+                    continue;
+                }
+                reservation = inventaire.reserver(quantites);
+                Achat achat = new Achat(date, client, pharmacien, prefixe + (i + 1),
+                        TypeAchat.DIRECT, medicaments, quantites);
+                achat.setLots(reservation.getLots());
+                // Validation des montants avant l'écriture groupée
+                EnregistrementVente resume = resumer(achat);
+                reservations.add(reservation);
+                acceptes.add(achat);
+                resumes.add(resume);
+                rangs.add(i);
+            } catch (Medicament.StockInsuffisantException e) {
+                resultats[i] = ResultatVente.refusee(i, identifiant, ResultatVente.Statut.STOCK_INSUFFISANT, e.getMessage());
+            } catch (RuntimeException e) {
+                // Montant hors limites, lot invalide... : seul ce panier est refusé
+                if (reservation != null) {
+                    reservation.annuler();
+                }
+                resultats[i] = ResultatVente.refusee(i, identifiant, ResultatVente.Statut.REFUSEE, e.getMessage());
+            }
         }
-    } catch (Exception ignored) {
-        // Non bloquant si l'écriture échoue
+        try {
+            stockageVentes.ajouterTous(resumes);
+        } catch (IOException | RuntimeException e) {
+            for (int rang : rangs) {
+                resultats[rang] = ResultatVente.refusee(rang, paniers.get(rang).getIdentifiantClient(),
+                        ResultatVente.Statut.ECHEC_ENREGISTREMENT, "Échec de l'enregistrement : " + e.getMessage());
+            }
+            return Arrays.asList(resultats);
+        }
+        for (ReservationStock reservation : reservations) {
+            reservation.confirmer();
+        }
+        for (int k = 0; k < acceptes.size(); k++) {
+            indexerAchat(acceptes.get(k), resumes.get(k));
+            int rang = rangs.get(k);
+            resultats[rang] = ResultatVente.effectuee(rang, paniers.get(rang).getIdentifiantClient(), acceptes.get(k));
+        }
+    } finally {
+        // Sans effet sur les réservations confirmées ; restitue le stock si l'écriture a échoué
+        for (ReservationStock reservation : reservations) {
+            reservation.annuler();
+        }
+    }
+    for (Achat achat : acceptes) {
+        notifierVente(achat);
     }
+    return Arrays.asList(resultats);
 }
 
 /**
@@ -275,10 +805,27 @@ public List<Achat> getAchatsParPeriode(Date debut, Date fin) {
     if (debut.after(fin)) {
         throw new IllegalArgumentException("La date de début doit être antérieure à la date de fin");
     }
-    return achats.stream()
-            .filter(achat -> !achat.getDateTransaction().before(debut) &&
-                    !achat.getDateTransaction().after(fin))
-            .collect(Collectors.toList());
+    verrouArchive.readLock().lock();
+    try {
+        long limite = limiteArchive();
+        if (debut.getTime() >= limite) {
+            return retentionAchats.resoudreTous(indexVentes.getAchats(debut.getTime(), fin.getTime()));
+        }
+        // Achats de la session tombés dans un mois archivé depuis : relus dans l'historique des fiches
+        List<Fiche<Achat>> fiches = new ArrayList<>();
+        long finArchive = Math.min(fin.getTime(), limite - 1);
+        for (Fiche<Achat> fiche : achats) {
+            long ts = fiche.getInstant();
+            if (ts >= debut.getTime() && ts <= finArchive) {
+                fiches.add(fiche);
+            }
+        }
+        fiches.sort(Comparator.comparingLong(Fiche::getInstant));
+        fiches.addAll(indexVentes.getAchats(limite, fin.getTime()));
+        return retentionAchats.resoudreTous(fiches);
+    } finally {
+        verrouArchive.readLock().unlock();
+    }
 }
 
 /**
@@ -288,59 +835,197 @@ public Optional<Achat> getAchatParReference(String reference) {
     if (reference == null || reference.trim().isEmpty()) {
         return Optional.empty();
     }
-    return achats.stream()
-            .filter(a -> reference.equals(a.getReference()))
-            .findFirst();
+    Fiche<Achat> fiche = achatsParReference.get(reference);
+    return fiche == null ? Optional.empty() : Optional.of(retentionAchats.resoudre(fiche));
 }
 
 /**
- * Calcule le nombre de ventes sur une période (lecture CSV, sinon mémoire).
+ * Calcule le nombre de ventes sur une période (index, sinon lecture du stockage, sinon mémoire).
  */
 public int getNombreVentesParPeriode(Date debut, Date fin) {
+    return (int) agregerVentes(debut, fin).getNombreVentes();
+}
+
+/**
+ * Bilan des ventes d'une période standard (jour, mois, année, 30 jours) en temps constant.
+ */
+public BilanVentes getBilanVentes(PeriodeStandard periode) {
+    SecurityValidator.validateNotNull(periode, "Période");
+    long maintenant = System.currentTimeMillis();
+    if (historiqueIndexe) {
+        return statistiquesVentes.bilan(periode, maintenant);
+    }
+    return getBilansVentes(Collections.singletonList(periode)).get(0);
+}
+
+/**
+ * Bilans de plusieurs périodes standard ; sans index, une seule lecture du stockage les calcule toutes.
+ */
+public List<BilanVentes> getBilansVentes(List<PeriodeStandard> periodes) {
+    long maintenant = System.currentTimeMillis();
+    List<BilanVentes> bilans = new ArrayList<>(periodes.size());
+    if (historiqueIndexe) {
+        for (PeriodeStandard periode : periodes) {
+            bilans.add(statistiquesVentes.bilan(periode, maintenant));
+        }
+        return bilans;
+    }
+    List<PeriodeVentes> fenetres = new ArrayList<>(periodes.size());
+    for (PeriodeStandard periode : periodes) {
+        fenetres.add(new PeriodeVentes(periode.debut(maintenant, statistiquesVentes.getZone()), maintenant));
+    }
+    return agregerVentes(fenetres);
+}
+
+/**
+ * Nombre, chiffre d'affaires et remboursements sur [debut, fin] (bornes incluses), en un seul calcul.
+ */
+public BilanVentes agregerVentes(Date debut, Date fin) {
+    return agregerVentes(Collections.singletonList(new PeriodeVentes(debut, fin))).get(0);
+}
+
+/**
+ * Agrège toutes les métriques (nombre, CA, remboursé) de plusieurs périodes à la fois.
+ * Utilise l'index ; à défaut, une seule passe sur le stockage remplit toutes les périodes ;
+ * en dernier recours, les ventes de la session en mémoire.
+ */
+public List<BilanVentes> agregerVentes(List<PeriodeVentes> periodes) {
+    List<BilanVentes> bilans = new ArrayList<>(periodes.size());
+    verrouArchive.readLock().lock();
     try {
-        return (int) readVentesBetween(debut, fin).count();
-    } catch (Exception e) {
-        return getAchatsParPeriode(debut, fin).size();
+        long limite = limiteArchive();
+        if (historiqueIndexe) {
+            for (PeriodeVentes periode : periodes) {
+                bilans.add(agregerArchive(periode, limite)
+                        .plus(indexVentes.agreger(Math.max(periode.getDebut(), limite), periode.getFin())));
+            }
+            return bilans;
+        }
+        return scannerVentes(periodes, limite);
+    } catch (IOException | UncheckedIOException e) {
+        // Repli séquentiel : la passe en échec a pu remplir une partie des bilans
+        bilans.clear();
+        for (PeriodeVentes periode : periodes) {
+            long nombre = 0;
+            long total = 0;
+            long rembourse = 0;
+            for (Achat achat : retentionAchats.vue(indexVentes.getAchats(periode.getDebut(), periode.getFin()))) {
+                nombre++;
+                total += achat.getMontantTotalCentimes();
+                rembourse += achat.getMontantRembourseCentimes();
+            }
+            bilans.add(new BilanVentes(nombre, total, rembourse));
+        }
+        return bilans;
+    } finally {
+        verrouArchive.readLock().unlock();
     }
 }
 
+/**
+ * Part archivée (avant {@code limite}) d'une période, lue sur les colonnes projetées de l'archive.
+ */
+private BilanVentes agregerArchive(PeriodeVentes periode, long limite) {
+    if (archiveVentes == null || periode.getDebut() >= limite) {
+        return BilanVentes.VIDE;
+    }
+    long[] cumul = archiveVentes.agreger(periode.getDebut(), Math.min(periode.getFin(), limite - 1));
+    return new BilanVentes(cumul[0], cumul[1], cumul[2]);
+}
+
 /**
  * Retourne les achats d'un client.
  */
 public List<Achat> getAchatsParClient(Client client) {
-    List<Achat> achatsParClient = new ArrayList<>();
-    for (Achat achat : achats) {
-        if (achat.getClient().equals(client)) {
-            achatsParClient.add(achat);
-        }
+    if (client == null) {
+        return new ArrayList<>();
     }
-    return achatsParClient;
+    return retentionAchats.resoudreTous(achatsParClient.get(client.getIdentifiant()));
 }
 
 /**
- * Retourne les achats associés à un médecin (via correspondance avec ordonnances).
+ * Retourne les achats délivrant une ordonnance du médecin (lien achat → ordonnance, index par RPPS).
  */
 public List<Achat> getAchatsParMedecin(Medecin medecin) {
     SecurityValidator.validateNotNull(medecin, "Médecin");
-    return achats.stream()
-            .filter(achat -> {
-                List<Ordonnance> ordonnancesMedecin = getOrdonnancesParMedecin(medecin);
-                for (Ordonnance ord : ordonnancesMedecin) {
-                    if (achat.getReference().contains(ord.getReference()) ||
-                            achat.getDateTransaction().equals(ord.getDateCreation())) {
-                        return true;
-                    }
-                }
-                return false;
-            })
-            .collect(Collectors.toList());
+    List<Fiche<Achat>> achatsMedecin = achatsParMedecin.get(medecin.getNumeroRPPS());
+    achatsMedecin.removeIf(achat -> !medecin.equals(retentionOrdonnances.resoudre(
+            ordonnancesParReference.get(achat.getLien())).getMedecin()));
+    return retentionAchats.resoudreTous(achatsMedecin);
+}
+
+/**
+ * Retourne les achats ayant délivré l'ordonnance de référence donnée.
+ */
+public List<Achat> getAchatsParOrdonnance(String referenceOrdonnance) {
+    return retentionAchats.resoudreTous(achatsParOrdonnance.get(referenceOrdonnance));
+}
+
+/**
+ * Liste les achats ayant prélevé un lot donné d'un médicament (rappel de lot), par index.
+ */
+public List<Achat> getAchatsParLot(String nomMedicament, String numeroLot) {
+    if (nomMedicament == null || numeroLot == null) {
+        return Collections.emptyList();
+    }
+    return retentionAchats.resoudreTous(achatsParLot.get(cleLot(nomMedicament, numeroLot)));
+}
+
+private static String cleLot(String nomMedicament, String numeroLot) {
+    return nomMedicament.toLowerCase() + '#' + numeroLot;
 }
 
 /**
  * Enregistre une ordonnance.
  */
 public void enregistrerOrdonnance(Ordonnance ordonnance) {
-    ordonnances.add(ordonnance);
+    SecurityValidator.validateNotNull(ordonnance, "Ordonnance");
+    ordonnance.figer();
+    indexerOrdonnance(ordonnance);
+}
+
+/**
+ * Enregistre ensemble une vente sur ordonnance et son ordonnance : les deux sont figées (validées)
+ * avant que l'une ou l'autre n'entre dans l'historique, si bien qu'un refus n'enregistre ni l'une ni l'autre.
+ *
+ * @throws IllegalArgumentException si l'achat ne désigne pas cette ordonnance, ou si l'un des deux est invalide
+ */
+public void enregistrerVenteOrdonnance(Ordonnance ordonnance, Achat achat) {
+    SecurityValidator.validateNotNull(ordonnance, "Ordonnance");
+    SecurityValidator.validateNotNull(achat, "Achat");
+    if (ordonnance.getReference() == null || !ordonnance.getReference().equals(achat.getReferenceOrdonnance())) {
+        throw new IllegalArgumentException("L'achat ne référence pas l'ordonnance " + ordonnance.getReference());
+    }
+    ordonnance.figer();
+    EnregistrementVente resume = resumer(achat);
+    indexerOrdonnance(ordonnance);
+    indexerAchat(achat, resume);
+    try {
+        stockageVentes.ajouter(resume);
+    } catch (Exception ignored) {
+        // Non bloquant si l'écriture échoue
+    }
+    notifierVente(achat);
+}
+
+/**
+ * Ajoute une ordonnance figée à la mémoire et aux index.
+ */
+private void indexerOrdonnance(Ordonnance ordonnance) {
+    Fiche<Ordonnance> fiche = retentionOrdonnances.retenir(ordonnance, ordonnance.getDateCreation().getTime(),
+            ordonnance.getReference(), ordonnance.getMedecin().getNumeroRPPS());
+    if (ordonnance.getReference() != null) {
+        ordonnancesParReference.putIfAbsent(ordonnance.getReference(), fiche);
+    }
+    ordonnancesParClient.ajouter(ordonnance.getPatient().getIdentifiant(), fiche);
+    ordonnancesParMedecin.ajouter(ordonnance.getMedecin().getNumeroRPPS(), fiche);
+    synchronized (verrouLiensOrdonnances) {
+        // Achats enregistrés avant leur ordonnance : rattachés au médecin maintenant
+        for (Fiche<Achat> achat : achatsParOrdonnance.get(ordonnance.getReference())) {
+            achatsParMedecin.ajouter(ordonnance.getMedecin().getNumeroRPPS(), achat);
+        }
+    }
+    ordonnances.ajouter(fiche);
 }
 
 /**
@@ -348,13 +1033,7 @@ public void enregistrerOrdonnance(Ordonnance ordonnance) {
  */
 public List<Ordonnance> getOrdonnancesParClient(Client client) {
     SecurityValidator.validateNotNull(client, "Client");
-    List<Ordonnance> ordonnancesParClient = new ArrayList<>();
-    for (Ordonnance ordonnance : ordonnances) {
-        if (ordonnance.getPatient().equals(client)) {
-            ordonnancesParClient.add(ordonnance);
-        }
-    }
-    return ordonnancesParClient;
+    return retentionOrdonnances.resoudreTous(ordonnancesParClient.get(client.getIdentifiant()));
 }
 
 /**
@@ -362,16 +1041,33 @@ public List<Ordonnance> getOrdonnancesParClient(Client client) {
  */
 public List<Ordonnance> getOrdonnancesParMedecin(Medecin medecin) {
     SecurityValidator.validateNotNull(medecin, "Médecin");
-    return ordonnances.stream()
-            .filter(ordonnance -> ordonnance.getMedecin().equals(medecin))
-            .collect(Collectors.toList());
+    List<Ordonnance> ordonnancesRpps = retentionOrdonnances.resoudreTous(ordonnancesParMedecin.get(medecin.getNumeroRPPS()));
+    ordonnancesRpps.removeIf(ordonnance -> !ordonnance.getMedecin().equals(medecin));
+    return ordonnancesRpps;
 }
 
 /**
- * Retourne toutes les ordonnances en mémoire.
+ * Retourne toutes les ordonnances de la session (vue non modifiable de l'historique à l'appel, sans copie ;
+ * les ordonnances évincées sont relues à l'accès).
  */
 public List<Ordonnance> getToutesLesOrdonnances() {
-    return new ArrayList<>(ordonnances);
+    return retentionOrdonnances.vue(ordonnances.vue());
+}
+
+/**
+ * Ordonnances de rang {@code debut} à {@code debut + limite} exclu, dans l'ordre d'enregistrement
+ * (clé stable : l'historique est en ajout seul). Seules les ordonnances de la page sont relues.
+ */
+public List<Ordonnance> getPageOrdonnances(int debut, int limite) {
+    if (debut < 0 || limite <= 0) {
+        throw new IllegalArgumentException("Page d'ordonnances invalide : " + debut + ", " + limite);
+    }
+    List<Fiche<Ordonnance>> historique = ordonnances.vue();
+    int fin = (int) Math.min(historique.size(), (long) debut + limite);
+    if (debut >= fin) {
+        return Collections.emptyList();
+    }
+    return retentionOrdonnances.resoudreTous(historique.subList(debut, fin));
 }
 
 /**
@@ -381,139 +1077,120 @@ public Optional<Ordonnance> rechercherOrdonnance(String reference) {
     if (reference == null || reference.trim().isEmpty()) {
         return Optional.empty();
     }
-
-    return ordonnances.stream()
-            .filter(ordonnance -> ordonnance.getReference().equals(reference.trim()))
-            .findFirst();
+    Fiche<Ordonnance> fiche = ordonnancesParReference.get(reference.trim());
+    return fiche == null ? Optional.empty() : Optional.of(retentionOrdonnances.resoudre(fiche));
 }
 
 /**
  * Calcule la somme des montants remboursés sur une période.
  */
 public double calculerMontantRembourse(Date debut, Date fin) {
-    try {
-        return readVentesBetween(debut, fin)
-                .mapToDouble(r -> r.montantRembourse)
-                .sum();
-    } catch (Exception e) {
-        return getAchatsParPeriode(debut, fin).stream()
-                .mapToDouble(Achat::getMontantRembourse)
-                .sum();
-    }
+    return agregerVentes(debut, fin).getMontantRembourse();
 }
 
 /**
  * Statistiques de remboursement pour une mutuelle donnée sur une période.
  */
 public Map<String, Double> getStatistiquesRemboursementMutuelle(Mutuelle mutuelle, Date debut, Date fin) {
-    SecurityValidator.validateNotNull(mutuelle, "Mutuelle");
-
-    List<Achat> achatsAvecMutuelle = getAchatsParPeriode(debut, fin).stream()
-            .filter(achat -> achat.getClient().getMutuelle() != null &&
-                    achat.getClient().getMutuelle().equals(mutuelle))
-            .collect(Collectors.toList());
-
-    double totalAchats = achatsAvecMutuelle.stream()
-            .mapToDouble(Achat::getMontantTotal)
-            .sum();
-
-    double totalRembourse = achatsAvecMutuelle.stream()
-            .mapToDouble(Achat::getMontantRembourse)
-            .sum();
+    BilanVentes bilan = getBilanRemboursementMutuelle(mutuelle, debut, fin);
+    long totalAchats = bilan.getMontantTotalCentimes();
 
     Map<String, Double> stats = new HashMap<>();
-    stats.put("totalAchats", totalAchats);
-    stats.put("totalRembourse", totalRembourse);
-    stats.put("nombreAchats", (double) achatsAvecMutuelle.size());
-    stats.put("tauxRemboursementEffectif", totalAchats > 0 ? (totalRembourse / totalAchats) * 100 : 0);
+    stats.put("totalAchats", bilan.getChiffreAffaires());
+    stats.put("totalRembourse", bilan.getMontantRembourse());
+    stats.put("nombreAchats", (double) bilan.getNombreVentes());
+    stats.put("tauxRemboursementEffectif",
+            totalAchats > 0 ? bilan.getMontantRembourseCentimes() * 100.0 / totalAchats : 0.0);
 
     return stats;
 }
 
+/**
+ * Nombre, total et remboursé (centimes) des achats d'une mutuelle sur la période, en une passe sans boxing.
+ */
+public BilanVentes getBilanRemboursementMutuelle(Mutuelle mutuelle, Date debut, Date fin) {
+    SecurityValidator.validateNotNull(mutuelle, "Mutuelle");
+    long nombre = 0;
+    long total = 0;
+    long rembourse = 0;
+    for (Achat achat : getAchatsParPeriode(debut, fin)) {
+        if (mutuelle.equals(achat.getClient().getMutuelle())) {
+            nombre++;
+            total += achat.getMontantTotalCentimes();
+            rembourse += achat.getMontantRembourseCentimes();
+        }
+    }
+    return new BilanVentes(nombre, total, rembourse);
+}
+
 /**
  * Vérifie la cohérence entre ordonnances et achats associés.
  * Retourne la liste des problèmes détectés.
  */
 public List<String> verifierCoherenceOrdonnancesAchats() {
     List<String> problemes = new ArrayList<>();
-
-    for (Ordonnance ordonnance : ordonnances) {
-        boolean achatTrouve = achats.stream()
-                .anyMatch(achat ->
-                        achat.getClient().equals(ordonnance.getPatient()) &&
-                                achat.getDateTransaction().equals(ordonnance.getDateCreation()) &&
-                                achat.getType() == TypeAchat.ORDONNANCE
-                );
-
-        if (!achatTrouve) {
-            problemes.add("Ordonnance " + ordonnance.getReference() +
-                    " sans achat correspondant");
-        }
+    for (AnomalieCoherence anomalie : auditerCoherenceOrdonnancesAchats(null)) {
+        problemes.add(anomalie.getMessage());
     }
-
     return problemes;
 }
 
 /**
- * Calcule le chiffre d'affaires sur la période.
+ * Audit par lot de la cohérence ordonnances / achats sur un instantané de l'historique en mémoire :
+ * jointure par hachage exécutée en parallèle, anomalies typées.
+ *
+ * @param progression suivi de l'avancement (facultatif)
  */
-public double calculerChiffreAffaires(Date debut, Date fin) {
-    try {
-        return readVentesBetween(debut, fin)
-                .mapToDouble(r -> r.montantTotal)
-                .sum();
-    } catch (Exception e) {
-        return getAchatsParPeriode(debut, fin).stream().mapToDouble(Achat::getMontantTotal).sum();
-    }
+public List<AnomalieCoherence> auditerCoherenceOrdonnancesAchats(AuditCoherence.Progression progression) {
+    return new AuditCoherence(retentionOrdonnances.vue(ordonnances.vue()),
+            retentionAchats.vue(achats.vue()), true, progression).executer();
 }
 
 /**
- * S'assure que le fichier des ventes existe (création dossier/fichier si nécessaire).
+ * Calcule le chiffre d'affaires sur la période.
  */
-private void ensureVentesStorage() throws java.io.IOException {
-    java.io.File dir = ventesFile.getParentFile();
-    if (dir != null && !dir.exists()) {
-        dir.mkdirs();
-    }
-    if (!ventesFile.exists()) {
-        ventesFile.createNewFile();
-    }
+public double calculerChiffreAffaires(Date debut, Date fin) {
+    return agregerVentes(debut, fin).getChiffreAffaires();
 }
 
 /**
- * Lit les enregistrements CSV de ventes dans un intervalle [debut, fin].
+ * Une seule passe sur le stockage des ventes remplit les accumulateurs primitifs de chaque période ;
+ * la part antérieure à {@code limite} est lue dans l'archive.
  */
-private java.util.stream.Stream<SaleRecord> readVentesBetween(Date debut, Date fin) throws java.io.IOException {
-    ensureVentesStorage();
-    java.nio.file.Path path = ventesFile.toPath();
-    final long start = debut.getTime();
-    final long end = fin.getTime();
-    return java.nio.file.Files.lines(path)
-            .filter(line -> !line.trim().isEmpty())
-            .map(line -> line.split(","))
-            .filter(parts -> parts.length >= 3)
-            .map(parts -> {
-                try {
-                    long ts = Long.parseLong(parts[0]);
-                    double total = Double.parseDouble(parts[1]);
-                    double rembourse = Double.parseDouble(parts[2]);
-                    return new SaleRecord(ts, total, rembourse);
-                } catch (Exception e) {
-                    return null;
-                }
-            })
-            .filter(Objects::nonNull)
-            .filter(r -> r.timestamp >= start && r.timestamp <= end);
-}
-
-    private static class SaleRecord {
-        final long timestamp;
-        final double montantTotal;
-        final double montantRembourse;
-        SaleRecord(long timestamp, double montantTotal, double montantRembourse) {
-            this.timestamp = timestamp;
-            this.montantTotal = montantTotal;
-            this.montantRembourse = montantRembourse;
+private List<BilanVentes> scannerVentes(List<PeriodeVentes> periodes, long limite) throws IOException {
+    int n = periodes.size();
+    long[] debuts = new long[n];
+    long[] fins = new long[n];
+    long[] nombres = new long[n];
+    long[] totaux = new long[n];
+    long[] rembourses = new long[n];
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    for (int i = 0; i < n; i++) {
+        debuts[i] = periodes.get(i).getDebut();
+        fins[i] = periodes.get(i).getFin();
+        min = Math.min(min, debuts[i]);
+        max = Math.max(max, fins[i]);
+    }
+    final long borneMin = Math.max(min, limite);
+    final long borneMax = max;
+    stockageVentes.parcourir((ts, total, rembourse) -> {
+        if (ts < borneMin || ts > borneMax) {
+            return;
         }
+        for (int i = 0; i < n; i++) {
+            if (ts >= debuts[i] && ts <= fins[i]) {
+                nombres[i]++;
+                totaux[i] += total;
+                rembourses[i] += rembourse;
+            }
+        }
+    });
+    List<BilanVentes> bilans = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+        bilans.add(agregerArchive(periodes.get(i), limite)
+                .plus(new BilanVentes(nombres[i], totaux[i], rembourses[i])));
     }
+    return bilans;
+}
 }
@@ -0,0 +1,36 @@
+package main.model.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index secondaire clé → valeurs, dans l'ordre d'insertion.
+ * Chaque clé garde sa propre liste : un ajout est en O(1), une lecture copie les k valeurs de la clé.
+ */
+final class IndexMultiple<K, V> {
+
+    private final Map<K, List<V>> entrees = new ConcurrentHashMap<>();
+
+    void ajouter(K cle, V valeur) {
+        if (cle == null) {
+            return;
+        }
+        List<V> valeurs = entrees.computeIfAbsent(cle, k -> new ArrayList<>(2));
+        synchronized (valeurs) {
+            valeurs.add(valeur);
+        }
+    }
+
+    List<V> get(K cle) {
+        List<V> valeurs = cle == null ? null : entrees.get(cle);
+        if (valeurs == null) {
+            return Collections.emptyList();
+        }
+        synchronized (valeurs) {
+            return new ArrayList<>(valeurs);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package main.model.service;
+
+import main.model.Transaction.TypeTransaction.Achat;
+import main.model.persistance.EnregistrementVente;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index temporel des ventes, partitionné par jour calendaire (fuseau local).
+ * Chaque jour garde ses totaux pré-agrégés : une somme sur une période ne parcourt
+ * vente par vente que les deux jours de bordure.
+ */
+public class IndexVentes {
+
+    private final ZoneId zone;
+    private final ConcurrentSkipListMap<Long, JourVentes> jours = new ConcurrentSkipListMap<>();
+
+    public IndexVentes() {
+        this(ZoneId.systemDefault());
+    }
+
+    public IndexVentes(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Indexe une vente relue depuis le stockage (montants seulement).
+     */
+    public void ajouter(EnregistrementVente vente) {
+        ajouter(vente, null);
+    }
+
+    /**
+     * Indexe une vente ; la fiche de l'achat, si elle est fournie, est conservée pour les recherches par période.
+     */
+    void ajouter(EnregistrementVente vente, Fiche<Achat> achat) {
+        jour(vente.getTimestamp()).ajouter(vente.getTimestamp(),
+                vente.getMontantTotalCentimes(), vente.getMontantRembourseCentimes(), achat);
+    }
+
+    public void chargerTout(List<EnregistrementVente> ventes) {
+        for (EnregistrementVente vente : ventes) {
+            ajouter(vente);
+        }
+    }
+
+    /**
+     * Oublie les jours antérieurs à celui de {@code limite} (ventes versées dans l'archive).
+     */
+    public void retirerAvant(long limite) {
+        jours.headMap(numeroJour(limite), false).clear();
+    }
+
+    /**
+     * Fiches des achats de la session compris dans [debut, fin] (bornes incluses), par ordre chronologique de jour.
+     */
+    List<Fiche<Achat>> getAchats(long debut, long fin) {
+        List<Fiche<Achat>> resultat = new ArrayList<>();
+        for (JourVentes jour : sousIndex(debut, fin).values()) {
+            jour.collecterAchats(debut, fin, resultat);
+        }
+        return resultat;
+    }
+
+    /**
+     * Nombre, total et remboursement des ventes comprises dans [debut, fin] (bornes incluses).
+     */
+    public BilanVentes agreger(long debut, long fin) {
+        if (debut > fin) {
+            return BilanVentes.VIDE;
+        }
+        long premierJour = numeroJour(debut);
+        long dernierJour = numeroJour(fin);
+        long nombre = 0;
+        long total = 0;
+        long rembourse = 0;
+        for (Map.Entry<Long, JourVentes> entree : jours.subMap(premierJour, true, dernierJour, true).entrySet()) {
+            long numero = entree.getKey();
+            JourVentes jour = entree.getValue();
+            long[] cumul = (numero == premierJour || numero == dernierJour)
+                    ? jour.sommer(debut, fin)
+                    : jour.totaux();
+            nombre += cumul[0];
+            total += cumul[1];
+            rembourse += cumul[2];
+        }
+        return new BilanVentes(nombre, total, rembourse);
+    }
+
+    /**
+     * Totaux pré-agrégés d'un jour calendaire (jour epoch local), sans parcours des ventes.
+     */
+    public BilanVentes agregerJour(long numeroJour) {
+        JourVentes jour = jours.get(numeroJour);
+        if (jour == null) {
+            return BilanVentes.VIDE;
+        }
+        long[] cumul = jour.totaux();
+        return new BilanVentes(cumul[0], cumul[1], cumul[2]);
+    }
+
+    public long numeroJour(long timestamp) {
+        return Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    private NavigableMap<Long, JourVentes> sousIndex(long debut, long fin) {
+        if (debut > fin) {
+            return new ConcurrentSkipListMap<>();
+        }
+        return jours.subMap(numeroJour(debut), true, numeroJour(fin), true);
+    }
+
+    private JourVentes jour(long timestamp) {
+        return jours.computeIfAbsent(numeroJour(timestamp), k -> new JourVentes());
+    }
+
+    /**
+     * Ventes d'un jour : colonnes primitives (horodatage, total, remboursé) et totaux courants.
+     */
+    private static final class JourVentes {
+        private long[] timestamps = new long[8];
+        private long[] totaux = new long[8];
+        private long[] rembourses = new long[8];
+        private int taille;
+        private long sommeTotal;
+        private long sommeRembourse;
+        private final List<Fiche<Achat>> achats = new ArrayList<>();
+
+        synchronized void ajouter(long ts, long total, long rembourse, Fiche<Achat> achat) {
+            if (taille == timestamps.length) {
+                int capacite = taille * 2;
+                timestamps = Arrays.copyOf(timestamps, capacite);
+                totaux = Arrays.copyOf(totaux, capacite);
+                rembourses = Arrays.copyOf(rembourses, capacite);
+            }
+            timestamps[taille] = ts;
+            totaux[taille] = total;
+            rembourses[taille] = rembourse;
+            taille++;
+            sommeTotal += total;
+            sommeRembourse += rembourse;
+            if (achat != null) {
+                achats.add(achat);
+            }
+        }
+
+        synchronized long[] totaux() {
+            return new long[]{taille, sommeTotal, sommeRembourse};
+        }
+
+        synchronized long[] sommer(long debut, long fin) {
+            long nombre = 0;
+            long total = 0;
+            long rembourse = 0;
+            for (int i = 0; i < taille; i++) {
+                long ts = timestamps[i];
+                if (ts >= debut && ts <= fin) {
+                    nombre++;
+                    total += totaux[i];
+                    rembourse += rembourses[i];
+                }
+            }
+            return new long[]{nombre, total, rembourse};
+        }
+
+        synchronized void collecterAchats(long debut, long fin, List<Fiche<Achat>> resultat) {
+            for (Fiche<Achat> achat : achats) {
+                long ts = achat.getInstant();
+                if (ts >= debut && ts <= fin) {
+                    resultat.add(achat);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package main.model.service;
+
+import main.model.Medicament.CatalogueMedicaments;
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+import main.model.security.SecurityValidator;
+
+import java.util.ArrayList;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inventaire partagé des médicaments, indexé par nom en minuscules.
+ * Chaque médicament a son registre de mouvements, dont le moniteur sérialise tout ce qui touche
+ * son stock : une vente, un réassort ou une correction ne verrouille que le médicament concerné,
+ * sans verrou global et sans survente. Le stock courant se lit sans verrou, en O(1), sur le médicament.
+ * Un panier de plusieurs lignes se réserve en bloc (tout ou rien) via {@link #reserver(Map)}.
+ * Un médicament remplacé par {@link #ajouter(Medicament)} garde son registre : une opération qui attendait
+ * le verrou s'applique au remplaçant, jamais à l'ancienne fiche.
+ *
+ * Chaque mouvement met aussi à jour, sous le même verrou, les index de l'inventaire : ensemble des
+ * ruptures, ensemble des stocks bas (seuil réglable), stock total et échéancier des péremptions trié
+ * par date. Compter les ruptures est en O(1), lister ce qui expire avant une date en O(log n + k).
+ *
+ * Le stock d'un médicament est réparti en lots ; une vente prélève d'abord les lots non périmés qui
+ * périment le plus tôt (FEFO) et rend les prélèvements par lot, que l'achat conserve pour les rappels.
+ */
+public class InventaireMedicaments {
+
+    /**
+     * Médicament référencé et registre de ses mouvements (partagé si le médicament est remplacé).
+     */
+    private static final class Article {
+        final String cle;
+        final Medicament medicament;
+        final RegistreMouvements registre;
+        final StockLots lots;
+        // Péremption présente dans l'échéancier (protégée par le registre)
+        long peremptionIndexee;
+        // Article qui l'a remplacé dans l'inventaire (protégé par le registre, partagé avec lui)
+        Article remplacant;
+        // Indicateurs positionnés par la surveillance des péremptions
+        volatile boolean expireBientot;
+        volatile boolean perime;
+
+        Article(String cle, Medicament medicament, RegistreMouvements registre, StockLots lots) {
+            this.cle = cle;
+            this.medicament = medicament;
+            this.registre = registre;
+            this.lots = lots;
+        }
+    }
+
+    /**
+     * Entrée de l'échéancier : péremption, nom puis numéro de lot ("" pour la date du médicament),
+     * pour départager les dates égales.
+     */
+    private static final class Echeance implements Comparable<Echeance> {
+        final long peremption;
+        final String cle;
+        final String numeroLot;
+
+        Echeance(long peremption, String cle) {
+            this(peremption, cle, "");
+        }
+
+        Echeance(long peremption, String cle, String numeroLot) {
+            this.peremption = peremption;
+            this.cle = cle;
+            this.numeroLot = numeroLot;
+        }
+
+        @Override
+        public int compareTo(Echeance autre) {
+            int c = Long.compare(peremption, autre.peremption);
+            if (c == 0) {
+                c = cle.compareTo(autre.cle);
+            }
+            return c != 0 ? c : numeroLot.compareTo(autre.numeroLot);
+        }
+    }
+
+    public static final int SEUIL_STOCK_BAS_DEFAUT = 10;
+    public static final long DELAI_EXPIRATION_PROCHE_MS = TimeUnit.DAYS.toMillis(30);
+
+    private final Map<String, Article> articles = new ConcurrentHashMap<>();
+    // SKU des médicaments de cet inventaire, repris par les lignes de vente
+    private final CatalogueMedicaments catalogue = new CatalogueMedicaments();
+    // Mêmes articles triés par clé, tenus dans le compute de l'article : pages par curseur et vue sans copie
+    private final ConcurrentNavigableMap<String, Article> articlesTries = new ConcurrentSkipListMap<>();
+    private final Set<String> ruptures = ConcurrentHashMap.newKeySet();
+    private final Set<String> stocksBas = ConcurrentHashMap.newKeySet();
+    private final ConcurrentSkipListSet<Echeance> echeances = new ConcurrentSkipListSet<>();
+    private final LongAdder stockTotal = new LongAdder();
+    private volatile int seuilStockBas = SEUIL_STOCK_BAS_DEFAUT;
+    private volatile SurveillancePeremptions surveillance;
+
+    private static String cle(String nom) {
+        return SecurityValidator.validateNotNull(nom, "Nom du médicament").toLowerCase();
+    }
+
+    /**
+     * Ajoute (ou remplace) un médicament dans l'inventaire.
+     * Son stock est enregistré comme mouvement de référencement (écart avec l'ancien stock en cas de remplacement).
+     * Un remplacement garde les lots numérotés déjà en stock ; le reste du stock forme le lot implicite,
+     * et un stock inférieur aux lots repris est retiré des lots qui périment le plus tôt.
+     */
+    public void ajouter(Medicament medicament) {
+        SecurityValidator.validateNotNull(medicament, "Médicament");
+        articles.compute(cle(medicament.getNom()), (cle, ancien) -> {
+            catalogue.inscrire(medicament);
+            RegistreMouvements registre = ancien == null ? new RegistreMouvements() : ancien.registre;
+            Article article = new Article(cle, medicament, registre,
+                    new StockLots(medicament.getNom(), suiviLots(cle)));
+            synchronized (registre) {
+                int stockPrecedent = ancien == null ? 0 : ancien.medicament.getQuantiteStock();
+                int stock = medicament.getQuantiteStock();
+                registre.enregistrer(System.currentTimeMillis(), TypeMouvementStock.REFERENCEMENT,
+                        stock - stockPrecedent, stock);
+                indexerStock(article, stockPrecedent, stock);
+                int numerotes = ancien == null ? 0 : article.lots.reprendre(ancien.lots);
+                if (stock > numerotes) {
+                    article.lots.ajouter(StockLots.SANS_LOT, medicament.getInstantPeremption(), stock - numerotes);
+                } else if (stock < numerotes) {
+                    article.lots.prelever(numerotes - stock, medicament.getInstantPeremption(), Long.MIN_VALUE);
+                }
+                if (ancien != null) {
+                    echeances.remove(new Echeance(ancien.peremptionIndexee, cle));
+                    ancien.remplacant = article;
+                }
+                article.peremptionIndexee = medicament.getInstantPeremption();
+                echeances.add(new Echeance(article.peremptionIndexee, cle));
+            }
+            articlesTries.put(cle, article);
+            return article;
+        });
+        suivrePeremption(cle(medicament.getNom()), medicament.getInstantPeremption());
+    }
+
+    /**
+     * Catalogue des SKU de cet inventaire (un remplacement de médicament en devient la fiche courante).
+     */
+    public CatalogueMedicaments getCatalogue() {
+        return catalogue;
+    }
+
+    void setSurveillance(SurveillancePeremptions surveillance) {
+        this.surveillance = surveillance;
+    }
+
+    private void suivrePeremption(String cle, long peremption) {
+        SurveillancePeremptions s = surveillance;
+        if (s != null) {
+            s.suivre(cle, peremption);
+        }
+    }
+
+    private void suivrePeremptionLot(String cle, String numeroLot, long peremption) {
+        SurveillancePeremptions s = surveillance;
+        if (s != null) {
+            s.suivreLot(cle, numeroLot, peremption);
+        }
+    }
+
+    /**
+     * Tient l'échéancier à jour des lots numérotés d'un médicament.
+     */
+    private StockLots.SuiviLots suiviLots(String cle) {
+        return new StockLots.SuiviLots() {
+            @Override
+            public void lotEntre(String numero, long peremption) {
+                echeances.add(new Echeance(peremption, cle, numero));
+            }
+
+            @Override
+            public void lotSorti(String numero, long peremption) {
+                echeances.remove(new Echeance(peremption, cle, numero));
+            }
+        };
+    }
+
+    /**
+     * Marque un seuil de péremption atteint par un lot numéroté encore en stock.
+     *
+     * @return état du lot, ou null (médicament ou lot absent, date différente, déjà marqué)
+     */
+    Lot marquerPeremptionLot(String cle, String numeroLot, long peremption, StatutStock statut) {
+        Article article = articles.get(cle);
+        if (article == null) {
+            return null;
+        }
+        synchronized (article.registre) {
+            return courant(article).lots.marquer(numeroLot, peremption, statut);
+        }
+    }
+
+    /**
+     * Positionne l'indicateur de péremption d'un médicament si l'échéance est toujours d'actualité.
+     *
+     * @return le médicament dont l'état vient de changer, ou null (inconnu, date modifiée, déjà marqué)
+     */
+    Medicament marquerPeremption(String cle, long peremption, StatutStock statut) {
+        Article article = articles.get(cle);
+        if (article == null) {
+            return null;
+        }
+        synchronized (article.registre) {
+            article = courant(article);
+            if (article.peremptionIndexee != peremption) {
+                return null;
+            }
+            if (statut == StatutStock.PERIME) {
+                if (article.perime) {
+                    return null;
+                }
+                article.perime = true;
+            } else {
+                if (article.expireBientot) {
+                    return null;
+                }
+                article.expireBientot = true;
+            }
+            return article.medicament;
+        }
+    }
+
+    /**
+     * Indicateur de péremption tenu par la surveillance (aucun calcul de date).
+     */
+    public boolean estPerime(Medicament medicament) {
+        Article article = articles.get(cle(medicament.getNom()));
+        return article != null && article.perime;
+    }
+
+    /**
+     * Indicateur de la surveillance, doublé d'une comparaison de l'instant de péremption :
+     * garde des ventes, juste même entre deux pas de la surveillance.
+     */
+    public boolean estPerime(Medicament medicament, long maintenant) {
+        return medicament.getInstantPeremption() <= maintenant || estPerime(medicament);
+    }
+
+    public boolean estExpirantBientot(Medicament medicament) {
+        Article article = articles.get(cle(medicament.getNom()));
+        return article != null && article.expireBientot;
+    }
+
+    /**
+     * Recherche un médicament par nom (insensible à la casse).
+     */
+    public Optional<Medicament> rechercher(String nom) {
+        Article article = nom == null ? null : articles.get(nom.toLowerCase());
+        return article == null ? Optional.empty() : Optional.of(article.medicament);
+    }
+
+    /**
+     * Copie des médicaments référencés.
+     */
+    public Collection<Medicament> getTous() {
+        List<Medicament> medicaments = new ArrayList<>(articles.size());
+        for (Article article : articles.values()) {
+            medicaments.add(article.medicament);
+        }
+        return medicaments;
+    }
+
+    /**
+     * Page de médicaments triés par nom (insensible à la casse), après le curseur d'une page précédente.
+     */
+    public Page<Medicament> getPage(String apres, int limite) {
+        return Page.extraire(articlesTries, apres, limite, article -> article.medicament);
+    }
+
+    /**
+     * Vue non modifiable des médicaments, triés par nom, sans copie (parcours faiblement cohérent).
+     */
+    public Collection<Medicament> vue() {
+        return new AbstractCollection<Medicament>() {
+            @Override
+            public Iterator<Medicament> iterator() {
+                Iterator<Article> suite = articlesTries.values().iterator();
+                return new Iterator<Medicament>() {
+                    @Override
+                    public boolean hasNext() {
+                        return suite.hasNext();
+                    }
+
+                    @Override
+                    public Medicament next() {
+                        return suite.next().medicament;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                // Taille tenue par la table de hachage (celle de la liste triée coûte un parcours)
+                return articles.size();
+            }
+        };
+    }
+
+    public int getNombreReferences() {
+        return articles.size();
+    }
+
+    /**
+     * Article d'un médicament de l'inventaire (l'instance doit être celle référencée).
+     */
+    private Article article(Medicament medicament) {
+        Article article = articles.get(cle(medicament.getNom()));
+        if (article == null || article.medicament != medicament) {
+            throw new IllegalArgumentException("Médicament non référencé dans l'inventaire : " + medicament.getNom());
+        }
+        return article;
+    }
+
+    /**
+     * Dernier remplaçant d'un article ; l'appelant détient le verrou du registre, commun à toute la chaîne.
+     */
+    private static Article courant(Article article) {
+        while (article.remplacant != null) {
+            article = article.remplacant;
+        }
+        return article;
+    }
+
+    /**
+     * Reporte un changement de stock dans les index ; l'appelant détient le verrou du médicament.
+     */
+    private void indexerStock(Article article, int ancien, int nouveau) {
+        stockTotal.add(nouveau - ancien);
+        if (nouveau == 0) {
+            ruptures.add(article.cle);
+        } else {
+            ruptures.remove(article.cle);
+        }
+        if (nouveau > 0 && nouveau < seuilStockBas) {
+            stocksBas.add(article.cle);
+        } else {
+            stocksBas.remove(article.cle);
+        }
+    }
+
+    /**
+     * Retire le stock d'une vente (lots FEFO non périmés) et l'enregistre, sous le verrou du seul médicament.
+     *
+     * @return prélèvements par lot, ou null si le stock non périmé est insuffisant (rien n'est retiré)
+     */
+    private List<Lot> vendre(Article article, int quantite) {
+        long maintenant = System.currentTimeMillis();
+        synchronized (article.registre) {
+            // Remplacé pendant l'attente du verrou : le stock est celui du remplaçant
+            article = courant(article);
+            if (article.medicament.getQuantiteStock() - article.lots.getQuantitePerimee(maintenant) < quantite) {
+                return null;
+            }
+            int reste = article.medicament.retirerSiDisponible(quantite);
+            if (reste < 0) {
+                return null;
+            }
+            article.registre.enregistrer(System.currentTimeMillis(), TypeMouvementStock.VENTE, -quantite, reste);
+            indexerStock(article, reste + quantite, reste);
+            return article.lots.prelever(quantite, article.medicament.getInstantPeremption(), maintenant);
+        }
+    }
+
+    /**
+     * Remet des unités en stock dans les lots indiqués (un seul mouvement pour l'ensemble).
+     */
+    private void remettre(Article article, List<Lot> lots, TypeMouvementStock type) {
+        int quantite = 0;
+        for (Lot lot : lots) {
+            quantite = Math.addExact(quantite, lot.getQuantite());
+        }
+        synchronized (article.registre) {
+            article = courant(article);
+            int stock = article.medicament.augmenterStock(quantite);
+            article.registre.enregistrer(System.currentTimeMillis(), type, quantite, stock);
+            indexerStock(article, stock - quantite, stock);
+            for (Lot lot : lots) {
+                article.lots.restituer(lot);
+            }
+        }
+        for (Lot lot : lots) {
+            if (!StockLots.SANS_LOT.equals(lot.getNumero())) {
+                suivrePeremptionLot(article.cle, lot.getNumero(), lot.getInstantPeremption());
+            }
+        }
+    }
+
+    private static Lot sansLot(Article article, int quantite) {
+        return new Lot(article.medicament.getNom(), StockLots.SANS_LOT,
+                article.medicament.getInstantPeremption(), quantite);
+    }
+
+    /**
+     * Retire atomiquement une quantité du stock d'un médicament (mouvement de vente).
+     *
+     * @return false si le médicament est inconnu ou si le stock est insuffisant (rien n'est retiré)
+     */
+    public boolean retirer(String nom, int quantite) {
+        Article article = articles.get(cle(nom));
+        return article != null && vendre(article, quantite) != null;
+    }
+
+    /**
+     * Réserve atomiquement toutes les lignes d'un panier : chaque ligne est retirée
+     * dans l'ordre des noms, sous le seul verrou de son médicament ; si une ligne manque
+     * de stock, les lignes déjà retirées sont restituées et rien n'est réservé.
+     * Un seul verrou est tenu à la fois : deux paniers qui partagent des médicaments
+     * progressent en parallèle sans risque d'interblocage.
+     *
+     * @param lignes médicament → quantité demandée
+     * @return réservation (avec ses prélèvements par lot) à confirmer une fois la vente enregistrée, ou à annuler
+     * @throws Medicament.StockInsuffisantException si une ligne ne peut pas être servie
+     */
+    public ReservationStock reserver(Map<Medicament, Integer> lignes) {
+        SecurityValidator.validateNotNull(lignes, "Lignes du panier");
+        List<Map.Entry<Medicament, Integer>> ordre = new ArrayList<>(lignes.entrySet());
+        ordre.sort(Comparator.comparing(e -> cle(e.getKey().getNom())));
+
+        LinkedHashMap<Medicament, Integer> reservees = new LinkedHashMap<>();
+        LinkedHashMap<Medicament, List<Lot>> prelevements = new LinkedHashMap<>();
+        for (Map.Entry<Medicament, Integer> ligne : ordre) {
+            Medicament medicament = ligne.getKey();
+            int quantite;
+            List<Lot> lots;
+            try {
+                quantite = SecurityValidator.validateNotNull(ligne.getValue(), "Quantité");
+                lots = vendre(article(medicament), quantite);
+            } catch (RuntimeException e) {
+                restituer(prelevements, TypeMouvementStock.ANNULATION);
+                throw e;
+            }
+            if (lots == null) {
+                restituer(prelevements, TypeMouvementStock.ANNULATION);
+                throw new Medicament.StockInsuffisantException("Stock insuffisant pour " + medicament.getNom()
+                        + " (demandé: " + quantite + ", disponible: " + medicament.getQuantiteStock() + ")");
+            }
+            reservees.put(medicament, quantite);
+            prelevements.put(medicament, lots);
+        }
+        return new ReservationStock(this, reservees, prelevements);
+    }
+
+    /**
+     * Remet des prélèvements dans leurs lots d'origine (annulation d'une réservation),
+     * chez le médicament courant de même nom si celui de la réservation a été remplacé depuis.
+     */
+    void restituer(Map<Medicament, List<Lot>> prelevements, TypeMouvementStock type) {
+        for (Map.Entry<Medicament, List<Lot>> ligne : prelevements.entrySet()) {
+            Article article = articles.get(cle(ligne.getKey().getNom()));
+            if (article != null) {
+                remettre(article, ligne.getValue(), type);
+            }
+        }
+    }
+
+    /**
+     * Remet en stock une quantité (livraison, réassort).
+     *
+     * @return false si le médicament est inconnu
+     */
+    public boolean restituer(String nom, int quantite) {
+        Article article = articles.get(cle(nom));
+        if (article == null) {
+            return false;
+        }
+        remettre(article, Collections.singletonList(sansLot(article, quantite)), TypeMouvementStock.REASSORT);
+        return true;
+    }
+
+    /**
+     * Réceptionne un lot numéroté (livraison) : les ventes le prélèveront selon sa péremption,
+     * qui entre dans l'échéancier et sous la surveillance des péremptions.
+     *
+     * @return false si le médicament est inconnu
+     * @throws IllegalArgumentException si le lot est déjà périmé
+     */
+    public boolean receptionnerLot(String nom, String numeroLot, int quantite, Date datePeremption) {
+        SecurityValidator.validateNotNull(numeroLot, "Numéro de lot");
+        if (numeroLot.trim().isEmpty()) {
+            throw new IllegalArgumentException("Le numéro de lot ne peut pas être vide");
+        }
+        SecurityValidator.validateFutureDate(datePeremption, "Date de péremption");
+        Article article = articles.get(cle(nom));
+        if (article == null) {
+            return false;
+        }
+        remettre(article, Collections.singletonList(
+                new Lot(article.medicament.getNom(), numeroLot.trim(), datePeremption.getTime(), quantite)),
+                TypeMouvementStock.REASSORT);
+        return true;
+    }
+
+    /**
+     * Lots en stock d'un médicament, du premier au dernier à périmer.
+     */
+    public List<Lot> getLots(String nom) {
+        Article article = nom == null ? null : articles.get(nom.toLowerCase());
+        if (article == null) {
+            return Collections.emptyList();
+        }
+        synchronized (article.registre) {
+            return courant(article).lots.getLots();
+        }
+    }
+
+    /**
+     * Fixe le stock d'un médicament et enregistre l'écart : réassort s'il augmente, correction sinon.
+     * Une baisse est retirée des lots qui périment le plus tôt (périmés compris), une hausse va au lot implicite.
+     *
+     * @return false si le médicament est inconnu
+     */
+    public boolean modifierStock(String nom, int nouvelleQuantite) {
+        Article article = articles.get(cle(nom));
+        if (article == null) {
+            return false;
+        }
+        synchronized (article.registre) {
+            article = courant(article);
+            int ancien = article.medicament.remplacerStock(nouvelleQuantite);
+            int ecart = nouvelleQuantite - ancien;
+            article.registre.enregistrer(System.currentTimeMillis(),
+                    ecart > 0 ? TypeMouvementStock.REASSORT : TypeMouvementStock.CORRECTION,
+                    ecart, nouvelleQuantite);
+            indexerStock(article, ancien, nouvelleQuantite);
+            if (ecart > 0) {
+                article.lots.ajouter(StockLots.SANS_LOT, article.medicament.getInstantPeremption(), ecart);
+            } else if (ecart < 0) {
+                article.lots.prelever(-ecart, article.medicament.getInstantPeremption(), Long.MIN_VALUE);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Change la date de péremption d'un médicament, le replace dans l'échéancier
+     * et le soumet à nouveau à la surveillance des péremptions.
+     *
+     * @return false si le médicament est inconnu
+     */
+    public boolean modifierDatePeremption(String nom, Date datePeremption) {
+        SecurityValidator.validateDate(datePeremption, "Date de péremption");
+        Article article = articles.get(cle(nom));
+        if (article == null) {
+            return false;
+        }
+        synchronized (article.registre) {
+            article = courant(article);
+            echeances.remove(new Echeance(article.peremptionIndexee, article.cle));
+            article.medicament.setDatePeremption(new Date(datePeremption.getTime()));
+            article.lots.redaterLotImplicite(datePeremption.getTime());
+            article.peremptionIndexee = datePeremption.getTime();
+            echeances.add(new Echeance(article.peremptionIndexee, article.cle));
+            article.expireBientot = false;
+            article.perime = false;
+        }
+        suivrePeremption(article.cle, datePeremption.getTime());
+        return true;
+    }
+
+    /**
+     * Historique des mouvements d'un médicament, dans l'ordre où ils ont été appliqués.
+     */
+    public List<MouvementStock> getMouvements(String nom) {
+        Article article = nom == null ? null : articles.get(nom.toLowerCase());
+        return article == null ? Collections.emptyList() : article.registre.lire(0);
+    }
+
+    public int getNombreMouvements(String nom) {
+        Article article = nom == null ? null : articles.get(nom.toLowerCase());
+        return article == null ? 0 : article.registre.taille();
+    }
+
+    /**
+     * Nombre total d'unités en stock, tous médicaments confondus (compteur tenu à jour, O(1)).
+     */
+    public int getStockTotal() {
+        return stockTotal.intValue();
+    }
+
+    /**
+     * Nombre de médicaments dont le stock est épuisé (O(1)).
+     */
+    public long getNombreRuptures() {
+        return ruptures.size();
+    }
+
+    public List<Medicament> getRuptures() {
+        return medicamentsDe(ruptures);
+    }
+
+    /**
+     * Nombre de médicaments en stock mais sous le seuil de stock bas (O(1)).
+     */
+    public long getNombreStocksBas() {
+        return stocksBas.size();
+    }
+
+    public List<Medicament> getStocksBas() {
+        return medicamentsDe(stocksBas);
+    }
+
+    public int getSeuilStockBas() {
+        return seuilStockBas;
+    }
+
+    /**
+     * Change le seuil de stock bas et recalcule l'ensemble correspondant (O(n), rare).
+     */
+    public synchronized void setSeuilStockBas(int seuil) {
+        seuilStockBas = SecurityValidator.validateStock(seuil);
+        for (Article article : articles.values()) {
+            synchronized (article.registre) {
+                int stock = article.medicament.getQuantiteStock();
+                indexerStock(article, stock, stock);
+            }
+        }
+    }
+
+    /**
+     * Médicaments dont la péremption, ou celle d'un lot numéroté en stock, est strictement antérieure
+     * à {@code limite}, du plus proche au plus lointain, chacun une fois (O(log n + k)).
+     */
+    public List<Medicament> getExpirantAvant(long limite) {
+        List<Medicament> medicaments = new ArrayList<>();
+        Set<String> vus = new HashSet<>();
+        for (Echeance echeance : echeances.headSet(new Echeance(limite, ""))) {
+            Article article = articles.get(echeance.cle);
+            if (article != null && vus.add(echeance.cle)) {
+                medicaments.add(article.medicament);
+            }
+        }
+        return medicaments;
+    }
+
+    /**
+     * Statut d'un médicament à l'instant donné, lu dans les index (aucune allocation de date).
+     * La péremption retenue est la plus proche de celle du médicament et de ses lots en stock :
+     * un lot numéroté périmé, donc invendable, rend le médicament périmé.
+     */
+    public StatutStock getStatut(Medicament medicament, long maintenant) {
+        String cle = cle(medicament.getNom());
+        if (ruptures.contains(cle)) {
+            return StatutStock.RUPTURE;
+        }
+        if (stocksBas.contains(cle)) {
+            return StatutStock.STOCK_BAS;
+        }
+        long peremption = medicament.getInstantPeremption();
+        Article article = articles.get(cle);
+        if (article != null) {
+            synchronized (article.registre) {
+                peremption = Math.min(peremption, courant(article).lots.getPremierePeremption());
+            }
+        }
+        // Même borne que les lots : périmé à l'instant même de la péremption
+        if (peremption <= maintenant) {
+            return StatutStock.PERIME;
+        }
+        if (peremption < maintenant + DELAI_EXPIRATION_PROCHE_MS) {
+            return StatutStock.EXPIRE_BIENTOT;
+        }
+        return StatutStock.OK;
+    }
+
+    private List<Medicament> medicamentsDe(Set<String> cles) {
+        List<Medicament> medicaments = new ArrayList<>(cles.size());
+        for (String cle : cles) {
+            Article article = articles.get(cle);
+            if (article != null) {
+                medicaments.add(article.medicament);
+            }
+        }
+        return medicaments;
+    }
+}
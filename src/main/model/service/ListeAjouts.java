@@ -0,0 +1,207 @@
+package main.model.service;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Historique concurrent en ajout seul, découpé en blocs de taille fixe : un ajout réserve sa
+ * position par un index atomique, écrit dans son bloc puis publie la taille, sans jamais recopier
+ * ce qui est déjà stocké (O(1) quelle que soit la taille de l'historique, contrairement à une
+ * {@code CopyOnWriteArrayList}). Les lecteurs parcourent le préfixe publié au moment de la lecture,
+ * sans copie ni verrou.
+ * Les blocs sont alloués à la demande dans un répertoire à deux niveaux de taille fixe.
+ * Tout ce qui peut échouer (capacité, allocation des blocs, lecture des éléments à ajouter) a lieu
+ * avant la réservation : une fois ses positions réservées, un ajout ne fait plus que des écritures
+ * de tableau et publie toujours sa plage, si bien qu'un ajout n'attend jamais un prédécesseur disparu.
+ */
+public final class ListeAjouts<T> implements Iterable<T> {
+
+    private static final int BITS_BLOC = 10;
+    private static final int TAILLE_BLOC = 1 << BITS_BLOC;
+    private static final int BITS_SEGMENT = 10;
+    private static final int BLOCS_PAR_SEGMENT = 1 << BITS_SEGMENT;
+    // 2^11 segments × 2^10 blocs × 2^10 éléments couvrent tous les index positifs d'un int
+    private static final int SEGMENTS = 1 << (31 - BITS_BLOC - BITS_SEGMENT);
+
+    private static final int TOURS_AVANT_CEDER = 64;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<Object[]>> segments = new AtomicReferenceArray<>(SEGMENTS);
+    // Prochaine position réservée
+    private final AtomicInteger reserve = new AtomicInteger();
+    // Nombre d'éléments écrits et visibles, publié dans l'ordre des positions
+    private final AtomicInteger publie = new AtomicInteger();
+
+    /**
+     * Ajoute un élément à la fin et retourne sa position.
+     */
+    public int ajouter(T element) {
+        int position = reserver(1);
+        try {
+            bloc(position)[position & (TAILLE_BLOC - 1)] = element;
+        } finally {
+            publier(position, 1);
+        }
+        return position;
+    }
+
+    /**
+     * Ajoute plusieurs éléments en une seule réservation de positions consécutives.
+     */
+    public void ajouterTous(List<? extends T> elements) {
+        // Copie lue avant la réservation : une liste qui échoue n'a encore rien réservé
+        Object[] copie = elements.toArray();
+        int n = copie.length;
+        if (n == 0) {
+            return;
+        }
+        int debut = reserver(n);
+        try {
+            for (int k = 0; k < n; k++) {
+                int position = debut + k;
+                bloc(position)[position & (TAILLE_BLOC - 1)] = copie[k];
+            }
+        } finally {
+            publier(debut, n);
+        }
+    }
+
+    /**
+     * Réserve n positions consécutives après avoir vérifié la capacité et alloué leurs blocs :
+     * le CAS n'aboutit que lorsque la plage est entièrement prête à être écrite.
+     */
+    private int reserver(int n) {
+        while (true) {
+            int debut = reserve.get();
+            if (debut + n < 0) {
+                throw new IllegalStateException("Capacité de l'historique dépassée");
+            }
+            for (int position = debut; position < debut + n; position += TAILLE_BLOC) {
+                bloc(position);
+            }
+            bloc(debut + n - 1);
+            if (reserve.compareAndSet(debut, debut + n)) {
+                return debut;
+            }
+        }
+    }
+
+    /**
+     * Rend visibles les positions [debut, debut + n) une fois toutes les précédentes publiées :
+     * la taille publiée ne couvre jamais une case encore vide. L'attente ne dure que le temps
+     * d'écrire les cases précédentes (publiées même en cas d'erreur) ; au-delà de quelques tours,
+     * on cède le processeur à l'ajout en retard.
+     */
+    private void publier(int debut, int n) {
+        for (int tours = 0; publie.get() != debut; tours++) {
+            if (tours < TOURS_AVANT_CEDER) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        publie.set(debut + n);
+    }
+
+    private Object[] bloc(int position) {
+        int numero = position >>> BITS_BLOC;
+        int s = numero >>> BITS_SEGMENT;
+        AtomicReferenceArray<Object[]> segment = segments.get(s);
+        if (segment == null) {
+            segments.compareAndSet(s, null, new AtomicReferenceArray<>(BLOCS_PAR_SEGMENT));
+            segment = segments.get(s);
+        }
+        int b = numero & (BLOCS_PAR_SEGMENT - 1);
+        Object[] bloc = segment.get(b);
+        if (bloc == null) {
+            segment.compareAndSet(b, null, new Object[TAILLE_BLOC]);
+            bloc = segment.get(b);
+        }
+        return bloc;
+    }
+
+    /**
+     * Nombre d'éléments publiés.
+     */
+    public int taille() {
+        return publie.get();
+    }
+
+    public boolean estVide() {
+        return taille() == 0;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException si la position n'est pas encore publiée
+     */
+    public T get(int position) {
+        int taille = publie.get();
+        if (position < 0 || position >= taille) {
+            throw new IndexOutOfBoundsException("Position " + position + " hors de [0, " + taille + ")");
+        }
+        return lire(position);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T lire(int position) {
+        return (T) segments.get(position >>> (BITS_BLOC + BITS_SEGMENT))
+                .get((position >>> BITS_BLOC) & (BLOCS_PAR_SEGMENT - 1))[position & (TAILLE_BLOC - 1)];
+    }
+
+    /**
+     * Parcourt le préfixe publié au début du parcours ; les ajouts concurrents n'y apparaissent pas.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        int taille = publie.get();
+        return new Iterator<T>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < taille;
+            }
+
+            @Override
+            public T next() {
+                if (position >= taille) {
+                    throw new NoSuchElementException();
+                }
+                return lire(position++);
+            }
+        };
+    }
+
+    /**
+     * Vue non modifiable du préfixe publié à l'appel, sans copie.
+     */
+    public List<T> vue() {
+        int taille = publie.get();
+        return new Prefixe(taille);
+    }
+
+    private final class Prefixe extends AbstractList<T> implements RandomAccess {
+        private final int taille;
+
+        Prefixe(int taille) {
+            this.taille = taille;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= taille) {
+                throw new IndexOutOfBoundsException("Index " + index + " hors de [0, " + taille + ")");
+            }
+            return lire(index);
+        }
+
+        @Override
+        public int size() {
+            return taille;
+        }
+    }
+}
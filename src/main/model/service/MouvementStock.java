@@ -0,0 +1,48 @@
+package main.model.service;
+
+import java.util.Date;
+
+/**
+ * Mouvement de stock d'un médicament : quantité signée (négative en sortie)
+ * et stock résultant juste après le mouvement.
+ */
+public final class MouvementStock {
+
+    private final long instant;
+    private final TypeMouvementStock type;
+    private final int quantite;
+    private final int stockApres;
+
+    MouvementStock(long instant, TypeMouvementStock type, int quantite, int stockApres) {
+        this.instant = instant;
+        this.type = type;
+        this.quantite = quantite;
+        this.stockApres = stockApres;
+    }
+
+    public long getInstant() {
+        return instant;
+    }
+    public Date getDate() {
+        return new Date(instant);
+    }
+    public TypeMouvementStock getType() {
+        return type;
+    }
+    public int getQuantite() {
+        return quantite;
+    }
+    public int getStockApres() {
+        return stockApres;
+    }
+
+    @Override
+    public String toString() {
+        return "MouvementStock{" +
+                "instant=" + instant +
+                ", type=" + type +
+                ", quantite=" + quantite +
+                ", stockApres=" + stockApres +
+                '}';
+    }
+}
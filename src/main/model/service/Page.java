@@ -0,0 +1,60 @@
+package main.model.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+/**
+ * Page d'un annuaire trié par clé stable (identifiant, RPPS, nom).
+ * Le curseur est la clé du dernier élément : la page suivante reprend juste après,
+ * même si des éléments ont été ajoutés ou retirés entre-temps. {@code null} en fin de parcours.
+ */
+public final class Page<T> {
+
+    private final List<T> elements;
+    private final String curseurSuivant;
+
+    private Page(List<T> elements, String curseurSuivant) {
+        this.elements = Collections.unmodifiableList(elements);
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    /**
+     * Lit au plus {@code limite} valeurs strictement après {@code apres} ({@code null} : depuis le début),
+     * sans parcourir ni copier le reste de l'annuaire.
+     */
+    static <V, T> Page<T> extraire(NavigableMap<String, V> annuaire, String apres, int limite,
+                                   Function<V, T> conversion) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Taille de page invalide : " + limite);
+        }
+        NavigableMap<String, V> suite = apres == null ? annuaire : annuaire.tailMap(apres, false);
+        List<T> elements = new ArrayList<>(Math.min(limite, 1024));
+        String derniere = null;
+        boolean reste = false;
+        for (Map.Entry<String, V> entree : suite.entrySet()) {
+            if (elements.size() == limite) {
+                reste = true;
+                break;
+            }
+            elements.add(conversion.apply(entree.getValue()));
+            derniere = entree.getKey();
+        }
+        return new Page<>(elements, reste ? derniere : null);
+    }
+
+    public List<T> getElements() {
+        return elements;
+    }
+
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+
+    public boolean aUneSuite() {
+        return curseurSuivant != null;
+    }
+}
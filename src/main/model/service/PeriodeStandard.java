@@ -0,0 +1,43 @@
+package main.model.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Périodes affichées par les tableaux de bord, toutes terminées « maintenant ».
+ */
+public enum PeriodeStandard {
+    /** Depuis minuit. */
+    JOUR,
+    /** Depuis le premier du mois. */
+    MOIS,
+    /** Depuis le 1er janvier. */
+    ANNEE,
+    /** Les 30 jours calendaires se terminant aujourd'hui (inclus). */
+    TRENTE_JOURS;
+
+    /**
+     * Premier jour calendaire couvert par la période, pour une date du jour donnée.
+     */
+    public LocalDate premierJour(LocalDate aujourdHui) {
+        switch (this) {
+            case JOUR:
+                return aujourdHui;
+            case MOIS:
+                return aujourdHui.withDayOfMonth(1);
+            case ANNEE:
+                return aujourdHui.withDayOfYear(1);
+            default:
+                return aujourdHui.minusDays(StatistiquesVentes.JOURS_GLISSANTS - 1);
+        }
+    }
+
+    /**
+     * Début de la période (minuit local du premier jour couvert), en millisecondes epoch.
+     */
+    public long debut(long maintenant, ZoneId zone) {
+        LocalDate aujourdHui = Instant.ofEpochMilli(maintenant).atZone(zone).toLocalDate();
+        return premierJour(aujourdHui).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
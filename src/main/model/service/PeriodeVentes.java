@@ -0,0 +1,43 @@
+package main.model.service;
+
+import main.model.security.SecurityValidator;
+
+import java.util.Date;
+
+/**
+ * Fenêtre de temps [debut, fin], bornes incluses, utilisée pour agréger les ventes.
+ */
+public final class PeriodeVentes {
+
+    private final long debut;
+    private final long fin;
+
+    public PeriodeVentes(Date debut, Date fin) {
+        this(SecurityValidator.validateNotNull(debut, "Date de début").getTime(),
+                SecurityValidator.validateNotNull(fin, "Date de fin").getTime());
+    }
+
+    public PeriodeVentes(long debut, long fin) {
+        if (debut > fin) {
+            throw new IllegalArgumentException("La date de début doit être antérieure à la date de fin");
+        }
+        this.debut = debut;
+        this.fin = fin;
+    }
+
+    public long getDebut() {
+        return debut;
+    }
+    public long getFin() {
+        return fin;
+    }
+
+    public boolean contient(long timestamp) {
+        return timestamp >= debut && timestamp <= fin;
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodeVentes{" + new Date(debut) + " -> " + new Date(fin) + '}';
+    }
+}
@@ -0,0 +1,57 @@
+package main.model.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registre append-only des mouvements de stock d'un seul médicament, en colonnes primitives
+ * (instant, type, quantité signée, stock après) : 17 octets par mouvement, sans objet par entrée.
+ * Le registre sert aussi de verrou du médicament : un mouvement et sa modification de stock
+ * se font sous ce moniteur, l'ordre du registre est donc celui des soldes. Deux médicaments
+ * différents n'ont aucun verrou en commun.
+ */
+final class RegistreMouvements {
+
+    private static final int CAPACITE_INITIALE = 16;
+    private static final TypeMouvementStock[] TYPES = TypeMouvementStock.values();
+
+    private long[] instants = new long[CAPACITE_INITIALE];
+    private int[] quantites = new int[CAPACITE_INITIALE];
+    private int[] stocksApres = new int[CAPACITE_INITIALE];
+    private byte[] types = new byte[CAPACITE_INITIALE];
+    private int taille;
+
+    /**
+     * Ajoute un mouvement ; l'appelant détient le moniteur du registre.
+     */
+    void enregistrer(long instant, TypeMouvementStock type, int quantite, int stockApres) {
+        if (taille == instants.length) {
+            int capacite = taille * 2;
+            instants = Arrays.copyOf(instants, capacite);
+            quantites = Arrays.copyOf(quantites, capacite);
+            stocksApres = Arrays.copyOf(stocksApres, capacite);
+            types = Arrays.copyOf(types, capacite);
+        }
+        instants[taille] = instant;
+        quantites[taille] = quantite;
+        stocksApres[taille] = stockApres;
+        types[taille] = (byte) type.ordinal();
+        taille++;
+    }
+
+    synchronized int taille() {
+        return taille;
+    }
+
+    /**
+     * Copie des mouvements à partir du rang {@code depuis}, dans l'ordre d'enregistrement.
+     */
+    synchronized List<MouvementStock> lire(int depuis) {
+        List<MouvementStock> mouvements = new ArrayList<>(Math.max(0, taille - depuis));
+        for (int i = Math.max(0, depuis); i < taille; i++) {
+            mouvements.add(new MouvementStock(instants[i], TYPES[types[i]], quantites[i], stocksApres[i]));
+        }
+        return mouvements;
+    }
+}
@@ -0,0 +1,83 @@
+package main.model.service;
+
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock retenu pour toutes les lignes d'un panier, obtenu par {@link InventaireMedicaments#reserver(Map)}.
+ * Une réservation est soit confirmée (la vente est enregistrée, le stock reste retiré),
+ * soit annulée (le stock est restitué) ; la première des deux l'emporte.
+ * Fermer une réservation non confirmée l'annule : utilisable en try-with-resources.
+ */
+public final class ReservationStock implements AutoCloseable {
+
+    private static final int EN_COURS = 0;
+    private static final int CONFIRMEE = 1;
+    private static final int ANNULEE = 2;
+
+    private final InventaireMedicaments inventaire;
+    private final Map<Medicament, Integer> lignes;
+    private final Map<Medicament, List<Lot>> prelevements;
+    private final AtomicInteger etat = new AtomicInteger(EN_COURS);
+
+    ReservationStock(InventaireMedicaments inventaire, LinkedHashMap<Medicament, Integer> lignes,
+                     LinkedHashMap<Medicament, List<Lot>> prelevements) {
+        this.inventaire = inventaire;
+        this.lignes = Collections.unmodifiableMap(lignes);
+        this.prelevements = Collections.unmodifiableMap(prelevements);
+    }
+
+    /**
+     * Lignes réservées (médicament → quantité), dans l'ordre de réservation.
+     */
+    public Map<Medicament, Integer> getLignes() {
+        return lignes;
+    }
+
+    /**
+     * Prélèvements par lot (premier périmé, premier sorti) de toutes les lignes, à conserver sur l'achat.
+     */
+    public List<Lot> getLots() {
+        List<Lot> lots = new ArrayList<>();
+        for (List<Lot> ligne : prelevements.values()) {
+            lots.addAll(ligne);
+        }
+        return lots;
+    }
+
+    /**
+     * Valide définitivement le retrait du stock.
+     *
+     * @throws IllegalStateException si la réservation a déjà été annulée
+     */
+    public void confirmer() {
+        if (!etat.compareAndSet(EN_COURS, CONFIRMEE) && etat.get() != CONFIRMEE) {
+            throw new IllegalStateException("Réservation déjà annulée");
+        }
+    }
+
+    /**
+     * Restitue le stock réservé dans ses lots d'origine (mouvements d'annulation) ; sans effet si la réservation est déjà confirmée ou annulée.
+     */
+    public void annuler() {
+        if (etat.compareAndSet(EN_COURS, ANNULEE)) {
+            inventaire.restituer(prelevements, TypeMouvementStock.ANNULATION);
+        }
+    }
+
+    public boolean estConfirmee() {
+        return etat.get() == CONFIRMEE;
+    }
+
+    @Override
+    public void close() {
+        annuler();
+    }
+}
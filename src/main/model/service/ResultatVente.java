@@ -0,0 +1,95 @@
+package main.model.service;
+
+import main.model.Transaction.Montant;
+import main.model.Transaction.TypeTransaction.Achat;
+
+/**
+ * Issue d'un panier d'une {@link VenteGroupee} : l'achat enregistré, ou le motif du refus.
+ */
+public final class ResultatVente {
+
+    public enum Statut {
+        EFFECTUEE,
+        CLIENT_INCONNU,
+        MEDICAMENT_INCONNU,
+        MEDICAMENT_PERIME,
+        STOCK_INSUFFISANT,
+        REFUSEE,
+        /** Stock restitué : l'écriture groupée des ventes a échoué. */
+        ECHEC_ENREGISTREMENT
+    }
+
+    private final int index;
+    private final String identifiantClient;
+    private final Statut statut;
+    private final String motif;
+    private final Achat achat;
+
+    private ResultatVente(int index, String identifiantClient, Statut statut, String motif, Achat achat) {
+        this.index = index;
+        this.identifiantClient = identifiantClient;
+        this.statut = statut;
+        this.motif = motif;
+        this.achat = achat;
+    }
+
+    static ResultatVente effectuee(int index, String identifiantClient, Achat achat) {
+        return new ResultatVente(index, identifiantClient, Statut.EFFECTUEE, null, achat);
+    }
+
+    static ResultatVente refusee(int index, String identifiantClient, Statut statut, String motif) {
+        return new ResultatVente(index, identifiantClient, statut, motif, null);
+    }
+
+    /**
+     * Position du panier dans le lot.
+     */
+    public int getIndex() {
+        return index;
+    }
+    public String getIdentifiantClient() {
+        return identifiantClient;
+    }
+    public Statut getStatut() {
+        return statut;
+    }
+    public boolean estEffectuee() {
+        return statut == Statut.EFFECTUEE;
+    }
+    /**
+     * Motif du refus (null si la vente est effectuée).
+     */
+    public String getMotif() {
+        return motif;
+    }
+    /**
+     * Achat enregistré (null si la vente est refusée).
+     */
+    public Achat getAchat() {
+        return achat;
+    }
+    public String getReference() {
+        return achat != null ? achat.getReference() : null;
+    }
+    public long getMontantTotalCentimes() {
+        return achat != null ? achat.getMontantTotalCentimes() : 0;
+    }
+    public long getMontantRembourseCentimes() {
+        return achat != null ? achat.getMontantRembourseCentimes() : 0;
+    }
+    public long getResteAPayerCentimes() {
+        return getMontantTotalCentimes() - getMontantRembourseCentimes();
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatVente{" +
+                "index=" + index +
+                ", client='" + identifiantClient + '\'' +
+                ", statut=" + statut +
+                (achat != null
+                        ? ", reference='" + achat.getReference() + "', resteAPayer=" + Montant.formater(getResteAPayerCentimes())
+                        : ", motif='" + motif + '\'') +
+                '}';
+    }
+}
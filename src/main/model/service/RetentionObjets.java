@@ -0,0 +1,194 @@
+package main.model.service;
+
+import main.model.persistance.EntrepotFroid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rétention à deux niveaux des ventes enregistrées : les {@code capaciteChaude} plus récentes restent
+ * des objets vivants, les plus anciennes sont écrites dans un {@link EntrepotFroid} puis lâchées.
+ * Un objet évincé est relu à la demande et gardé dans un cache LRU borné (compteurs succès / échecs).
+ * Sans entrepôt configuré, tout reste vivant.
+ */
+final class RetentionObjets<T> {
+
+    private final Object verrou = new Object();
+    // Fiches encore vivantes, de la plus ancienne à la plus récente
+    private final ArrayDeque<Fiche<T>> chaudes = new ArrayDeque<>();
+    private EntrepotFroid<T> entrepot;
+    private int capaciteChaude = Integer.MAX_VALUE;
+    private long nombreFroids;
+
+    private final LinkedHashMap<Fiche<T>, T> cache = new LinkedHashMap<Fiche<T>, T>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Fiche<T>, T> plusAncienne) {
+            return size() > capaciteCache;
+        }
+    };
+    private volatile int capaciteCache;
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+
+    /**
+     * Branche l'entrepôt froid (une seule fois) et fixe les capacités ; l'excédent de fiches vivantes
+     * est évincé aussitôt.
+     */
+    void configurer(EntrepotFroid<T> entrepot, int capaciteChaude, int capaciteCache) {
+        if (capaciteChaude < 0 || capaciteCache < 0) {
+            throw new IllegalArgumentException("Capacités de rétention invalides : " + capaciteChaude + ", " + capaciteCache);
+        }
+        synchronized (verrou) {
+            if (this.entrepot != null) {
+                throw new IllegalStateException("Rétention déjà configurée");
+            }
+            this.entrepot = entrepot;
+            this.capaciteChaude = entrepot != null ? capaciteChaude : Integer.MAX_VALUE;
+        }
+        synchronized (cache) {
+            this.capaciteCache = capaciteCache;
+            cache.clear();
+        }
+        evincerExcedent();
+    }
+
+    /**
+     * Retient un objet qui vient d'être enregistré et retourne sa fiche, à placer dans les index.
+     */
+    Fiche<T> retenir(T objet, long instant, String reference, String lien) {
+        Fiche<T> fiche = new Fiche<>(objet, instant, reference, lien);
+        synchronized (verrou) {
+            chaudes.addLast(fiche);
+        }
+        evincerExcedent();
+        return fiche;
+    }
+
+    /**
+     * Écrit hors verrou les fiches vivantes en excédent. Une écriture en échec laisse l'objet vivant.
+     */
+    private void evincerExcedent() {
+        List<Fiche<T>> aEvincer = new ArrayList<>();
+        EntrepotFroid<T> cible;
+        synchronized (verrou) {
+            cible = entrepot;
+            while (chaudes.size() > capaciteChaude) {
+                aEvincer.add(chaudes.pollFirst());
+            }
+        }
+        for (Fiche<T> fiche : aEvincer) {
+            try {
+                fiche.evincer(cible.ecrire(fiche.getChaud()));
+                synchronized (verrou) {
+                    nombreFroids++;
+                }
+            } catch (IOException e) {
+                System.err.println("Éviction impossible de " + fiche.getReference() + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Objet de la fiche : vivant, sinon en cache, sinon relu depuis l'entrepôt puis mis en cache.
+     */
+    T resoudre(Fiche<T> fiche) {
+        T objet = fiche.getChaud();
+        if (objet != null) {
+            return objet;
+        }
+        synchronized (cache) {
+            objet = cache.get(fiche);
+        }
+        if (objet != null) {
+            succes.increment();
+            return objet;
+        }
+        echecs.increment();
+        T relu = relire(fiche);
+        synchronized (cache) {
+            // Deux relectures concurrentes : la première mise en cache l'emporte
+            T present = cache.putIfAbsent(fiche, relu);
+            return present != null ? present : relu;
+        }
+    }
+
+    List<T> resoudreTous(List<Fiche<T>> fiches) {
+        List<T> objets = new ArrayList<>(fiches.size());
+        for (Fiche<T> fiche : fiches) {
+            objets.add(resoudre(fiche));
+        }
+        return objets;
+    }
+
+    /**
+     * Vue paresseuse et non modifiable des fiches, pour les parcours complets : les objets froids
+     * sont relus sans passer par le cache, qu'un balayage de tout l'historique viderait.
+     */
+    List<T> vue(List<Fiche<T>> fiches) {
+        return new VueFiches(fiches);
+    }
+
+    private final class VueFiches extends AbstractList<T> implements RandomAccess {
+        private final List<Fiche<T>> fiches;
+
+        VueFiches(List<Fiche<T>> fiches) {
+            this.fiches = fiches;
+        }
+
+        @Override
+        public T get(int index) {
+            Fiche<T> fiche = fiches.get(index);
+            T objet = fiche.getChaud();
+            return objet != null ? objet : relire(fiche);
+        }
+
+        @Override
+        public int size() {
+            return fiches.size();
+        }
+    }
+
+    private T relire(Fiche<T> fiche) {
+        EntrepotFroid<T> source;
+        synchronized (verrou) {
+            source = entrepot;
+        }
+        try {
+            return source.lire(fiche.getPosition());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Relecture impossible de " + fiche.getReference(), e);
+        }
+    }
+
+    EtatRetention etat() {
+        int enCache;
+        synchronized (cache) {
+            enCache = cache.size();
+        }
+        synchronized (verrou) {
+            return new EtatRetention(capaciteChaude, capaciteCache, chaudes.size(), nombreFroids,
+                    enCache, succes.sum(), echecs.sum());
+        }
+    }
+
+    /**
+     * Ferme l'entrepôt ; les objets évincés ne sont plus relisibles.
+     */
+    void fermer() throws IOException {
+        EntrepotFroid<T> source;
+        synchronized (verrou) {
+            source = entrepot;
+        }
+        if (source != null) {
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package main.model.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roue temporelle hiérarchique : {@code NIVEAUX} roues de {@code CASES} cases, la case d'un niveau
+ * couvrant une révolution complète du niveau inférieur. Avec un pas d'une minute, quatre niveaux de
+ * 64 cases couvrent environ 31 ans ; au-delà, les échéances attendent dans un débordement.
+ * Planifier est en O(1) ; chaque pas ne touche qu'une case, et redescend une case des niveaux
+ * supérieurs lorsque le niveau inférieur a fait un tour complet.
+ * Non thread-safe : l'appelant sérialise les accès.
+ */
+final class RoueTemporelle<T> {
+
+    private static final int BITS = 6;
+    static final int CASES = 1 << BITS;
+    static final int NIVEAUX = 4;
+    private static final int MASQUE = CASES - 1;
+
+    private static final class Entree<T> {
+        final long pas;
+        final T element;
+
+        Entree(long pas, T element) {
+            this.pas = pas;
+            this.element = element;
+        }
+    }
+
+    private final long dureePasMs;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<Entree<T>>[][] cases = new List[NIVEAUX][CASES];
+    private final List<Entree<T>> debordement = new ArrayList<>();
+    private final List<T> echus = new ArrayList<>();
+    private long pasCourant;
+    private int taille;
+
+    /**
+     * @param dureePasMs résolution de la roue
+     * @param origineMs instant courant au démarrage
+     */
+    RoueTemporelle(long dureePasMs, long origineMs) {
+        if (dureePasMs <= 0) {
+            throw new IllegalArgumentException("Pas de la roue invalide : " + dureePasMs);
+        }
+        this.dureePasMs = dureePasMs;
+        this.pasCourant = Math.floorDiv(origineMs, dureePasMs);
+    }
+
+    /**
+     * Planifie {@code element} pour l'instant {@code echeanceMs} ; une échéance déjà passée
+     * sera rendue au prochain {@link #avancer(long)}.
+     */
+    void planifier(long echeanceMs, T element) {
+        taille++;
+        placer(new Entree<>(Math.floorDiv(echeanceMs, dureePasMs), element));
+    }
+
+    private void placer(Entree<T> entree) {
+        if (entree.pas <= pasCourant) {
+            echus.add(entree.element);
+            return;
+        }
+        for (int niveau = 0; niveau < NIVEAUX; niveau++) {
+            int decalage = BITS * (niveau + 1);
+            // Même préfixe au-dessus de ce niveau : l'échéance tombe dans la révolution courante
+            if ((entree.pas >>> decalage) == (pasCourant >>> decalage)) {
+                int index = (int) (entree.pas >>> (BITS * niveau)) & MASQUE;
+                List<Entree<T>> liste = cases[niveau][index];
+                if (liste == null) {
+                    liste = new ArrayList<>(2);
+                    cases[niveau][index] = liste;
+                }
+                liste.add(entree);
+                return;
+            }
+        }
+        debordement.add(entree);
+    }
+
+    /**
+     * Avance la roue jusqu'à {@code maintenantMs} et retourne les éléments arrivés à échéance,
+     * dans l'ordre de leurs échéances (à la résolution de la roue près).
+     */
+    List<T> avancer(long maintenantMs) {
+        long cible = Math.floorDiv(maintenantMs, dureePasMs);
+        List<T> resultat = new ArrayList<>(echus);
+        echus.clear();
+        while (pasCourant < cible && taille > resultat.size()) {
+            pasCourant++;
+            redescendre();
+            // Les entrées redescendues exactement sur ce pas sont déjà échues
+            resultat.addAll(echus);
+            echus.clear();
+            List<Entree<T>> liste = cases[0][(int) pasCourant & MASQUE];
+            if (liste != null) {
+                cases[0][(int) pasCourant & MASQUE] = null;
+                for (Entree<T> entree : liste) {
+                    resultat.add(entree.element);
+                }
+            }
+        }
+        if (pasCourant < cible) {
+            // Plus rien de planifié d'ici là : saut direct, sans parcourir les pas vides
+            pasCourant = cible;
+        }
+        taille -= resultat.size();
+        return resultat;
+    }
+
+    /**
+     * Lorsque des niveaux inférieurs bouclent, redistribue la case correspondante des niveaux supérieurs
+     * (du plus haut au plus bas, pour que les entrées redescendent en cascade).
+     */
+    private void redescendre() {
+        if ((pasCourant & ((1L << (BITS * NIVEAUX)) - 1)) == 0 && !debordement.isEmpty()) {
+            List<Entree<T>> entrees = new ArrayList<>(debordement);
+            debordement.clear();
+            for (Entree<T> entree : entrees) {
+                placer(entree);
+            }
+        }
+        for (int niveau = NIVEAUX - 1; niveau >= 1; niveau--) {
+            if ((pasCourant & ((1L << (BITS * niveau)) - 1)) != 0) {
+                continue;
+            }
+            int index = (int) (pasCourant >>> (BITS * niveau)) & MASQUE;
+            List<Entree<T>> liste = cases[niveau][index];
+            if (liste != null) {
+                cases[niveau][index] = null;
+                for (Entree<T> entree : liste) {
+                    placer(entree);
+                }
+            }
+        }
+    }
+
+    int taille() {
+        return taille;
+    }
+}
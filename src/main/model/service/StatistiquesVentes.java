@@ -0,0 +1,170 @@
+package main.model.service;
+
+import main.model.persistance.EnregistrementVente;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistiques de ventes matérialisées : compteurs courants par jour, mois et année,
+ * incrémentés à chaque vente. Lire une {@link PeriodeStandard} ne parcourt aucune vente.
+ *
+ * Les compteurs « courants » basculent dès qu'une vente tombe dans un nouveau jour,
+ * mois ou année ; seuls les {@link #JOURS_GLISSANTS} derniers jours sont conservés au détail.
+ */
+public class StatistiquesVentes {
+
+    public static final int JOURS_GLISSANTS = 30;
+
+    private final ZoneId zone;
+    private final ConcurrentSkipListMap<Long, Compteur> parJour = new ConcurrentSkipListMap<>();
+    private final Map<Long, Compteur> parMois = new ConcurrentHashMap<>();
+    private final Map<Integer, Compteur> parAnnee = new ConcurrentHashMap<>();
+    private volatile Courant courant;
+
+    public StatistiquesVentes() {
+        this(ZoneId.systemDefault());
+    }
+
+    public StatistiquesVentes(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Reconstruit tous les compteurs à partir de l'historique persisté.
+     */
+    public synchronized void reconstruire(List<EnregistrementVente> ventes) {
+        reinitialiser();
+        for (EnregistrementVente vente : ventes) {
+            enregistrer(vente);
+        }
+    }
+
+    /**
+     * Remet tous les compteurs à zéro (avant un rechargement par {@link #enregistrer(long, long, long)}).
+     */
+    public synchronized void reinitialiser() {
+        parJour.clear();
+        parMois.clear();
+        parAnnee.clear();
+        courant = null;
+    }
+
+    /**
+     * Comptabilise une vente dans les compteurs de son jour, de son mois et de son année.
+     */
+    public void enregistrer(EnregistrementVente vente) {
+        enregistrer(vente.getTimestamp(), vente.getMontantTotalCentimes(), vente.getMontantRembourseCentimes());
+    }
+
+    /**
+     * Variante primitive, utilisable comme {@code VisiteurVentes} lors d'un parcours du stockage ou de l'archive.
+     */
+    public void enregistrer(long ts, long totalCentimes, long rembourseCentimes) {
+        Courant c = courant;
+        if (c == null || ts < c.debutJour || ts >= c.finJour) {
+            c = compteursPour(ts);
+        }
+        c.jour.ajouter(totalCentimes, rembourseCentimes);
+        c.mois.ajouter(totalCentimes, rembourseCentimes);
+        c.annee.ajouter(totalCentimes, rembourseCentimes);
+    }
+
+    /**
+     * Bilan d'une période standard se terminant à {@code maintenant}, en temps constant.
+     */
+    public BilanVentes bilan(PeriodeStandard periode, long maintenant) {
+        LocalDate aujourdHui = Instant.ofEpochMilli(maintenant).atZone(zone).toLocalDate();
+        switch (periode) {
+            case JOUR:
+                return lire(parJour.get(aujourdHui.toEpochDay()));
+            case MOIS:
+                return lire(parMois.get(cleMois(aujourdHui)));
+            case ANNEE:
+                return lire(parAnnee.get(aujourdHui.getYear()));
+            default:
+                BilanVentes cumul = BilanVentes.VIDE;
+                long dernier = aujourdHui.toEpochDay();
+                for (long jour = dernier - JOURS_GLISSANTS + 1; jour <= dernier; jour++) {
+                    cumul = cumul.plus(lire(parJour.get(jour)));
+                }
+                return cumul;
+        }
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Retourne les compteurs du jour de {@code ts} ; bascule les compteurs courants
+     * si la vente ouvre un jour plus récent que le jour courant.
+     */
+    private synchronized Courant compteursPour(long ts) {
+        LocalDate date = Instant.ofEpochMilli(ts).atZone(zone).toLocalDate();
+        long numeroJour = date.toEpochDay();
+        boolean horsFenetre = courant != null && numeroJour <= courant.numeroJour - JOURS_GLISSANTS;
+        Courant c = new Courant(numeroJour,
+                date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                horsFenetre ? new Compteur() : parJour.computeIfAbsent(numeroJour, k -> new Compteur()),
+                parMois.computeIfAbsent(cleMois(date), k -> new Compteur()),
+                parAnnee.computeIfAbsent(date.getYear(), k -> new Compteur()));
+        if (courant == null || numeroJour > courant.numeroJour) {
+            courant = c;
+            parJour.headMap(numeroJour - JOURS_GLISSANTS, true).clear();
+        }
+        return c;
+    }
+
+    private static long cleMois(LocalDate date) {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    private static BilanVentes lire(Compteur compteur) {
+        return compteur == null ? BilanVentes.VIDE : compteur.lire();
+    }
+
+    private static final class Compteur {
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAdder rembourse = new LongAdder();
+
+        void ajouter(long totalCentimes, long rembourseCentimes) {
+            nombre.increment();
+            total.add(totalCentimes);
+            rembourse.add(rembourseCentimes);
+        }
+
+        BilanVentes lire() {
+            return new BilanVentes(nombre.sum(), total.sum(), rembourse.sum());
+        }
+    }
+
+    /**
+     * Compteurs du jour courant, de son mois et de son année, avec les bornes du jour.
+     */
+    private static final class Courant {
+        final long numeroJour;
+        final long debutJour;
+        final long finJour;
+        final Compteur jour;
+        final Compteur mois;
+        final Compteur annee;
+
+        Courant(long numeroJour, long debutJour, long finJour, Compteur jour, Compteur mois, Compteur annee) {
+            this.numeroJour = numeroJour;
+            this.debutJour = debutJour;
+            this.finJour = finJour;
+            this.jour = jour;
+            this.mois = mois;
+            this.annee = annee;
+        }
+    }
+}
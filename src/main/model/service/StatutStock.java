@@ -0,0 +1,16 @@
+package main.model.service;
+
+/**
+ * État d'un médicament dans l'inventaire, par ordre de priorité d'affichage.
+ */
+public enum StatutStock {
+    /** Stock épuisé. */
+    RUPTURE,
+    /** Stock strictement inférieur au seuil de l'inventaire. */
+    STOCK_BAS,
+    /** Date de péremption dépassée. */
+    PERIME,
+    /** Péremption dans moins de 30 jours. */
+    EXPIRE_BIENTOT,
+    OK
+}
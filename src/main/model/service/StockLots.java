@@ -0,0 +1,217 @@
+package main.model.service;
+
+import main.model.Medicament.Lot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Lots en stock d'un médicament, triés par péremption (premier périmé, premier sorti).
+ * Un prélèvement consomme les lots depuis le premier lot non périmé : O(log lots) par lot entamé ;
+ * les lots périmés restent en tête jusqu'à leur retrait (correction d'inventaire).
+ * Non thread-safe : protégé par le verrou du médicament dans l'inventaire.
+ */
+final class StockLots {
+
+    /** Lot implicite du stock saisi sans numéro (référencement, inventaire, réassort simple). */
+    static final String SANS_LOT = "SANS-LOT";
+
+    /**
+     * Prévenu de l'entrée et de la sortie des lots numérotés (échéancier de l'inventaire),
+     * sous le verrou du médicament.
+     */
+    interface SuiviLots {
+        void lotEntre(String numero, long peremption);
+
+        void lotSorti(String numero, long peremption);
+    }
+
+    private static final class LotEnStock implements Comparable<LotEnStock> {
+        final String numero;
+        final long peremption;
+        int quantite;
+        // Seuils déjà signalés par la surveillance des péremptions
+        boolean expireBientot;
+        boolean perime;
+
+        LotEnStock(String numero, long peremption) {
+            this.numero = numero;
+            this.peremption = peremption;
+        }
+
+        @Override
+        public int compareTo(LotEnStock autre) {
+            int c = Long.compare(peremption, autre.peremption);
+            return c != 0 ? c : numero.compareTo(autre.numero);
+        }
+    }
+
+    private final String nomMedicament;
+    private final SuiviLots suivi;
+    private final TreeSet<LotEnStock> fefo = new TreeSet<>();
+    private final Map<String, LotEnStock> parNumero = new HashMap<>();
+
+    StockLots(String nomMedicament, SuiviLots suivi) {
+        this.nomMedicament = nomMedicament;
+        this.suivi = suivi;
+    }
+
+    /**
+     * Borne de recherche : précède tous les lots qui périment après {@code maintenant}.
+     */
+    private static LotEnStock apres(long maintenant) {
+        return new LotEnStock("", maintenant == Long.MAX_VALUE ? maintenant : maintenant + 1);
+    }
+
+    /**
+     * Ajoute des unités à un lot (créé au besoin ; un numéro garde sa date de péremption).
+     */
+    void ajouter(String numero, long peremption, int quantite) {
+        if (quantite <= 0) {
+            return;
+        }
+        LotEnStock lot = parNumero.get(numero);
+        if (lot == null) {
+            lot = new LotEnStock(numero, peremption);
+            parNumero.put(numero, lot);
+            fefo.add(lot);
+            if (!SANS_LOT.equals(numero)) {
+                suivi.lotEntre(numero, peremption);
+            }
+        } else if (lot.peremption != peremption && !SANS_LOT.equals(numero)) {
+            throw new IllegalArgumentException("Le lot " + numero + " existe déjà avec une autre date de péremption");
+        }
+        lot.quantite += quantite;
+    }
+
+    void restituer(Lot prelevement) {
+        ajouter(prelevement.getNumero(), prelevement.getInstantPeremption(), prelevement.getQuantite());
+    }
+
+    /**
+     * Prélève {@code quantite} unités en commençant par les lots non périmés à {@code maintenant}
+     * qui périment le plus tôt ({@code Long.MIN_VALUE} : lots périmés compris, pour une correction).
+     * Le compteur de stock du médicament a déjà été décrémenté : si les lots ne couvrent pas
+     * toute la quantité (stock modifié hors inventaire), le reste est attribué au lot implicite.
+     *
+     * @return un prélèvement par lot entamé
+     */
+    List<Lot> prelever(int quantite, long peremptionParDefaut, long maintenant) {
+        List<Lot> prelevements = new ArrayList<>(2);
+        int reste = quantite;
+        Iterator<LotEnStock> it = fefo.tailSet(apres(maintenant), true).iterator();
+        while (reste > 0 && it.hasNext()) {
+            LotEnStock lot = it.next();
+            int pris = Math.min(reste, lot.quantite);
+            lot.quantite -= pris;
+            reste -= pris;
+            prelevements.add(new Lot(nomMedicament, lot.numero, lot.peremption, pris));
+            if (lot.quantite == 0) {
+                it.remove();
+                parNumero.remove(lot.numero);
+                if (!SANS_LOT.equals(lot.numero)) {
+                    suivi.lotSorti(lot.numero, lot.peremption);
+                }
+            }
+        }
+        if (reste > 0) {
+            prelevements.add(new Lot(nomMedicament, SANS_LOT, peremptionParDefaut, reste));
+        }
+        return prelevements;
+    }
+
+    /**
+     * Unités des lots périmés à {@code maintenant}, invendables (parcourt les seuls lots périmés).
+     */
+    int getQuantitePerimee(long maintenant) {
+        int quantite = 0;
+        for (LotEnStock lot : fefo.headSet(apres(maintenant), false)) {
+            quantite += lot.quantite;
+        }
+        return quantite;
+    }
+
+    /**
+     * Péremption du premier lot en stock à périmer, ou {@code Long.MAX_VALUE} sans stock.
+     */
+    long getPremierePeremption() {
+        return fefo.isEmpty() ? Long.MAX_VALUE : fefo.first().peremption;
+    }
+
+    /**
+     * Reprend les lots numérotés d'un médicament remplacé (le lot implicite suit le nouveau médicament).
+     *
+     * @return unités reprises
+     */
+    int reprendre(StockLots precedents) {
+        int quantite = 0;
+        for (LotEnStock lot : precedents.fefo) {
+            if (SANS_LOT.equals(lot.numero)) {
+                continue;
+            }
+            ajouter(lot.numero, lot.peremption, lot.quantite);
+            LotEnStock repris = parNumero.get(lot.numero);
+            repris.expireBientot = lot.expireBientot;
+            repris.perime = lot.perime;
+            quantite += lot.quantite;
+        }
+        return quantite;
+    }
+
+    /**
+     * Reporte une nouvelle date de péremption du médicament sur le lot implicite.
+     */
+    void redaterLotImplicite(long peremption) {
+        LotEnStock lot = parNumero.get(SANS_LOT);
+        if (lot == null || lot.peremption == peremption) {
+            return;
+        }
+        fefo.remove(lot);
+        parNumero.remove(SANS_LOT);
+        ajouter(SANS_LOT, peremption, lot.quantite);
+    }
+
+    /**
+     * Marque un seuil de péremption atteint par un lot encore en stock avec cette date.
+     *
+     * @return état du lot, ou null (lot épuisé, date différente, seuil déjà signalé)
+     */
+    Lot marquer(String numero, long peremption, StatutStock statut) {
+        LotEnStock lot = parNumero.get(numero);
+        if (lot == null || lot.peremption != peremption) {
+            return null;
+        }
+        if (statut == StatutStock.PERIME) {
+            if (lot.perime) {
+                return null;
+            }
+            lot.perime = true;
+        } else {
+            if (lot.expireBientot) {
+                return null;
+            }
+            lot.expireBientot = true;
+        }
+        return new Lot(nomMedicament, lot.numero, lot.peremption, lot.quantite);
+    }
+
+    /**
+     * État des lots en stock, du premier au dernier à périmer.
+     */
+    List<Lot> getLots() {
+        List<Lot> lots = new ArrayList<>(fefo.size());
+        for (LotEnStock lot : fefo) {
+            lots.add(new Lot(nomMedicament, lot.numero, lot.peremption, lot.quantite));
+        }
+        return lots;
+    }
+
+    int getQuantite(String numero) {
+        LotEnStock lot = parNumero.get(numero);
+        return lot == null ? 0 : lot.quantite;
+    }
+}
@@ -0,0 +1,200 @@
+package main.model.service;
+
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surveillance des péremptions de l'inventaire sur une roue temporelle hiérarchique.
+ * Chaque médicament et chaque lot numéroté y a deux échéances : 30 jours avant péremption, puis péremption.
+ * À chaque pas, les échéances atteintes positionnent les indicateurs de l'inventaire
+ * ({@link InventaireMedicaments#estPerime(Medicament)}) et préviennent les écouteurs :
+ * les ventes testent un indicateur au lieu de comparer des dates.
+ * Une échéance devenue obsolète (date de péremption modifiée depuis) est ignorée.
+ */
+public class SurveillancePeremptions {
+
+    public static final long PAS_PAR_DEFAUT_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Échéance planifiée : médicament (clé), lot (null pour le médicament),
+     * péremption connue à la planification, seuil visé.
+     */
+    private static final class Alerte {
+        final String cle;
+        final String numeroLot;
+        final long peremption;
+        final StatutStock statut;
+
+        Alerte(String cle, String numeroLot, long peremption, StatutStock statut) {
+            this.cle = cle;
+            this.numeroLot = numeroLot;
+            this.peremption = peremption;
+            this.statut = statut;
+        }
+    }
+
+    private final InventaireMedicaments inventaire;
+    private final long pasMs;
+    private final RoueTemporelle<Alerte> roue;
+    private final List<EcouteurPeremption> ecouteurs = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService executeur;
+
+    public SurveillancePeremptions(InventaireMedicaments inventaire) {
+        this(inventaire, PAS_PAR_DEFAUT_MS, System.currentTimeMillis());
+    }
+
+    /**
+     * @param pasMs résolution de la surveillance (et période du thread de fond)
+     * @param origineMs instant de départ de la roue
+     */
+    public SurveillancePeremptions(InventaireMedicaments inventaire, long pasMs, long origineMs) {
+        this.inventaire = inventaire;
+        this.pasMs = pasMs;
+        this.roue = new RoueTemporelle<>(pasMs, origineMs);
+        inventaire.setSurveillance(this);
+        for (Medicament medicament : inventaire.getTous()) {
+            String cle = medicament.getNom().toLowerCase();
+            suivre(cle, medicament.getInstantPeremption());
+            for (Lot lot : inventaire.getLots(cle)) {
+                if (!StockLots.SANS_LOT.equals(lot.getNumero())) {
+                    suivreLot(cle, lot.getNumero(), lot.getInstantPeremption());
+                }
+            }
+        }
+    }
+
+    public void ajouterEcouteur(EcouteurPeremption ecouteur) {
+        if (ecouteur != null) {
+            ecouteurs.add(ecouteur);
+        }
+    }
+
+    public void retirerEcouteur(EcouteurPeremption ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Planifie les deux échéances d'un médicament (appelé par l'inventaire à chaque date connue).
+     * Une échéance déjà passée est traitée sur-le-champ : l'indicateur est juste dès le retour,
+     * sans attendre le prochain pas ni le démarrage du thread de fond.
+     */
+    void suivre(String cle, long peremption) {
+        planifier(cle, null, peremption);
+    }
+
+    /**
+     * Planifie les deux échéances d'un lot numéroté (réception, retour en stock).
+     */
+    void suivreLot(String cle, String numeroLot, long peremption) {
+        planifier(cle, numeroLot, peremption);
+    }
+
+    private void planifier(String cle, String numeroLot, long peremption) {
+        long maintenant = System.currentTimeMillis();
+        Alerte expirationProche = new Alerte(cle, numeroLot, peremption, StatutStock.EXPIRE_BIENTOT);
+        Alerte perime = new Alerte(cle, numeroLot, peremption, StatutStock.PERIME);
+        long seuil = peremption - InventaireMedicaments.DELAI_EXPIRATION_PROCHE_MS;
+        synchronized (roue) {
+            if (seuil > maintenant) {
+                roue.planifier(seuil, expirationProche);
+            }
+            if (peremption > maintenant) {
+                roue.planifier(peremption, perime);
+            }
+        }
+        if (seuil <= maintenant) {
+            signaler(expirationProche);
+        }
+        if (peremption <= maintenant) {
+            signaler(perime);
+        }
+    }
+
+    /**
+     * Avance la roue jusqu'à {@code maintenant} et traite les échéances atteintes.
+     * Les écouteurs sont appelés hors du verrou de la roue.
+     *
+     * @return nombre de changements d'état notifiés
+     */
+    public int verifier(long maintenant) {
+        List<Alerte> echues;
+        synchronized (roue) {
+            echues = roue.avancer(maintenant);
+        }
+        int notifications = 0;
+        for (Alerte alerte : echues) {
+            if (signaler(alerte)) {
+                notifications++;
+            }
+        }
+        return notifications;
+    }
+
+    /**
+     * Positionne l'indicateur de l'inventaire et prévient les écouteurs.
+     *
+     * @return false si l'échéance est obsolète ou déjà traitée
+     */
+    private boolean signaler(Alerte alerte) {
+        Medicament medicament = null;
+        Lot lot = null;
+        if (alerte.numeroLot == null) {
+            medicament = inventaire.marquerPeremption(alerte.cle, alerte.peremption, alerte.statut);
+        } else {
+            lot = inventaire.marquerPeremptionLot(alerte.cle, alerte.numeroLot, alerte.peremption, alerte.statut);
+        }
+        if (medicament == null && lot == null) {
+            return false;
+        }
+        for (EcouteurPeremption ecouteur : ecouteurs) {
+            try {
+                if (lot == null) {
+                    ecouteur.peremptionAtteinte(medicament, alerte.statut);
+                } else {
+                    ecouteur.peremptionLotAtteinte(lot, alerte.statut);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Erreur lors de la notification de péremption : " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Démarre le thread de fond (sans effet s'il tourne déjà) ; une première vérification est immédiate.
+     */
+    public synchronized void demarrer() {
+        if (executeur != null) {
+            return;
+        }
+        executeur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "surveillance-peremptions");
+            t.setDaemon(true);
+            return t;
+        });
+        executeur.scheduleAtFixedRate(() -> verifier(System.currentTimeMillis()),
+                0, pasMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void arreter() {
+        if (executeur != null) {
+            executeur.shutdownNow();
+            executeur = null;
+        }
+    }
+
+    /**
+     * Nombre d'échéances encore planifiées (y compris obsolètes, purgées à leur passage).
+     */
+    public int getNombreEcheances() {
+        synchronized (roue) {
+            return roue.taille();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package main.model.service;
+
+/**
+ * Nature d'un mouvement de stock enregistré dans le registre d'un médicament.
+ */
+public enum TypeMouvementStock {
+    /** Stock initial lors du référencement (ou du remplacement) du médicament. */
+    REFERENCEMENT,
+    /** Sortie de stock pour une vente. */
+    VENTE,
+    /** Retour en stock d'une vente réservée puis annulée. */
+    ANNULATION,
+    /** Entrée de stock (livraison, réassort). */
+    REASSORT,
+    /** Ajustement d'inventaire physique (delta entre l'ancien et le nouveau stock). */
+    CORRECTION
+}
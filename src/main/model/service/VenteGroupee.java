@@ -0,0 +1,100 @@
+package main.model.service;
+
+import main.model.security.SecurityValidator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lot de paniers de vente directe (commandes d'EHPAD ou d'hôpital) passés en une fois par
+ * {@link GestPharmacieService#effectuerVentesGroupees(VenteGroupee, main.model.Personne.CategoriePersonne.Pharmacien)}.
+ * Construit par {@link #builder()} :
+ * {@code VenteGroupee.builder().panier("CL001").ligne("Doliprane", 2).panier("CL002").ligne("Aspirine", 1).construire()}.
+ */
+public final class VenteGroupee {
+
+    /**
+     * Panier d'un client : nom de médicament → quantité, dans l'ordre de saisie.
+     */
+    public static final class Panier {
+        private final String identifiantClient;
+        private final Map<String, Integer> lignes;
+
+        private Panier(String identifiantClient, LinkedHashMap<String, Integer> lignes) {
+            this.identifiantClient = identifiantClient;
+            this.lignes = Collections.unmodifiableMap(lignes);
+        }
+
+        public String getIdentifiantClient() {
+            return identifiantClient;
+        }
+        public Map<String, Integer> getLignes() {
+            return lignes;
+        }
+    }
+
+    public static final class Builder {
+        private final List<Panier> paniers = new ArrayList<>();
+        private String identifiantClient;
+        private LinkedHashMap<String, Integer> lignes;
+
+        private Builder() {
+        }
+
+        /**
+         * Ouvre le panier suivant ; les lignes ajoutées ensuite lui appartiennent.
+         */
+        public Builder panier(String identifiantClient) {
+            fermerPanier();
+            this.identifiantClient = SecurityValidator.validateNotNull(identifiantClient, "Identifiant client");
+            this.lignes = new LinkedHashMap<>();
+            return this;
+        }
+
+        /**
+         * Ajoute une ligne au panier ouvert ; un même médicament cumule ses quantités.
+         */
+        public Builder ligne(String nomMedicament, int quantite) {
+            if (lignes == null) {
+                throw new IllegalStateException("Aucun panier ouvert");
+            }
+            SecurityValidator.validateNotNull(nomMedicament, "Médicament");
+            SecurityValidator.validateQuantite(quantite);
+            lignes.merge(nomMedicament, quantite, Integer::sum);
+            return this;
+        }
+
+        public VenteGroupee construire() {
+            fermerPanier();
+            return new VenteGroupee(new ArrayList<>(paniers));
+        }
+
+        private void fermerPanier() {
+            if (lignes != null) {
+                paniers.add(new Panier(identifiantClient, lignes));
+                lignes = null;
+            }
+        }
+    }
+
+    private final List<Panier> paniers;
+
+    private VenteGroupee(List<Panier> paniers) {
+        this.paniers = Collections.unmodifiableList(paniers);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<Panier> getPaniers() {
+        return paniers;
+    }
+
+    public int taille() {
+        return paniers.size();
+    }
+}
@@ -0,0 +1,59 @@
+package main.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clients ajoutés, modifiés ou supprimés (selon le type), par identifiant.
+ */
+public final class ClientEvent extends DataEvent {
+
+    private final List<String> identifiants;
+
+    public ClientEvent(DataEventManager.EventType type, String identifiant) {
+        this(type, List.of(identifiant));
+    }
+
+    private ClientEvent(DataEventManager.EventType type, List<String> identifiants) {
+        super(type);
+        switch (type) {
+            case CLIENT_ADDED:
+            case CLIENT_UPDATED:
+            case CLIENT_DELETED:
+                break;
+            default:
+                throw new IllegalArgumentException("Type d'événement client invalide : " + type);
+        }
+        this.identifiants = identifiants;
+    }
+
+    public List<String> getIdentifiants() {
+        return identifiants;
+    }
+
+    /**
+     * Écart du nombre de clients : positif pour des ajouts, négatif pour des suppressions.
+     */
+    public int getVariationNombre() {
+        switch (getType()) {
+            case CLIENT_ADDED:
+                return identifiants.size();
+            case CLIENT_DELETED:
+                return -identifiants.size();
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    protected DataEvent fusionner(DataEvent plusRecent) {
+        List<String> tous = new ArrayList<>(identifiants);
+        tous.addAll(((ClientEvent) plusRecent).identifiants);
+        return new ClientEvent(getType(), List.copyOf(tous));
+    }
+
+    @Override
+    void livrer(DataRefreshListener listener) {
+        listener.clientModifie(this);
+    }
+}
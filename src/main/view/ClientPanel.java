@@ -3,6 +3,7 @@ package main.view;
 import main.controller.PharmacieController;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Organisme.TypeOrganisme.Mutuelle;
+import main.model.service.Page;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -29,7 +30,7 @@ public class ClientPanel extends JPanel {
     private JTable clientsTable;
     private DefaultTableModel tableModel;
     private JPanel detailsPanel;
-    private JButton ajouterBtn, modifierBtn, supprimerBtn, rechercherBtn;
+    private JButton ajouterBtn, modifierBtn, supprimerBtn, rechercherBtn, suivantsBtn;
     private PharmacieMainFrame mainFrame;
 
     // Formulaire
@@ -39,6 +40,10 @@ public class ClientPanel extends JPanel {
     private JComboBox<String> medecinCombo;  // sélection du médecin traitant (RPPS ou "Aucun")
     private boolean editingClient = false;
 
+    // Annuaire affiché par pages : curseur de la page suivante (null en fin d'annuaire)
+    private static final int TAILLE_PAGE = 500;
+    private String curseurClients;
+
     /**
      * Construit le panel de gestion des clients (UI, événements, styles).
      */
@@ -154,6 +159,10 @@ public class ClientPanel extends JPanel {
         JButton afficherTousBtn = createStyledButton("icons/users-alt.png","Afficher tous", PRIMARY_COLOR);
         afficherTousBtn.addActionListener(e -> rechargerTousClients());
         buttonsPanel.add(afficherTousBtn);
+        suivantsBtn = createStyledButton("icons/list.png","Suivants", PRIMARY_COLOR);
+        suivantsBtn.setEnabled(false);
+        suivantsBtn.addActionListener(e -> afficherClientsSuivants());
+        buttonsPanel.add(suivantsBtn);
 
         JPanel leftPanel = new JPanel(new BorderLayout());
         leftPanel.setBackground(BACKGROUND_COLOR);
@@ -386,6 +395,7 @@ public class ClientPanel extends JPanel {
         if (client.isPresent()) {
             // Effacer la table et ajouter le client trouvé
             tableModel.setRowCount(0);
+            suivantsBtn.setEnabled(false);
             ajouterClientATable(client.get());
             afficherMessage("Client trouvé", false);
         } else {
@@ -395,10 +405,20 @@ public class ClientPanel extends JPanel {
 
     private void rechargerTousClients() {
         tableModel.setRowCount(0);
-        for (Client c : controller.getTousClients()) {
+        curseurClients = null;
+        afficherClientsSuivants();
+    }
+
+    private void afficherClientsSuivants() {
+        Page<Client> page = controller.getPageClients(curseurClients, TAILLE_PAGE);
+        for (Client c : page.getElements()) {
             ajouterClientATable(c);
         }
-        afficherMessage("Liste des clients chargée", false);
+        curseurClients = page.getCurseurSuivant();
+        suivantsBtn.setEnabled(page.aUneSuite());
+        afficherMessage(page.aUneSuite()
+                ? tableModel.getRowCount() + " clients affichés (Suivants pour continuer)"
+                : "Liste des clients chargée", false);
     }
 
     private void ajouterClientATable(Client client) {
@@ -529,7 +549,7 @@ public class ClientPanel extends JPanel {
 
                     // NOUVEAU : Déclencher l'événement de modification
                     if (!resultat.contains("Erreur")) {
-                        DataEventManager.ClientEvents.clientUpdated();
+                        DataEventManager.ClientEvents.clientUpdated(client.getIdentifiant());
                     }
                 } else {
                     resultat = "Erreur : Client non trouvé";
@@ -569,7 +589,7 @@ public class ClientPanel extends JPanel {
                 }
 
                 if (!resultat.contains("Erreur")) {
-                    DataEventManager.ClientEvents.clientAdded();
+                    DataEventManager.ClientEvents.clientAdded(identifiantGenere);
                     // Ajouter à la table immédiatement
                     Optional<Client> created = controller.rechercherClient(identifiantGenere);
                     created.ifPresent(this::ajouterClientATable);
@@ -623,7 +643,7 @@ public class ClientPanel extends JPanel {
                 tableModel.removeRow(selectedRow);
                 viderFormulaire();
 
-                DataEventManager.ClientEvents.clientDeleted();
+                DataEventManager.ClientEvents.clientDeleted(identifiant);
             }
         }
     }
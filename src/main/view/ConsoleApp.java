@@ -6,6 +6,7 @@ import main.model.Medicament.Medicament;
 import main.model.Medicament.TypeAchat;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Transaction.Montant;
 import main.model.Transaction.TypeTransaction.Achat;
 import main.model.service.GestPharmacieService;
 
@@ -372,14 +373,14 @@ public class ConsoleApp {
             for (Map.Entry<Medicament, Integer> entry : quantites.entrySet()) {
                 Medicament med = entry.getKey();
                 int qty = entry.getValue();
-                double sousTotal = med.getPrix() * qty;
+                double sousTotal = Montant.enEuros(Montant.fois(med.getPrixCentimes(), qty));
                 System.out.printf("- %s x%d = %.2f€%n", med.getNom(), qty, sousTotal);
             }
             System.out.printf("\nMontant total : %.2f€%n", achat.getMontantTotal());
             if (achat.getMontantRembourse() > 0) {
                 System.out.printf("Montant remboursé : %.2f€%n", achat.getMontantRembourse());
                 System.out.printf("Reste à payer : %.2f€%n",
-                        achat.getMontantTotal() - achat.getMontantRembourse());
+                        Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes()));
             }
             System.out.println("✅ Vente enregistrée avec succès !");
         }
@@ -773,7 +774,7 @@ public class ConsoleApp {
         String referenceOrdonnance = genererReferenceOrdonnance();
         Ordonnance ordonnance = new Ordonnance(new Date(), medecin, client,
                 new ArrayList<>(medicamentsVente),
-                new HashMap<>(), referenceOrdonnance);
+                new HashMap<>(quantites), referenceOrdonnance);
 
         service.enregistrerOrdonnance(ordonnance);
 
@@ -798,7 +799,7 @@ public class ConsoleApp {
         for (Map.Entry<Medicament, Integer> entry : quantites.entrySet()) {
             Medicament med = entry.getKey();
             int quantite = entry.getValue();
-            double sousTotal = med.getPrix() * quantite;
+            double sousTotal = Montant.enEuros(Montant.fois(med.getPrixCentimes(), quantite));
             System.out.printf("   - %-20s x%-3d = %8.2f€ (expire le %s)%n",
                     med.getNom(), quantite, sousTotal, med.getDatePeremption());
         }
@@ -819,7 +820,7 @@ public class ConsoleApp {
         if (client.getMutuelle() != null) {
             System.out.printf("   Taux remboursement mutuelle : %6.1f%%%n", client.getMutuelle().getTauxRemboursement());
             System.out.printf("   Montant remboursé mutuelle : %8.2f€%n", achat.getMontantRembourse());
-            double resteAPayer = achat.getMontantTotal() - achat.getMontantRembourse();
+            double resteAPayer = Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes());
             System.out.printf("   Reste à payer : %13.2f€%n", resteAPayer);
         } else {
             System.out.println("   Pas de mutuelle - Montant intégral à payer");
@@ -870,11 +871,11 @@ public class ConsoleApp {
                 "RÉFÉRENCE", "CLIENT", "TYPE", "MONTANT", "REMBOURSÉ", "NET");
         System.out.println("-".repeat(90));
 
-        double totalVentes = 0;
-        double totalRembourse = 0;
+        long totalVentes = 0;
+        long totalRembourse = 0;
 
         for (Achat achat : achats) {
-            double net = achat.getMontantTotal() - achat.getMontantRembourse();
+            double net = Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes());
             System.out.printf("%-15s %-20s %-12s %9.2f€ %9.2f€ %9.2f€%n",
                     achat.getReference(),
                     (achat.getClient().getNom() + " " + achat.getClient().getPrenom()).substring(0, Math.min(20, achat.getClient().getNom().length() + achat.getClient().getPrenom().length() + 1)),
@@ -883,13 +884,14 @@ public class ConsoleApp {
                     achat.getMontantRembourse(),
                     net);
 
-            totalVentes += achat.getMontantTotal();
-            totalRembourse += achat.getMontantRembourse();
+            totalVentes += achat.getMontantTotalCentimes();
+            totalRembourse += achat.getMontantRembourseCentimes();
         }
 
         System.out.println("-".repeat(90));
         System.out.printf("TOTAL (%d ventes) : %32.2f€ %9.2f€ %9.2f€%n",
-                achats.size(), totalVentes, totalRembourse, (totalVentes - totalRembourse));
+                achats.size(), Montant.enEuros(totalVentes), Montant.enEuros(totalRembourse),
+                Montant.enEuros(totalVentes - totalRembourse));
     }
 
     private static void afficherVentesParPeriode() {
@@ -958,11 +960,11 @@ public class ConsoleApp {
                 "RÉFÉRENCE", "CLIENT", "TYPE", "MONTANT", "REMBOURSÉ", "NET");
         System.out.println("-".repeat(90));
 
-        double totalPeriode = 0;
-        double totalRemboursePeriode = 0;
+        long totalPeriode = 0;
+        long totalRemboursePeriode = 0;
 
         for (Achat achat : achats) {
-            double net = achat.getMontantTotal() - achat.getMontantRembourse();
+            double net = Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes());
             String nomComplet = achat.getClient().getNom() + " " + achat.getClient().getPrenom();
             System.out.printf("%-15s %-20s %-12s %9.2f€ %9.2f€ %9.2f€%n",
                     achat.getReference(),
@@ -972,14 +974,14 @@ public class ConsoleApp {
                     achat.getMontantRembourse(),
                     net);
 
-            totalPeriode += achat.getMontantTotal();
-            totalRemboursePeriode += achat.getMontantRembourse();
+            totalPeriode += achat.getMontantTotalCentimes();
+            totalRemboursePeriode += achat.getMontantRembourseCentimes();
         }
 
         System.out.println("-".repeat(90));
         System.out.printf("TOTAL %s : %25.2f€ %9.2f€ %9.2f€%n",
-                libellePeriode, totalPeriode, totalRemboursePeriode,
-                (totalPeriode - totalRemboursePeriode));
+                libellePeriode, Montant.enEuros(totalPeriode), Montant.enEuros(totalRemboursePeriode),
+                Montant.enEuros(totalPeriode - totalRemboursePeriode));
     }
 
     private static void afficherVentesParClient() {
@@ -1007,11 +1009,11 @@ public class ConsoleApp {
                 "RÉFÉRENCE", "DATE", "TYPE", "MONTANT", "REMBOURSÉ", "PAYÉ");
         System.out.println("-".repeat(85));
 
-        double totalClient = 0;
-        double totalRembourseClient = 0;
+        long totalClient = 0;
+        long totalRembourseClient = 0;
 
         for (Achat achat : achats) {
-            double paye = achat.getMontantTotal() - achat.getMontantRembourse();
+            double paye = Montant.enEuros(achat.getMontantTotalCentimes() - achat.getMontantRembourseCentimes());
             System.out.printf("%-15s %-12s %-15s %9.2f€ %9.2f€ %9.2f€%n",
                     achat.getReference(),
                     achat.getDateTransaction().toString().substring(0, 10),
@@ -1020,13 +1022,14 @@ public class ConsoleApp {
                     achat.getMontantRembourse(),
                     paye);
 
-            totalClient += achat.getMontantTotal();
-            totalRembourseClient += achat.getMontantRembourse();
+            totalClient += achat.getMontantTotalCentimes();
+            totalRembourseClient += achat.getMontantRembourseCentimes();
         }
 
         System.out.println("-".repeat(85));
         System.out.printf("TOTAL CLIENT : %28.2f€ %9.2f€ %9.2f€%n",
-                totalClient, totalRembourseClient, (totalClient - totalRembourseClient));
+                Montant.enEuros(totalClient), Montant.enEuros(totalRembourseClient),
+                Montant.enEuros(totalClient - totalRembourseClient));
 
         if (client.getMutuelle() != null) {
             System.out.println("\n📋 Mutuelle : " + client.getMutuelle().getNom() +
@@ -0,0 +1,30 @@
+package main.view;
+
+/**
+ * Événement typé du {@link DataEventManager}, porteur de la variation plutôt que d'un simple signal :
+ * les écouteurs mettent à jour compteurs et lignes de table sans recompter.
+ * Immuable ; deux événements d'un même type émis dans la fenêtre de coalescence sont fusionnés.
+ */
+public abstract class DataEvent {
+
+    private final DataEventManager.EventType type;
+
+    protected DataEvent(DataEventManager.EventType type) {
+        this.type = type;
+    }
+
+    public DataEventManager.EventType getType() {
+        return type;
+    }
+
+    /**
+     * Événement équivalent à celui-ci suivi de {@code plusRecent} (même type). Sans effet de bord :
+     * la fusion peut être rejouée lors d'un débordement de la file.
+     */
+    protected abstract DataEvent fusionner(DataEvent plusRecent);
+
+    /**
+     * Appelle la méthode typée correspondante de l'écouteur.
+     */
+    abstract void livrer(DataRefreshListener listener);
+}
@@ -1,12 +1,30 @@
 package main.view;
 
+import main.model.Medicament.Medicament;
+
+import javax.swing.SwingUtilities;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Bus d'événements de l'interface. {@code fireEvent} ne fait que déposer l'événement dans une file bornée :
+ * un fil dédié les distribue, en regroupant les événements d'un même type émis dans la fenêtre de coalescence
+ * (une rafale de 500 mises à jour de stock donne un seul rafraîchissement). Chaque écouteur est notifié
+ * sur l'EDT ou sur le fil de distribution selon {@link DataRefreshListener#getLivraison()}.
+ */
 public class DataEventManager {
 
-    private static DataEventManager instance;
+    public static final int CAPACITE_FILE = 1024;
+    public static final long FENETRE_COALESCENCE_MS = 50;
+
     private final List<DataRefreshListener> listeners;
 
     public enum EventType {
@@ -21,17 +39,61 @@ public class DataEventManager {
         MEDICAMENT_DELETED,
         VENTE_COMPLETED,
         STOCK_UPDATED,
+        MEDICAMENT_EXPIRE_BIENTOT,
+        MEDICAMENT_PERIME,
+    }
+
+    private static final class Evenement {
+        final EventType type;
+        final Object donnees;
+        // Barrière de attendreDistribution : libérée une fois tout ce qui la précède livré
+        final CountDownLatch barriere;
+
+        Evenement(EventType type, Object donnees, CountDownLatch barriere) {
+            this.type = type;
+            this.donnees = donnees;
+            this.barriere = barriere;
+        }
+    }
+
+    private static final Object SANS_DONNEES = new Object();
+    // Réveille le fil de distribution quand un débordement apparaît alors que la file est peut-être vide
+    private static final Evenement REVEIL = new Evenement(null, null, null);
+
+    private final BlockingQueue<Evenement> file;
+    // File pleine : événements de chaque type fusionnés, repris au lot suivant (jamais perdus, seulement regroupés)
+    private final AtomicReferenceArray<Object> debordements = new AtomicReferenceArray<>(EventType.values().length);
+    private volatile long fenetreCoalescenceNanos;
+    private final Thread distributeur;
+
+    private static final class Instance {
+        static final DataEventManager UNIQUE = new DataEventManager(CAPACITE_FILE, FENETRE_COALESCENCE_MS);
     }
 
-    private DataEventManager() {
+    /**
+     * Bus indépendant de l'instance partagée (outils, tests).
+     */
+    public DataEventManager(int capaciteFile, long fenetreCoalescenceMs) {
+        if (capaciteFile <= 0) {
+            throw new IllegalArgumentException("Capacité de file invalide : " + capaciteFile);
+        }
         this.listeners = new CopyOnWriteArrayList<>();
+        this.file = new ArrayBlockingQueue<>(capaciteFile);
+        setFenetreCoalescence(fenetreCoalescenceMs);
+        this.distributeur = new Thread(this::distribuer, "evenements-donnees");
+        distributeur.setDaemon(true);
+        distributeur.start();
     }
 
     public static DataEventManager getInstance() {
-        if (instance == null) {
-            instance = new DataEventManager();
+        return Instance.UNIQUE;
+    }
+
+    public void setFenetreCoalescence(long fenetreMs) {
+        if (fenetreMs < 0) {
+            throw new IllegalArgumentException("Fenêtre de coalescence invalide : " + fenetreMs);
         }
-        return instance;
+        this.fenetreCoalescenceNanos = TimeUnit.MILLISECONDS.toNanos(fenetreMs);
     }
 
     public void addListener(DataRefreshListener listener) {
@@ -45,19 +107,140 @@ public class DataEventManager {
     }
 
     public void fireEvent(EventType eventType) {
-        for (DataRefreshListener listener : listeners) {
+        fireEvent(eventType, null);
+    }
+
+    /**
+     * Dépose l'événement sans jamais bloquer l'appelant (souvent l'EDT, pendant une vente).
+     * Un événement non typé demande aux écouteurs de tout recompter.
+     */
+    public void fireEvent(EventType eventType, Object data) {
+        if (eventType == null) {
+            return;
+        }
+        int rang = eventType.ordinal();
+        // Tant qu'un débordement de ce type attend, les suivants le rejoignent : ils restent après lui,
+        // et tout ce que la file contient de ce type est plus ancien que lui
+        if (debordements.get(rang) != null || !file.offer(new Evenement(eventType, data, null))) {
+            Object precedent = debordements.getAndAccumulate(rang, data == null ? SANS_DONNEES : data,
+                    (ancien, recent) -> ancien == null ? recent : fusionner(ancien, recent));
+            if (precedent == null) {
+                file.offer(REVEIL);
+            }
+        }
+    }
+
+    /**
+     * Dépose un événement typé porteur de sa variation.
+     */
+    public void publier(DataEvent evenement) {
+        if (evenement != null) {
+            fireEvent(evenement.getType(), evenement);
+        }
+    }
+
+    /**
+     * Deux événements d'un même type : fusionnés s'ils sont typés ; sinon le signal non typé l'emporte,
+     * le recomptage complet qu'il déclenche couvrant les variations.
+     */
+    private static Object fusionner(Object ancien, Object recent) {
+        if (ancien instanceof DataEvent && recent instanceof DataEvent) {
+            return ((DataEvent) ancien).fusionner((DataEvent) recent);
+        }
+        return recent instanceof DataEvent ? ancien : recent;
+    }
+
+    private static void ajouterAuLot(Map<EventType, Object> lot, EventType type, Object donnees) {
+        lot.put(type, lot.containsKey(type) ? fusionner(lot.get(type), donnees) : donnees);
+    }
+
+    /**
+     * Attend que tous les événements déjà émis aient été livrés (EDT compris).
+     *
+     * @return false si le délai expire avant
+     */
+    public boolean attendreDistribution(long delaiMs) throws InterruptedException {
+        CountDownLatch barriere = new CountDownLatch(1);
+        long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiMs);
+        if (!file.offer(new Evenement(null, null, barriere), delaiMs, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        return barriere.await(Math.max(0, echeance - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Boucle du fil de distribution : un lot par fenêtre, un seul événement par type dans le lot
+     * (événements typés fusionnés, sinon données les plus récentes).
+     */
+    private void distribuer() {
+        while (true) {
+            Map<EventType, Object> lot = new EnumMap<>(EventType.class);
+            List<CountDownLatch> barrieres = new ArrayList<>();
             try {
-                handleEvent(listener, eventType, null);
-            } catch (Exception e) {
-                System.err.println("Erreur lors de la notification d'evenement: " + e.getMessage());
+                regrouper(file.take(), lot, barrieres);
+                long echeance = System.nanoTime() + fenetreCoalescenceNanos;
+                long reste;
+                while (barrieres.isEmpty() && (reste = echeance - System.nanoTime()) > 0) {
+                    Evenement suivant = file.poll(reste, TimeUnit.NANOSECONDS);
+                    if (suivant == null) {
+                        break;
+                    }
+                    regrouper(suivant, lot, barrieres);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Ce qui reste en file est, pour chaque type, antérieur à son débordement : vidé dans ce lot,
+            // puis les débordements fusionnés par-dessus comme les plus récents
+            List<Evenement> restants = new ArrayList<>();
+            file.drainTo(restants);
+            for (Evenement evenement : restants) {
+                regrouper(evenement, lot, barrieres);
+            }
+            for (EventType type : EventType.values()) {
+                Object deborde = debordements.getAndSet(type.ordinal(), null);
+                if (deborde != null) {
+                    ajouterAuLot(lot, type, deborde == SANS_DONNEES ? null : deborde);
+                }
             }
+            livrer(lot, barrieres);
         }
     }
 
-    public void fireEvent(EventType eventType, Object data) {
+    private static void regrouper(Evenement evenement, Map<EventType, Object> lot, List<CountDownLatch> barrieres) {
+        if (evenement.barriere != null) {
+            barrieres.add(evenement.barriere);
+        } else if (evenement.type != null) {
+            ajouterAuLot(lot, evenement.type, evenement.donnees);
+        }
+    }
+
+    private void livrer(Map<EventType, Object> lot, List<CountDownLatch> barrieres) {
+        List<DataRefreshListener> surEdt = new ArrayList<>();
         for (DataRefreshListener listener : listeners) {
+            if (listener.getLivraison() == DataRefreshListener.Livraison.EDT) {
+                surEdt.add(listener);
+            } else {
+                notifier(listener, lot);
+            }
+        }
+        if (surEdt.isEmpty() && barrieres.isEmpty()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            for (DataRefreshListener listener : surEdt) {
+                notifier(listener, lot);
+            }
+            for (CountDownLatch barriere : barrieres) {
+                barriere.countDown();
+            }
+        });
+    }
+
+    private void notifier(DataRefreshListener listener, Map<EventType, Object> lot) {
+        for (Map.Entry<EventType, Object> evenement : lot.entrySet()) {
             try {
-                handleEvent(listener, eventType, data);
+                handleEvent(listener, evenement.getKey(), evenement.getValue());
             } catch (Exception e) {
                 System.err.println("Erreur lors de la notification d'evenement: " + e.getMessage());
             }
@@ -65,6 +248,10 @@ public class DataEventManager {
     }
 
     private void handleEvent(DataRefreshListener listener, EventType eventType, Object data) {
+        if (data instanceof DataEvent) {
+            ((DataEvent) data).livrer(listener);
+            return;
+        }
         switch (eventType) {
             case CLIENT_ADDED:
             case CLIENT_UPDATED:
@@ -85,16 +272,12 @@ public class DataEventManager {
             case MEDICAMENT_UPDATED:
             case MEDICAMENT_DELETED:
             case STOCK_UPDATED:
+            case MEDICAMENT_EXPIRE_BIENTOT:
+            case MEDICAMENT_PERIME:
                 listener.refreshStockCount();
                 break;
 
             case VENTE_COMPLETED:
-                if (data instanceof Integer) {
-                    listener.refreshVenteCount((Integer) data);
-                }
-                if (data instanceof String) {
-                    listener.refreshCaCount((String) data);
-                }
                 listener.refreshStockCount(); // Les ventes affectent le stock
                 break;
         }
@@ -111,14 +294,14 @@ public class DataEventManager {
     }
 
     public static class ClientEvents {
-        public static void clientAdded() {
-            getInstance().fireEvent(EventType.CLIENT_ADDED);
+        public static void clientAdded(String identifiant) {
+            getInstance().publier(new ClientEvent(EventType.CLIENT_ADDED, identifiant));
         }
-        public static void clientUpdated() {
-            getInstance().fireEvent(EventType.CLIENT_UPDATED);
+        public static void clientUpdated(String identifiant) {
+            getInstance().publier(new ClientEvent(EventType.CLIENT_UPDATED, identifiant));
         }
-        public static void clientDeleted() {
-            getInstance().fireEvent(EventType.CLIENT_DELETED);
+        public static void clientDeleted(String identifiant) {
+            getInstance().publier(new ClientEvent(EventType.CLIENT_DELETED, identifiant));
         }
     }
 
@@ -138,18 +321,23 @@ public class DataEventManager {
         public static void stockUpdated() {
             getInstance().fireEvent(EventType.STOCK_UPDATED);
         }
+
+        public static void stockModifie(String nomMedicament, int variation, int nouvelleQuantite) {
+            getInstance().publier(new StockEvent(List.of(new VariationStock(nomMedicament, variation, nouvelleQuantite))));
+        }
+
+        public static void medicamentExpireBientot(Medicament medicament) {
+            getInstance().fireEvent(EventType.MEDICAMENT_EXPIRE_BIENTOT, medicament);
+        }
+
+        public static void medicamentPerime(Medicament medicament) {
+            getInstance().fireEvent(EventType.MEDICAMENT_PERIME, medicament);
+        }
     }
 
     public static class VenteEvents {
-        public static void venteCompleted(int nombreVentes, String chiffreAffaires) {
-            getInstance().fireEvent(EventType.VENTE_COMPLETED, nombreVentes);
-            // Notifier aussi le CA
-            if (getInstance().listeners.size() > 0) {
-                DataRefreshListener mainListener = getInstance().listeners.get(0);
-                if (mainListener instanceof PharmacieMainFrame) {
-                    mainListener.refreshCaCount(chiffreAffaires);
-                }
-            }
+        public static void venteEffectuee(VenteEvent vente) {
+            getInstance().publier(vente);
         }
     }
 }
@@ -2,6 +2,14 @@ package main.view;
 
 public interface DataRefreshListener {
 
+    /**
+     * Fil sur lequel {@link DataEventManager} livre les notifications à l'écouteur.
+     */
+    enum Livraison {
+        EDT,
+        TACHE_DE_FOND
+    }
+
     void refreshClientCount();
 
     void refreshMedecinCount();
@@ -17,4 +25,32 @@ public interface DataRefreshListener {
         refreshMedecinCount();
         refreshStockCount();
     }
+
+    /**
+     * Ventes enregistrées (montants et stocks touchés). Par défaut, recomptage du stock.
+     */
+    default void venteEffectuee(VenteEvent vente) {
+        refreshStockCount();
+    }
+
+    /**
+     * Stocks modifiés hors vente. Par défaut, recomptage du stock.
+     */
+    default void stockModifie(StockEvent stock) {
+        refreshStockCount();
+    }
+
+    /**
+     * Clients ajoutés, modifiés ou supprimés. Par défaut, recomptage des clients.
+     */
+    default void clientModifie(ClientEvent client) {
+        refreshClientCount();
+    }
+
+    /**
+     * Par défaut, livraison sur l'EDT (écouteurs Swing).
+     */
+    default Livraison getLivraison() {
+        return Livraison.EDT;
+    }
 }
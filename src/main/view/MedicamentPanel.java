@@ -3,6 +3,7 @@ package main.view;
 import main.controller.PharmacieController;
 import main.model.Medicament.CategorieMedicament;
 import main.model.Medicament.Medicament;
+import main.model.service.StatutStock;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -11,6 +12,9 @@ import java.awt.*;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -32,6 +36,10 @@ public class MedicamentPanel extends JPanel implements DataRefreshListener {
     private JTextField rechercheField;
     private JTable medicamentsTable;
     private DefaultTableModel tableModel;
+    // Ligne de chaque médicament affiché (nom en minuscules) : mise à jour d'une seule ligne par variation
+    private final Map<String, Integer> lignesParNom = new HashMap<>();
+    private static final int COLONNE_STOCK = 3;
+    private static final int COLONNE_STATUT = 5;
     private JPanel detailsPanel;
     private JButton ajouterBtn, modifierStockBtn, rechercherBtn, inventaireBtn;
     private PharmacieMainFrame mainFrame;
@@ -369,32 +377,13 @@ public class MedicamentPanel extends JPanel implements DataRefreshListener {
     }
 
     private void chargerInventaire() {
-        tableModel.setRowCount(0);
+        viderTable();
         Collection<Medicament> medicaments = controller.getInventaire();
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        Date maintenant = new Date();
+        long maintenant = System.currentTimeMillis();
 
         for (Medicament med : medicaments) {
-            String statut = "✅ OK";
-            if (med.getQuantiteStock() == 0) {
-                statut = "❌ Rupture";
-            } else if (med.getQuantiteStock() < 10) {
-                statut = "⚠️ Stock bas";
-            } else if (med.getDatePeremption().before(maintenant)) {
-                statut = "🚫 Périmé";
-            } else if (med.getDatePeremption().before(new Date(maintenant.getTime() + 30L * 24 * 60 * 60 * 1000))) {
-                statut = "⏰ Expire bientôt";
-            }
-
-            Object[] row = {
-                    med.getNom(),
-                    med.getCategorie(),
-                    String.format("%.2f €", med.getPrix()),
-                    med.getQuantiteStock(),
-                    dateFormat.format(med.getDatePeremption()),
-                    statut
-            };
-            tableModel.addRow(row);
+            ajouterMedicamentATable(med, dateFormat, maintenant);
         }
 
         afficherMessage("Inventaire chargé (" + medicaments.size() + " médicaments)", false);
@@ -409,7 +398,7 @@ public class MedicamentPanel extends JPanel implements DataRefreshListener {
 
         Optional<Medicament> medicament = controller.rechercherMedicament(nom);
         if (medicament.isPresent()) {
-            tableModel.setRowCount(0);
+            viderTable();
             ajouterMedicamentATable(medicament.get());
             afficherMessage("Médicament trouvé", false);
         } else {
@@ -418,29 +407,56 @@ public class MedicamentPanel extends JPanel implements DataRefreshListener {
     }
 
     private void ajouterMedicamentATable(Medicament med) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        Date maintenant = new Date();
-        String statut = "✅ OK";
-
-        if (med.getQuantiteStock() == 0) {
-            statut = "❌ Rupture";
-        } else if (med.getQuantiteStock() < 10) {
-            statut = "⚠️ Stock bas";
-        } else if (med.getDatePeremption().before(maintenant)) {
-            statut = "🚫 Périmé";
-        } else if (med.getDatePeremption().before(new Date(maintenant.getTime() + 30L * 24 * 60 * 60 * 1000))) {
-            statut = "⏰ Expire bientôt";
-        }
+        ajouterMedicamentATable(med, new SimpleDateFormat("dd/MM/yyyy"), System.currentTimeMillis());
+    }
 
+    private void ajouterMedicamentATable(Medicament med, SimpleDateFormat dateFormat, long maintenant) {
         Object[] row = {
                 med.getNom(),
                 med.getCategorie(),
                 String.format("%.2f €", med.getPrix()),
                 med.getQuantiteStock(),
                 dateFormat.format(med.getDatePeremption()),
-                statut
+                libelleStatut(controller.getStatutStock(med, maintenant))
         };
         tableModel.addRow(row);
+        lignesParNom.put(med.getNom().toLowerCase(), tableModel.getRowCount() - 1);
+    }
+
+    private void viderTable() {
+        tableModel.setRowCount(0);
+        lignesParNom.clear();
+    }
+
+    /**
+     * Reporte les nouveaux stocks dans les lignes affichées, sans recharger l'inventaire.
+     */
+    private void appliquerVariations(List<VariationStock> variations) {
+        long maintenant = System.currentTimeMillis();
+        for (VariationStock variation : variations) {
+            Integer ligne = lignesParNom.get(variation.getNomMedicament().toLowerCase());
+            if (ligne == null) {
+                continue;
+            }
+            tableModel.setValueAt(variation.getNouvelleQuantite(), ligne, COLONNE_STOCK);
+            controller.rechercherMedicament(variation.getNomMedicament()).ifPresent(med ->
+                    tableModel.setValueAt(libelleStatut(controller.getStatutStock(med, maintenant)), ligne, COLONNE_STATUT));
+        }
+    }
+
+    private static String libelleStatut(StatutStock statut) {
+        switch (statut) {
+            case RUPTURE:
+                return "❌ Rupture";
+            case STOCK_BAS:
+                return "⚠️ Stock bas";
+            case PERIME:
+                return "🚫 Périmé";
+            case EXPIRE_BIENTOT:
+                return "⏰ Expire bientôt";
+            default:
+                return "✅ OK";
+        }
     }
 
     private void chargerMedicamentSelectionne() {
@@ -554,9 +570,9 @@ public class MedicamentPanel extends JPanel implements DataRefreshListener {
                 afficherMessage(resultat, isError);
 
                 if (!isError) {
-                    chargerInventaire();
-                    // Notifier l'accueil et autres listeners du stock
-                    DataEventManager.MedicamentEvents.stockUpdated();
+                    // La ligne et le compteur de l'accueil suivent la variation publiée
+                    int ancienStock = Integer.parseInt(stockActuel);
+                    DataEventManager.MedicamentEvents.stockModifie(nom, nouveauStock - ancienStock, nouveauStock);
                 }
             } catch (NumberFormatException e) {
                 afficherMessage("Stock invalide", true);
@@ -586,12 +602,23 @@ public class MedicamentPanel extends JPanel implements DataRefreshListener {
 
     @Override
     public void refreshStockCount() {
-        SwingUtilities.invokeLater(this::chargerInventaire);
+        // Livré sur l'EDT, une fois par rafale de mises à jour
+        chargerInventaire();
     }
 
     @Override
     public void refreshVenteCount(int nombreVentes) { /* sans objet ici */ }
 
+    @Override
+    public void venteEffectuee(VenteEvent vente) {
+        appliquerVariations(vente.getStocks());
+    }
+
+    @Override
+    public void stockModifie(StockEvent stock) {
+        appliquerVariations(stock.getVariations());
+    }
+
     @Override
     public void refreshCaCount(String caValue) { /* sans objet ici */ }
 }
@@ -1,12 +1,20 @@
 package main.view;
 
 import main.controller.PharmacieController;
+import main.model.Medicament.LignesMedicaments;
+import main.model.Medicament.Medicament;
 import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.Montant;
+import main.model.Transaction.TypeTransaction.Achat;
+import main.model.service.StatutStock;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Fenêtre principale de l'application Pharmacie Sparadrap
@@ -23,6 +31,13 @@ public class PharmacieMainFrame extends JFrame implements DataRefreshListener {
     private JLabel caCountLabel;
     private JLabel stockCountLabel;
 
+    // Compteurs de l'accueil, tenus sur l'EDT par les variations des événements typés
+    private int ventesDuJour;
+    private long caMoisCentimes;
+    private long unitesEnStock;
+    private int clientsEnregistres;
+    private LocalDate jourCompteurs;
+
     // Références des panels pour accéder à des actions spécifiques (focus, etc.)
     private ClientPanel clientPanelRef;
     private MedicamentPanel medicamentPanelRef;
@@ -51,6 +66,16 @@ public PharmacieMainFrame() {
     setupEventListeners();
 
     DataEventManager.getInstance().addListener(this);
+    // Relayer chaque vente enregistrée avec ses montants et les stocks qu'elle a touchés
+    controller.ajouterEcouteurVentes(achat -> DataEventManager.VenteEvents.venteEffectuee(evenementVente(achat)));
+    // Relayer les passages « expire bientôt » / « périmé » détectés en arrière-plan
+    controller.ajouterEcouteurPeremption((medicament, statut) -> {
+        if (statut == StatutStock.PERIME) {
+            DataEventManager.MedicamentEvents.medicamentPerime(medicament);
+        } else {
+            DataEventManager.MedicamentEvents.medicamentExpireBientot(medicament);
+        }
+    });
 
     ImageIcon icon = new ImageIcon("icons/cross.png");
     Image iconImage = icon.getImage();
@@ -348,36 +373,53 @@ private JPanel createAccueilPanel() {
     panel.add(actionsPanel, BorderLayout.SOUTH);
 
     // Initialiser avec les vraies données à l'instant T
-    try {
-        java.util.Calendar cal = java.util.Calendar.getInstance();
-        cal.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        cal.set(java.util.Calendar.MINUTE, 0);
-        cal.set(java.util.Calendar.SECOND, 0);
-        cal.set(java.util.Calendar.MILLISECOND, 0);
-        java.util.Date debutJour = cal.getTime();
-        java.util.Date maintenant = new java.util.Date();
+    unitesEnStock = controller.getNombreMedicamentsEnStock();
+    clientsEnregistres = controller.getNombreClients();
+    initialiserCompteursVentes();
 
-        // Début du mois
-        cal.set(java.util.Calendar.DAY_OF_MONTH, 1);
-        java.util.Date debutMois = cal.getTime();
+    return panel;
+}
 
-        java.util.Map<String, Object> statsJour = controller.obtenirStatistiques(debutJour, maintenant);
-        java.util.Map<String, Object> statsMois = controller.obtenirStatistiques(debutMois, maintenant);
+/**
+ * Relit les compteurs de ventes (au démarrage et au changement de jour) ; ensuite tenus par différence.
+ */
+private void initialiserCompteursVentes() {
+    jourCompteurs = LocalDate.now();
+    try {
+        java.util.Map<String, Object> statsJour = controller.obtenirStatistiques(main.model.service.PeriodeStandard.JOUR);
+        java.util.Map<String, Object> statsMois = controller.obtenirStatistiques(main.model.service.PeriodeStandard.MOIS);
 
-        int nbVentesJour = (Integer) statsJour.getOrDefault("nombreVentes", 0);
-        double caMois = (Double) statsMois.getOrDefault("chiffreAffaires", 0.0);
+        ventesDuJour = (Integer) statsJour.getOrDefault("nombreVentes", 0);
+        caMoisCentimes = Math.round((Double) statsMois.getOrDefault("chiffreAffaires", 0.0) * 100);
 
-        if (venteCountLabel != null) {
-            venteCountLabel.setText(String.valueOf(nbVentesJour));
-        }
-        if (caCountLabel != null) {
-            caCountLabel.setText(String.format("%.2f €", caMois));
-        }
+        afficherCompteursVentes();
     } catch (Exception e) {
         // En cas d'erreur, laisser les valeurs par défaut
     }
+}
 
-    return panel;
+private void afficherCompteursVentes() {
+    if (venteCountLabel != null) {
+        venteCountLabel.setText(String.valueOf(ventesDuJour));
+    }
+    if (caCountLabel != null) {
+        caCountLabel.setText(String.format("%.2f €", Montant.enEuros(caMoisCentimes)));
+    }
+}
+
+/**
+ * Événement d'une vente : montants de l'achat et nouveau stock de chaque médicament vendu.
+ */
+private VenteEvent evenementVente(Achat achat) {
+    LignesMedicaments lignes = achat.getLignes();
+    List<VariationStock> stocks = new ArrayList<>(lignes.taille());
+    for (int i = 0; i < lignes.taille(); i++) {
+        String nom = lignes.getMedicament(i).getNom();
+        int stock = controller.rechercherMedicament(nom).map(Medicament::getQuantiteStock).orElse(0);
+        stocks.add(new VariationStock(nom, -lignes.getQuantite(i), stock));
+    }
+    return new VenteEvent(achat.getReference(), achat.getMontantTotalCentimes(),
+            achat.getMontantRembourseCentimes(), stocks);
 }
 
 /**
@@ -551,8 +593,8 @@ private void ouvrirGestionStockAccueil() {
         SwingUtilities.invokeLater(() -> {
             if (clientCountLabel != null) {
                 try {
-                    int count = controller.getNombreClients();
-                    clientCountLabel.setText(String.valueOf(count));
+                    clientsEnregistres = controller.getNombreClients();
+                    clientCountLabel.setText(String.valueOf(clientsEnregistres));
                 } catch (Exception e) {
                     System.err.println("Erreur actualisation clients: " + e.getMessage());
                 }
@@ -582,8 +624,8 @@ public void refreshVenteCount(int nombreVentes) {
         SwingUtilities.invokeLater(() -> {
             if (stockCountLabel != null) {
                 try {
-                    int count = controller.getNombreMedicamentsEnStock();
-                    stockCountLabel.setText(String.valueOf(count));
+                    unitesEnStock = controller.getNombreMedicamentsEnStock();
+                    stockCountLabel.setText(String.valueOf(unitesEnStock));
                 } catch (Exception e) {
                     System.err.println("Erreur actualisation stock: " + e.getMessage());
                 }
@@ -607,6 +649,39 @@ public void refreshCaCount(String caValue) {
         DataRefreshListener.super.refreshAllCounts();
     }
 
+    @Override
+    public void venteEffectuee(VenteEvent vente) {
+        if (!LocalDate.now().equals(jourCompteurs)) {
+            // Nouveau jour (ou mois) : les compteurs repartent des statistiques
+            initialiserCompteursVentes();
+        } else {
+            ventesDuJour += vente.getNombreVentes();
+            caMoisCentimes += vente.getMontantTotalCentimes();
+            afficherCompteursVentes();
+        }
+        ajouterUnitesEnStock(vente.getVariationStockTotale());
+    }
+
+    @Override
+    public void stockModifie(StockEvent stock) {
+        ajouterUnitesEnStock(stock.getVariationTotale());
+    }
+
+    private void ajouterUnitesEnStock(int variation) {
+        unitesEnStock += variation;
+        if (stockCountLabel != null) {
+            stockCountLabel.setText(String.valueOf(unitesEnStock));
+        }
+    }
+
+    @Override
+    public void clientModifie(ClientEvent client) {
+        clientsEnregistres += client.getVariationNombre();
+        if (clientCountLabel != null) {
+            clientCountLabel.setText(String.valueOf(clientsEnregistres));
+        }
+    }
+
     @Override
     public void dispose() {
         DataEventManager.getInstance().removeListener(this);
@@ -1,13 +1,13 @@
 package main.view;
 
 import main.controller.PharmacieController;
+import main.model.service.PeriodeStandard;
 import main.view.PharmacieMainFrame;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -200,34 +200,13 @@ public class StatistiquePanel extends JPanel {
 
     private void actualiserStatistiques() {
         try {
-            Date maintenant = new Date();
-
-            // Calculer les différentes périodes
-            Calendar cal = Calendar.getInstance();
-
-            // Aujourd'hui
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-            Date debutJour = cal.getTime();
-
-            // Ce mois
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            Date debutMois = cal.getTime();
-
-            // Cette année
-            cal.set(Calendar.MONTH, 0);
-            Date debutAnnee = cal.getTime();
-
-            // 30 derniers jours
-            Date debut30Jours = new Date(maintenant.getTime() - 30L * 24 * 60 * 60 * 1000);
-
-            // Obtenir les statistiques du contrôleur
-            Map<String, Object> statsJour = controller.obtenirStatistiques(debutJour, maintenant);
-            Map<String, Object> statsMois = controller.obtenirStatistiques(debutMois, maintenant);
-            Map<String, Object> statsAnnee = controller.obtenirStatistiques(debutAnnee, maintenant);
-            Map<String, Object> stats30J = controller.obtenirStatistiques(debut30Jours, maintenant);
+            // Compteurs matérialisés du service : aucune relecture de l'historique
+            Map<PeriodeStandard, Map<String, Object>> stats = controller.obtenirStatistiques(
+                    Arrays.asList(PeriodeStandard.values()));
+            Map<String, Object> statsJour = stats.get(PeriodeStandard.JOUR);
+            Map<String, Object> statsMois = stats.get(PeriodeStandard.MOIS);
+            Map<String, Object> statsAnnee = stats.get(PeriodeStandard.ANNEE);
+            Map<String, Object> stats30J = stats.get(PeriodeStandard.TRENTE_JOURS);
 
             // Mettre à jour l'affichage
             caJourLabel.setText(String.format("%.2f €", (Double) statsJour.getOrDefault("chiffreAffaires", 0.0)));
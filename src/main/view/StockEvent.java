@@ -0,0 +1,37 @@
+package main.view;
+
+import java.util.List;
+
+/**
+ * Stocks modifiés hors vente (réception, correction d'inventaire).
+ */
+public final class StockEvent extends DataEvent {
+
+    private final List<VariationStock> variations;
+
+    public StockEvent(List<VariationStock> variations) {
+        super(DataEventManager.EventType.STOCK_UPDATED);
+        this.variations = List.copyOf(variations);
+    }
+
+    public List<VariationStock> getVariations() {
+        return variations;
+    }
+
+    /**
+     * Somme des écarts, pour un compteur d'unités en stock.
+     */
+    public int getVariationTotale() {
+        return VariationStock.sommeVariations(variations);
+    }
+
+    @Override
+    protected DataEvent fusionner(DataEvent plusRecent) {
+        return new StockEvent(VariationStock.fusionner(variations, ((StockEvent) plusRecent).variations));
+    }
+
+    @Override
+    void livrer(DataRefreshListener listener) {
+        listener.stockModifie(this);
+    }
+}
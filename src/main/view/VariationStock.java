@@ -0,0 +1,58 @@
+package main.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variation du stock d'un médicament : écart appliqué et quantité qui en résulte.
+ */
+public final class VariationStock {
+
+    private final String nomMedicament;
+    private final int variation;
+    private final int nouvelleQuantite;
+
+    public VariationStock(String nomMedicament, int variation, int nouvelleQuantite) {
+        if (nomMedicament == null) {
+            throw new IllegalArgumentException("Le nom du médicament ne peut pas etre null");
+        }
+        this.nomMedicament = nomMedicament;
+        this.variation = variation;
+        this.nouvelleQuantite = nouvelleQuantite;
+    }
+
+    public String getNomMedicament() {
+        return nomMedicament;
+    }
+    public int getVariation() {
+        return variation;
+    }
+    public int getNouvelleQuantite() {
+        return nouvelleQuantite;
+    }
+
+    /**
+     * Une variation par médicament (nom insensible à la casse) : écarts cumulés, dernière quantité connue.
+     */
+    static List<VariationStock> fusionner(List<VariationStock> anciennes, List<VariationStock> recentes) {
+        Map<String, VariationStock> parNom = new LinkedHashMap<>();
+        for (List<VariationStock> variations : List.of(anciennes, recentes)) {
+            for (VariationStock v : variations) {
+                parNom.merge(v.nomMedicament.toLowerCase(), v, (a, b) ->
+                        new VariationStock(b.nomMedicament, a.variation + b.variation, b.nouvelleQuantite));
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(parNom.values()));
+    }
+
+    static int sommeVariations(List<VariationStock> variations) {
+        int somme = 0;
+        for (VariationStock v : variations) {
+            somme += v.variation;
+        }
+        return somme;
+    }
+}
@@ -0,0 +1,66 @@
+package main.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ventes enregistrées : références, montants cumulés en centimes et stocks des médicaments vendus.
+ * Une rafale de ventes regroupée par la coalescence arrive en un seul événement.
+ */
+public final class VenteEvent extends DataEvent {
+
+    private final List<String> references;
+    private final long montantTotalCentimes;
+    private final long montantRembourseCentimes;
+    private final List<VariationStock> stocks;
+
+    public VenteEvent(String reference, long montantTotalCentimes, long montantRembourseCentimes,
+                      List<VariationStock> stocks) {
+        this(List.of(reference), montantTotalCentimes, montantRembourseCentimes, List.copyOf(stocks));
+    }
+
+    private VenteEvent(List<String> references, long montantTotalCentimes, long montantRembourseCentimes,
+                       List<VariationStock> stocks) {
+        super(DataEventManager.EventType.VENTE_COMPLETED);
+        this.references = references;
+        this.montantTotalCentimes = montantTotalCentimes;
+        this.montantRembourseCentimes = montantRembourseCentimes;
+        this.stocks = stocks;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+    public int getNombreVentes() {
+        return references.size();
+    }
+    public long getMontantTotalCentimes() {
+        return montantTotalCentimes;
+    }
+    public long getMontantRembourseCentimes() {
+        return montantRembourseCentimes;
+    }
+    public List<VariationStock> getStocks() {
+        return stocks;
+    }
+    public int getVariationStockTotale() {
+        return VariationStock.sommeVariations(stocks);
+    }
+
+    @Override
+    protected DataEvent fusionner(DataEvent plusRecent) {
+        VenteEvent suivante = (VenteEvent) plusRecent;
+        List<String> toutes = new ArrayList<>(references.size() + suivante.references.size());
+        toutes.addAll(references);
+        toutes.addAll(suivante.references);
+        return new VenteEvent(List.copyOf(toutes),
+                montantTotalCentimes + suivante.montantTotalCentimes,
+                montantRembourseCentimes + suivante.montantRembourseCentimes,
+                VariationStock.fusionner(stocks, suivante.stocks));
+    }
+
+    @Override
+    void livrer(DataRefreshListener listener) {
+        listener.venteEffectuee(this);
+    }
+}
@@ -4,6 +4,7 @@ import main.controller.PharmacieController;
 import main.model.Medicament.Medicament;
 import main.model.Personne.CategoriePersonne.Client;
 import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Transaction.Montant;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -346,28 +347,7 @@ public class VentePanel extends JPanel {
                 boolean isError = resultat.toLowerCase().contains("erreur") || resultat.toLowerCase().contains("insuffisant");
                 afficherMessage(resultat, isError);
                 if (!isError) {
-                    // Mettre à jour les compteurs via événements
-                    try {
-                        Calendar cal = Calendar.getInstance();
-                        cal.set(Calendar.HOUR_OF_DAY, 0);
-                        cal.set(Calendar.MINUTE, 0);
-                        cal.set(Calendar.SECOND, 0);
-                        cal.set(Calendar.MILLISECOND, 0);
-                        Date debutJour = cal.getTime();
-                        Date maintenant = new Date();
-
-                        Map<String, Object> statsJour = controller.obtenirStatistiques(debutJour, maintenant);
-                        int nbVentes = (Integer) statsJour.getOrDefault("nombreVentes", 0);
-                        double ca = (Double) statsJour.getOrDefault("chiffreAffaires", 0.0);
-                        String caStr = String.format("%.2f €", ca);
-                        DataEventManager.VenteEvents.venteCompleted(nbVentes, caStr);
-                    } catch (Exception ex) {
-                        // Ignorer les erreurs d'actualisation d'UI
-                    }
-                    // Rafraîchir stock
-                    DataEventManager.MedicamentEvents.stockUpdated();
-                    // Forcer aussi l'accueil à rafraîchir le stock immédiatement
-                    DataEventManager.getInstance().fireEvent(DataEventManager.EventType.STOCK_UPDATED);
+                    // Compteurs et stocks mis à jour par l'événement de vente publié à l'enregistrement
                     // Reset UI
                     panier.clear();
                     rafraichirPanierTable();
@@ -394,17 +374,17 @@ public class VentePanel extends JPanel {
             for (Map.Entry<Medicament, Integer> entry : panier.entrySet()) {
                 Medicament m = entry.getKey();
                 int qte = entry.getValue();
-                double sousTotal = m.getPrix() * qte;
+                double sousTotal = Montant.enEuros(Montant.fois(m.getPrixCentimes(), qte));
                 panierModel.addRow(new Object[]{m.getNom(), String.format("%.2f €", m.getPrix()), qte, String.format("%.2f €", sousTotal)});
             }
         }
 
         private void mettreAJourTotal() {
-            double total = 0.0;
+            long total = 0;
             for (Map.Entry<Medicament, Integer> entry : panier.entrySet()) {
-                total += entry.getKey().getPrix() * entry.getValue();
+                total += Montant.fois(entry.getKey().getPrixCentimes(), entry.getValue());
             }
-            totalLabel.setText(String.format("Total: %.2f €", total));
+            totalLabel.setText(String.format("Total: %.2f €", Montant.enEuros(total)));
         }
     }
 
@@ -627,23 +607,7 @@ public class VentePanel extends JPanel {
                         afficherMessage("Ordonnance validée", false);
                     }
                     if (!isError) {
-                        // Rafraîchir stats/stock
-                        try {
-                            Calendar cal = Calendar.getInstance();
-                            cal.set(Calendar.HOUR_OF_DAY, 0);
-                            cal.set(Calendar.MINUTE, 0);
-                            cal.set(Calendar.SECOND, 0);
-                            cal.set(Calendar.MILLISECOND, 0);
-                            Date debutJour = cal.getTime();
-                            Date maintenant = new Date();
-                            Map<String, Object> statsJour = controller.obtenirStatistiques(debutJour, maintenant);
-                            int nbVentes = (Integer) statsJour.getOrDefault("nombreVentes", 0);
-                            double ca = (Double) statsJour.getOrDefault("chiffreAffaires", 0.0);
-                            String caStr = String.format("%.2f €", ca);
-                            DataEventManager.VenteEvents.venteCompleted(nbVentes, caStr);
-                        } catch (Exception ignored) {}
-                        DataEventManager.MedicamentEvents.stockUpdated();
-                        DataEventManager.getInstance().fireEvent(DataEventManager.EventType.STOCK_UPDATED);
+                        // Compteurs et stocks mis à jour par l'événement de vente publié à l'enregistrement
                         // Reset
                         clientIdField.setText("");
                         medecinIdField.setText("");
@@ -843,15 +807,14 @@ public class VentePanel extends JPanel {
             java.text.SimpleDateFormat dfHeure = new java.text.SimpleDateFormat("HH:mm:ss");
 
             int count = 0;
-            double totalSum = 0.0;
-            double rembSum = 0.0;
-            double netSum = 0.0;
+            long totalSum = 0;
+            long rembSum = 0;
 
             for (main.model.Transaction.TypeTransaction.Achat a : achats) {
                 String type = a.getType() == main.model.Medicament.TypeAchat.ORDONNANCE ? "Ordonnance" : "Directe";
-                double total = a.getMontantTotal();
-                double remb = a.getMontantRembourse();
-                double net = total - remb;
+                long total = a.getMontantTotalCentimes();
+                long remb = a.getMontantRembourseCentimes();
+                long net = total - remb;
 
                 historiqueModel.addRow(new Object[]{
                         a.getReference(),
@@ -859,20 +822,20 @@ public class VentePanel extends JPanel {
                         dfHeure.format(a.getDateTransaction()),
                         a.getClient().getNom() + " " + a.getClient().getPrenom(),
                         type,
-                        String.format("%.2f €", total),
-                        String.format("%.2f €", remb),
-                        String.format("%.2f €", net)
+                        String.format("%.2f €", Montant.enEuros(total)),
+                        String.format("%.2f €", Montant.enEuros(remb)),
+                        String.format("%.2f €", Montant.enEuros(net))
                 });
 
                 count++;
                 totalSum += total;
                 rembSum += remb;
-                netSum += net;
             }
 
             if (statsLabel != null) {
                 statsLabel.setText(String.format("Statistiques: %d ventes - Total: %.2f € - Remboursé: %.2f € - Net: %.2f €",
-                        count, totalSum, rembSum, netSum));
+                        count, Montant.enEuros(totalSum), Montant.enEuros(rembSum),
+                        Montant.enEuros(totalSum - rembSum)));
             }
         }
     }
@@ -950,11 +913,12 @@ public class VentePanel extends JPanel {
             Optional<main.model.Transaction.TypeTransaction.Achat> achatOpt2 = controller.rechercherAchatParReference(reference);
             if (achatOpt2.isPresent()) {
                 main.model.Transaction.TypeTransaction.Achat achat = achatOpt2.get();
-                Map<main.model.Medicament.Medicament, Integer> qtes = achat.getQuantites();
-                for (Map.Entry<main.model.Medicament.Medicament, Integer> e : qtes.entrySet()) {
-                    main.model.Medicament.Medicament m = e.getKey();
-                    int q = e.getValue();
-                    model.addRow(new Object[]{m.getNom(), q, String.format("%.2f €", m.getPrix()), String.format("-%d", q)});
+                // Prix relevés à la vente, pas le prix courant de la fiche
+                main.model.Medicament.LignesMedicaments lignes = achat.getLignes();
+                for (int i = 0; i < lignes.taille(); i++) {
+                    int q = lignes.getQuantite(i);
+                    model.addRow(new Object[]{lignes.getMedicament(i).getNom(), q,
+                            Montant.formater(lignes.getPrixUnitaireCentimes(i)) + " €", String.format("-%d", q)});
                 }
             }
             medicamentsPanel.add(new JScrollPane(table), BorderLayout.CENTER);
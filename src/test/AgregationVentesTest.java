@@ -0,0 +1,44 @@
+package test;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.EnregistrementVente;
+import main.model.service.BilanVentes;
+import main.model.service.GestPharmacieService;
+import main.model.service.PeriodeVentes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgregationVentesTest {
+
+    @Test
+    public void testUnePassePourPlusieursPeriodes() {
+        StockageMemoire stockage = new StockageMemoire();
+        stockage.relectureIndisponible = true;
+        GestPharmacieService service = new GestPharmacieService(stockage);
+        stockage.ventes.add(new EnregistrementVente(100, 1000, 700, TypeAchat.ORDONNANCE, "ACH1"));
+        stockage.ventes.add(new EnregistrementVente(200, 500, 0, TypeAchat.DIRECT, "ACH2"));
+        stockage.ventes.add(new EnregistrementVente(300, 250, 0, TypeAchat.DIRECT, "ACH3"));
+
+        List<BilanVentes> bilans = service.agregerVentes(Arrays.asList(
+                new PeriodeVentes(0, 1000),
+                new PeriodeVentes(150, 300),
+                new PeriodeVentes(400, 500)));
+
+        assertEquals(1, stockage.parcours);
+        assertEquals(3, bilans.get(0).getNombreVentes());
+        assertEquals(1750, bilans.get(0).getMontantTotalCentimes());
+        assertEquals(700, bilans.get(0).getMontantRembourseCentimes());
+        assertEquals(2, bilans.get(1).getNombreVentes());
+        assertEquals(750, bilans.get(1).getMontantTotalCentimes());
+        assertEquals(0, bilans.get(2).getNombreVentes());
+    }
+
+    @Test
+    public void testPeriodeInvalide() {
+        assertThrows(IllegalArgumentException.class, () -> new PeriodeVentes(10, 5));
+    }
+}
@@ -0,0 +1,104 @@
+package test;
+
+import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Medicament;
+import main.model.Medicament.TypeAchat;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.TypeTransaction.Achat;
+import main.model.service.AnomalieCoherence;
+import main.model.service.AuditCoherence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditCoherenceTest {
+    private Client martin;
+    private Client durand;
+    private Medecin dupont;
+    private Pharmacien pharmacien;
+    private Medicament doliprane;
+
+    @BeforeEach
+    public void setUp() {
+        martin = new Client("Martin", "Pierre", "12 Rue de Paris", "75000", "Paris",
+                "0123456789", "pierre.martin@example.com", "CL001", "123456789012345", null, null);
+        durand = new Client("Durand", "Paul", "14 Rue de Marseille", "13000", "Marseille",
+                "0987654321", "paul.durand@example.com", "CL002", "197035767242191", null, null);
+        dupont = new Medecin("Dupont", "Jean", "10 Rue des Docteurs", "75000", "Paris",
+                "0123456789", "jean.dupont@example.com", "MED001", "12345678901");
+        pharmacien = new Pharmacien("Blanc", "Luc", "1 Place de la Gare", "75000", "Paris",
+                "0123456789", "luc.blanc@example.com", "PH001", "12345678912", "Pharmacie Centrale", new Date());
+        Date aujourdHui = new Date();
+        doliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 100,
+                aujourdHui, new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000));
+    }
+
+    private Map<Medicament, Integer> uneBoite() {
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(doliprane, 1);
+        return quantites;
+    }
+
+    private Ordonnance ordonnance(Client patient, String reference, long instant) {
+        return new Ordonnance(new Date(instant), dupont, patient,
+                new ArrayList<>(Collections.singletonList(doliprane)), uneBoite(), reference);
+    }
+
+    private Achat achat(Client client, String reference, long instant, String referenceOrdonnance) {
+        Achat achat = new Achat(new Date(instant), client, pharmacien, reference, TypeAchat.ORDONNANCE,
+                new ArrayList<>(Collections.singletonList(doliprane)), uneBoite());
+        achat.setReferenceOrdonnance(referenceOrdonnance);
+        return achat;
+    }
+
+    @Test
+    public void testAnomaliesTypees() {
+        List<Ordonnance> ordonnances = Arrays.asList(
+                ordonnance(martin, "ORD001", 1000),  // liée par référence
+                ordonnance(martin, "ORD002", 2000),  // retrouvée par client + instant
+                ordonnance(durand, "ORD003", 3000),  // sans achat
+                ordonnance(martin, "ORD004", 4000)); // délivrée à un autre client
+        List<Achat> achats = Arrays.asList(
+                achat(martin, "ACH001", 1500, "ORD001"),
+                achat(martin, "ACH002", 2000, null),
+                achat(durand, "ACH004", 4500, "ORD004"),
+                achat(durand, "ACH005", 5000, "ORD999"));
+
+        List<AnomalieCoherence> anomalies = new AuditCoherence(ordonnances, achats, false, null).executer();
+
+        assertEquals(3, anomalies.size());
+        assertEquals(AnomalieCoherence.Type.ORDONNANCE_SANS_ACHAT, anomalies.get(0).getType());
+        assertEquals("ORD003", anomalies.get(0).getReferenceOrdonnance());
+        assertEquals("Ordonnance ORD003 sans achat correspondant", anomalies.get(0).getMessage());
+        assertEquals(AnomalieCoherence.Type.PATIENT_DIFFERENT, anomalies.get(1).getType());
+        assertEquals("ACH004", anomalies.get(1).getReferenceAchat());
+        assertEquals(AnomalieCoherence.Type.ORDONNANCE_INCONNUE, anomalies.get(2).getType());
+        assertEquals("ORD999", anomalies.get(2).getReferenceOrdonnance());
+    }
+
+    @Test
+    public void testParalleleAvecProgression() {
+        List<Ordonnance> ordonnances = new ArrayList<>();
+        List<Achat> achats = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ordonnances.add(ordonnance(martin, "ORD" + i, i * 10L));
+            if (i % 10 != 0) {
+                achats.add(achat(martin, "ACH" + i, i * 10L + 5, "ORD" + i));
+            }
+        }
+        AtomicLong derniere = new AtomicLong();
+        List<AnomalieCoherence> anomalies = new AuditCoherence(ordonnances, achats, true,
+                (traitees, total) -> derniere.accumulateAndGet(traitees, Math::max)).executer();
+
+        assertEquals(500, anomalies.size());
+        assertEquals("ORD0", anomalies.get(0).getReferenceOrdonnance());
+        assertEquals(5000, derniere.get());
+    }
+}
@@ -0,0 +1,100 @@
+package test;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.ArchiveVentes;
+import main.model.persistance.CsvVentes;
+import main.model.persistance.EnregistrementVente;
+import main.model.persistance.JournalVentes;
+import main.model.persistance.PolitiqueSynchronisation;
+import main.model.service.BilanVentes;
+import main.model.service.GestPharmacieService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactageVentesTest {
+
+    @TempDir
+    Path dossier;
+
+    private static long ts(LocalDate date) {
+        return date.atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void testCompactageTransparent() throws Exception {
+        LocalDate aujourdHui = LocalDate.now();
+        long ancien = ts(aujourdHui.minusMonths(14).withDayOfMonth(3));
+        long moisDernier = ts(aujourdHui.minusMonths(1).withDayOfMonth(1));
+        long recent = ts(aujourdHui.withDayOfMonth(1));
+
+        Path fichierJournal = dossier.resolve("achats.journal");
+        try (JournalVentes journal = new JournalVentes(fichierJournal, PolitiqueSynchronisation.AUCUNE)) {
+            journal.ajouterTous(Arrays.asList(
+                    new EnregistrementVente(ancien, 1000, 700, TypeAchat.ORDONNANCE, "ACH1"),
+                    new EnregistrementVente(moisDernier, 500, 0, TypeAchat.DIRECT, "ACH2"),
+                    new EnregistrementVente(recent, 250, 0, TypeAchat.DIRECT, "ACH3")));
+        }
+
+        JournalVentes journal = new JournalVentes(fichierJournal, PolitiqueSynchronisation.AUCUNE);
+        ArchiveVentes archive = new ArchiveVentes(dossier.resolve("archive"));
+        GestPharmacieService service = new GestPharmacieService(journal, archive);
+        service.compacterVentes();
+
+        assertEquals(2, archive.getNombreMois());
+        assertEquals(1, journal.getNombreEnregistrements());
+        BilanVentes tout = service.agregerVentes(new Date(0), new Date(recent + 1));
+        assertEquals(3, tout.getNombreVentes());
+        assertEquals(1750, tout.getMontantTotalCentimes());
+        assertEquals(700, tout.getMontantRembourseCentimes());
+        assertEquals(750, service.agregerVentes(new Date(moisDernier), new Date(recent)).getMontantTotalCentimes());
+
+        Path export = dossier.resolve("export.csv");
+        service.exporterVentesCsv(export);
+        assertEquals(3, new CsvVentes(export).lireTout().size());
+        service.fermer();
+
+        GestPharmacieService relu = new GestPharmacieService(
+                new JournalVentes(fichierJournal, PolitiqueSynchronisation.AUCUNE),
+                new ArchiveVentes(dossier.resolve("archive")));
+        assertEquals(1750, relu.agregerVentes(new Date(0), new Date(recent + 1)).getMontantTotalCentimes());
+        relu.fermer();
+    }
+
+    @Test
+    public void testVentesTardivesArchiveesAvantRetrait() throws Exception {
+        LocalDate aujourdHui = LocalDate.now();
+        long moisDernier = ts(aujourdHui.minusMonths(1).withDayOfMonth(1));
+        long ancien = ts(aujourdHui.minusMonths(3).withDayOfMonth(5));
+
+        JournalVentes journal = new JournalVentes(dossier.resolve("achats.journal"), PolitiqueSynchronisation.AUCUNE);
+        ArchiveVentes archive = new ArchiveVentes(dossier.resolve("archive"));
+        GestPharmacieService service = new GestPharmacieService(journal, archive);
+        journal.ajouter(new EnregistrementVente(moisDernier, 500, 0, TypeAchat.DIRECT, "ACH1"));
+        service.compacterVentes();
+        assertEquals(0, journal.getNombreEnregistrements());
+
+        // Vente antérieure à la limite de l'archive, arrivée après le compactage (import, reprise)
+        journal.ajouter(new EnregistrementVente(ancien, 800, 560, TypeAchat.ORDONNANCE, "ACH0", "ORD0"));
+        service.compacterVentes();
+        assertEquals(0, journal.getNombreEnregistrements());
+        assertEquals(1300, service.agregerVentes(new Date(0), new Date(moisDernier + 1)).getMontantTotalCentimes());
+
+        Path export = dossier.resolve("export.csv");
+        service.exporterVentesCsv(export);
+        List<EnregistrementVente> exportees = new CsvVentes(export).lireTout();
+        assertEquals(2, exportees.size());
+        assertEquals("ACH0", exportees.get(0).getReference());
+        assertEquals("ORD0", exportees.get(0).getReferenceOrdonnance());
+        assertEquals("ACH1", exportees.get(1).getReference());
+        service.fermer();
+    }
+}
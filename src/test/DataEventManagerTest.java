@@ -0,0 +1,186 @@
+package test;
+
+import main.view.ClientEvent;
+import main.view.DataEventManager;
+import main.view.DataRefreshListener;
+import main.view.StockEvent;
+import main.view.VariationStock;
+import main.view.VenteEvent;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataEventManagerTest {
+
+    private static class Compteur implements DataRefreshListener {
+        final Livraison livraison;
+        final AtomicInteger clients = new AtomicInteger();
+        final AtomicInteger stocks = new AtomicInteger();
+        final AtomicBoolean horsEdt = new AtomicBoolean();
+        final List<VenteEvent> ventes = new CopyOnWriteArrayList<>();
+        final List<StockEvent> variations = new CopyOnWriteArrayList<>();
+        final AtomicInteger variationClients = new AtomicInteger();
+
+        Compteur(Livraison livraison) {
+            this.livraison = livraison;
+        }
+
+        private void noterFil() {
+            if (SwingUtilities.isEventDispatchThread() != (livraison == Livraison.EDT)) {
+                horsEdt.set(true);
+            }
+        }
+
+        @Override
+        public void refreshClientCount() {
+            noterFil();
+            clients.incrementAndGet();
+        }
+
+        @Override
+        public void refreshMedecinCount() {
+        }
+
+        @Override
+        public void refreshStockCount() {
+            noterFil();
+            stocks.incrementAndGet();
+        }
+
+        @Override
+        public void refreshVenteCount(int nombreVentes) {
+        }
+
+        @Override
+        public void refreshCaCount(String caValue) {
+        }
+
+        @Override
+        public void venteEffectuee(VenteEvent vente) {
+            ventes.add(vente);
+        }
+
+        @Override
+        public void stockModifie(StockEvent stock) {
+            variations.add(stock);
+        }
+
+        @Override
+        public void clientModifie(ClientEvent client) {
+            variationClients.addAndGet(client.getVariationNombre());
+        }
+
+        @Override
+        public Livraison getLivraison() {
+            return livraison;
+        }
+    }
+
+    @Test
+    public void testEvenementsTypesFusionnesSansPerteDeVariation() throws Exception {
+        DataEventManager bus = new DataEventManager(1024, 500);
+        Compteur fond = new Compteur(DataRefreshListener.Livraison.TACHE_DE_FOND);
+        bus.addListener(fond);
+
+        bus.publier(new VenteEvent("ACH001", 1198, 839,
+                List.of(new VariationStock("Doliprane", -2, 98))));
+        bus.publier(new VenteEvent("ACH002", 350, 0,
+                List.of(new VariationStock("doliprane", -1, 97), new VariationStock("Aspirine", -1, 49))));
+        bus.publier(new ClientEvent(DataEventManager.EventType.CLIENT_ADDED, "CL001"));
+        bus.publier(new ClientEvent(DataEventManager.EventType.CLIENT_ADDED, "CL002"));
+        bus.publier(new ClientEvent(DataEventManager.EventType.CLIENT_DELETED, "CL001"));
+        assertTrue(bus.attendreDistribution(5_000));
+
+        assertEquals(1, fond.ventes.size());
+        VenteEvent ventes = fond.ventes.get(0);
+        assertEquals(List.of("ACH001", "ACH002"), ventes.getReferences());
+        assertEquals(1548, ventes.getMontantTotalCentimes());
+        assertEquals(839, ventes.getMontantRembourseCentimes());
+        assertEquals(2, ventes.getStocks().size());
+        assertEquals(-3, ventes.getStocks().get(0).getVariation());
+        assertEquals(97, ventes.getStocks().get(0).getNouvelleQuantite());
+        assertEquals(-4, ventes.getVariationStockTotale());
+        assertEquals(1, fond.variationClients.get());
+        // Aucun recomptage : les méthodes typées remplacent les rafraîchissements complets
+        assertEquals(0, fond.stocks.get());
+        assertEquals(0, fond.clients.get());
+    }
+
+    @Test
+    public void testSignalNonTypeCouvreLesVariations() throws Exception {
+        DataEventManager bus = new DataEventManager(1024, 500);
+        Compteur fond = new Compteur(DataRefreshListener.Livraison.TACHE_DE_FOND);
+        bus.addListener(fond);
+
+        bus.publier(new StockEvent(List.of(new VariationStock("Doliprane", 10, 110))));
+        bus.fireEvent(DataEventManager.EventType.STOCK_UPDATED);
+        assertTrue(bus.attendreDistribution(5_000));
+
+        assertTrue(fond.variations.isEmpty());
+        assertEquals(1, fond.stocks.get());
+    }
+
+    @Test
+    public void testRafaleRegroupeeEnUneLivraison() throws Exception {
+        DataEventManager bus = new DataEventManager(1024, 500);
+        Compteur edt = new Compteur(DataRefreshListener.Livraison.EDT);
+        Compteur fond = new Compteur(DataRefreshListener.Livraison.TACHE_DE_FOND);
+        bus.addListener(edt);
+        bus.addListener(fond);
+
+        for (int i = 0; i < 500; i++) {
+            bus.fireEvent(DataEventManager.EventType.STOCK_UPDATED);
+        }
+        bus.fireEvent(DataEventManager.EventType.CLIENT_ADDED);
+        assertTrue(bus.attendreDistribution(5_000));
+
+        assertEquals(1, edt.stocks.get());
+        assertEquals(1, fond.stocks.get());
+        assertEquals(1, edt.clients.get());
+        assertFalse(edt.horsEdt.get(), "écouteur EDT notifié hors de l'EDT");
+        assertFalse(fond.horsEdt.get(), "écouteur de fond notifié sur l'EDT");
+    }
+
+    @Test
+    public void testFilePleineSansPerteNiBlocage() throws Exception {
+        DataEventManager bus = new DataEventManager(4, 200);
+        Compteur fond = new Compteur(DataRefreshListener.Livraison.TACHE_DE_FOND);
+        bus.addListener(fond);
+
+        for (int i = 1; i <= 100; i++) {
+            bus.fireEvent(DataEventManager.EventType.CLIENT_ADDED);
+            bus.fireEvent(DataEventManager.EventType.STOCK_UPDATED);
+        }
+        assertTrue(bus.attendreDistribution(5_000));
+
+        assertTrue(fond.clients.get() >= 1 && fond.clients.get() < 100);
+        assertTrue(fond.stocks.get() >= 1 && fond.stocks.get() < 100);
+    }
+
+    @Test
+    public void testDebordementLivreDansLOrdreDEmission() throws Exception {
+        DataEventManager bus = new DataEventManager(2, 200);
+        Compteur fond = new Compteur(DataRefreshListener.Livraison.TACHE_DE_FOND);
+        bus.addListener(fond);
+
+        for (int i = 1; i <= 50; i++) {
+            bus.publier(new StockEvent(List.of(new VariationStock("Doliprane", -1, 100 - i))));
+        }
+        assertTrue(bus.attendreDistribution(5_000));
+
+        // Le dernier état livré est le dernier émis, et aucune variation n'est perdue
+        StockEvent dernier = fond.variations.get(fond.variations.size() - 1);
+        assertEquals(50, dernier.getVariations().get(0).getNouvelleQuantite());
+        int total = 0;
+        for (StockEvent stock : fond.variations) {
+            total += stock.getVariationTotale();
+        }
+        assertEquals(-50, total);
+    }
+}
@@ -0,0 +1,156 @@
+package test;
+
+import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+import main.model.Medicament.TypeAchat;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.TypeTransaction.Achat;
+import main.model.persistance.CsvVentes;
+import main.model.service.GestPharmacieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexSecondairesTest {
+
+    @TempDir
+    Path dossier;
+
+    private GestPharmacieService service;
+    private Client martin;
+    private Client durand;
+    private Medecin dupont;
+    private Medecin leroy;
+    private Pharmacien pharmacien;
+    private Medicament doliprane;
+
+    @BeforeEach
+    public void setUp() {
+        service = new GestPharmacieService(new CsvVentes(dossier.resolve("achats.csv")));
+        martin = new Client("Martin", "Pierre", "12 Rue de Paris", "75000", "Paris",
+                "0123456789", "pierre.martin@example.com", "CL001", "123456789012345", null, null);
+        durand = new Client("Durand", "Paul", "14 Rue de Marseille", "13000", "Marseille",
+                "0987654321", "paul.durand@example.com", "CL002", "197035767242191", null, null);
+        dupont = new Medecin("Dupont", "Jean", "10 Rue des Docteurs", "75000", "Paris",
+                "0123456789", "jean.dupont@example.com", "MED001", "12345678901");
+        leroy = new Medecin("Leroy", "Anne", "3 Rue des Docteurs", "75000", "Paris",
+                "0123456780", "anne.leroy@example.com", "MED002", "10987654321");
+        pharmacien = new Pharmacien("Blanc", "Luc", "1 Place de la Gare", "75000", "Paris",
+                "0123456789", "luc.blanc@example.com", "PH001", "12345678912", "Pharmacie Centrale", new Date());
+        Date aujourdHui = new Date();
+        doliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 100,
+                aujourdHui, new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000));
+    }
+
+    private Achat achat(Client client, String reference) {
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(doliprane, 1);
+        return new Achat(new Date(), client, pharmacien, reference, TypeAchat.DIRECT,
+                new ArrayList<>(Collections.singletonList(doliprane)), quantites);
+    }
+
+    private Ordonnance ordonnance(Medecin medecin, Client patient, String reference) {
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(doliprane, 2);
+        return new Ordonnance(new Date(), medecin, patient,
+                new ArrayList<>(Collections.singletonList(doliprane)), quantites, reference);
+    }
+
+    @Test
+    public void testAchatsParClientEtReference() {
+        Achat a1 = achat(martin, "ACH001");
+        Achat a2 = achat(durand, "ACH002");
+        Achat a3 = achat(martin, "ACH003");
+        service.enregistrerAchat(a1);
+        service.enregistrerAchat(a2);
+        service.enregistrerAchat(a3);
+
+        assertEquals(Arrays.asList(a1, a3), service.getAchatsParClient(martin));
+        assertEquals(Collections.singletonList(a2), service.getAchatsParClient(durand));
+        assertSame(a2, service.getAchatParReference("ACH002").orElse(null));
+        assertFalse(service.getAchatParReference("ACH999").isPresent());
+    }
+
+    @Test
+    public void testOrdonnancesParClientMedecinEtReference() {
+        Ordonnance o1 = ordonnance(dupont, martin, "ORD001");
+        Ordonnance o2 = ordonnance(leroy, martin, "ORD002");
+        Ordonnance o3 = ordonnance(dupont, durand, "ORD003");
+        service.enregistrerOrdonnance(o1);
+        service.enregistrerOrdonnance(o2);
+        service.enregistrerOrdonnance(o3);
+
+        assertEquals(Arrays.asList(o1, o2), service.getOrdonnancesParClient(martin));
+        assertEquals(Arrays.asList(o1, o3), service.getOrdonnancesParMedecin(dupont));
+        assertEquals(Collections.singletonList(o2), service.getOrdonnancesParMedecin(leroy));
+        assertSame(o3, service.rechercherOrdonnance(" ORD003 ").orElse(null));
+        assertThrows(IllegalArgumentException.class, () -> service.enregistrerOrdonnance(null));
+    }
+
+    @Test
+    public void testAchatsParMedecinViaLienOrdonnance() {
+        Ordonnance o1 = ordonnance(dupont, martin, "ORD001");
+        Ordonnance o2 = ordonnance(leroy, durand, "ORD002");
+        service.enregistrerOrdonnance(o1);
+
+        Achat direct = achat(martin, "ACH001");
+        Achat surO1 = achat(martin, "ACH002");
+        surO1.setReferenceOrdonnance("ORD001");
+        Achat surO2 = achat(durand, "ACH003");
+        surO2.setReferenceOrdonnance("ORD002");
+        service.enregistrerAchat(direct);
+        service.enregistrerAchat(surO1);
+        service.enregistrerAchat(surO2);
+        // Ordonnance enregistrée après son achat : le lien est résolu à ce moment
+        service.enregistrerOrdonnance(o2);
+
+        assertEquals(Collections.singletonList(surO1), service.getAchatsParMedecin(dupont));
+        assertEquals(Collections.singletonList(surO2), service.getAchatsParMedecin(leroy));
+        assertEquals(Collections.singletonList(surO2), service.getAchatsParOrdonnance("ORD002"));
+    }
+
+    @Test
+    public void testVenteOrdonnanceEnregistreeEnUnAppel() {
+        Ordonnance o1 = ordonnance(dupont, martin, "ORD001");
+        Achat autre = achat(martin, "ACH001");
+        autre.setReferenceOrdonnance("ORD999");
+        // Achat qui ne désigne pas l'ordonnance : ni l'un ni l'autre n'est enregistré
+        assertThrows(IllegalArgumentException.class, () -> service.enregistrerVenteOrdonnance(o1, autre));
+        assertFalse(service.rechercherOrdonnance("ORD001").isPresent());
+        assertFalse(service.getAchatParReference("ACH001").isPresent());
+
+        Achat surO1 = achat(martin, "ACH002");
+        surO1.setReferenceOrdonnance("ORD001");
+        service.enregistrerVenteOrdonnance(o1, surO1);
+        assertSame(o1, service.rechercherOrdonnance("ORD001").orElse(null));
+        assertEquals(Collections.singletonList(surO1), service.getAchatsParMedecin(dupont));
+        assertEquals(Collections.singletonList(surO1), service.getAchatsParOrdonnance("ORD001"));
+    }
+
+    @Test
+    public void testAchatsParLotPourRappel() {
+        long peremption = doliprane.getInstantPeremption();
+        Achat a1 = achat(martin, "ACH001");
+        a1.setLots(Arrays.asList(new Lot("Doliprane", "L1", peremption, 1)));
+        Achat a2 = achat(durand, "ACH002");
+        a2.setLots(Arrays.asList(new Lot("Doliprane", "L2", peremption, 1)));
+        Achat a3 = achat(durand, "ACH003");
+        a3.setLots(Arrays.asList(new Lot("Doliprane", "L1", peremption, 1)));
+        service.enregistrerAchat(a1);
+        service.enregistrerAchat(a2);
+        service.enregistrerAchat(a3);
+
+        assertEquals(Arrays.asList(a1, a3), service.getAchatsParLot("DOLIPRANE", "L1"));
+        assertEquals(Collections.singletonList(a2), service.getAchatsParLot("Doliprane", "L2"));
+        assertTrue(service.getAchatsParLot("Doliprane", "L3").isEmpty());
+    }
+}
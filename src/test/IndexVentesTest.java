@@ -0,0 +1,60 @@
+package test;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.EnregistrementVente;
+import main.model.service.BilanVentes;
+import main.model.service.IndexVentes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexVentesTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Paris");
+    private IndexVentes index;
+
+    private static long ts(int jour, int heure) {
+        return LocalDateTime.of(2025, 3, jour, heure, 0).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        index = new IndexVentes(ZONE);
+        index.ajouter(new EnregistrementVente(ts(1, 9), 1000, 700, TypeAchat.ORDONNANCE, "ACH1"));
+        index.ajouter(new EnregistrementVente(ts(1, 18), 500, 0, TypeAchat.DIRECT, "ACH2"));
+        index.ajouter(new EnregistrementVente(ts(2, 12), 250, 0, TypeAchat.DIRECT, "ACH3"));
+        index.ajouter(new EnregistrementVente(ts(3, 10), 4000, 2800, TypeAchat.ORDONNANCE, "ACH4"));
+        index.ajouter(new EnregistrementVente(ts(3, 20), 100, 0, TypeAchat.DIRECT, "ACH5"));
+    }
+
+    @Test
+    public void testAgregerPeriodeComplete() {
+        BilanVentes bilan = index.agreger(ts(1, 0), ts(3, 23));
+        assertEquals(5, bilan.getNombreVentes());
+        assertEquals(5850, bilan.getMontantTotalCentimes());
+        assertEquals(3500, bilan.getMontantRembourseCentimes());
+    }
+
+    @Test
+    public void testAgregerJoursDeBordurePartiels() {
+        BilanVentes bilan = index.agreger(ts(1, 12), ts(3, 12));
+        assertEquals(3, bilan.getNombreVentes());
+        assertEquals(500 + 250 + 4000, bilan.getMontantTotalCentimes());
+        assertEquals(2800, bilan.getMontantRembourseCentimes());
+    }
+
+    @Test
+    public void testAgregerJour() {
+        long jour = index.numeroJour(ts(3, 10));
+        assertEquals(2, index.agregerJour(jour).getNombreVentes());
+        assertEquals(BilanVentes.VIDE.getNombreVentes(), index.agregerJour(jour + 10).getNombreVentes());
+    }
+
+    @Test
+    public void testPeriodeInversee() {
+        assertEquals(0, index.agreger(ts(3, 0), ts(1, 0)).getNombreVentes());
+    }
+}
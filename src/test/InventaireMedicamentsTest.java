@@ -0,0 +1,454 @@
+package test;
+
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+import main.model.service.InventaireMedicaments;
+import main.model.service.MouvementStock;
+import main.model.service.ReservationStock;
+import main.model.service.StatutStock;
+import main.model.service.TypeMouvementStock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventaireMedicamentsTest {
+
+    private InventaireMedicaments inventaire;
+    private Medicament doliprane;
+    private Medicament aspirine;
+
+    @BeforeEach
+    public void setUp() {
+        inventaire = new InventaireMedicaments();
+        Date aujourdHui = new Date();
+        Date peremption = new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000);
+        doliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 1000, aujourdHui, peremption);
+        aspirine = new Medicament("Aspirine", CategorieMedicament.ANALGESIQUES, 3.50, 10, aujourdHui, peremption);
+        inventaire.ajouter(doliprane);
+    }
+
+    private static Map<Medicament, Integer> panier(Medicament a, int qa, Medicament b, int qb) {
+        Map<Medicament, Integer> lignes = new HashMap<>();
+        lignes.put(a, qa);
+        lignes.put(b, qb);
+        return lignes;
+    }
+
+    @Test
+    public void testRechercheInsensibleALaCasse() {
+        assertTrue(inventaire.rechercher("DOLIPRANE").isPresent());
+        assertFalse(inventaire.rechercher("Aspirine").isPresent());
+        assertFalse(inventaire.retirer("Aspirine", 1));
+    }
+
+    @Test
+    public void testRetraitRefuseSansToucherAuStock() {
+        assertTrue(inventaire.retirer("doliprane", 400));
+        assertFalse(inventaire.retirer("doliprane", 601));
+        assertEquals(600, inventaire.getStockTotal());
+        assertTrue(inventaire.restituer("doliprane", 10));
+        assertEquals(610, inventaire.rechercher("doliprane").get().getQuantiteStock());
+    }
+
+    @Test
+    public void testVentesConcurrentesSansSurvente() throws Exception {
+        int caisses = 8;
+        int tentativesParCaisse = 500;
+        ExecutorService executeur = Executors.newFixedThreadPool(caisses);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Integer>> resultats = new ArrayList<>();
+        for (int c = 0; c < caisses; c++) {
+            resultats.add(executeur.submit(() -> {
+                depart.await();
+                int vendus = 0;
+                for (int i = 0; i < tentativesParCaisse; i++) {
+                    if (inventaire.retirer("Doliprane", 1)) {
+                        vendus++;
+                    }
+                }
+                return vendus;
+            }));
+        }
+        depart.countDown();
+        int totalVendus = 0;
+        for (Future<Integer> resultat : resultats) {
+            totalVendus += resultat.get();
+        }
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, totalVendus);
+        assertEquals(0, inventaire.getStockTotal());
+        assertEquals(1, inventaire.getNombreRuptures());
+    }
+
+    @Test
+    public void testReservationToutOuRien() {
+        inventaire.ajouter(aspirine);
+        Medicament.StockInsuffisantException e = assertThrows(Medicament.StockInsuffisantException.class,
+                () -> inventaire.reserver(panier(doliprane, 5, aspirine, 11)));
+        assertTrue(e.getMessage().contains("Aspirine"));
+        assertEquals(1000, doliprane.getQuantiteStock());
+        assertEquals(10, aspirine.getQuantiteStock());
+    }
+
+    @Test
+    public void testReservationAnnuleeOuConfirmee() {
+        inventaire.ajouter(aspirine);
+        try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 5, aspirine, 2))) {
+            assertFalse(reservation.estConfirmee());
+            assertEquals(995, doliprane.getQuantiteStock());
+            assertEquals(8, aspirine.getQuantiteStock());
+        }
+        assertEquals(1000, doliprane.getQuantiteStock());
+        assertEquals(10, aspirine.getQuantiteStock());
+
+        try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 5, aspirine, 2))) {
+            reservation.confirmer();
+        }
+        assertEquals(995, doliprane.getQuantiteStock());
+        assertEquals(8, aspirine.getQuantiteStock());
+    }
+
+    @Test
+    public void testPaniersConcurrentsSansReservationPartielle() throws Exception {
+        aspirine.setQuantiteStock(300);
+        inventaire.ajouter(aspirine);
+        int caisses = 8;
+        ExecutorService executeur = Executors.newFixedThreadPool(caisses);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Integer>> resultats = new ArrayList<>();
+        for (int c = 0; c < caisses; c++) {
+            resultats.add(executeur.submit(() -> {
+                depart.await();
+                int paniers = 0;
+                for (int i = 0; i < 200; i++) {
+                    try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 3, aspirine, 1))) {
+                        reservation.confirmer();
+                        paniers++;
+                    } catch (Medicament.StockInsuffisantException e) {
+                        // panier refusé : aucune ligne ne doit rester réservée
+                    }
+                }
+                return paniers;
+            }));
+        }
+        depart.countDown();
+        int totalPaniers = 0;
+        for (Future<Integer> resultat : resultats) {
+            totalPaniers += resultat.get();
+        }
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(300, totalPaniers);
+        assertEquals(1000 - 3 * totalPaniers, doliprane.getQuantiteStock());
+        assertEquals(0, aspirine.getQuantiteStock());
+    }
+
+    @Test
+    public void testAnnulationApresRemplacementDuMedicament() {
+        inventaire.ajouter(aspirine);
+        ReservationStock reservation = inventaire.reserver(panier(doliprane, 5, aspirine, 2));
+        Date aujourdHui = new Date();
+        Medicament nouveau = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 6.20, 995,
+                aujourdHui, new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000));
+        inventaire.ajouter(nouveau);
+
+        // Le stock réservé revient à la fiche courante du médicament
+        reservation.annuler();
+        assertEquals(1000, nouveau.getQuantiteStock());
+        assertEquals(10, aspirine.getQuantiteStock());
+        assertEquals(1010, inventaire.getStockTotal());
+    }
+
+    @Test
+    public void testVentesPendantLesRemplacements() throws Exception {
+        int caisses = 4;
+        ExecutorService executeur = Executors.newFixedThreadPool(caisses + 1);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<Integer>> resultats = new ArrayList<>();
+        for (int c = 0; c < caisses; c++) {
+            resultats.add(executeur.submit(() -> {
+                depart.await();
+                int vendus = 0;
+                for (int i = 0; i < 200; i++) {
+                    if (inventaire.retirer("Doliprane", 1)) {
+                        vendus++;
+                    }
+                }
+                return vendus;
+            }));
+        }
+        Future<?> remplacements = executeur.submit(() -> {
+            depart.await();
+            Date aujourdHui = new Date();
+            for (int i = 0; i < 200; i++) {
+                inventaire.ajouter(new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 1000,
+                        aujourdHui, new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000)));
+            }
+            return null;
+        });
+        depart.countDown();
+        for (Future<Integer> resultat : resultats) {
+            resultat.get();
+        }
+        remplacements.get();
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Aucune vente n'a porté sur une fiche déjà remplacée : index et registre suivent la fiche courante
+        Medicament courant = inventaire.rechercher("Doliprane").get();
+        assertEquals(courant.getQuantiteStock(), inventaire.getStockTotal());
+        List<MouvementStock> mouvements = inventaire.getMouvements("Doliprane");
+        assertEquals(courant.getQuantiteStock(), mouvements.get(mouvements.size() - 1).getStockApres());
+        int somme = 0;
+        for (MouvementStock mouvement : mouvements) {
+            somme += mouvement.getQuantite();
+        }
+        assertEquals(courant.getQuantiteStock(), somme);
+        int enLots = 0;
+        for (Lot lot : inventaire.getLots("Doliprane")) {
+            enLots += lot.getQuantite();
+        }
+        assertEquals(courant.getQuantiteStock(), enLots);
+    }
+
+    @Test
+    public void testRegistreDesMouvements() {
+        inventaire.ajouter(aspirine);
+        assertTrue(inventaire.retirer("Aspirine", 3));
+        assertTrue(inventaire.modifierStock("aspirine", 20));
+        assertTrue(inventaire.modifierStock("aspirine", 18));
+        try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 1, aspirine, 2))) {
+            // annulée à la fermeture
+            assertEquals(2, reservation.getLignes().get(aspirine));
+        }
+
+        List<MouvementStock> mouvements = inventaire.getMouvements("ASPIRINE");
+        assertEquals(6, mouvements.size());
+        assertEquals(TypeMouvementStock.REFERENCEMENT, mouvements.get(0).getType());
+        assertEquals(TypeMouvementStock.VENTE, mouvements.get(1).getType());
+        assertEquals(-3, mouvements.get(1).getQuantite());
+        assertEquals(TypeMouvementStock.REASSORT, mouvements.get(2).getType());
+        assertEquals(13, mouvements.get(2).getQuantite());
+        assertEquals(TypeMouvementStock.CORRECTION, mouvements.get(3).getType());
+        assertEquals(-2, mouvements.get(3).getQuantite());
+        assertEquals(TypeMouvementStock.VENTE, mouvements.get(4).getType());
+        assertEquals(TypeMouvementStock.ANNULATION, mouvements.get(5).getType());
+        assertEquals(18, mouvements.get(5).getStockApres());
+        assertEquals(18, aspirine.getQuantiteStock());
+    }
+
+    @Test
+    public void testRegistreCoherentSousConcurrence() throws Exception {
+        int caisses = 8;
+        ExecutorService executeur = Executors.newFixedThreadPool(caisses);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<?>> resultats = new ArrayList<>();
+        for (int c = 0; c < caisses; c++) {
+            final boolean reassort = c % 2 == 0;
+            resultats.add(executeur.submit(() -> {
+                depart.await();
+                for (int i = 0; i < 300; i++) {
+                    if (reassort) {
+                        inventaire.restituer("Doliprane", 2);
+                    } else {
+                        inventaire.retirer("Doliprane", 3);
+                    }
+                }
+                return null;
+            }));
+        }
+        depart.countDown();
+        for (Future<?> resultat : resultats) {
+            resultat.get();
+        }
+        executeur.shutdown();
+        assertTrue(executeur.awaitTermination(10, TimeUnit.SECONDS));
+
+        int stock = 0;
+        for (MouvementStock mouvement : inventaire.getMouvements("Doliprane")) {
+            stock += mouvement.getQuantite();
+            assertEquals(stock, mouvement.getStockApres());
+            assertTrue(stock >= 0);
+        }
+        assertEquals(doliprane.getQuantiteStock(), stock);
+    }
+
+    @Test
+    public void testIndexRupturesEtStocksBas() {
+        inventaire.ajouter(aspirine);
+        assertEquals(0, inventaire.getNombreRuptures());
+        assertEquals(0, inventaire.getNombreStocksBas());
+        assertEquals(1010, inventaire.getStockTotal());
+
+        assertTrue(inventaire.retirer("Aspirine", 4));
+        assertEquals(1, inventaire.getNombreStocksBas());
+        assertEquals(StatutStock.STOCK_BAS, inventaire.getStatut(aspirine, System.currentTimeMillis()));
+
+        assertTrue(inventaire.retirer("Aspirine", 6));
+        assertEquals(1, inventaire.getNombreRuptures());
+        assertEquals(0, inventaire.getNombreStocksBas());
+        assertSame(aspirine, inventaire.getRuptures().get(0));
+        assertEquals(StatutStock.RUPTURE, inventaire.getStatut(aspirine, System.currentTimeMillis()));
+
+        assertTrue(inventaire.modifierStock("aspirine", 50));
+        assertEquals(0, inventaire.getNombreRuptures());
+        inventaire.setSeuilStockBas(60);
+        assertEquals(1, inventaire.getNombreStocksBas());
+        assertEquals(1050, inventaire.getStockTotal());
+    }
+
+    @Test
+    public void testEcheancierDesPeremptions() {
+        inventaire.ajouter(aspirine);
+        long maintenant = System.currentTimeMillis();
+        assertTrue(inventaire.getExpirantAvant(maintenant + InventaireMedicaments.DELAI_EXPIRATION_PROCHE_MS).isEmpty());
+
+        assertTrue(inventaire.modifierDatePeremption("Aspirine", new Date(maintenant + 10L * 24 * 3600 * 1000)));
+        List<Medicament> bientot = inventaire.getExpirantAvant(maintenant + InventaireMedicaments.DELAI_EXPIRATION_PROCHE_MS);
+        assertEquals(1, bientot.size());
+        assertSame(aspirine, bientot.get(0));
+        assertEquals(StatutStock.EXPIRE_BIENTOT, inventaire.getStatut(aspirine, maintenant));
+        assertEquals(StatutStock.PERIME, inventaire.getStatut(aspirine, maintenant + 11L * 24 * 3600 * 1000));
+        assertEquals(StatutStock.OK, inventaire.getStatut(doliprane, maintenant));
+
+        List<Medicament> annee = inventaire.getExpirantAvant(maintenant + 400L * 24 * 3600 * 1000);
+        assertEquals(2, annee.size());
+        assertSame(aspirine, annee.get(0));
+    }
+
+    @Test
+    public void testPrelevementPremierPerimePremierSorti() {
+        inventaire.ajouter(aspirine);
+        long jour = 24L * 3600 * 1000;
+        long maintenant = System.currentTimeMillis();
+        assertTrue(inventaire.receptionnerLot("Aspirine", "B-200", 5, new Date(maintenant + 90 * jour)));
+        assertTrue(inventaire.receptionnerLot("Aspirine", "A-100", 4, new Date(maintenant + 60 * jour)));
+        // Lot implicite (stock initial) : péremption à un an, donc consommé en dernier
+        assertEquals(19, aspirine.getQuantiteStock());
+        assertEquals("A-100", inventaire.getLots("aspirine").get(0).getNumero());
+
+        List<Lot> preleves;
+        try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 1, aspirine, 6))) {
+            preleves = new ArrayList<>();
+            for (Lot lot : reservation.getLots()) {
+                if (lot.getNomMedicament().equals("Aspirine")) {
+                    preleves.add(lot);
+                }
+            }
+            reservation.confirmer();
+        }
+        assertEquals(2, preleves.size());
+        assertEquals("A-100", preleves.get(0).getNumero());
+        assertEquals(4, preleves.get(0).getQuantite());
+        assertEquals("B-200", preleves.get(1).getNumero());
+        assertEquals(2, preleves.get(1).getQuantite());
+
+        List<Lot> restants = inventaire.getLots("Aspirine");
+        assertEquals(2, restants.size());
+        assertEquals("B-200", restants.get(0).getNumero());
+        assertEquals(3, restants.get(0).getQuantite());
+    }
+
+    @Test
+    public void testAnnulationRendLesLotsDOrigine() {
+        inventaire.ajouter(aspirine);
+        long maintenant = System.currentTimeMillis();
+        assertTrue(inventaire.receptionnerLot("Aspirine", "A-100", 4, new Date(maintenant + 24L * 3600 * 1000 * 60)));
+        try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 1, aspirine, 5))) {
+            assertFalse(reservation.getLots().isEmpty());
+            assertEquals(0, inventaire.getLots("Aspirine").stream()
+                    .filter(lot -> lot.getNumero().equals("A-100")).count());
+        }
+        List<Lot> lots = inventaire.getLots("Aspirine");
+        assertEquals("A-100", lots.get(0).getNumero());
+        assertEquals(4, lots.get(0).getQuantite());
+        assertEquals(14, aspirine.getQuantiteStock());
+    }
+
+    @Test
+    public void testLotsPerimesJamaisVendus() {
+        inventaire.ajouter(aspirine);
+        long jour = 24L * 3600 * 1000;
+        long maintenant = System.currentTimeMillis();
+        assertThrows(IllegalArgumentException.class,
+                () -> inventaire.receptionnerLot("Aspirine", "P-001", 5, new Date(maintenant - jour)));
+
+        // Le lot implicite (10 unités) suit la date du médicament, désormais passée
+        assertTrue(inventaire.modifierDatePeremption("Aspirine", new Date(maintenant - jour)));
+        assertTrue(inventaire.receptionnerLot("Aspirine", "A-100", 4, new Date(maintenant + 60 * jour)));
+        assertFalse(inventaire.retirer("Aspirine", 5));
+        assertEquals(14, aspirine.getQuantiteStock());
+
+        try (ReservationStock reservation = inventaire.reserver(panier(doliprane, 1, aspirine, 4))) {
+            assertEquals(List.of("A-100"), reservation.getLots().stream()
+                    .filter(lot -> lot.getNomMedicament().equals("Aspirine")).map(Lot::getNumero).collect(Collectors.toList()));
+            reservation.confirmer();
+        }
+        assertThrows(Medicament.StockInsuffisantException.class,
+                () -> inventaire.reserver(panier(doliprane, 1, aspirine, 1)));
+
+        // Une correction d'inventaire retire d'abord les unités périmées
+        assertTrue(inventaire.modifierStock("Aspirine", 0));
+        assertTrue(inventaire.getLots("Aspirine").isEmpty());
+    }
+
+    @Test
+    public void testStatutSuitLesLotsNumerotes() {
+        long jour = 24L * 3600 * 1000;
+        long maintenant = System.currentTimeMillis();
+        assertTrue(inventaire.receptionnerLot("Doliprane", "L-009", 5, new Date(maintenant + 10 * jour)));
+        assertEquals(StatutStock.EXPIRE_BIENTOT, inventaire.getStatut(doliprane, maintenant));
+        // Le lot périmé est invendable : le médicament l'est en partie, quelle que soit sa propre date
+        assertEquals(StatutStock.PERIME, inventaire.getStatut(doliprane, maintenant + 11 * jour));
+
+        assertTrue(inventaire.retirer("Doliprane", 5));
+        assertEquals(StatutStock.OK, inventaire.getStatut(doliprane, maintenant));
+    }
+
+    @Test
+    public void testLotsDansLEcheancierEtConservesAuRemplacement() {
+        inventaire.ajouter(aspirine);
+        long jour = 24L * 3600 * 1000;
+        long maintenant = System.currentTimeMillis();
+        assertTrue(inventaire.receptionnerLot("Aspirine", "A-100", 4, new Date(maintenant + 20 * jour)));
+        List<Medicament> bientot = inventaire.getExpirantAvant(maintenant + InventaireMedicaments.DELAI_EXPIRATION_PROCHE_MS);
+        assertEquals(List.of(aspirine), bientot);
+        assertEquals(2, inventaire.getExpirantAvant(maintenant + 400 * jour).size());
+
+        Medicament remplacant = new Medicament("Aspirine", CategorieMedicament.ANALGESIQUES, 3.90, 12,
+                new Date(maintenant), new Date(maintenant + 365 * jour));
+        inventaire.ajouter(remplacant);
+        List<Lot> lots = inventaire.getLots("Aspirine");
+        assertEquals("A-100", lots.get(0).getNumero());
+        assertEquals(4, lots.get(0).getQuantite());
+        assertEquals(8, lots.get(1).getQuantite());
+
+        // Stock inférieur aux lots repris : le lot le plus proche de sa péremption est entamé
+        inventaire.ajouter(new Medicament("Aspirine", CategorieMedicament.ANALGESIQUES, 3.90, 3,
+                new Date(maintenant), new Date(maintenant + 365 * jour)));
+        lots = inventaire.getLots("Aspirine");
+        assertEquals(1, lots.size());
+        assertEquals(3, lots.get(0).getQuantite());
+        assertEquals(3, inventaire.getStockTotal() - 1000);
+
+        inventaire.modifierStock("Aspirine", 0);
+        assertTrue(inventaire.getExpirantAvant(maintenant + InventaireMedicaments.DELAI_EXPIRATION_PROCHE_MS).isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package test;
+
+import main.model.service.ListeAjouts;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListeAjoutsTest {
+
+    @Test
+    public void testAjoutsSurPlusieursBlocs() {
+        ListeAjouts<Integer> liste = new ListeAjouts<>();
+        for (int i = 0; i < 2500; i++) {
+            assertEquals(i, liste.ajouter(i));
+        }
+        liste.ajouterTous(Arrays.asList(2500, 2501, 2502));
+        assertEquals(2503, liste.taille());
+        assertEquals(Integer.valueOf(1024), liste.get(1024));
+        assertEquals(Integer.valueOf(2502), liste.get(2502));
+        assertThrows(IndexOutOfBoundsException.class, () -> liste.get(2503));
+
+        int attendu = 0;
+        for (int valeur : liste) {
+            assertEquals(attendu++, valeur);
+        }
+        assertEquals(2503, attendu);
+    }
+
+    @Test
+    public void testLecteursSurPrefixePublie() {
+        ListeAjouts<String> liste = new ListeAjouts<>();
+        liste.ajouter("a");
+        liste.ajouter("b");
+        List<String> vue = liste.vue();
+        Iterator<String> parcours = liste.iterator();
+        liste.ajouter("c");
+
+        assertEquals(Arrays.asList("a", "b"), vue);
+        assertThrows(UnsupportedOperationException.class, () -> vue.add("d"));
+        assertEquals("a", parcours.next());
+        assertEquals("b", parcours.next());
+        assertFalse(parcours.hasNext());
+        assertEquals(3, liste.vue().size());
+    }
+
+    @Test
+    public void testAjoutEnEchecNeBloquePasLesSuivants() {
+        ListeAjouts<String> liste = new ListeAjouts<>();
+        liste.ajouter("a");
+        List<String> defaillante = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                throw new IllegalStateException("lecture impossible");
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> liste.ajouterTous(defaillante));
+
+        // Rien n'a été réservé : l'ajout suivant publie aussitôt, sans case vide
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(5), () -> liste.ajouter("b"));
+        assertEquals(Arrays.asList("a", "b"), liste.vue());
+    }
+
+    @Test
+    public void testAjoutsConcurrents() throws InterruptedException {
+        ListeAjouts<Integer> liste = new ListeAjouts<>();
+        int threads = 4;
+        int parThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch depart = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int base = t * parThread;
+            executor.submit(() -> {
+                depart.await();
+                for (int i = 0; i < parThread; i++) {
+                    if (i % 100 == 0) {
+                        liste.ajouterTous(Arrays.asList(base + i, base + i + 1));
+                        i++;
+                    } else {
+                        liste.ajouter(base + i);
+                    }
+                    // Le préfixe publié ne contient jamais de case vide
+                    int taille = liste.taille();
+                    assertNotNull(liste.get(taille - 1));
+                }
+                return null;
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * parThread, liste.taille());
+        BitSet vus = new BitSet();
+        for (int valeur : liste) {
+            assertFalse(vus.get(valeur));
+            vus.set(valeur);
+        }
+        assertEquals(threads * parThread, vus.cardinality());
+    }
+}
@@ -0,0 +1,102 @@
+package test;
+
+import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Medicament;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.service.GestPharmacieService;
+import main.model.service.InventaireMedicaments;
+import main.model.service.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaginationAnnuairesTest {
+
+    private GestPharmacieService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new GestPharmacieService(new StockageMemoire());
+    }
+
+    private Client client(String identifiant) {
+        return new Client("Martin", "Pierre", "12 Rue de Paris", "75000", "Paris",
+                "0123456789", "pierre.martin@example.com", identifiant, "123456789012345", null, null);
+    }
+
+    @Test
+    public void testPagesClientsParCurseur() {
+        // Insérés dans le désordre : les pages suivent l'ordre des identifiants
+        for (int i = 25; i >= 1; i--) {
+            service.ajouterClient(client(String.format("CL%03d", i)));
+        }
+
+        Page<Client> premiere = service.getPageClients(null, 10);
+        assertEquals(10, premiere.getElements().size());
+        assertEquals("CL001", premiere.getElements().get(0).getIdentifiant());
+        assertEquals("CL010", premiere.getCurseurSuivant());
+
+        // Un client ajouté avant le curseur ne décale pas la suite
+        service.ajouterClient(client("CL000"));
+        Page<Client> deuxieme = service.getPageClients(premiere.getCurseurSuivant(), 10);
+        assertEquals("CL011", deuxieme.getElements().get(0).getIdentifiant());
+
+        Page<Client> derniere = service.getPageClients(deuxieme.getCurseurSuivant(), 10);
+        assertEquals(5, derniere.getElements().size());
+        assertFalse(derniere.aUneSuite());
+        assertNull(derniere.getCurseurSuivant());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getPageClients(null, 0));
+    }
+
+    @Test
+    public void testVuesSansCopie() {
+        service.ajouterClient(client("CL002"));
+        Collection<Client> vue = service.vueClients();
+        service.ajouterClient(client("CL001"));
+        assertEquals(2, vue.size());
+        assertEquals("CL001", vue.iterator().next().getIdentifiant());
+        assertThrows(UnsupportedOperationException.class, () -> vue.remove(vue.iterator().next()));
+
+        service.ajouterMedecin(new Medecin("Dupont", "Jean", "10 Rue des Docteurs", "75000", "Paris",
+                "0123456789", "jean.dupont@example.com", "MED001", "12345678901"));
+        assertEquals(1, service.vueMedecins().size());
+        assertEquals("12345678901", service.getPageMedecins(null, 5).getElements().get(0).getNumeroRPPS());
+    }
+
+    @Test
+    public void testPagesInventaireEtOrdonnances() {
+        Date aujourdHui = new Date();
+        Date peremption = new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000);
+        InventaireMedicaments inventaire = service.getInventaire();
+        for (String nom : Arrays.asList("Smecta", "aspirine", "Doliprane")) {
+            inventaire.ajouter(new Medicament(nom, CategorieMedicament.ANALGESIQUES, 3.50, 10, aujourdHui, peremption));
+        }
+        Page<Medicament> page = inventaire.getPage(null, 2);
+        assertEquals("aspirine", page.getElements().get(0).getNom());
+        assertEquals("Doliprane", page.getElements().get(1).getNom());
+        assertEquals("Smecta", inventaire.getPage(page.getCurseurSuivant(), 2).getElements().get(0).getNom());
+        assertEquals(3, inventaire.vue().size());
+
+        Client patient = client("CL001");
+        service.ajouterClient(patient);
+        Medecin medecin = new Medecin("Dupont", "Jean", "10 Rue des Docteurs", "75000", "Paris",
+                "0123456789", "jean.dupont@example.com", "MED001", "12345678901");
+        Medicament doliprane = inventaire.rechercher("doliprane").orElseThrow();
+        for (int i = 1; i <= 5; i++) {
+            Map<Medicament, Integer> quantites = new HashMap<>();
+            quantites.put(doliprane, 1);
+            service.enregistrerOrdonnance(new Ordonnance(new Date(), medecin, patient,
+                    new ArrayList<>(Collections.singletonList(doliprane)), quantites, "ORD00" + i));
+        }
+        List<Ordonnance> ordonnances = service.getPageOrdonnances(3, 10);
+        assertEquals(2, ordonnances.size());
+        assertEquals("ORD004", ordonnances.get(0).getReference());
+        assertTrue(service.getPageOrdonnances(5, 10).isEmpty());
+    }
+}
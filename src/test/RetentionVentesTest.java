@@ -0,0 +1,165 @@
+package test;
+
+import main.model.Document.TypeDocument.Ordonnance;
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Medicament;
+import main.model.Medicament.TypeAchat;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Medecin;
+import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.TypeTransaction.Achat;
+import main.model.service.EtatRetention;
+import main.model.service.GestPharmacieService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetentionVentesTest {
+
+    @TempDir
+    Path dossier;
+
+    private GestPharmacieService service;
+    private Client martin;
+    private Medecin dupont;
+    private Pharmacien pharmacien;
+    private Medicament doliprane;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        service = new GestPharmacieService(new StockageMemoire());
+        service.configurerRetention(dossier, 2, 1);
+        martin = new Client("Martin", "Pierre", "12 Rue de Paris", "75000", "Paris",
+                "0123456789", "pierre.martin@example.com", "CL001", "123456789012345", null, null);
+        service.ajouterClient(martin);
+        dupont = new Medecin("Dupont", "Jean", "10 Rue des Docteurs", "75000", "Paris",
+                "0123456789", "jean.dupont@example.com", "MED001", "12345678901");
+        pharmacien = new Pharmacien("Blanc", "Luc", "1 Place de la Gare", "75000", "Paris",
+                "0123456789", "luc.blanc@example.com", "PH001", "12345678912", "Pharmacie Centrale", new Date());
+        Date aujourdHui = new Date();
+        doliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 100,
+                aujourdHui, new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.fermer();
+    }
+
+    private Achat achat(String reference, int boites, String referenceOrdonnance) {
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(doliprane, boites);
+        Achat achat = new Achat(new Date(), martin, pharmacien, reference, TypeAchat.ORDONNANCE,
+                new ArrayList<>(Collections.singletonList(doliprane)), quantites);
+        achat.setReferenceOrdonnance(referenceOrdonnance);
+        return achat;
+    }
+
+    @Test
+    public void testAchatsEvincesPuisRelus() {
+        for (int i = 1; i <= 5; i++) {
+            service.enregistrerAchat(achat("ACH00" + i, i, null));
+        }
+        EtatRetention etat = service.getEtatRetentionAchats();
+        assertEquals(2, etat.getNombreChauds());
+        assertEquals(3, etat.getNombreFroids());
+
+        Achat relu = service.getAchatParReference("ACH001").orElseThrow();
+        assertEquals("ACH001", relu.getReference());
+        assertEquals(599, relu.getMontantTotalCentimes());
+        assertEquals(1, relu.getLignes().getQuantite(0));
+        assertEquals(599, relu.getLignes().getPrixUnitaireCentimes(0));
+        assertEquals(martin, relu.getClient());
+        assertTrue(relu.getLignes().estFigees());
+
+        // Deuxième accès servi par le cache, premier accès à une autre vente froide : échec
+        assertSame(relu, service.getAchatParReference("ACH001").orElseThrow());
+        service.getAchatParReference("ACH002").orElseThrow();
+        etat = service.getEtatRetentionAchats();
+        assertEquals(1, etat.getSuccesCache());
+        assertEquals(2, etat.getEchecsCache());
+        assertEquals(1, etat.getNombreEnCache());
+
+        List<Achat> historique = service.getAchatsParClient(martin);
+        assertEquals(5, historique.size());
+        long total = 0;
+        for (Achat achat : historique) {
+            total += achat.getMontantTotalCentimes();
+        }
+        assertEquals(599 * 15, total);
+    }
+
+    @Test
+    public void testOrdonnancesEtLiensMedecinApresEviction() {
+        for (int i = 1; i <= 3; i++) {
+            Map<Medicament, Integer> quantites = new HashMap<>();
+            quantites.put(doliprane, 1);
+            service.enregistrerOrdonnance(new Ordonnance(new Date(), dupont, martin,
+                    new ArrayList<>(Collections.singletonList(doliprane)), quantites, "ORD00" + i));
+        }
+        service.enregistrerAchat(achat("ACH001", 1, "ORD001"));
+        service.enregistrerAchat(achat("ACH002", 1, "ORD002"));
+        service.enregistrerAchat(achat("ACH003", 1, null));
+
+        assertEquals(1, service.getEtatRetentionOrdonnances().getNombreFroids());
+        Ordonnance relue = service.rechercherOrdonnance("ORD001").orElseThrow();
+        assertEquals(dupont, relue.getMedecin());
+        assertEquals(599, relue.getMontantTotalCentimes());
+        assertEquals(3, service.getToutesLesOrdonnances().size());
+        assertEquals(3, service.getOrdonnancesParMedecin(dupont).size());
+        assertEquals(2, service.getAchatsParMedecin(dupont).size());
+        assertEquals(1, service.getAchatsParOrdonnance("ORD001").size());
+    }
+
+    @Test
+    public void testPersonnesReluesDansLesAnnuairesCourants() {
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(doliprane, 1);
+        service.ajouterMedecin(dupont);
+        for (int i = 1; i <= 3; i++) {
+            service.enregistrerOrdonnance(new Ordonnance(new Date(), dupont, martin,
+                    new ArrayList<>(Collections.singletonList(doliprane)), new HashMap<>(quantites), "ORD00" + i));
+            service.enregistrerAchat(achat("ACH00" + i, 1, null));
+        }
+
+        Client demenage = new Client("Martin", "Pierre", "3 Avenue Foch", "69000", "Lyon",
+                "0123456789", "pierre.martin@example.com", "CL001", "123456789012345", null, null);
+        service.modifierClient(demenage);
+        Medecin installe = new Medecin("Dupont", "Jean", "4 Rue Neuve", "69000", "Lyon",
+                "0123456789", "jean.dupont@example.com", "MED001", "12345678901");
+        service.modifierMedecin(installe);
+
+        assertSame(demenage, service.getAchatParReference("ACH001").orElseThrow().getClient());
+        Ordonnance relue = service.rechercherOrdonnance("ORD001").orElseThrow();
+        assertSame(demenage, relue.getPatient());
+        assertSame(installe, relue.getMedecin());
+        // Pharmacien sans annuaire : celui rencontré à l'encodage
+        assertEquals(pharmacien, service.getAchatParReference("ACH002").orElseThrow().getPharmacien());
+    }
+
+    @Test
+    public void testDeuxServicesDansLeMemeDossier() throws Exception {
+        GestPharmacieService autre = new GestPharmacieService(new StockageMemoire());
+        try {
+            autre.configurerRetention(dossier, 1, 1);
+            autre.ajouterClient(martin);
+            for (int i = 1; i <= 3; i++) {
+                service.enregistrerAchat(achat("ACH00" + i, i, null));
+                autre.enregistrerAchat(achat("AUT00" + i, 1, null));
+            }
+            assertEquals(1, service.getAchatParReference("ACH001").orElseThrow().getLignes().getQuantite(0));
+            assertEquals("AUT001", autre.getAchatParReference("AUT001").orElseThrow().getReference());
+        } finally {
+            autre.fermer();
+        }
+        // Le fichier de l'autre service est supprimé à sa fermeture, pas celui-ci
+        assertEquals(3, service.getAchatParReference("ACH003").orElseThrow().getLignes().getQuantite(0));
+        assertEquals(1, service.getAchatParReference("ACH001").orElseThrow().getLignes().getQuantite(0));
+    }
+}
@@ -0,0 +1,64 @@
+package test;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.EnregistrementVente;
+import main.model.service.BilanVentes;
+import main.model.service.PeriodeStandard;
+import main.model.service.StatistiquesVentes;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatistiquesVentesTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Paris");
+
+    private static long ts(int annee, int mois, int jour) {
+        return LocalDateTime.of(annee, mois, jour, 10, 0).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static EnregistrementVente vente(long ts, long total) {
+        return new EnregistrementVente(ts, total, total / 2, TypeAchat.DIRECT, "ACH" + ts % 1000);
+    }
+
+    @Test
+    public void testPeriodesStandard() {
+        StatistiquesVentes stats = new StatistiquesVentes(ZONE);
+        stats.enregistrer(vente(ts(2024, 12, 31), 100));
+        stats.enregistrer(vente(ts(2025, 1, 20), 200));
+        stats.enregistrer(vente(ts(2025, 2, 10), 400));
+        stats.enregistrer(vente(ts(2025, 2, 14), 800));
+        stats.enregistrer(vente(ts(2025, 2, 14), 1600));
+
+        long maintenant = ts(2025, 2, 14) + 3_600_000;
+        BilanVentes jour = stats.bilan(PeriodeStandard.JOUR, maintenant);
+        assertEquals(2, jour.getNombreVentes());
+        assertEquals(2400, jour.getMontantTotalCentimes());
+        assertEquals(1200, jour.getMontantRembourseCentimes());
+        assertEquals(2800, stats.bilan(PeriodeStandard.MOIS, maintenant).getMontantTotalCentimes());
+        assertEquals(3000, stats.bilan(PeriodeStandard.ANNEE, maintenant).getMontantTotalCentimes());
+        assertEquals(3000, stats.bilan(PeriodeStandard.TRENTE_JOURS, maintenant).getMontantTotalCentimes());
+    }
+
+    @Test
+    public void testBasculeJourSansVente() {
+        StatistiquesVentes stats = new StatistiquesVentes(ZONE);
+        stats.enregistrer(vente(ts(2025, 2, 14), 800));
+        assertEquals(0, stats.bilan(PeriodeStandard.JOUR, ts(2025, 2, 15)).getNombreVentes());
+        assertEquals(1, stats.bilan(PeriodeStandard.MOIS, ts(2025, 2, 15)).getNombreVentes());
+        assertEquals(0, stats.bilan(PeriodeStandard.MOIS, ts(2025, 3, 1)).getNombreVentes());
+    }
+
+    @Test
+    public void testReconstruire() {
+        StatistiquesVentes stats = new StatistiquesVentes(ZONE);
+        stats.enregistrer(vente(ts(2025, 2, 14), 800));
+        stats.reconstruire(Arrays.asList(vente(ts(2025, 2, 13), 100), vente(ts(2025, 2, 14), 200)));
+        long maintenant = ts(2025, 2, 14);
+        assertEquals(200, stats.bilan(PeriodeStandard.JOUR, maintenant).getMontantTotalCentimes());
+        assertEquals(300, stats.bilan(PeriodeStandard.TRENTE_JOURS, maintenant).getMontantTotalCentimes());
+    }
+}
@@ -0,0 +1,65 @@
+package test;
+
+import main.model.persistance.EnregistrementVente;
+import main.model.persistance.StockageVentes;
+import main.model.persistance.VisiteurVentes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stockage des ventes en mémoire pour les tests du service : compte les écritures et les parcours,
+ * et peut refuser la relecture complète (historique non indexé) ou l'écriture (disque indisponible).
+ */
+public class StockageMemoire implements StockageVentes {
+
+    final List<EnregistrementVente> ventes = new ArrayList<>();
+    int ecrituresUnitaires;
+    int ecrituresGroupees;
+    int parcours;
+    boolean relectureIndisponible;
+    boolean ecritureIndisponible;
+
+    @Override
+    public void ajouter(EnregistrementVente vente) throws IOException {
+        if (ecritureIndisponible) {
+            throw new IOException("écriture indisponible");
+        }
+        ecrituresUnitaires++;
+        ventes.add(vente);
+    }
+
+    @Override
+    public void ajouterTous(List<EnregistrementVente> lot) throws IOException {
+        if (ecritureIndisponible) {
+            throw new IOException("écriture indisponible");
+        }
+        ecrituresGroupees++;
+        ventes.addAll(lot);
+    }
+
+    @Override
+    public List<EnregistrementVente> lireTout() throws IOException {
+        if (relectureIndisponible) {
+            throw new IOException("relecture indisponible");
+        }
+        return new ArrayList<>(ventes);
+    }
+
+    @Override
+    public void parcourir(VisiteurVentes visiteur) {
+        parcours++;
+        for (EnregistrementVente v : ventes) {
+            visiteur.visiter(v.getTimestamp(), v.getMontantTotalCentimes(), v.getMontantRembourseCentimes());
+        }
+    }
+
+    @Override
+    public void synchroniser() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
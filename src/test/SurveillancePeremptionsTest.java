@@ -0,0 +1,143 @@
+package test;
+
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Lot;
+import main.model.Medicament.Medicament;
+import main.model.service.EcouteurPeremption;
+import main.model.service.InventaireMedicaments;
+import main.model.service.StatutStock;
+import main.model.service.SurveillancePeremptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SurveillancePeremptionsTest {
+
+    private static final long JOUR = TimeUnit.DAYS.toMillis(1);
+
+    private InventaireMedicaments inventaire;
+    private long origine;
+    private List<String> notifications;
+
+    @BeforeEach
+    public void setUp() {
+        inventaire = new InventaireMedicaments();
+        origine = System.currentTimeMillis();
+        notifications = new ArrayList<>();
+    }
+
+    private Medicament medicament(String nom, long peremption) {
+        return new Medicament(nom, CategorieMedicament.ANALGESIQUES, 4.20, 50,
+                new Date(origine), new Date(peremption));
+    }
+
+    private SurveillancePeremptions surveillance() {
+        SurveillancePeremptions surveillance = new SurveillancePeremptions(inventaire, TimeUnit.MINUTES.toMillis(1), origine);
+        surveillance.ajouterEcouteur((med, statut) -> notifications.add(med.getNom() + ":" + statut));
+        return surveillance;
+    }
+
+    @Test
+    public void testSeuilsFranchisDansLOrdre() {
+        Medicament doliprane = medicament("Doliprane", origine + 45 * JOUR);
+        inventaire.ajouter(doliprane);
+        SurveillancePeremptions surveillance = surveillance();
+
+        assertEquals(0, surveillance.verifier(origine + 14 * JOUR));
+        assertFalse(inventaire.estExpirantBientot(doliprane));
+
+        assertEquals(1, surveillance.verifier(origine + 16 * JOUR));
+        assertTrue(inventaire.estExpirantBientot(doliprane));
+        assertFalse(inventaire.estPerime(doliprane));
+
+        assertEquals(1, surveillance.verifier(origine + 46 * JOUR));
+        assertTrue(inventaire.estPerime(doliprane));
+        assertEquals(List.of("Doliprane:" + StatutStock.EXPIRE_BIENTOT, "Doliprane:" + StatutStock.PERIME), notifications);
+        assertEquals(0, surveillance.getNombreEcheances());
+    }
+
+    @Test
+    public void testEcheancesLointainesEtModificationDeDate() {
+        // Au-delà de plusieurs révolutions des niveaux inférieurs de la roue
+        Medicament aspirine = medicament("Aspirine", origine + 800 * JOUR);
+        SurveillancePeremptions surveillance = surveillance();
+        inventaire.ajouter(aspirine);
+
+        assertEquals(0, surveillance.verifier(origine + 700 * JOUR));
+        assertTrue(inventaire.modifierDatePeremption("Aspirine", new Date(origine + 1000 * JOUR)));
+
+        // Les échéances de l'ancienne date sont obsolètes et ignorées
+        assertEquals(0, surveillance.verifier(origine + 801 * JOUR));
+        assertFalse(inventaire.estPerime(aspirine));
+        assertEquals(1, surveillance.verifier(origine + 975 * JOUR));
+        assertEquals(1, surveillance.verifier(origine + 1000 * JOUR + 1));
+        assertTrue(inventaire.estPerime(aspirine));
+        assertEquals(List.of("Aspirine:" + StatutStock.EXPIRE_BIENTOT, "Aspirine:" + StatutStock.PERIME), notifications);
+    }
+
+    @Test
+    public void testMedicamentsDejaReferencesEtPlusieursParPas() {
+        for (int i = 0; i < 200; i++) {
+            inventaire.ajouter(medicament("Lot" + i, origine + 31 * JOUR + i * 1000L));
+        }
+        SurveillancePeremptions surveillance = surveillance();
+        assertEquals(400, surveillance.getNombreEcheances());
+        assertEquals(200, surveillance.verifier(origine + 2 * JOUR));
+        assertEquals(200, surveillance.verifier(origine + 32 * JOUR));
+        assertEquals(0, surveillance.getNombreEcheances());
+    }
+
+    @Test
+    public void testEcheanceDejaPasseeMarqueeSansAttendreLaRoue() {
+        Medicament doliprane = medicament("Doliprane", origine + 45 * JOUR);
+        inventaire.ajouter(doliprane);
+        surveillance();
+
+        // Aucun pas de la roue : l'indicateur est positionné dès la modification
+        assertTrue(inventaire.modifierDatePeremption("Doliprane", new Date(origine - JOUR)));
+        assertTrue(inventaire.estPerime(doliprane));
+        assertTrue(inventaire.estExpirantBientot(doliprane));
+        assertEquals(List.of("Doliprane:" + StatutStock.EXPIRE_BIENTOT, "Doliprane:" + StatutStock.PERIME), notifications);
+    }
+
+    @Test
+    public void testGardeDesVentesEntreDeuxPas() {
+        Medicament aspirine = medicament("Aspirine", origine + 45 * JOUR);
+        inventaire.ajouter(aspirine);
+        assertFalse(inventaire.estPerime(aspirine));
+        assertFalse(inventaire.estPerime(aspirine, origine));
+        assertTrue(inventaire.estPerime(aspirine, origine + 45 * JOUR));
+    }
+
+    @Test
+    public void testLotsSurveilles() {
+        Medicament aspirine = medicament("Aspirine", origine + 365 * JOUR);
+        inventaire.ajouter(aspirine);
+        SurveillancePeremptions surveillance = surveillance();
+        surveillance.ajouterEcouteur(new EcouteurPeremption() {
+            @Override
+            public void peremptionAtteinte(Medicament medicament, StatutStock statut) {
+            }
+
+            @Override
+            public void peremptionLotAtteinte(Lot lot, StatutStock statut) {
+                notifications.add(lot.getNumero() + ":" + statut);
+            }
+        });
+
+        // Moins de 30 jours restants dès la réception : signalé sans attendre la roue
+        assertTrue(inventaire.receptionnerLot("Aspirine", "A-100", 4, new Date(origine + 20 * JOUR)));
+        assertEquals(List.of("A-100:" + StatutStock.EXPIRE_BIENTOT), notifications);
+
+        assertEquals(1, surveillance.verifier(origine + 21 * JOUR));
+        assertEquals(List.of("A-100:" + StatutStock.EXPIRE_BIENTOT, "A-100:" + StatutStock.PERIME), notifications);
+        // Seul le lot est périmé : le médicament reste vendable sur ses autres lots
+        assertFalse(inventaire.estPerime(aspirine));
+    }
+}
@@ -0,0 +1,100 @@
+package test;
+
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Medicament;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.service.GestPharmacieService;
+import main.model.service.ResultatVente;
+import main.model.service.VenteGroupee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VentesGroupeesTest {
+
+    private StockageMemoire stockage;
+    private GestPharmacieService service;
+    private Pharmacien pharmacien;
+    private Medicament doliprane;
+
+    @BeforeEach
+    public void setUp() {
+        stockage = new StockageMemoire();
+        service = new GestPharmacieService(stockage);
+        service.ajouterClient(new Client("Martin", "Pierre", "12 Rue de Paris", "75000", "Paris",
+                "0123456789", "pierre.martin@example.com", "CL001", "123456789012345", null, null));
+        service.ajouterClient(new Client("Durand", "Paul", "14 Rue de Marseille", "13000", "Marseille",
+                "0987654321", "paul.durand@example.com", "CL002", "197035767242191", null, null));
+        pharmacien = new Pharmacien("Blanc", "Luc", "1 Place de la Gare", "75000", "Paris",
+                "0123456789", "luc.blanc@example.com", "PH001", "12345678912", "Pharmacie Centrale", new Date());
+        Date aujourdHui = new Date();
+        Date peremption = new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000);
+        doliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 100, aujourdHui, peremption);
+        service.getInventaire().ajouter(doliprane);
+        service.getInventaire().ajouter(new Medicament("Aspirine", CategorieMedicament.ANALGESIQUES, 3.50, 50, aujourdHui, peremption));
+    }
+
+    @Test
+    public void testResultatsParPanierEtEcritureGroupee() {
+        VenteGroupee ventes = VenteGroupee.builder()
+                .panier("CL001").ligne("Doliprane", 2)
+                .panier("CL999").ligne("Doliprane", 1)
+                .panier("CL002").ligne("Doliprane", 200)
+                .panier("CL002").ligne("Aspirine", 1).ligne("Inconnu", 1)
+                .panier("CL002").ligne("Doliprane", 3).ligne("Aspirine", 1).ligne("Doliprane", 1)
+                .construire();
+
+        List<ResultatVente> resultats = service.effectuerVentesGroupees(ventes, pharmacien);
+
+        assertEquals(5, resultats.size());
+        assertEquals(ResultatVente.Statut.EFFECTUEE, resultats.get(0).getStatut());
+        assertEquals(ResultatVente.Statut.CLIENT_INCONNU, resultats.get(1).getStatut());
+        assertEquals(ResultatVente.Statut.STOCK_INSUFFISANT, resultats.get(2).getStatut());
+        assertEquals(ResultatVente.Statut.MEDICAMENT_INCONNU, resultats.get(3).getStatut());
+        assertTrue(resultats.get(4).estEffectuee());
+        assertEquals(1198, resultats.get(0).getMontantTotalCentimes());
+        assertEquals(4 * 599 + 350, resultats.get(4).getResteAPayerCentimes());
+        assertNotEquals(resultats.get(0).getReference(), resultats.get(4).getReference());
+
+        // Stock retiré pour les seuls paniers acceptés
+        assertEquals(100 - 2 - 4, doliprane.getQuantiteStock());
+        assertEquals(49, service.getInventaire().rechercher("Aspirine").get().getQuantiteStock());
+
+        assertEquals(1, stockage.ecrituresGroupees);
+        assertEquals(0, stockage.ecrituresUnitaires);
+        assertEquals(2, stockage.ventes.size());
+        assertSame(resultats.get(4).getAchat(), service.getAchatParReference(resultats.get(4).getReference()).orElse(null));
+    }
+
+    @Test
+    public void testEchecDEcritureRestitueLeStock() {
+        stockage.ecritureIndisponible = true;
+        VenteGroupee ventes = VenteGroupee.builder()
+                .panier("CL001").ligne("Doliprane", 2)
+                .panier("CL002").ligne("Doliprane", 3).ligne("Aspirine", 1)
+                .panier("CL999").ligne("Doliprane", 1)
+                .construire();
+
+        List<ResultatVente> resultats = service.effectuerVentesGroupees(ventes, pharmacien);
+
+        assertEquals(ResultatVente.Statut.ECHEC_ENREGISTREMENT, resultats.get(0).getStatut());
+        assertEquals(ResultatVente.Statut.ECHEC_ENREGISTREMENT, resultats.get(1).getStatut());
+        assertEquals(ResultatVente.Statut.CLIENT_INCONNU, resultats.get(2).getStatut());
+        // Rien n'est confirmé ni indexé : le stock est restitué
+        assertEquals(100, doliprane.getQuantiteStock());
+        assertEquals(50, service.getInventaire().rechercher("Aspirine").get().getQuantiteStock());
+        assertTrue(service.getAchatsParClient(service.rechercherClient("CL001").get()).isEmpty());
+        assertTrue(stockage.ventes.isEmpty());
+    }
+
+    @Test
+    public void testBuilderSansPanierOuvert() {
+        assertThrows(IllegalStateException.class, () -> VenteGroupee.builder().ligne("Doliprane", 1));
+        assertThrows(IllegalArgumentException.class, () -> VenteGroupee.builder().panier("CL001").ligne("Doliprane", 0));
+        assertEquals(0, VenteGroupee.builder().construire().taille());
+    }
+}
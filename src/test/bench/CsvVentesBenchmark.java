@@ -0,0 +1,106 @@
+package test.bench;
+
+import main.model.persistance.CsvVentes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compare la lecture ligne à ligne historique (split + parseDouble) au parcours
+ * octet par octet de {@link CsvVentes} sur un fichier de ventes généré.
+ *
+ * Lancement : {@code java -cp <classes + jmh> test.bench.CsvVentesBenchmark}
+ * (le traitement d'annotations JMH doit être actif à la compilation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvVentesBenchmark {
+
+    @Param("10000000")
+    public int lignes;
+
+    private Path fichier;
+
+    @Setup(Level.Trial)
+    public void genererFichier() throws IOException {
+        fichier = Files.createTempFile("achats-bench", ".csv");
+        Random random = new Random(42);
+        long ts = 1_700_000_000_000L;
+        try (BufferedWriter writer = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lignes; i++) {
+                ts += random.nextInt(60_000);
+                double total = random.nextInt(20_000) / 100.0;
+                double rembourse = i % 3 == 0 ? total * 0.7 : 0.0;
+                writer.write(ts + "," + total + "," + rembourse + "," + (i % 3 == 0 ? "ORDONNANCE" : "DIRECT"));
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void supprimerFichier() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    @Benchmark
+    public double splitEtParseDouble() throws IOException {
+        double[] somme = new double[1];
+        try (Stream<String> flux = Files.lines(fichier)) {
+            flux.forEach(ligne -> {
+                String[] parts = ligne.split(",");
+                if (parts.length >= 3) {
+                    long ts = Long.parseLong(parts[0]);
+                    if (ts > 0) {
+                        somme[0] += Double.parseDouble(parts[1]) - Double.parseDouble(parts[2]);
+                    }
+                }
+            });
+        }
+        return somme[0];
+    }
+
+    @Benchmark
+    public long parcoursOctets() throws IOException {
+        long[] somme = new long[1];
+        new CsvVentes(fichier).parcourir((ts, total, rembourse) -> {
+            if (ts > 0) {
+                somme[0] += total - rembourse;
+            }
+        });
+        return somme[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CsvVentesBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,74 @@
+package test.bench;
+
+import main.model.service.ListeAjouts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'un ajout dans un historique déjà rempli de {@code ventes} éléments :
+ * {@code CopyOnWriteArrayList} (recopie complète à chaque ajout) contre {@link ListeAjouts}.
+ *
+ * Lancement : {@code java -cp <classes + jmh> test.bench.ListeAjoutsBenchmark}
+ * (le traitement d'annotations JMH doit être actif à la compilation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ListeAjoutsBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int ventes;
+
+    private CopyOnWriteArrayList<Object> copieSurEcriture;
+    private ListeAjouts<Object> listeAjouts;
+    private final Object vente = new Object();
+
+    @Setup(Level.Iteration)
+    public void remplir() {
+        Object[] historique = new Object[ventes];
+        Arrays.fill(historique, vente);
+        copieSurEcriture = new CopyOnWriteArrayList<>(historique);
+        listeAjouts = new ListeAjouts<>();
+        for (int i = 0; i < ventes; i++) {
+            listeAjouts.ajouter(vente);
+        }
+    }
+
+    @Benchmark
+    public boolean ajoutCopieSurEcriture() {
+        return copieSurEcriture.add(vente);
+    }
+
+    @Benchmark
+    public int ajoutListeAjouts() {
+        return listeAjouts.ajouter(vente);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ListeAjoutsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
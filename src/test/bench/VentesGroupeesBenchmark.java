@@ -0,0 +1,156 @@
+package test.bench;
+
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.Medicament;
+import main.model.Medicament.TypeAchat;
+import main.model.Personne.CategoriePersonne.Client;
+import main.model.Personne.CategoriePersonne.Pharmacien;
+import main.model.Transaction.TypeTransaction.Achat;
+import main.model.persistance.JournalVentes;
+import main.model.persistance.PolitiqueSynchronisation;
+import main.model.service.GestPharmacieService;
+import main.model.service.InventaireMedicaments;
+import main.model.service.ReservationStock;
+import main.model.service.ResultatVente;
+import main.model.service.VenteGroupee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare une commande groupée passée panier par panier (réservation, référence, écriture
+ * unitaire dans le journal) à {@link GestPharmacieService#effectuerVentesGroupees} (une écriture groupée).
+ *
+ * Lancement : {@code java -cp <classes + jmh> test.bench.VentesGroupeesBenchmark}
+ * (le traitement d'annotations JMH doit être actif à la compilation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VentesGroupeesBenchmark {
+
+    private static final String[] MEDICAMENTS = {"Doliprane", "Aspirine", "Amoxicilline", "Ibuprofene"};
+    private static final int STOCK = 100_000;
+
+    @Param({"100", "500"})
+    public int paniers;
+
+    @Param({"A_CHAQUE_VENTE", "PERIODIQUE"})
+    public PolitiqueSynchronisation politique;
+
+    private Path fichier;
+    private GestPharmacieService service;
+    private InventaireMedicaments inventaire;
+    private Pharmacien pharmacien;
+    private VenteGroupee commande;
+
+    @Setup(Level.Iteration)
+    public void preparer() throws IOException {
+        fichier = Files.createTempFile("ventes-groupees-bench", ".journal");
+        Files.delete(fichier);
+        service = new GestPharmacieService(new JournalVentes(fichier, politique));
+        inventaire = service.getInventaire();
+        pharmacien = new Pharmacien("Blanc", "Luc", "1 Place de la Gare", "75000", "Paris",
+                "0123456789", "luc.blanc@example.com", "PH001", "12345678912", "Pharmacie Centrale", new Date());
+        Date aujourdHui = new Date();
+        Date peremption = new Date(aujourdHui.getTime() + 365L * 24 * 3600 * 1000);
+        for (String nom : MEDICAMENTS) {
+            inventaire.ajouter(new Medicament(nom, CategorieMedicament.ANALGESIQUES, 4.99, STOCK, aujourdHui, peremption));
+        }
+        VenteGroupee.Builder builder = VenteGroupee.builder();
+        for (int i = 0; i < paniers; i++) {
+            String identifiant = String.format("EHPAD%04d", i % 50);
+            if (!service.rechercherClient(identifiant).isPresent()) {
+                service.ajouterClient(new Client("Resident", "Marie", "1 Allee des Tilleuls", "69000", "Lyon",
+                        "0400000000", "resident" + i + "@example.com", identifiant, "123456789012345", null, null));
+            }
+            builder.panier(identifiant)
+                    .ligne(MEDICAMENTS[i % MEDICAMENTS.length], 1)
+                    .ligne(MEDICAMENTS[(i + 1) % MEDICAMENTS.length], 2);
+        }
+        commande = builder.construire();
+    }
+
+    @Setup(Level.Invocation)
+    public void reapprovisionner() {
+        for (String nom : MEDICAMENTS) {
+            inventaire.modifierStock(nom, STOCK);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void fermer() throws IOException {
+        // Ferme aussi le journal
+        service.fermer();
+        Files.deleteIfExists(fichier);
+    }
+
+    @Benchmark
+    public int panierParPanier() {
+        int effectuees = 0;
+        for (VenteGroupee.Panier panier : commande.getPaniers()) {
+            Client client = service.rechercherClient(panier.getIdentifiantClient()).orElseThrow();
+            List<Medicament> medicaments = new ArrayList<>();
+            Map<Medicament, Integer> quantites = new HashMap<>();
+            for (Map.Entry<String, Integer> ligne : panier.getLignes().entrySet()) {
+                Medicament medicament = inventaire.rechercher(ligne.getKey()).orElseThrow();
+                medicaments.add(medicament);
+                quantites.put(medicament, ligne.getValue());
+            }
+            try (ReservationStock reservation = inventaire.reserver(quantites)) {
+                Achat achat = new Achat(new Date(), client, pharmacien, "ACH" + System.currentTimeMillis(),
+                        TypeAchat.DIRECT, medicaments, quantites);
+                achat.setLots(reservation.getLots());
+                service.enregistrerAchat(achat);
+                reservation.confirmer();
+                effectuees++;
+            }
+        }
+        return effectuees;
+    }
+
+    @Benchmark
+    public int groupee() {
+        int effectuees = 0;
+        for (ResultatVente resultat : service.effectuerVentesGroupees(commande, pharmacien)) {
+            if (resultat.estEffectuee()) {
+                effectuees++;
+            }
+        }
+        return effectuees;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VentesGroupeesBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -68,12 +68,14 @@ public class AchatTest {
     public void testCalculerMontantTotal() {
         double expectedTotal = (5.99 * 2) + (10.99 * 1);
         assertEquals(expectedTotal, achat.getMontantTotal(), 0.001);
+        assertEquals(2297, achat.getMontantTotalCentimes());
     }
 
     @Test
     public void testCalculerMontantRembourse() {
-        double expectedMontantRembourse = ((5.99 * 2) + (10.99 * 1)) * 0.7; // 70% de remboursement
-        assertEquals(expectedMontantRembourse, achat.getMontantRembourse(), 0.001);
+        // 70% de remboursement de 22,97 € = 16,079 €, arrondi au centime
+        assertEquals(1608, achat.getMontantRembourseCentimes());
+        assertEquals(16.08, achat.getMontantRembourse(), 0.001);
     }
 
     @Test
@@ -82,7 +84,7 @@ public class AchatTest {
         achat.ajouterMedicament(medicament3, 1);
         assertEquals(3, achat.getMedicaments().size());
         assertEquals(5.99 * 2 + 10.99 * 1 + 7.99 * 1, achat.getMontantTotal(), 0.001);
-        assertEquals((5.99 * 2 + 10.99 * 1 + 7.99 * 1) * 0.7, achat.getMontantRembourse(), 0.001);
+        assertEquals(2167, achat.getMontantRembourseCentimes()); // 21,672 € arrondi au centime
     }
 
     @Test
@@ -90,7 +92,54 @@ public class AchatTest {
         achat.retirerMedicament(medicament1);
         assertEquals(1, achat.getMedicaments().size());
         assertEquals(10.99 * 1, achat.getMontantTotal(), 0.001);
-        assertEquals(10.99 * 1 * 0.7, achat.getMontantRembourse(), 0.001);
+        assertEquals(769, achat.getMontantRembourseCentimes()); // 7,693 € arrondi au centime
+    }
+
+    @Test
+    public void testPrixReleveALaVente() {
+        medicament1.setPrix(7.50);
+        mutuelle.setTauxRemboursement(50.0);
+        assertEquals(2297, achat.getMontantTotalCentimes());
+        assertEquals(1608, achat.getMontantRembourseCentimes());
+
+        // Nouvelles quantités : la ligne existante garde le prix relevé
+        Map<Medicament, Integer> nouvellesQuantites = new HashMap<>();
+        nouvellesQuantites.put(medicament1, 3);
+        nouvellesQuantites.put(medicament2, 1);
+        achat.setQuantites(nouvellesQuantites);
+        assertEquals(599, achat.getLignes().getPrixUnitaireCentimes(0));
+        assertEquals(2896, achat.getMontantTotalCentimes());
+        assertEquals(2027, achat.getMontantRembourseCentimes());
+    }
+
+    @Test
+    public void testAchatFigeApresEnregistrement() {
+        achat.figer();
+        assertThrows(IllegalStateException.class, () -> achat.retirerMedicament(medicament1));
+        assertThrows(IllegalStateException.class, () -> achat.setQuantites(new HashMap<>()));
+        assertEquals(2297, achat.getMontantTotalCentimes());
+    }
+
+    @Test
+    public void testValidationAuFigeage() {
+        Medicament onereux = new Medicament("Humira", CategorieMedicament.ANTI_INFLAMMATOIRES, 99.99, 1000, dateMiseEnService, datePeremption);
+        // Ligne ajoutée sans revalider tout le panier ; le plafond est contrôlé à l'enregistrement
+        achat.ajouterMedicament(onereux, 1000);
+        assertEquals(2297 + 9_999_000, achat.getMontantTotalCentimes());
+        assertThrows(IllegalArgumentException.class, () -> achat.figer());
+
+        achat.retirerMedicament(onereux);
+        achat.figer();
+        assertTrue(achat.getLignes().estFigees());
+
+        // Construction et recomposition ne valident pas non plus : seul figer() refuse le panier
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(onereux, 1000);
+        Achat gros = new Achat(dateTransaction, achat.getClient(), pharmacien, "ACH003", TypeAchat.DIRECT,
+                new ArrayList<>(Collections.singletonList(onereux)), quantites);
+        gros.setQuantites(quantites);
+        assertEquals(9_999_000, gros.getMontantTotalCentimes());
+        assertThrows(IllegalArgumentException.class, gros::figer);
     }
 
     @Test
@@ -0,0 +1,116 @@
+package test.model;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.ArchiveVentes;
+import main.model.persistance.EnregistrementVente;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveVentesTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Paris");
+
+    @TempDir
+    Path dossier;
+
+    private static long ts(int annee, int mois, int jour) {
+        return LocalDateTime.of(annee, mois, jour, 10, 0).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static EnregistrementVente vente(long ts, long total, long rembourse) {
+        return new EnregistrementVente(ts, total, rembourse, TypeAchat.ORDONNANCE, "ACH" + ts % 1000);
+    }
+
+    @Test
+    public void testArchiverEtAgreger() throws Exception {
+        ArchiveVentes archive = new ArchiveVentes(dossier, ZONE);
+        assertEquals(Long.MIN_VALUE, archive.getLimite());
+        archive.archiver(Arrays.asList(
+                vente(ts(2025, 1, 20), 500, 100),
+                vente(ts(2025, 1, 5), 200, 0),
+                vente(ts(2025, 2, 14), 1000, 700)));
+
+        assertEquals(2, archive.getNombreMois());
+        assertEquals(ts(2025, 3, 1) - 10 * 3_600_000L, archive.getLimite());
+
+        long[] annee = archive.agreger(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertArrayEquals(new long[]{3, 1700, 800}, annee);
+        long[] partiel = archive.agreger(ts(2025, 1, 10), ts(2025, 2, 14));
+        assertArrayEquals(new long[]{2, 1500, 800}, partiel);
+        assertArrayEquals(new long[]{0, 0, 0}, archive.agreger(ts(2025, 3, 1), ts(2025, 3, 31)));
+    }
+
+    @Test
+    public void testRelectureEtFusion() throws Exception {
+        new ArchiveVentes(dossier, ZONE).archiver(Arrays.asList(vente(ts(2025, 1, 20), 500, 100)));
+
+        ArchiveVentes archive = new ArchiveVentes(dossier, ZONE);
+        archive.archiver(Arrays.asList(vente(ts(2025, 1, 2), 300, 0)));
+        assertEquals(1, archive.getNombreMois());
+
+        List<EnregistrementVente> ventes = new ArchiveVentes(dossier, ZONE).lireTout();
+        assertEquals(2, ventes.size());
+        assertEquals(300, ventes.get(0).getMontantTotalCentimes());
+        assertEquals(500, ventes.get(1).getMontantTotalCentimes());
+        assertEquals(TypeAchat.ORDONNANCE, ventes.get(1).getType());
+
+        long[] somme = new long[1];
+        archive.parcourir(ts(2025, 1, 10), Long.MAX_VALUE, (t, total, rembourse) -> somme[0] += total);
+        assertEquals(500, somme[0]);
+    }
+
+    @Test
+    public void testReferencesConserveesEtArchivageRepris() throws Exception {
+        EnregistrementVente ordonnance = new EnregistrementVente(ts(2025, 1, 20), 500, 100, TypeAchat.ORDONNANCE,
+                "ACH1737363600000-12345", "ORD1737363600000");
+        EnregistrementVente directe = new EnregistrementVente(ts(2025, 1, 21), 300, 0, TypeAchat.DIRECT, "ACH2");
+        ArchiveVentes archive = new ArchiveVentes(dossier, ZONE);
+        archive.archiver(Arrays.asList(ordonnance, directe));
+
+        // Reprise d'un compactage interrompu : les ventes déjà archivées ne sont pas dupliquées
+        EnregistrementVente tardive = new EnregistrementVente(ts(2025, 1, 2), 200, 0, TypeAchat.DIRECT, "ACH3");
+        archive.archiver(Arrays.asList(ordonnance, directe, tardive));
+
+        List<EnregistrementVente> ventes = new ArchiveVentes(dossier, ZONE).lireTout();
+        assertEquals(Arrays.asList(tardive, ordonnance, directe), ventes);
+        assertEquals("ACH1737363600000-12345", ventes.get(1).getReference());
+        assertEquals("ORD1737363600000", ventes.get(1).getReferenceOrdonnance());
+        assertEquals("", ventes.get(2).getReferenceOrdonnance());
+        assertArrayEquals(new long[]{3, 1000, 100}, archive.agreger(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private List<String> fichiers() throws Exception {
+        try (Stream<Path> liste = Files.list(dossier)) {
+            return liste.map(f -> f.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testMoisReecritDansUneNouvelleGeneration() throws Exception {
+        ArchiveVentes archive = new ArchiveVentes(dossier, ZONE);
+        archive.archiver(Arrays.asList(vente(ts(2025, 1, 20), 500, 100)));
+        assertEquals(Arrays.asList("ventes-2025-01.0.col"), fichiers());
+        Path premiere = dossier.resolve("ventes-2025-01.0.col");
+        byte[] ancienneGeneration = Files.readAllBytes(premiere);
+
+        // La génération remplacée est supprimée une fois les lecteurs basculés
+        archive.archiver(Arrays.asList(vente(ts(2025, 1, 2), 300, 0)));
+        assertEquals(Arrays.asList("ventes-2025-01.1.col"), fichiers());
+
+        // Substitution interrompue : l'ancienne génération est ignorée puis supprimée à l'ouverture
+        Files.write(premiere, ancienneGeneration);
+        ArchiveVentes relue = new ArchiveVentes(dossier, ZONE);
+        assertArrayEquals(new long[]{2, 800, 100}, relue.agreger(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Arrays.asList("ventes-2025-01.1.col"), fichiers());
+    }
+}
@@ -0,0 +1,63 @@
+package test.model;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.CsvVentes;
+import main.model.persistance.EnregistrementVente;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvVentesTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    public void testParcourirFormatsHistoriques() throws Exception {
+        Path fichier = dossier.resolve("achats.csv");
+        Files.write(fichier, ("1000,59.900000000000006,41.93,ORDONNANCE,ACH001\r\n"
+                + "\n"
+                + "2000,599.0,0.0,DIRECT\n"
+                + "ligne invalide\n"
+                + "3000,1.5E1,0.005,DIRECT\n"
+                + "4000,abc,0,DIRECT\n"
+                + "5000,12,3").getBytes(StandardCharsets.UTF_8));
+
+        List<long[]> lignes = new ArrayList<>();
+        try (CsvVentes csv = new CsvVentes(fichier)) {
+            csv.parcourir((ts, total, rembourse) -> lignes.add(new long[]{ts, total, rembourse}));
+        }
+
+        assertEquals(4, lignes.size());
+        assertArrayEquals(new long[]{1000, 5990, 4193}, lignes.get(0));
+        assertArrayEquals(new long[]{2000, 59900, 0}, lignes.get(1));
+        assertArrayEquals(new long[]{3000, 1500, 1}, lignes.get(2));
+        assertArrayEquals(new long[]{5000, 1200, 300}, lignes.get(3));
+    }
+
+    @Test
+    public void testParcourirCoherentAvecLireTout() throws Exception {
+        Path fichier = dossier.resolve("achats.csv");
+        try (CsvVentes csv = new CsvVentes(fichier)) {
+            for (int i = 0; i < 5000; i++) {
+                csv.ajouter(new EnregistrementVente(i, i * 37L, i * 11L, TypeAchat.ORDONNANCE, "ACH" + i, "ORD" + i));
+            }
+            List<EnregistrementVente> ventes = csv.lireTout();
+            assertEquals("ORD42", ventes.get(42).getReferenceOrdonnance());
+            long[] somme = new long[2];
+            csv.parcourir((ts, total, rembourse) -> {
+                somme[0] += total;
+                somme[1] += rembourse;
+            });
+            assertEquals(ventes.stream().mapToLong(EnregistrementVente::getMontantTotalCentimes).sum(), somme[0]);
+            assertEquals(ventes.stream().mapToLong(EnregistrementVente::getMontantRembourseCentimes).sum(), somme[1]);
+        }
+    }
+}
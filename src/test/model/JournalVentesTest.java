@@ -0,0 +1,122 @@
+package test.model;
+
+import main.model.Medicament.TypeAchat;
+import main.model.persistance.EnregistrementVente;
+import main.model.persistance.JournalVentes;
+import main.model.persistance.PolitiqueSynchronisation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalVentesTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    public void testAjouterEtRelire() throws Exception {
+        Path fichier = dossier.resolve("achats.journal");
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.GROUPEE)) {
+            journal.ajouter(new EnregistrementVente(1000L, 1797, 0, TypeAchat.DIRECT, "ACH001"));
+            journal.ajouter(new EnregistrementVente(2000L, 5990, 4193, TypeAchat.ORDONNANCE, "ACH002", "ORD002"));
+        }
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            List<EnregistrementVente> ventes = journal.lireTout();
+            assertEquals(2, ventes.size());
+            assertEquals(5990, ventes.get(1).getMontantTotalCentimes());
+            assertEquals(4193, ventes.get(1).getMontantRembourseCentimes());
+            assertEquals(TypeAchat.ORDONNANCE, ventes.get(1).getType());
+            assertEquals("ACH002", ventes.get(1).getReference());
+            assertEquals("ORD002", ventes.get(1).getReferenceOrdonnance());
+            assertEquals("", ventes.get(0).getReferenceOrdonnance());
+            assertEquals(0, journal.getEnregistrementsRecuperes());
+        }
+    }
+
+    @Test
+    public void testRecuperationEnregistrementTronque() throws Exception {
+        Path fichier = dossier.resolve("achats.journal");
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            journal.ajouterTous(Arrays.asList(
+                    new EnregistrementVente(1000L, 100, 0, TypeAchat.DIRECT, "ACH001"),
+                    new EnregistrementVente(2000L, 200, 0, TypeAchat.DIRECT, "ACH002")));
+        }
+        // Arrêt brutal au milieu du second enregistrement
+        long taille = Files.size(fichier);
+        try (RandomAccessFile raf = new RandomAccessFile(fichier.toFile(), "rw")) {
+            raf.setLength(taille - EnregistrementVente.TAILLE / 2);
+        }
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            assertEquals(1, journal.getNombreEnregistrements());
+            assertEquals(1, journal.getEnregistrementsRecuperes());
+            journal.ajouter(new EnregistrementVente(3000L, 300, 0, TypeAchat.DIRECT, "ACH003"));
+            List<EnregistrementVente> ventes = journal.lireTout();
+            assertEquals(2, ventes.size());
+            assertEquals("ACH003", ventes.get(1).getReference());
+        }
+    }
+
+    @Test
+    public void testRecuperationCrcInvalide() throws Exception {
+        Path fichier = dossier.resolve("achats.journal");
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            journal.ajouter(new EnregistrementVente(1000L, 100, 0, TypeAchat.DIRECT, "ACH001"));
+            journal.ajouter(new EnregistrementVente(2000L, 200, 0, TypeAchat.DIRECT, "ACH002"));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(fichier.toFile(), "rw")) {
+            raf.seek(Files.size(fichier) - EnregistrementVente.TAILLE + 8);
+            raf.write(0x7F);
+        }
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            assertEquals(1, journal.lireTout().size());
+        }
+    }
+
+    @Test
+    public void testEnregistrementCorrompuAuMilieuMisEnQuarantaine() throws Exception {
+        Path fichier = dossier.resolve("achats.journal");
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            journal.ajouterTous(Arrays.asList(
+                    new EnregistrementVente(1000L, 100, 0, TypeAchat.DIRECT, "ACH001"),
+                    new EnregistrementVente(2000L, 200, 0, TypeAchat.DIRECT, "ACH002"),
+                    new EnregistrementVente(3000L, 300, 0, TypeAchat.DIRECT, "ACH003")));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(fichier.toFile(), "rw")) {
+            raf.seek(Files.size(fichier) - 2 * EnregistrementVente.TAILLE + 8);
+            raf.write(0x7F);
+        }
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            // Les ventes qui suivent l'enregistrement corrompu sont conservées
+            List<EnregistrementVente> ventes = journal.lireTout();
+            assertEquals(2, ventes.size());
+            assertEquals("ACH001", ventes.get(0).getReference());
+            assertEquals("ACH003", ventes.get(1).getReference());
+            assertEquals(0, journal.getEnregistrementsRecuperes());
+            assertEquals(1, journal.getEnregistrementsEnQuarantaine());
+            assertEquals(EnregistrementVente.TAILLE, Files.size(journal.getFichierQuarantaine()));
+            journal.ajouter(new EnregistrementVente(4000L, 400, 0, TypeAchat.DIRECT, "ACH004"));
+        }
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            assertEquals(3, journal.getNombreEnregistrements());
+            assertEquals(0, journal.getEnregistrementsEnQuarantaine());
+        }
+    }
+
+    @Test
+    public void testExporterCsv() throws Exception {
+        Path fichier = dossier.resolve("achats.journal");
+        Path csv = dossier.resolve("export.csv");
+        try (JournalVentes journal = new JournalVentes(fichier, PolitiqueSynchronisation.AUCUNE)) {
+            journal.ajouter(new EnregistrementVente(1000L, 5990, 5, TypeAchat.DIRECT, "ACH001"));
+            journal.exporterCsv(csv);
+        }
+        assertEquals(List.of("1000,59.90,0.05,DIRECT,ACH001"), Files.readAllLines(csv));
+    }
+}
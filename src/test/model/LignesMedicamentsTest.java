@@ -0,0 +1,164 @@
+package test.model;
+
+import main.model.Medicament.CatalogueMedicaments;
+import main.model.Medicament.CategorieMedicament;
+import main.model.Medicament.LignesMedicaments;
+import main.model.Medicament.Medicament;
+import main.model.service.InventaireMedicaments;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LignesMedicamentsTest {
+    private Medicament doliprane;
+    private Medicament amoxicilline;
+    private Date dateMiseEnService;
+    private Date datePeremption;
+
+    @BeforeEach
+    public void setUp() {
+        dateMiseEnService = new Date();
+        datePeremption = new Date(dateMiseEnService.getTime() + 365L * 24 * 60 * 60 * 1000);
+        doliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 5.99, 100, dateMiseEnService, datePeremption);
+        amoxicilline = new Medicament("Amoxicilline", CategorieMedicament.ANTIBIOTIQUES, 10.99, 50, dateMiseEnService, datePeremption);
+    }
+
+    @Test
+    public void testCatalogueAttribueUnSkuParNom() {
+        CatalogueMedicaments catalogue = new CatalogueMedicaments();
+        int sku = catalogue.interner(doliprane);
+        assertEquals(sku, doliprane.getSku());
+        assertSame(catalogue, doliprane.getCatalogue());
+        assertEquals(sku, catalogue.interner(doliprane));
+        assertNotEquals(sku, catalogue.interner(amoxicilline));
+
+        Medicament autreFiche = new Medicament("DOLIPRANE", CategorieMedicament.ANALGESIQUES, 6.20, 10, dateMiseEnService, datePeremption);
+        assertEquals(sku, catalogue.interner(autreFiche));
+        assertSame(doliprane, catalogue.get(sku));
+        assertEquals(sku, catalogue.inscrire(autreFiche));
+        assertSame(autreFiche, catalogue.get(sku));
+        assertThrows(IllegalArgumentException.class, () -> catalogue.get(-1));
+        assertThrows(IllegalArgumentException.class, () -> catalogue.get(catalogue.taille()));
+    }
+
+    @Test
+    public void testCatalogueParInventaireEtRenommage() {
+        InventaireMedicaments officine = new InventaireMedicaments();
+        InventaireMedicaments reserve = new InventaireMedicaments();
+        officine.ajouter(amoxicilline);
+        officine.ajouter(doliprane);
+        Medicament autreDoliprane = new Medicament("Doliprane", CategorieMedicament.ANALGESIQUES, 6.20, 10, dateMiseEnService, datePeremption);
+        reserve.ajouter(autreDoliprane);
+        assertEquals(2, officine.getCatalogue().taille());
+        assertEquals(1, reserve.getCatalogue().taille());
+        assertSame(doliprane, officine.getCatalogue().get(doliprane.getSku()));
+        assertSame(autreDoliprane, reserve.getCatalogue().get(autreDoliprane.getSku()));
+
+        LignesMedicaments lignes = new LignesMedicaments();
+        lignes.ajouter(doliprane, 1);
+        doliprane.setNom("Doliprane 1000");
+        assertEquals(doliprane.getSku(), officine.getCatalogue().chercher(
+                new Medicament("doliprane 1000", CategorieMedicament.ANALGESIQUES, 6.20, 10, dateMiseEnService, datePeremption)));
+        assertThrows(IllegalArgumentException.class, () -> doliprane.setNom("Amoxicilline"));
+        assertEquals("Doliprane 1000", lignes.getMedicament(0).getNom());
+    }
+
+    @Test
+    public void testCatalogueCroissanceLineaire() {
+        CatalogueMedicaments catalogue = new CatalogueMedicaments();
+        for (int i = 0; i < 20_000; i++) {
+            Medicament m = new Medicament("Ref-" + i, CategorieMedicament.ANALGESIQUES, 1.00, 1, dateMiseEnService, datePeremption);
+            assertEquals(i, catalogue.interner(m));
+        }
+        assertEquals(20_000, catalogue.taille());
+        assertEquals("Ref-12345", catalogue.get(12_345).getNom());
+    }
+
+    @Test
+    public void testLignesEtTotal() {
+        LignesMedicaments lignes = new LignesMedicaments();
+        lignes.ajouter(doliprane, 2);
+        lignes.ajouter(amoxicilline, 1);
+        assertEquals(2, lignes.taille());
+        assertEquals(2297, lignes.montantTotalCentimes());
+
+        // Même médicament : la ligne est remplacée, pas dupliquée
+        lignes.ajouter(doliprane, 3);
+        assertEquals(2, lignes.taille());
+        assertEquals(3, lignes.getQuantite(0));
+        assertEquals(599, lignes.getPrixUnitaireCentimes(0));
+        assertEquals(2896, lignes.montantTotalCentimes());
+
+        assertTrue(lignes.retirer(doliprane));
+        assertFalse(lignes.retirer(doliprane));
+        assertEquals(1, lignes.taille());
+        assertSame(amoxicilline, lignes.getMedicament(0));
+        assertEquals(1099, lignes.montantTotalCentimes());
+    }
+
+    @Test
+    public void testDepuisListeEtQuantites() {
+        Map<Medicament, Integer> quantites = new HashMap<>();
+        quantites.put(amoxicilline, 1);
+        quantites.put(doliprane, 2);
+        LignesMedicaments lignes = LignesMedicaments.depuis(Arrays.asList(doliprane, amoxicilline), quantites);
+
+        assertEquals(Arrays.asList(doliprane, amoxicilline), lignes.medicaments());
+        assertEquals(Integer.valueOf(2), lignes.quantites().get(doliprane));
+        assertEquals(2297, lignes.montantTotalCentimes());
+    }
+
+    @Test
+    public void testTauxReleveParLigne() {
+        LignesMedicaments lignes = new LignesMedicaments();
+        lignes.ajouter(doliprane, 2, 70.0);
+        lignes.ajouter(amoxicilline, 1, 35.0);
+        assertEquals(70.0, lignes.getTauxRemboursement(0), 0.0001);
+        // 1198 × 70 % + 1099 × 35 % = 838,6 + 384,65 = 1223,25 → 1223
+        assertEquals(1223, lignes.montantRembourseCentimes());
+        assertThrows(IllegalArgumentException.class, () -> lignes.ajouter(doliprane, 1, 120.0));
+
+        doliprane.setPrix(9.99);
+        assertEquals(2297, lignes.montantTotalCentimes());
+        LignesMedicaments recomposees = lignes.recomposer(Arrays.asList(doliprane), Map.of(doliprane, 1), 0.0);
+        assertEquals(599, recomposees.getPrixUnitaireCentimes(0));
+        assertEquals(70.0, recomposees.getTauxRemboursement(0), 0.0001);
+
+        lignes.figer();
+        assertTrue(lignes.estFigees());
+        assertThrows(IllegalStateException.class, () -> lignes.ajouter(amoxicilline, 2));
+        assertThrows(IllegalStateException.class, () -> lignes.retirer(doliprane));
+        assertThrows(IllegalStateException.class, () -> lignes.recomposer(null, null, 0.0));
+    }
+
+    @Test
+    public void testTotauxIncrementauxSurCentLignes() {
+        LignesMedicaments lignes = new LignesMedicaments();
+        List<Medicament> medicaments = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Medicament m = new Medicament("Hopital-" + i, CategorieMedicament.ANALGESIQUES, 1.00 + i, 100, dateMiseEnService, datePeremption);
+            medicaments.add(m);
+            lignes.ajouter(m, 2, i % 2 == 0 ? 65.0 : 30.0);
+        }
+        // Remplacement d'une ligne et retraits au milieu : les totaux suivent par différence
+        lignes.ajouter(medicaments.get(10), 5, 65.0);
+        lignes.retirer(medicaments.get(50));
+        lignes.retirer(medicaments.get(0));
+        assertEquals(98, lignes.taille());
+
+        long total = 0;
+        long produits = 0;
+        for (int i = 0; i < lignes.taille(); i++) {
+            long montant = lignes.getPrixUnitaireCentimes(i) * lignes.getQuantite(i);
+            total += montant;
+            produits += montant * Math.round(lignes.getTauxRemboursement(i) * 100);
+        }
+        assertEquals(total, lignes.montantTotalCentimes());
+        assertEquals(Math.floorDiv(produits + 5_000, 10_000), lignes.montantRembourseCentimes());
+        assertSame(medicaments.get(99), lignes.getMedicament(97));
+        assertEquals(5, lignes.getQuantite(9));
+    }
+}
@@ -0,0 +1,31 @@
+package test.model;
+
+import main.model.Transaction.Montant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MontantTest {
+
+    @Test
+    public void testConversions() {
+        assertEquals(5990, Montant.depuisEuros(59.900000000000006));
+        assertEquals(1797, Montant.depuisEuros(5.99 * 3));
+        assertEquals(59.9, Montant.enEuros(5990), 0.0);
+        assertEquals("59.90", Montant.formater(5990));
+        assertEquals("-0.05", Montant.formater(-5));
+    }
+
+    @Test
+    public void testCalculsExacts() {
+        long total = 0;
+        for (int i = 0; i < 10; i++) {
+            total += Montant.depuisEuros(0.1);
+        }
+        assertEquals(100, total);
+        assertEquals(1797, Montant.fois(599, 3));
+        assertEquals(1608, Montant.appliquerTaux(2297, 70.0));
+        assertEquals(0, Montant.appliquerTaux(2297, 0.0));
+        assertThrows(ArithmeticException.class, () -> Montant.fois(Long.MAX_VALUE / 2, 3));
+    }
+}